@@ -25,7 +25,10 @@ import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
 
+import io.fabric8.launcher.core.spi.DirectoryReaper;
 import org.yaml.snakeyaml.Yaml;
 
 /**
@@ -35,6 +38,9 @@ import org.yaml.snakeyaml.Yaml;
 public class JenkinsPipelineRegistry {
     private Set<JenkinsPipeline> pipelines = Collections.emptySet();
 
+    @Inject
+    private Instance<DirectoryReaper> reaper;
+
     private static final Logger log = Logger.getLogger(JenkinsPipelineRegistry.class.getName());
 
     /**
@@ -66,7 +72,10 @@ public class JenkinsPipelineRegistry {
     }
 
     private Path resolvePipelinesPath() throws IOException {
-        Path targetPath = Files.createTempDirectory("pipeline-library");
+        // The pipeline library lives as long as the application
+        Path targetPath = reaper != null && !reaper.isUnsatisfied() ?
+                reaper.get().createCacheDirectory("pipeline-library") :
+                Files.createTempDirectory("pipeline-library");
         try (InputStream is = getClass().getResourceAsStream("/jenkinsfiles.zip")) {
             io.fabric8.launcher.base.Paths.unzip(is, targetPath);
         }
@@ -47,6 +47,7 @@ public class InsertMavenDependenciesPreparer implements ProjectilePreparer {
                         model.addDependency(dep);
                     }
                 }
+                beforeWrite(pom);
                 Maven.writeModel(model);
             } catch (Exception e) {
                 log.log(Level.SEVERE, "An exception occurred while adding the dependencies. ", e);
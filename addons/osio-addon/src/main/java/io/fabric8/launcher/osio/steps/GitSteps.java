@@ -16,6 +16,7 @@ import javax.inject.Inject;
 
 import io.fabric8.launcher.core.api.events.LauncherStatusEventKind;
 import io.fabric8.launcher.core.api.events.StatusMessageEvent;
+import io.fabric8.launcher.core.spi.DirectoryReaper;
 import io.fabric8.launcher.osio.projectiles.OsioLaunchProjectile;
 import io.fabric8.launcher.osio.projectiles.OsioProjectile;
 import io.fabric8.launcher.osio.projectiles.context.OsioImportProjectileContext;
@@ -24,6 +25,7 @@ import io.fabric8.launcher.service.git.api.GitRepository;
 import io.fabric8.launcher.service.git.api.GitService;
 import io.fabric8.launcher.service.git.api.ImmutableGitOrganization;
 
+import static io.fabric8.launcher.base.Paths.breakLink;
 import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.GITHUB_CREATE;
 import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.GITHUB_PUSHED;
 import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.GITHUB_WEBHOOK;
@@ -41,10 +43,13 @@ public class GitSteps {
     @Inject
     private GitService gitService;
 
+    @Inject
+    private DirectoryReaper reaper;
+
     public Path clone(OsioImportProjectileContext context) {
         GitRepository repository = findRepository(context.getGitOrganization(), context.getGitRepository());
         try {
-            Path imported = Files.createTempDirectory("imported");
+            Path imported = reaper.createTempDirectory("imported");
             return gitService.clone(repository, imported);
         } catch (IOException e) {
             throw new UncheckedIOException("Error while creating temp directory", e);
@@ -75,7 +80,7 @@ public class GitSteps {
                 try {
                     String content = new String(Files.readAllBytes(readmeAdocPath));
                     String newContent = content.replace("${loggedUser}", gitService.getLoggedUser().getLogin());
-                    Files.write(readmeAdocPath, newContent.getBytes());
+                    Files.write(breakLink(readmeAdocPath), newContent.getBytes());
                 } catch (IOException e) {
                     log.log(Level.SEVERE, "Error while replacing README.adoc variables", e);
                 }
@@ -35,6 +35,16 @@ public interface EnvironmentEnum {
         return getBooleanEnvVarOrSysProp(propertyKey(), defaultValue);
     }
 
+    default int intValue(int defaultValue) {
+        String value = value();
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    default long longValue(long defaultValue) {
+        String value = value();
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
     default boolean isSet() {
         return value() != null;
     }
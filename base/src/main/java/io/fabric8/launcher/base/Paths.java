@@ -17,18 +17,25 @@ package io.fabric8.launcher.base;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
+import io.fabric8.launcher.base.zip.ZipLimitExceededException;
+import io.fabric8.launcher.base.zip.ZipLimits;
+
 /**
  * {@link Path} related operations
  *
@@ -48,9 +55,28 @@ public final class Paths {
      * @throws IOException when we could not read the file
      */
     public static void unzip(InputStream is, Path outputDir) throws IOException {
-        try (ZipInputStream zis = new ZipInputStream(is)) {
+        unzip(is, outputDir, ZipLimits.UNLIMITED);
+    }
+
+    /**
+     * Unzip a zip file into a temporary location, failing as soon as the given limits are exceeded
+     *
+     * @param is        the zip file contents to be unzipped
+     * @param outputDir the output directory
+     * @param limits    the limits to enforce while reading
+     * @return the number of uncompressed bytes written
+     * @throws ZipLimitExceededException when the archive exceeds the limits
+     * @throws IOException               when we could not read the file
+     */
+    public static long unzip(InputStream is, Path outputDir, ZipLimits limits) throws IOException {
+        CountingInputStream compressed = new CountingInputStream(is);
+        long uncompressedBytes = 0;
+        int entries = 0;
+        byte[] buffer = new byte[8192];
+        try (ZipInputStream zis = new ZipInputStream(compressed)) {
             ZipEntry zipEntry;
             while ((zipEntry = zis.getNextEntry()) != null) {
+                limits.checkEntries(++entries);
                 Path entry = outputDir.resolve(zipEntry.getName()).normalize();
                 if (!entry.startsWith(outputDir)) {
                     throw new IOException("Entry is outside of the target dir: " + zipEntry.getName());
@@ -58,11 +84,19 @@ public final class Paths {
                 if (zipEntry.isDirectory()) {
                     Files.createDirectories(entry);
                 } else {
-                    Files.copy(zis, entry);
+                    try (OutputStream os = Files.newOutputStream(entry, StandardOpenOption.CREATE_NEW)) {
+                        int read;
+                        while ((read = zis.read(buffer)) != -1) {
+                            uncompressedBytes += read;
+                            limits.checkBytes(uncompressedBytes, compressed.getCount());
+                            os.write(buffer, 0, read);
+                        }
+                    }
                 }
                 zis.closeEntry();
             }
         }
+        return uncompressedBytes;
     }
 
     /**
@@ -131,4 +165,81 @@ public final class Paths {
             }
         });
     }
+
+    /**
+     * Replaces a hard linked file with a private copy of its contents, so it can be rewritten in place
+     * without changing the other links (eg. the booster catalog clone the file was linked from).
+     * The copy is writable by its owner even if the linked file was read-only.
+     * Does nothing if the file does not exist or is not shared.
+     *
+     * @param file the file about to be written
+     * @return the given file
+     * @throws IOException if the file could not be copied
+     */
+    public static Path breakLink(Path file) throws IOException {
+        if (linkCount(file) > 1) {
+            Path copy = Files.createTempFile(file.toAbsolutePath().getParent(), ".link", ".tmp");
+            try {
+                Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                copy.toFile().setWritable(true, true);
+                Files.move(copy, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(copy);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * @param file the file to inspect
+     * @return the number of hard links to the given file, 1 if the file system does not report it or 0 if the file does not exist
+     */
+    public static int linkCount(Path file) throws IOException {
+        if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+            return 0;
+        }
+        try {
+            return ((Number) Files.getAttribute(file, "unix:nlink", LinkOption.NOFOLLOW_LINKS)).intValue();
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            return 1;
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
 }
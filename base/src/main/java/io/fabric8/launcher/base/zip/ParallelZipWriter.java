@@ -0,0 +1,178 @@
+package io.fabric8.launcher.base.zip;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.Deflater;
+
+import io.fabric8.launcher.base.Paths;
+
+/**
+ * Zips a directory compressing the files concurrently on a {@link ForkJoinPool}.
+ *
+ * Each file is deflated into its own buffer by a pool thread, while the calling thread writes the finished buffers
+ * in the same order and with the same entry names as {@link Paths#zip(String, Path, OutputStream)}. Only a bounded
+ * number of files is compressed ahead of the writer. {@link ZipTemplate}s are built the same way. Directories
+ * smaller than the serial threshold are zipped with {@link Paths#zip(String, Path, OutputStream)} (or
+ * precompressed with {@link ZipTemplate#of(Path)}), as splitting them is not worth it. So are the directories too
+ * large to be zipped without zip64 (more than 65535 entries or 4GB).
+ *
+ * The pool should be dedicated to compression, not the common pool: the callers block until the files are compressed.
+ */
+public final class ParallelZipWriter {
+
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+
+    private final ForkJoinPool pool;
+
+    private final long serialThreshold;
+
+    private final int window;
+
+    /**
+     * @param pool            the pool compressing the files
+     * @param serialThreshold the total size in bytes under which directories are zipped serially
+     */
+    public ParallelZipWriter(ForkJoinPool pool, long serialThreshold) {
+        this.pool = pool;
+        this.serialThreshold = serialThreshold;
+        this.window = pool.getParallelism() * 4;
+    }
+
+    /**
+     * Zips an entire directory and stores in the provided {@link OutputStream}
+     *
+     * @param root      the root directory to be used
+     * @param directory the directory to be zipped
+     * @param os        the {@link OutputStream} which the zip operation will be written to
+     * @throws IOException if any I/O error happens
+     */
+    public void zip(String root, Path directory, OutputStream os) throws IOException {
+        List<Item> items = new ArrayList<>();
+        long[] totalSize = new long[1];
+        long[] nameSize = new long[1];
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                add(new Item(root + File.separator + directory.relativize(file).toString(), file));
+                totalSize[0] += attrs.size();
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                add(new Item(root + File.separator + directory.relativize(dir).toString() + File.separator, null));
+                return FileVisitResult.CONTINUE;
+            }
+
+            private void add(Item item) {
+                items.add(item);
+                nameSize[0] += item.name.getBytes(StandardCharsets.UTF_8).length;
+            }
+        });
+        if (totalSize[0] < serialThreshold || !ZipEntryWriter.fits(items.size(), totalSize[0], nameSize[0])) {
+            Paths.zip(root, directory, os);
+            return;
+        }
+        Deque<ForkJoinTask<ZipTemplate.Entry>> pending = new ArrayDeque<>();
+        int next = 0;
+        try (ZipEntryWriter writer = new ZipEntryWriter(os)) {
+            for (Item item : items) {
+                // Keep the pool busy with the files following the one being written
+                while (next < items.size() && pending.size() < window) {
+                    Item ahead = items.get(next++);
+                    if (ahead.file != null) {
+                        pending.add(pool.submit(() -> compress(ahead.file)));
+                    }
+                }
+                if (item.file == null) {
+                    writer.putDirectory(item.name);
+                } else {
+                    ZipTemplate.Entry compressed = join(pending.removeFirst());
+                    writer.putRawEntry(item.name, ZipTemplate.DEFLATED, compressed.crc, compressed.size, compressed.data);
+                }
+            }
+        } finally {
+            for (ForkJoinTask<ZipTemplate.Entry> task : pending) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Precompresses a directory like {@link ZipTemplate#of(Path)}, compressing its files concurrently
+     *
+     * @param directory the directory to be compressed
+     * @return the {@link ZipTemplate} for this directory
+     * @throws IOException if any I/O error happens
+     */
+    public ZipTemplate template(Path directory) throws IOException {
+        List<Path> files = ZipTemplate.files(directory);
+        long totalSize = 0;
+        for (Path file : files) {
+            totalSize += Files.size(file);
+        }
+        if (totalSize < serialThreshold) {
+            return ZipTemplate.of(directory);
+        }
+        // The template keeps every file anyway, so all of them are compressed at once
+        List<ForkJoinTask<ZipTemplate.Entry>> tasks = new ArrayList<>(files.size());
+        try {
+            for (Path file : files) {
+                tasks.add(pool.submit(() -> compress(file)));
+            }
+            Map<String, ZipTemplate.Entry> entries = new HashMap<>();
+            for (int i = 0; i < files.size(); i++) {
+                entries.put(directory.relativize(files.get(i)).toString(), join(tasks.get(i)));
+            }
+            return new ZipTemplate(Collections.unmodifiableMap(entries));
+        } finally {
+            for (ForkJoinTask<ZipTemplate.Entry> task : tasks) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    private static ZipTemplate.Entry compress(Path file) {
+        try {
+            return ZipTemplate.Entry.compress(file, DEFLATERS.get());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ZipTemplate.Entry join(ForkJoinTask<ZipTemplate.Entry> task) throws IOException {
+        try {
+            return task.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class Item {
+        private final String name;
+
+        private final Path file;
+
+        private Item(String name, Path file) {
+            this.name = name;
+            this.file = file;
+        }
+    }
+}
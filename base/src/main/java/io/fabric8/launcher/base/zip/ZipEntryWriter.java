@@ -0,0 +1,193 @@
+package io.fabric8.launcher.base.zip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+/**
+ * Minimal zip writer that accepts entries which are already deflated.
+ *
+ * {@link java.util.zip.ZipOutputStream} always compresses the bytes it is given, so it cannot copy an entry
+ * verbatim from another archive. This writer knows the sizes and CRC of every entry upfront and therefore
+ * writes them in the local header, without data descriptors. Zip64 is not supported: callers check that an
+ * archive {@link #fits(long, long, long) fits} first and zip larger ones with {@link java.util.zip.ZipOutputStream}.
+ */
+final class ZipEntryWriter implements Closeable {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+
+    private static final int VERSION = 20;
+
+    // Entry names are always encoded as UTF-8
+    private static final int FLAGS = 0x0800;
+
+    private static final long MAX_SIZE = 0xFFFFFFFFL;
+
+    private static final int MAX_ENTRIES = 0xFFFF;
+
+    // The local and central headers of an entry, without its name
+    private static final int HEADERS_SIZE = 30 + 46;
+
+    private final OutputStream out;
+
+    private final ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+
+    private final int dosTime;
+
+    private final int dosDate;
+
+    private long offset;
+
+    private int entries;
+
+    ZipEntryWriter(OutputStream out) {
+        this.out = out;
+        LocalDateTime now = LocalDateTime.now();
+        this.dosTime = (now.getHour() << 11) | (now.getMinute() << 5) | (now.getSecond() >> 1);
+        this.dosDate = ((now.getYear() - 1980) << 9) | (now.getMonthValue() << 5) | now.getDayOfMonth();
+    }
+
+    /**
+     * Tells whether an archive can be written without zip64, assuming its files do not shrink when deflated
+     *
+     * @param entries      the number of files and directories
+     * @param contentBytes the total size of the files
+     * @param nameBytes    the total size of the entry names, encoded as UTF-8
+     * @return true if the archive can be written by this writer
+     */
+    static boolean fits(long entries, long contentBytes, long nameBytes) {
+        // Deflating incompressible data adds 5 bytes per stored block of at most 16K, and a few bytes per entry
+        long deflateBound = contentBytes + (contentBytes >> 12) + 16 * entries;
+        return entries < MAX_ENTRIES && deflateBound + HEADERS_SIZE * entries + 2 * nameBytes + 22 <= MAX_SIZE;
+    }
+
+    /**
+     * Writes a directory entry. The name must end with a separator
+     */
+    void putDirectory(String name) throws IOException {
+        putEntry(name, ZipTemplate.STORED, 0, 0, new byte[0], 0);
+    }
+
+    /**
+     * Writes an entry whose contents were already compressed with the given method
+     */
+    void putRawEntry(String name, int method, long crc, long size, byte[] data) throws IOException {
+        putEntry(name, method, crc, size, data, data.length);
+    }
+
+    /**
+     * Deflates the given contents and writes them as a new entry
+     */
+    void putEntry(String name, byte[] contents, Deflater deflater) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(contents);
+        putRawEntry(name, ZipTemplate.DEFLATED, crc.getValue(), contents.length, deflate(contents, deflater));
+    }
+
+    /**
+     * Compresses the given contents as raw deflate data, suitable to be stored in a zip entry
+     */
+    static byte[] deflate(byte[] contents, Deflater deflater) {
+        deflater.reset();
+        deflater.setInput(contents);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, contents.length / 2));
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            int count = deflater.deflate(buffer);
+            compressed.write(buffer, 0, count);
+        }
+        return compressed.toByteArray();
+    }
+
+    private void putEntry(String name, int method, long crc, long size, byte[] data, int compressedSize) throws IOException {
+        if (entries == MAX_ENTRIES || offset > MAX_SIZE || size > MAX_SIZE) {
+            throw new ZipException("Archive too large, zip64 is not supported: " + name);
+        }
+        byte[] encodedName = name.getBytes(StandardCharsets.UTF_8);
+        int version = method == ZipTemplate.DEFLATED ? VERSION : 10;
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream(30 + encodedName.length);
+        writeInt(header, LOCAL_HEADER_SIGNATURE);
+        writeShort(header, version);
+        writeShort(header, FLAGS);
+        writeShort(header, method);
+        writeShort(header, dosTime);
+        writeShort(header, dosDate);
+        writeInt(header, crc);
+        writeInt(header, compressedSize);
+        writeInt(header, size);
+        writeShort(header, encodedName.length);
+        writeShort(header, 0);
+        header.write(encodedName);
+
+        writeInt(centralDirectory, CENTRAL_HEADER_SIGNATURE);
+        writeShort(centralDirectory, VERSION);
+        writeShort(centralDirectory, version);
+        writeShort(centralDirectory, FLAGS);
+        writeShort(centralDirectory, method);
+        writeShort(centralDirectory, dosTime);
+        writeShort(centralDirectory, dosDate);
+        writeInt(centralDirectory, crc);
+        writeInt(centralDirectory, compressedSize);
+        writeInt(centralDirectory, size);
+        writeShort(centralDirectory, encodedName.length);
+        // Extra field, comment, disk number, internal and external attributes
+        writeShort(centralDirectory, 0);
+        writeShort(centralDirectory, 0);
+        writeShort(centralDirectory, 0);
+        writeShort(centralDirectory, 0);
+        writeInt(centralDirectory, 0);
+        writeInt(centralDirectory, offset);
+        centralDirectory.write(encodedName);
+
+        header.writeTo(out);
+        out.write(data, 0, compressedSize);
+        offset += header.size() + compressedSize;
+        entries++;
+    }
+
+    /**
+     * Writes the central directory. Does not close the underlying stream
+     */
+    @Override
+    public void close() throws IOException {
+        if (offset > MAX_SIZE) {
+            throw new ZipException("Archive too large, zip64 is not supported");
+        }
+        ByteArrayOutputStream end = new ByteArrayOutputStream(22);
+        writeInt(end, END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+        writeShort(end, 0);
+        writeShort(end, 0);
+        writeShort(end, entries);
+        writeShort(end, entries);
+        writeInt(end, centralDirectory.size());
+        writeInt(end, offset);
+        writeShort(end, 0);
+        centralDirectory.writeTo(out);
+        end.writeTo(out);
+        out.flush();
+    }
+
+    private static void writeShort(ByteArrayOutputStream os, int value) {
+        os.write(value & 0xFF);
+        os.write((value >>> 8) & 0xFF);
+    }
+
+    private static void writeInt(ByteArrayOutputStream os, long value) {
+        os.write((int) (value & 0xFF));
+        os.write((int) ((value >>> 8) & 0xFF));
+        os.write((int) ((value >>> 16) & 0xFF));
+        os.write((int) ((value >>> 24) & 0xFF));
+    }
+}
@@ -0,0 +1,15 @@
+package io.fabric8.launcher.base.zip;
+
+import java.io.IOException;
+
+/**
+ * Thrown when an archive being extracted exceeds its {@link ZipLimits}
+ */
+public class ZipLimitExceededException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ZipLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,68 @@
+package io.fabric8.launcher.base.zip;
+
+/**
+ * Limits enforced while extracting an untrusted zip archive
+ */
+public final class ZipLimits {
+
+    /**
+     * No limits at all
+     */
+    public static final ZipLimits UNLIMITED = new ZipLimits(Long.MAX_VALUE, Integer.MAX_VALUE, Double.MAX_VALUE);
+
+    // Small archives are not checked for their ratio, a few highly compressible files are common
+    private static final long RATIO_MIN_BYTES = 1024 * 1024;
+
+    private final long maxBytes;
+
+    private final int maxEntries;
+
+    private final double maxRatio;
+
+    /**
+     * @param maxBytes   the maximum number of uncompressed bytes
+     * @param maxEntries the maximum number of entries, including directories
+     * @param maxRatio   the maximum ratio between uncompressed and compressed bytes
+     */
+    public ZipLimits(long maxBytes, int maxEntries, double maxRatio) {
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+        this.maxRatio = maxRatio;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public double getMaxRatio() {
+        return maxRatio;
+    }
+
+    /**
+     * @param entries the number of entries read so far
+     * @throws ZipLimitExceededException if there are too many entries
+     */
+    public void checkEntries(int entries) throws ZipLimitExceededException {
+        if (entries > maxEntries) {
+            throw new ZipLimitExceededException("Archive has more than " + maxEntries + " entries");
+        }
+    }
+
+    /**
+     * @param uncompressedBytes the number of bytes extracted so far
+     * @param compressedBytes   the number of bytes read from the archive so far
+     * @throws ZipLimitExceededException if the archive is too large or too compressed
+     */
+    public void checkBytes(long uncompressedBytes, long compressedBytes) throws ZipLimitExceededException {
+        if (uncompressedBytes > maxBytes) {
+            throw new ZipLimitExceededException("Archive expands to more than " + maxBytes + " bytes");
+        }
+        if (uncompressedBytes > RATIO_MIN_BYTES && uncompressedBytes > maxRatio * Math.max(compressedBytes, 1)) {
+            throw new ZipLimitExceededException("Archive compression ratio exceeds " + maxRatio);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package io.fabric8.launcher.base.zip;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import io.fabric8.launcher.base.Paths;
+
+/**
+ * The precompressed contents of a directory, used to zip copies of that directory without deflating again
+ * the files that were not changed.
+ *
+ * {@link #writeTo(String, Path, OutputStream)} produces the same entries as
+ * {@link Paths#zip(String, Path, OutputStream)}: files whose size and CRC match the
+ * template are copied as already deflated bytes, the others (eg. the files rewritten by the preparers) are
+ * deflated on the fly. Use {@link ParallelZipWriter#template(Path)} to build the template concurrently.
+ * Directories too large to be zipped without zip64 are zipped by {@link Paths#zip(String, Path, OutputStream)}
+ * instead, without reusing the template.
+ */
+public final class ZipTemplate {
+
+    static final int STORED = 0;
+
+    static final int DEFLATED = 8;
+
+    private static final String GIT_DIRECTORY = ".git";
+
+    private final Map<String, Entry> entries;
+
+    private final long compressedSize;
+
+    ZipTemplate(Map<String, Entry> entries) {
+        this.entries = entries;
+        this.compressedSize = entries.values().stream().mapToLong(e -> e.data.length).sum();
+    }
+
+    /**
+     * Deflates every file in the given directory, ignoring the .git directory
+     *
+     * @param directory the directory to be compressed
+     * @return the {@link ZipTemplate} for this directory
+     * @throws IOException if any I/O error happens
+     */
+    public static ZipTemplate of(Path directory) throws IOException {
+        Map<String, Entry> entries = new HashMap<>();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            for (Path file : files(directory)) {
+                entries.put(directory.relativize(file).toString(), Entry.compress(file, deflater));
+            }
+        } finally {
+            deflater.end();
+        }
+        return new ZipTemplate(Collections.unmodifiableMap(entries));
+    }
+
+    /**
+     * @return the files of the given directory which are precompressed, ie. not in the .git directory
+     */
+    static List<Path> files(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (GIT_DIRECTORY.equals(String.valueOf(dir.getFileName())) && !dir.equals(directory)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                files.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return files;
+    }
+
+    /**
+     * Zips the given directory, reusing the precompressed entries of this template when the file contents are unchanged
+     *
+     * @param root      the root directory to be used
+     * @param directory the directory to be zipped
+     * @param os        the {@link OutputStream} which the zip operation will be written to
+     * @return the number of entries copied from this template
+     * @throws IOException if any I/O error happens
+     */
+    public int writeTo(String root, Path directory, OutputStream os) throws IOException {
+        if (!fits(root, directory)) {
+            Paths.zip(root, directory, os);
+            return 0;
+        }
+        int[] reused = new int[1];
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try (ZipEntryWriter writer = new ZipEntryWriter(os)) {
+            Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    String relativePath = directory.relativize(file).toString();
+                    String name = root + File.separator + relativePath;
+                    byte[] contents = Files.readAllBytes(file);
+                    Entry entry = entries.get(relativePath);
+                    if (entry != null && entry.size == contents.length && entry.crc == crc(contents)) {
+                        writer.putRawEntry(name, DEFLATED, entry.crc, entry.size, entry.data);
+                        reused[0]++;
+                    } else {
+                        writer.putEntry(name, contents, deflater);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    writer.putDirectory(root + File.separator + directory.relativize(dir).toString() + File.separator);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } finally {
+            deflater.end();
+        }
+        return reused[0];
+    }
+
+    /**
+     * @return true if the given directory can be zipped without zip64
+     */
+    private static boolean fits(String root, Path directory) throws IOException {
+        long[] counts = new long[3];
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                add(directory.relativize(file).toString(), attrs.size());
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                add(directory.relativize(dir).toString() + File.separator, 0);
+                return FileVisitResult.CONTINUE;
+            }
+
+            private void add(String relativePath, long size) {
+                counts[0]++;
+                counts[1] += size;
+                counts[2] += (root + File.separator + relativePath).getBytes(StandardCharsets.UTF_8).length;
+            }
+        });
+        return ZipEntryWriter.fits(counts[0], counts[1], counts[2]);
+    }
+
+    /**
+     * @return the number of precompressed files
+     */
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return the total size of the precompressed files, in bytes
+     */
+    public long getCompressedSize() {
+        return compressedSize;
+    }
+
+    private static long crc(byte[] contents) {
+        CRC32 crc = new CRC32();
+        crc.update(contents);
+        return crc.getValue();
+    }
+
+    static final class Entry {
+        final long crc;
+
+        final long size;
+
+        final byte[] data;
+
+        private Entry(long crc, long size, byte[] data) {
+            this.crc = crc;
+            this.size = size;
+            this.data = data;
+        }
+
+        /**
+         * Reads and deflates the given file
+         */
+        static Entry compress(Path file, Deflater deflater) throws IOException {
+            byte[] contents = Files.readAllBytes(file);
+            return new Entry(crc(contents), contents.length, ZipEntryWriter.deflate(contents, deflater));
+        }
+    }
+}
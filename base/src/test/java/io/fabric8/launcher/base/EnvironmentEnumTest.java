@@ -39,10 +39,26 @@ public class EnvironmentEnumTest {
         assertThat(TestEnum.FOO.booleanValue(true)).isTrue();
     }
 
+    @Test
+    public void should_test_int_value_default_value() {
+        assertThat(TestEnum.FOO.intValue(42)).isEqualTo(42);
+    }
+
+    @Test
+    public void should_test_long_value() {
+        System.setProperty("launcher.test.long", " 1024 ");
+        try {
+            assertThat(TestEnum.LONG_VALUE.longValue(0L)).isEqualTo(1024L);
+        } finally {
+            System.clearProperty("launcher.test.long");
+        }
+    }
+
     private enum TestEnum implements EnvironmentEnum {
         HOSTNAME,
         FOO,
-        JAVA_VERSION("java.version");
+        JAVA_VERSION("java.version"),
+        LONG_VALUE("launcher.test.long");
 
         private final String propertyKey;
 
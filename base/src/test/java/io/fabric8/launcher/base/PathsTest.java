@@ -4,7 +4,10 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
 
+import io.fabric8.launcher.base.zip.ZipLimitExceededException;
+import io.fabric8.launcher.base.zip.ZipLimits;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -55,5 +58,69 @@ public class PathsTest {
         assertThat(tempDirectory).exists();
     }
 
+    @Test
+    public void unzip_should_fail_when_too_many_entries() throws IOException {
+        Path tempDir = temporaryFolder.newFolder().toPath();
+        Files.write(tempDir.resolve("a.txt"), new byte[]{1});
+        Files.write(tempDir.resolve("b.txt"), new byte[]{2});
+        byte[] zip = Paths.zip("foobar", tempDir);
+        Path outputDir = temporaryFolder.newFolder().toPath();
+        assertThatExceptionOfType(ZipLimitExceededException.class)
+                .isThrownBy(() -> Paths.unzip(new ByteArrayInputStream(zip), outputDir, new ZipLimits(Long.MAX_VALUE, 2, 100)));
+    }
+
+    @Test
+    public void unzip_should_fail_when_too_large() throws IOException {
+        Path tempDir = temporaryFolder.newFolder().toPath();
+        Files.write(tempDir.resolve("a.txt"), new byte[2048]);
+        byte[] zip = Paths.zip("foobar", tempDir);
+        Path outputDir = temporaryFolder.newFolder().toPath();
+        assertThatExceptionOfType(ZipLimitExceededException.class)
+                .isThrownBy(() -> Paths.unzip(new ByteArrayInputStream(zip), outputDir, new ZipLimits(1024, 100, Double.MAX_VALUE)));
+    }
+
+    @Test
+    public void unzip_should_fail_on_zip_bomb() throws IOException {
+        Path tempDir = temporaryFolder.newFolder().toPath();
+        Files.write(tempDir.resolve("zeros"), new byte[4 * 1024 * 1024]);
+        byte[] zip = Paths.zip("foobar", tempDir);
+        Path outputDir = temporaryFolder.newFolder().toPath();
+        assertThatExceptionOfType(ZipLimitExceededException.class)
+                .isThrownBy(() -> Paths.unzip(new ByteArrayInputStream(zip), outputDir, new ZipLimits(Long.MAX_VALUE, 100, 100)));
+    }
 
-}
\ No newline at end of file
+    @Test
+    public void unzip_should_return_uncompressed_size() throws IOException {
+        Path tempDir = temporaryFolder.newFolder().toPath();
+        Files.write(tempDir.resolve("a.txt"), new byte[2048]);
+        byte[] zip = Paths.zip("foobar", tempDir);
+        Path outputDir = temporaryFolder.newFolder().toPath();
+        assertThat(Paths.unzip(new ByteArrayInputStream(zip), outputDir, new ZipLimits(4096, 100, 100))).isEqualTo(2048);
+    }
+
+    @Test
+    public void breakLink_should_leave_the_original_untouched() throws IOException {
+        Path original = temporaryFolder.newFile("original.txt").toPath();
+        Files.write(original, "original".getBytes());
+        Path link = Files.createLink(temporaryFolder.getRoot().toPath().resolve("link.txt"), original);
+        assertThat(Paths.linkCount(link)).isGreaterThanOrEqualTo(1);
+        Files.write(Paths.breakLink(link), "changed".getBytes());
+        assertThat(original).hasContent("original");
+        assertThat(link).hasContent("changed");
+    }
+
+    @Test
+    public void breakLink_should_make_a_read_only_link_writable() throws IOException {
+        Path original = temporaryFolder.newFile("read-only.txt").toPath();
+        assertThat(original.toFile().setWritable(false, false)).isTrue();
+        Path link = Files.createLink(temporaryFolder.getRoot().toPath().resolve("read-only-link.txt"), original);
+        assertThat(Files.getPosixFilePermissions(Paths.breakLink(link))).contains(PosixFilePermission.OWNER_WRITE);
+        assertThat(Files.getPosixFilePermissions(original)).doesNotContain(PosixFilePermission.OWNER_WRITE);
+    }
+
+    @Test
+    public void breakLink_should_ignore_missing_files() throws IOException {
+        Path missing = temporaryFolder.getRoot().toPath().resolve("missing.txt");
+        assertThat(Paths.breakLink(missing)).doesNotExist();
+    }
+}
@@ -0,0 +1,119 @@
+package io.fabric8.launcher.base.zip;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import io.fabric8.launcher.base.Paths;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParallelZipWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @After
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void shouldProduceSameEntriesAsPathsZip() throws IOException {
+        // GIVEN
+        Path project = createProject(50);
+        ParallelZipWriter writer = new ParallelZipWriter(pool, 0);
+
+        // WHEN
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writer.zip("demo", project, baos);
+
+        // THEN
+        assertThat(entriesOf(baos.toByteArray())).isEqualTo(entriesOf(Paths.zip("demo", project)));
+        Path archive = temporaryFolder.newFile().toPath();
+        Files.write(archive, baos.toByteArray());
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            assertThat(zipFile.getEntry("demo/module-7/src/File7.java")).isNotNull();
+        }
+    }
+
+    @Test
+    public void shouldStaySerialBelowThreshold() throws IOException {
+        // GIVEN
+        Path project = createProject(2);
+        ParallelZipWriter writer = new ParallelZipWriter(pool, Long.MAX_VALUE);
+
+        // WHEN
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writer.zip("demo", project, baos);
+
+        // THEN
+        assertThat(entriesOf(baos.toByteArray())).isEqualTo(entriesOf(Paths.zip("demo", project)));
+    }
+
+    @Test
+    public void shouldBuildTheSameTemplateAsZipTemplate() throws IOException {
+        // GIVEN
+        Path project = createProject(50);
+        Files.createDirectories(project.resolve(".git"));
+        Files.write(project.resolve(".git/HEAD"), "ref: refs/heads/master".getBytes(StandardCharsets.UTF_8));
+        ParallelZipWriter writer = new ParallelZipWriter(pool, 0);
+
+        // WHEN
+        ZipTemplate template = writer.template(project);
+
+        // THEN
+        ZipTemplate serial = ZipTemplate.of(project);
+        assertThat(template.getEntryCount()).isEqualTo(serial.getEntryCount());
+        assertThat(template.getCompressedSize()).isEqualTo(serial.getCompressedSize());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        assertThat(template.writeTo("demo", project, baos)).isEqualTo(serial.getEntryCount());
+        assertThat(entriesOf(baos.toByteArray())).isEqualTo(entriesOf(Paths.zip("demo", project)));
+    }
+
+    private Path createProject(int modules) throws IOException {
+        Path project = temporaryFolder.newFolder().toPath();
+        Files.write(project.resolve("pom.xml"), "<project/>".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < modules; i++) {
+            Path src = Files.createDirectories(project.resolve("module-" + i + "/src"));
+            StringBuilder contents = new StringBuilder();
+            for (int j = 0; j < 100 * i; j++) {
+                contents.append("class File").append(i).append(" { int field").append(j).append("; }\n");
+            }
+            Files.write(src.resolve("File" + i + ".java"), contents.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return project;
+    }
+
+    private static Map<String, String> entriesOf(byte[] zip) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                ByteArrayOutputStream contents = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = zis.read(buffer)) != -1) {
+                    contents.write(buffer, 0, read);
+                }
+                entries.put(entry.getName(), new String(contents.toByteArray(), StandardCharsets.ISO_8859_1));
+            }
+        }
+        return entries;
+    }
+}
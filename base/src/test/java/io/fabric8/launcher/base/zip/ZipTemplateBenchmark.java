@@ -0,0 +1,97 @@
+package io.fabric8.launcher.base.zip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.launcher.base.Paths;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Compares the memory allocated and the time spent zipping a prepared project with {@link Paths#zip(String, Path, java.io.OutputStream)}
+ * against splicing the entries of a {@link ZipTemplate}, and tells how many zips it takes to pay for building the template.
+ *
+ * Not picked up by the default surefire includes, run it with
+ * {@code mvn test -Dtest=ZipTemplateBenchmark}
+ */
+public class ZipTemplateBenchmark {
+
+    // Number of files, each about 8 KB of source code
+    private static final int[] SIZES = {50, 500};
+
+    private static final int ITERATIONS = 20;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void compareZipping() throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int size : SIZES) {
+            Path booster = createBooster(size);
+            Measure build = measure(threads, () -> ZipTemplate.of(booster));
+            ZipTemplate template = ZipTemplate.of(booster);
+            // What the preparers usually change
+            Files.write(booster.resolve("pom.xml"), "<project>prepared</project>".getBytes(StandardCharsets.UTF_8));
+            Measure deflating = measure(threads, () -> Paths.zip("demo", booster, new ByteArrayOutputStream()));
+            Measure splicing = measure(threads, () -> template.writeTo("demo", booster, new ByteArrayOutputStream()));
+            long saved = deflating.micros - splicing.micros;
+            System.out.printf("%4d files: Paths.zip %,12d bytes %7d us/zip, template %,12d bytes %7d us/zip, " +
+                                      "template built in %7d us (%,d bytes), paid off after %s zips%n",
+                              size, deflating.bytes, deflating.micros, splicing.bytes, splicing.micros,
+                              build.micros, template.getCompressedSize(), saved > 0 ? String.valueOf(build.micros / saved + 1) : "no");
+        }
+    }
+
+    private Path createBooster(int files) throws IOException {
+        Path booster = temporaryFolder.newFolder().toPath();
+        Path sources = Files.createDirectories(booster.resolve("src/main/java"));
+        Files.write(booster.resolve("pom.xml"), "<project/>".getBytes(StandardCharsets.UTF_8));
+        StringBuilder source = new StringBuilder();
+        for (int line = 0; source.length() < 8 * 1024; line++) {
+            source.append("    private static final String FIELD_").append(line).append(" = \"").append(line * 31).append("\";\n");
+        }
+        for (int i = 0; i < files; i++) {
+            Files.write(sources.resolve("App" + i + ".java"),
+                        ("public class App" + i + " {\n" + source + "}\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return booster;
+    }
+
+    private static Measure measure(com.sun.management.ThreadMXBean threads, IORunnable zip) throws IOException {
+        // Warm up
+        for (int i = 0; i < ITERATIONS; i++) {
+            zip.run();
+        }
+        long thread = Thread.currentThread().getId();
+        long allocated = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            zip.run();
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / ITERATIONS;
+        return new Measure((threads.getThreadAllocatedBytes(thread) - allocated) / ITERATIONS, micros);
+    }
+
+    private interface IORunnable {
+        void run() throws IOException;
+    }
+
+    private static final class Measure {
+
+        private final long bytes;
+
+        private final long micros;
+
+        private Measure(long bytes, long micros) {
+            this.bytes = bytes;
+            this.micros = micros;
+        }
+    }
+}
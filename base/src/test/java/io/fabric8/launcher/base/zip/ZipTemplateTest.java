@@ -0,0 +1,130 @@
+package io.fabric8.launcher.base.zip;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import io.fabric8.launcher.base.Paths;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ZipTemplateTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldProduceSameEntriesAsPathsZip() throws IOException {
+        // GIVEN
+        Path booster = createBooster();
+        ZipTemplate template = ZipTemplate.of(booster);
+        Files.write(booster.resolve("pom.xml"), "<project>changed</project>".getBytes(StandardCharsets.UTF_8));
+
+        // WHEN
+        ByteArrayOutputStream spliced = new ByteArrayOutputStream();
+        int reused = template.writeTo("demo", booster, spliced);
+
+        // THEN
+        assertThat(reused).isEqualTo(2);
+        assertThat(entriesOf(spliced.toByteArray())).isEqualTo(entriesOf(Paths.zip("demo", booster)));
+        // The central directory must be readable as well
+        Path archive = temporaryFolder.newFile().toPath();
+        Files.write(archive, spliced.toByteArray());
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            assertThat(zipFile.size()).isEqualTo(entriesOf(spliced.toByteArray()).size());
+            assertThat(zipFile.getEntry("demo/src/main/java/App.java").getSize()).isEqualTo(16 * 1024);
+        }
+    }
+
+    @Test
+    public void shouldIgnoreGitDirectory() throws IOException {
+        // GIVEN
+        Path booster = createBooster();
+        Files.createDirectories(booster.resolve(".git"));
+        Files.write(booster.resolve(".git/HEAD"), "ref: refs/heads/master".getBytes(StandardCharsets.UTF_8));
+
+        // WHEN
+        ZipTemplate template = ZipTemplate.of(booster);
+
+        // THEN
+        assertThat(template.getEntryCount()).isEqualTo(3);
+        assertThat(template.getCompressedSize()).isPositive();
+    }
+
+    @Test
+    public void shouldZipDirectoriesWithTooManyEntriesWithZip64() throws IOException {
+        // GIVEN
+        Path booster = createBooster();
+        ZipTemplate template = ZipTemplate.of(booster);
+        for (int i = 0; i < 256; i++) {
+            Path dir = Files.createDirectory(booster.resolve("dir" + i));
+            for (int j = 0; j < 256; j++) {
+                Files.createFile(dir.resolve("file" + j));
+            }
+        }
+
+        // WHEN
+        Path archive = temporaryFolder.newFile().toPath();
+        int reused;
+        try (OutputStream os = Files.newOutputStream(archive)) {
+            reused = template.writeTo("demo", booster, os);
+        }
+
+        // THEN
+        assertThat(reused).isZero();
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            // The 4 directories and 3 files of the booster, then the added directories and files
+            assertThat(zipFile.size()).isEqualTo(4 + 3 + 256 + 256 * 256);
+        }
+    }
+
+    @Test
+    public void shouldOnlyFitArchivesWithinTheZipLimits() {
+        assertThat(ZipEntryWriter.fits(0xFFFE, 0, 0)).isTrue();
+        assertThat(ZipEntryWriter.fits(0xFFFF, 0, 0)).isFalse();
+        assertThat(ZipEntryWriter.fits(1, 0xFFFFFFFFL - 1024, 0)).isFalse();
+        assertThat(ZipEntryWriter.fits(1, 0xFFFFFFFFL - 2 * 1024 * 1024, 100)).isTrue();
+    }
+
+    private Path createBooster() throws IOException {
+        Path booster = temporaryFolder.newFolder().toPath();
+        Files.createDirectories(booster.resolve("src/main/java"));
+        Files.write(booster.resolve("pom.xml"), "<project/>".getBytes(StandardCharsets.UTF_8));
+        Files.write(booster.resolve("README.adoc"), "= Booster".getBytes(StandardCharsets.UTF_8));
+        byte[] source = new byte[16 * 1024];
+        for (int i = 0; i < source.length; i++) {
+            source[i] = (byte) ('a' + i % 26);
+        }
+        Files.write(booster.resolve("src/main/java/App.java"), source);
+        return booster;
+    }
+
+    private static Map<String, String> entriesOf(byte[] zip) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                ByteArrayOutputStream contents = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = zis.read(buffer)) != -1) {
+                    contents.write(buffer, 0, read);
+                }
+                entries.put(entry.getName(), new String(contents.toByteArray(), StandardCharsets.ISO_8859_1));
+            }
+        }
+        return entries;
+    }
+}
@@ -1,5 +1,7 @@
 package io.fabric8.launcher.core.api;
 
+import java.util.function.Supplier;
+
 /**
  * Core API and entry point to the MissionControl.  Defines high-level
  * capabilities intended to be called by outside clients; designed to
@@ -53,4 +55,16 @@ public interface MissionControl<C extends ProjectileContext, P extends Projectil
      * @throws IllegalArgumentException If the {@link Projectile} is not specified
      */
     Boom launch(P projectile);
+
+    /**
+     * Gets ready to {@link MissionControl#launch(Projectile)} the given {@link Projectile} from another thread:
+     * what the launch needs from the current request (the user's services and identity) is looked up on the
+     * calling thread, the returned launch may then run on any thread, once.
+     *
+     * @param projectile value object
+     * @return the launch, returning the {@link Boom}
+     */
+    default Supplier<Boom> prepareLaunch(P projectile) {
+        return () -> launch(projectile);
+    }
 }
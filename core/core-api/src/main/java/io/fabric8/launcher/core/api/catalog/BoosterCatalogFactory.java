@@ -19,12 +19,36 @@ import io.fabric8.launcher.booster.catalog.rhoar.RhoarBoosterCatalog;
  */
 public interface BoosterCatalogFactory {
 
+    /**
+     * Indexes the catalog again. The current catalog is served until the new one is indexed
+     */
     void reset();
 
     RhoarBoosterCatalog getBoosterCatalog();
 
     /**
-     * Waits until the index operation is finished (Used in integration tests)
+     * @return the index of the current catalog. While the first catalog is being indexed, the index only covers
+     * the boosters indexed so far
+     */
+    BoosterCatalogIndex getBoosterCatalogIndex();
+
+    /**
+     * @return the resolved git ref the current catalog is indexed from
+     */
+    String getCatalogRef();
+
+    /**
+     * @return a number that is incremented every time a new catalog replaces the current one
+     */
+    long getGeneration();
+
+    /**
+     * @return true if the current catalog finished indexing successfully
+     */
+    boolean isIndexed();
+
+    /**
+     * Waits until the catalog being indexed, if any, is the current one (Used in integration tests)
      */
     void waitForIndex() throws InterruptedException, ExecutionException;
 
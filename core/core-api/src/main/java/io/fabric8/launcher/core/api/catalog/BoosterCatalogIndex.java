@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.api.catalog;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+import io.fabric8.launcher.booster.catalog.rhoar.Mission;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBoosterCatalog;
+import io.fabric8.launcher.booster.catalog.rhoar.Runtime;
+import io.fabric8.launcher.booster.catalog.rhoar.Version;
+
+/**
+ * Lookups over the boosters of a {@link RhoarBoosterCatalog} that do not need to test every booster
+ */
+public interface BoosterCatalogIndex {
+
+    /**
+     * @return the catalog the indexed boosters belong to (eg. to copy their contents)
+     */
+    RhoarBoosterCatalog getBoosterCatalog();
+
+    /**
+     * @param missionId the mission id
+     * @return the mission with the given id, if any booster belongs to it
+     */
+    Optional<Mission> getMission(String missionId);
+
+    /**
+     * @param runtimeId the runtime id
+     * @return the runtime with the given id, if any booster belongs to it
+     */
+    Optional<Runtime> getRuntime(String runtimeId);
+
+    /**
+     * Same as {@link RhoarBoosterCatalog#getBooster(Mission, Runtime, Version)}
+     */
+    Optional<RhoarBooster> getBooster(Mission mission, Runtime runtime, @Nullable Version version);
+
+    /**
+     * Same as filtering the catalog boosters with
+     * {@code BoosterPredicates.withAppEnabled(application).and(BoosterPredicates.withParameters(parameters))}
+     *
+     * @param application the application the boosters must be enabled for, null for any
+     * @param parameters  booster property paths and the accepted values
+     * @return the matching boosters, in catalog order
+     */
+    List<RhoarBooster> getBoosters(@Nullable String application, Map<String, List<String>> parameters);
+
+    /**
+     * Looks for the boosters described by the given words (in their names and descriptions, those of their mission,
+     * runtime and version, or their metadata), among the ones {@link #getBoosters(String, Map)} would return
+     *
+     * @param text        the words to look for, each one matching the words it is a prefix of
+     * @param application the application the boosters must be enabled for, null for any
+     * @param parameters  booster property paths and the accepted values
+     * @return the boosters matching every word, best match first
+     */
+    List<RhoarBooster> search(String text, @Nullable String application, Map<String, List<String>> parameters);
+
+    /**
+     * @return the number of indexed boosters
+     */
+    int size();
+}
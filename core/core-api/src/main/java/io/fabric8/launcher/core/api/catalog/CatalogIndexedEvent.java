@@ -0,0 +1,30 @@
+package io.fabric8.launcher.core.api.catalog;
+
+/**
+ * Fired once a catalog generation is indexed and served by the {@link BoosterCatalogFactory}
+ */
+public class CatalogIndexedEvent {
+
+    private final long generation;
+
+    private final BoosterCatalogIndex index;
+
+    public CatalogIndexedEvent(long generation, BoosterCatalogIndex index) {
+        this.generation = generation;
+        this.index = index;
+    }
+
+    /**
+     * @return the generation being served, see {@link BoosterCatalogFactory#getGeneration()}
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return the index of the catalog being served
+     */
+    public BoosterCatalogIndex getIndex() {
+        return index;
+    }
+}
@@ -22,6 +22,11 @@ public interface BoosterDocumentationStore {
      */
     CompletableFuture<Path> getDocumentationPath();
 
+    /**
+     * @return a number that is incremented every time the documentation is reloaded
+     */
+    long getGeneration();
+
     /**
      * Wait until the current documentation store is loaded
      */
@@ -0,0 +1,16 @@
+package io.fabric8.launcher.core.api.journal;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps track of the progress of the launches, including the ones run before the launcher was restarted
+ */
+public interface LaunchJournal {
+
+    /**
+     * @param id the projectile id
+     * @return the status of the launch of the given projectile, empty if the journal does not know about it
+     */
+    Optional<LaunchStatus> getStatus(UUID id);
+}
@@ -0,0 +1,87 @@
+package io.fabric8.launcher.core.api.journal;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.fabric8.launcher.core.api.events.LauncherStatusEventKind;
+import org.immutables.value.Value;
+
+/**
+ * The progress of a launch as recorded in the {@link LaunchJournal}
+ */
+@Value.Immutable
+@JsonSerialize(as = ImmutableLaunchStatus.class)
+@JsonDeserialize(as = ImmutableLaunchStatus.class)
+public interface LaunchStatus {
+
+    /**
+     * @return the projectile id
+     */
+    UUID getId();
+
+    /**
+     * @return the user who started the launch, the only one its status is returned to
+     */
+    @Nullable
+    String getUser();
+
+    State getState();
+
+    /**
+     * @return the steps that are over
+     */
+    Set<LauncherStatusEventKind> getCompletedSteps();
+
+    /**
+     * @return what the completed steps created (eg. the git repository and its URL), kept once the launch failed or
+     * was interrupted so that it can be cleaned up or reused
+     */
+    Map<String, String> getOutputs();
+
+    /**
+     * @return why the launch failed or was interrupted, null otherwise
+     */
+    @Nullable
+    String getError();
+
+    /**
+     * @return when the launch started, in milliseconds since the epoch
+     */
+    long getStartedAt();
+
+    /**
+     * @return when the status last changed, in milliseconds since the epoch
+     */
+    long getUpdatedAt();
+
+    /**
+     * @return the first step that is not over, ie. the execution step index to launch again from to resume the launch
+     */
+    @Value.Derived
+    default int getNextStep() {
+        for (LauncherStatusEventKind step : LauncherStatusEventKind.values()) {
+            if (!getCompletedSteps().contains(step)) {
+                return step.ordinal();
+            }
+        }
+        return LauncherStatusEventKind.values().length;
+    }
+
+    /**
+     * The state of a launch
+     */
+    enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        /**
+         * Still running when the launcher was stopped
+         */
+        INTERRUPTED
+    }
+}
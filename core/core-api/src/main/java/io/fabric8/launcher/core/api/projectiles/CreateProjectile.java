@@ -1,5 +1,7 @@
 package io.fabric8.launcher.core.api.projectiles;
 
+import java.util.UUID;
+
 import javax.annotation.Nullable;
 
 import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
@@ -35,6 +37,18 @@ public interface CreateProjectile extends Projectile {
     @Nullable
     String getGitOrganization();
 
+    /**
+     * @return The user launching this projectile, the only one its launch status is returned to
+     */
+    @Nullable
+    String getUser();
+
+    /**
+     * @return The id of the failed or interrupted launch this projectile resumes, the steps it completed are not run again
+     */
+    @Nullable
+    UUID getResumedLaunchId();
+
     /**
      * @return The description used when creating the Git repository
      */
@@ -1,13 +1,68 @@
 package io.fabric8.launcher.core.spi;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
+import javax.annotation.Nullable;
+
 /**
- * Deletes temporary directories
+ * Creates and deletes temporary directories
  *
  * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
  */
 public interface DirectoryReaper {
 
     void delete(Path path);
+
+    /**
+     * Creates a scratch directory (eg. a project being launched) that is expected to be deleted
+     * with {@link #delete(Path)} once the request is done.
+     * Implementations may block until enough disk space is available.
+     *
+     * @param prefix the prefix of the directory name
+     * @return the created directory
+     * @throws IOException if the directory could not be created
+     */
+    default Path createTempDirectory(String prefix) throws IOException {
+        return Files.createTempDirectory(prefix);
+    }
+
+    /**
+     * Creates a scratch directory like {@link #createTempDirectory(String)}, reserving the bytes it is expected
+     * to hold so that implementations enforcing a disk quota account for them before they are written.
+     *
+     * @param prefix        the prefix of the directory name
+     * @param expectedBytes the bytes the directory is expected to hold
+     * @return the created directory
+     * @throws IOException if the directory could not be created
+     */
+    default Path createTempDirectory(String prefix, long expectedBytes) throws IOException {
+        return createTempDirectory(prefix);
+    }
+
+    /**
+     * Creates a scratch directory like {@link #createTempDirectory(String, long)} on a memory filesystem (eg. /dev/shm),
+     * without waiting for room.
+     *
+     * @param prefix        the prefix of the directory name
+     * @param expectedBytes the bytes the directory is expected to hold
+     * @return the created directory, null if there is no memory filesystem or it can't hold the expected bytes
+     * @throws IOException if the directory could not be created
+     */
+    @Nullable
+    default Path createMemoryDirectory(String prefix, long expectedBytes) throws IOException {
+        return null;
+    }
+
+    /**
+     * Creates a directory that lives as long as the application (eg. a cloned repository or a cache)
+     *
+     * @param prefix the prefix of the directory name
+     * @return the created directory
+     * @throws IOException if the directory could not be created
+     */
+    default Path createCacheDirectory(String prefix) throws IOException {
+        return Files.createTempDirectory(prefix);
+    }
 }
@@ -0,0 +1,22 @@
+package io.fabric8.launcher.core.spi;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.inject.Qualifier;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.ElementType.TYPE;
+
+/**
+ * Qualifies the executor running the launches, kept apart from the executor shared by the HTTP
+ * callbacks and the housekeeping tasks so that a burst of launches does not starve them
+ */
+@Qualifier
+@Retention(RetentionPolicy.RUNTIME)
+@Target({TYPE, FIELD, PARAMETER, METHOD})
+public @interface LaunchExecutor {
+}
@@ -0,0 +1,23 @@
+package io.fabric8.launcher.core.spi;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.inject.Qualifier;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.ElementType.TYPE;
+
+/**
+ * Qualifies the executor running the steps of a launch alongside the launch itself (eg. creating the OpenShift
+ * project while the git repository is pushed to). It is apart from the {@link LaunchExecutor}, as the launches wait
+ * for these steps, and it rejects the steps it has no idle thread for rather than queueing them.
+ */
+@Qualifier
+@Retention(RetentionPolicy.RUNTIME)
+@Target({TYPE, FIELD, PARAMETER, METHOD})
+public @interface LaunchStepExecutor {
+}
@@ -1,9 +1,12 @@
 package io.fabric8.launcher.core.spi;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 
 import javax.annotation.Nullable;
 
+import io.fabric8.launcher.base.Paths;
 import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
 import io.fabric8.launcher.core.api.Projectile;
 import io.fabric8.launcher.core.api.ProjectileContext;
@@ -11,6 +14,10 @@ import io.fabric8.launcher.core.api.ProjectileContext;
 /**
  * Prepares the copied booster before converting into a {@link Projectile}
  *
+ * The files in the project {@link Path} may be read-only hard links to the booster catalog clone: implementations
+ * must call {@link #beforeWrite(Path)} before rewriting an existing file in place, or the write fails. Replacing or
+ * deleting files is safe.
+ *
  * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
  */
 public interface ProjectilePreparer {
@@ -21,4 +28,18 @@ public interface ProjectilePreparer {
      * @param context     information from the UI
      */
     void prepare(Path projectPath, @Nullable RhoarBooster booster, ProjectileContext context);
+
+    /**
+     * Declares the intent to rewrite the given file, detaching it from the booster catalog if it is linked
+     *
+     * @param file the file about to be written
+     * @return the given file
+     */
+    default Path beforeWrite(Path file) {
+        try {
+            return Paths.breakLink(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error while preparing " + file + " for writing", e);
+        }
+    }
 }
@@ -0,0 +1,19 @@
+package io.fabric8.launcher.core.spi;
+
+import java.util.Map;
+
+/**
+ * Exposes the runtime counters of a component (cache hits, queue sizes, timings, etc.)
+ */
+public interface StatisticsProvider {
+
+    /**
+     * @return the name the statistics of this component are grouped under
+     */
+    String getStatisticsName();
+
+    /**
+     * @return a snapshot of the current statistics. Values may be numbers, strings, maps or lists
+     */
+    Map<String, Object> getStatistics();
+}
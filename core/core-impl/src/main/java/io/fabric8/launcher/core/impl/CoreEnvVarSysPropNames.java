@@ -10,9 +10,19 @@ public enum CoreEnvVarSysPropNames implements EnvironmentEnum {
     LAUNCHER_BACKEND_ENVIRONMENT,
     LAUNCHER_PREFETCH_BOOSTERS,
     LAUNCHER_BOOSTER_CATALOG_FILTER,
+    LAUNCHER_BOOSTER_CATALOG_SNAPSHOT_ROOT,
+    LAUNCHER_BOOSTER_POPULARITY_FILE,
+    LAUNCHER_PREFETCH_BOOSTERS_CONCURRENCY,
     LAUNCHER_TRACKER_SEGMENT_TOKEN,
     LAUNCHER_KEYCLOAK_URL,
     LAUNCHER_KEYCLOAK_REALM,
+    LAUNCHER_MEMORY_WORKSPACE_THRESHOLD,
+    LAUNCHER_WORKSPACE_LINK_ENABLED,
+    LAUNCHER_LAUNCH_STEP_ATTEMPTS,
+    LAUNCHER_LAUNCH_STEP_BACKOFF_MILLIS,
+    LAUNCHER_LAUNCH_JOURNAL_FILE,
+    LAUNCHER_LAUNCH_JOURNAL_MAX_BYTES,
+    LAUNCHER_LAUNCH_JOURNAL_MAX_LAUNCHES,
 
     ARTEMIS_URL,
     ARTEMIS_USER,
@@ -1,13 +1,17 @@
 package io.fabric8.launcher.core.impl;
 
-import java.net.URL;
-import java.nio.file.Files;
-import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.enterprise.context.Dependent;
+import javax.enterprise.context.spi.CreationalContext;
 import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
 import javax.inject.Inject;
 
 import io.fabric8.launcher.base.identity.TokenIdentity;
@@ -15,21 +19,32 @@ import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
 import io.fabric8.launcher.booster.catalog.rhoar.RhoarBoosterCatalog;
 import io.fabric8.launcher.core.api.Boom;
 import io.fabric8.launcher.core.api.DefaultMissionControl;
-import io.fabric8.launcher.core.api.ImmutableBoom;
 import io.fabric8.launcher.core.api.MissionControl;
+import io.fabric8.launcher.core.api.catalog.BoosterCatalogIndex;
+import io.fabric8.launcher.core.api.journal.LaunchStatus;
 import io.fabric8.launcher.core.api.projectiles.CreateProjectile;
 import io.fabric8.launcher.core.api.projectiles.ImmutableLauncherCreateProjectile;
 import io.fabric8.launcher.core.api.projectiles.context.CreateProjectileContext;
 import io.fabric8.launcher.core.api.projectiles.context.LauncherProjectileContext;
+import io.fabric8.launcher.core.impl.catalog.BoosterPrefetcher;
 import io.fabric8.launcher.core.impl.catalog.RhoarBoosterCatalogFactory;
+import io.fabric8.launcher.core.impl.journal.LaunchJournalImpl;
 import io.fabric8.launcher.core.impl.steps.GitSteps;
+import io.fabric8.launcher.core.impl.steps.LaunchCheckpoints;
+import io.fabric8.launcher.core.impl.steps.LaunchStepTimings;
+import io.fabric8.launcher.core.impl.steps.LaunchSteps;
 import io.fabric8.launcher.core.impl.steps.OpenShiftSteps;
+import io.fabric8.launcher.core.impl.steps.StepRetryPolicy;
+import io.fabric8.launcher.core.impl.workspace.ProjectWorkspaceFactory;
+import io.fabric8.launcher.core.spi.LaunchStepExecutor;
 import io.fabric8.launcher.core.spi.ProjectilePreparer;
-import io.fabric8.launcher.service.git.api.GitRepository;
-import io.fabric8.launcher.service.openshift.api.OpenShiftProject;
+import io.fabric8.launcher.service.git.api.GitService;
+import io.fabric8.launcher.service.openshift.api.OpenShiftService;
 import io.fabric8.launcher.tracking.SegmentAnalyticsProvider;
 
 import static io.fabric8.launcher.core.impl.CoreEnvVarSysPropNames.LAUNCHER_BACKEND_GIT_REPOSITORY_DESCRIPTION;
+import static io.fabric8.launcher.core.impl.CoreEnvVarSysPropNames.LAUNCHER_LAUNCH_STEP_ATTEMPTS;
+import static io.fabric8.launcher.core.impl.CoreEnvVarSysPropNames.LAUNCHER_LAUNCH_STEP_BACKOFF_MILLIS;
 
 /**
  * Implementation of the {@link MissionControl} interface.
@@ -41,14 +56,25 @@ public class MissionControlImpl implements DefaultMissionControl {
 
     private static final Logger logger = Logger.getLogger(MissionControlImpl.class.getName());
 
+    private static final int DEFAULT_STEP_ATTEMPTS = 3;
+
+    private static final long DEFAULT_STEP_BACKOFF_MILLIS = 1000;
+
     @Inject
     private Instance<ProjectilePreparer> preparers;
 
     @Inject
-    private Instance<GitSteps> gitStepsInstance;
+    private BeanManager beanManager;
+
+    @Inject
+    @LaunchStepExecutor
+    private ExecutorService launchStepExecutor;
+
+    @Inject
+    private LaunchStepTimings stepTimings;
 
     @Inject
-    private Instance<OpenShiftSteps> openShiftStepsInstance;
+    private LaunchJournalImpl journal;
 
     @Inject
     private Instance<TokenIdentity> identityInstance;
@@ -59,19 +85,29 @@ public class MissionControlImpl implements DefaultMissionControl {
     @Inject
     private RhoarBoosterCatalogFactory catalogFactory;
 
+    @Inject
+    private ProjectWorkspaceFactory workspaceFactory;
+
 
     @Override
     public CreateProjectile prepare(CreateProjectileContext context) {
         java.nio.file.Path path;
         try {
-            path = Files.createTempDirectory("projectDir");
-            // Wait for index to finish before querying the catalog
-            catalogFactory.waitForIndex();
-            RhoarBoosterCatalog catalog = catalogFactory.getBoosterCatalog();
-            RhoarBooster booster = catalog.getBooster(context.getMission(), context.getRuntime(), context.getRuntimeVersion())
+            // Only the first catalog is served before it is indexed, later ones are swapped in once indexed
+            if (!catalogFactory.isIndexed()) {
+                catalogFactory.waitForIndex();
+            }
+            // The booster and its catalog must come from the same generation
+            BoosterCatalogIndex index = catalogFactory.getBoosterCatalogIndex();
+            RhoarBoosterCatalog catalog = index.getBoosterCatalog();
+            RhoarBooster booster = index.getBooster(context.getMission(), context.getRuntime(), context.getRuntimeVersion())
                     .orElseThrow(() -> new IllegalArgumentException(String.format("Booster not found in catalog: %s-%s-%s ", context.getMission(), context.getRuntime(), context.getRuntimeVersion())));
 
-            catalog.copy(booster, path);
+            BoosterPrefetcher.Readiness readiness = catalogFactory.getReadiness(booster);
+            if (readiness != BoosterPrefetcher.Readiness.READY) {
+                logger.info(() -> "Booster " + booster.getId() + " is " + readiness + ", fetching its contents before preparing the projectile");
+            }
+            path = workspaceFactory.materialize(catalog, booster);
 
             for (ProjectilePreparer preparer : preparers) {
                 preparer.prepare(path, booster, context);
@@ -100,31 +136,66 @@ public class MissionControlImpl implements DefaultMissionControl {
 
     @Override
     public Boom launch(CreateProjectile projectile) {
-        GitSteps gitSteps = gitStepsInstance.get();
-        OpenShiftSteps openShiftSteps = openShiftStepsInstance.get();
-
-        try {
-            GitRepository gitRepository = gitSteps.createGitRepository(projectile);
-            gitSteps.pushToGitRepository(projectile, gitRepository);
-
-            OpenShiftProject openShiftProject = openShiftSteps.createOpenShiftProject(projectile);
-            openShiftSteps.configureBuildPipeline(projectile, openShiftProject, gitRepository);
+        return prepareLaunch(projectile).get();
+    }
 
-            List<URL> webhooks = openShiftSteps.getWebhooks(openShiftProject);
-            gitSteps.createWebHooks(projectile, gitRepository, webhooks);
+    @Override
+    public Supplier<Boom> prepareLaunch(CreateProjectile projectile) {
+        // The launch runs on other threads, where the request scoped services are not reachable
+        GitSteps gitSteps = new GitSteps(contextualInstance(GitService.class));
+        OpenShiftSteps openShiftSteps = new OpenShiftSteps(contextualInstance(OpenShiftService.class));
+        TokenIdentity identity = identityInstance.isUnsatisfied() ? null : contextualInstance(TokenIdentity.class);
+
+        return () -> {
+            StepRetryPolicy retryPolicy = new StepRetryPolicy(LAUNCHER_LAUNCH_STEP_ATTEMPTS.intValue(DEFAULT_STEP_ATTEMPTS),
+                                                              LAUNCHER_LAUNCH_STEP_BACKOFF_MILLIS.longValue(DEFAULT_STEP_BACKOFF_MILLIS));
+            LaunchCheckpoints checkpoints = new LaunchCheckpoints((step, outputs) -> journal.stepCompleted(projectile.getId(), step, outputs));
+            journal.started(projectile.getId(), projectile.getUser());
+            resumedStatus(projectile).ifPresent(checkpoints::resume);
+            Boom boom;
+            try {
+                boom = new LaunchSteps(gitSteps, openShiftSteps, launchStepExecutor, stepTimings, retryPolicy).launch(projectile, checkpoints);
+            } catch (RuntimeException e) {
+                journal.failed(projectile.getId(), e.getMessage());
+                throw e;
+            }
+            journal.completed(projectile.getId());
 
             // Call analytics
-            analyticsProvider.trackingMessage(projectile, identityInstance.isUnsatisfied() ? null : identityInstance.get());
+            analyticsProvider.trackingMessage(projectile, identity);
+            return boom;
+        };
+    }
 
-            return ImmutableBoom
-                    .builder()
-                    .createdProject(openShiftProject)
-                    .createdRepository(gitRepository)
-                    .build();
+    /**
+     * @return the status of the launch the given projectile resumes, if it was started by the same user and is over
+     */
+    private Optional<LaunchStatus> resumedStatus(CreateProjectile projectile) {
+        UUID resumedId = projectile.getResumedLaunchId();
+        if (resumedId == null || resumedId.equals(projectile.getId())) {
+            return Optional.empty();
+        }
+        Optional<LaunchStatus> status = journal.getStatus(resumedId)
+                .filter(s -> projectile.getUser() != null && projectile.getUser().equals(s.getUser()))
+                .filter(s -> s.getState() != LaunchStatus.State.RUNNING);
+        if (!status.isPresent()) {
+            logger.log(Level.INFO, "Launch {0} is not resumed by {1}: it is unknown, still running or was started by another user",
+                       new Object[]{resumedId, projectile.getId()});
+        }
+        return status;
+    }
 
-        } finally {
-            gitStepsInstance.destroy(gitSteps);
-            openShiftStepsInstance.destroy(openShiftSteps);
+    /**
+     * @return the instance behind the contextual reference of the given type, which unlike the reference (a client
+     * proxy for normal scoped beans) does not need the context of the bean to be active on the calling thread
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T contextualInstance(Class<T> type) {
+        Bean<T> bean = (Bean<T>) beanManager.resolve(beanManager.getBeans(type));
+        CreationalContext<T> creationalContext = beanManager.createCreationalContext(bean);
+        if (beanManager.isNormalScope(bean.getScope())) {
+            return beanManager.getContext(bean.getScope()).get(bean, creationalContext);
         }
+        return type.cast(beanManager.getReference(bean, type, creationalContext));
     }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.fabric8.launcher.booster.catalog.Booster;
+
+import static io.fabric8.launcher.base.Paths.deleteDirectory;
+
+/**
+ * Fetches the contents of the boosters for the catalog path providers that do not delegate it to the catalog library
+ */
+final class BoosterContents {
+
+    // Where the catalog service keeps the booster contents, relative to the catalog path
+    static final String BOOSTERS_DIR = ".boosters";
+
+    private BoosterContents() {
+        throw new IllegalAccessError("Utility class");
+    }
+
+    /**
+     * Returns the contents of the given booster in the given directory, cloning its repository there first if they
+     * are not. The clone is moved into place once complete, so concurrent fetches of the same booster are harmless.
+     * The catalog service creates the (empty) directory before asking for the contents, so an empty directory
+     * counts as not fetched and is replaced by the clone.
+     *
+     * @param boosters the directory holding the contents of the boosters, one directory per booster id
+     * @param booster  the booster
+     * @return the directory holding the contents of the booster
+     */
+    static Path fetch(Path boosters, Booster booster) throws IOException {
+        Path content = boosters.resolve(booster.getId());
+        if (isFetched(content)) {
+            return content;
+        }
+        if (booster.getGitRepo() == null) {
+            throw new IOException("Booster " + booster.getId() + " has no git repository");
+        }
+        Files.createDirectories(boosters);
+        Path staging = Files.createTempDirectory(boosters, ".fetching");
+        try {
+            List<String> args = new ArrayList<>();
+            args.add("clone");
+            args.add("--quiet");
+            args.add("--depth=1");
+            if (booster.getGitRef() != null) {
+                args.add("--branch");
+                args.add(booster.getGitRef());
+            }
+            args.add(booster.getGitRepo());
+            args.add(staging.toString());
+            GitCommands.run(null, args.toArray(new String[0]));
+            try {
+                // Only succeeds if the directory is empty
+                Files.deleteIfExists(content);
+                Files.move(staging, content, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                if (!isFetched(content)) {
+                    throw e;
+                }
+                // Fetched by another thread in the meantime
+            }
+            return content;
+        } finally {
+            if (Files.exists(staging)) {
+                deleteDirectory(staging);
+            }
+        }
+    }
+
+    /**
+     * @return true if the given directory holds the contents of a booster, ie. exists and is not empty
+     */
+    static boolean isFetched(Path content) throws IOException {
+        if (!Files.isDirectory(content)) {
+            return false;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(content)) {
+            return entries.iterator().hasNext();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+
+import static io.fabric8.launcher.core.impl.CoreEnvVarSysPropNames.LAUNCHER_BOOSTER_POPULARITY_FILE;
+
+/**
+ * Counts the launches of every booster, so that the most launched boosters are prefetched first.
+ *
+ * The counts are kept by booster id and, when {@code LAUNCHER_BOOSTER_POPULARITY_FILE} is set, saved to that file
+ * after every launch and loaded from it on startup.
+ */
+@ApplicationScoped
+public class BoosterPopularity {
+
+    private static final Logger log = Logger.getLogger(BoosterPopularity.class.getName());
+
+    private final Map<String, LongAdder> launches = new ConcurrentHashMap<>();
+
+    // Set while a save is pending, so that launches reported meanwhile are saved at once
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    @Nullable
+    private final Path file;
+
+    private final Executor executor;
+
+    @Inject
+    public BoosterPopularity(ExecutorService async) {
+        this(LAUNCHER_BOOSTER_POPULARITY_FILE.value() != null ? Paths.get(LAUNCHER_BOOSTER_POPULARITY_FILE.value()) : null, async);
+    }
+
+    //Visible for testing
+    BoosterPopularity(@Nullable Path file, Executor executor) {
+        this.file = file;
+        this.executor = executor;
+        load();
+    }
+
+    /**
+     * no-args constructor used by CDI for proxying only
+     * but is subsequently replaced with an instance
+     * created using the above constructor.
+     *
+     * @deprecated do not use this constructor
+     */
+    @Deprecated
+    protected BoosterPopularity() {
+        this.file = null;
+        this.executor = null;
+    }
+
+    /**
+     * Counts a launch of the given booster
+     */
+    public void launched(RhoarBooster booster) {
+        launches.computeIfAbsent(booster.getId(), id -> new LongAdder()).increment();
+        if (file != null && dirty.compareAndSet(false, true)) {
+            executor.execute(this::save);
+        }
+    }
+
+    /**
+     * @return the number of launches of the booster with the given id
+     */
+    public long getLaunches(String boosterId) {
+        LongAdder count = launches.get(boosterId);
+        return count != null ? count.sum() : 0;
+    }
+
+    private void load() {
+        if (file == null || !Files.isRegularFile(file)) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Error while loading booster popularity from " + file, e);
+            return;
+        }
+        for (String id : properties.stringPropertyNames()) {
+            try {
+                launches.computeIfAbsent(id, key -> new LongAdder()).add(Long.parseLong(properties.getProperty(id)));
+            } catch (NumberFormatException e) {
+                log.log(Level.WARNING, "Ignoring invalid launch count of booster {0} in {1}", new Object[]{id, file});
+            }
+        }
+    }
+
+    //Visible for testing
+    void save() {
+        dirty.set(false);
+        Properties properties = new Properties();
+        launches.forEach((id, count) -> properties.setProperty(id, Long.toString(count.sum())));
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, ".popularity", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp)) {
+                properties.store(writer, "Booster launches");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Error while saving booster popularity to " + file, e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+
+/**
+ * Fetches the contents of the boosters of a catalog, the most launched boosters first, with at most a given number
+ * of boosters being fetched at the same time. Keeps track of the readiness of every booster.
+ */
+public class BoosterPrefetcher {
+
+    private static final Logger log = Logger.getLogger(BoosterPrefetcher.class.getName());
+
+    /**
+     * The readiness of the contents of a booster
+     */
+    public enum Readiness {
+        /**
+         * Not fetched yet, launching it fetches its contents first
+         */
+        COLD,
+        FETCHING,
+        READY,
+        FAILED
+    }
+
+    private final Map<String, Readiness> readiness = new ConcurrentHashMap<>();
+
+    private final ToLongFunction<String> popularity;
+
+    private final int concurrency;
+
+    private final Executor executor;
+
+    /**
+     * @param popularity  the number of launches of a booster, by booster id
+     * @param concurrency the maximum number of boosters fetched at the same time
+     * @param executor    the executor fetching the next booster once one is fetched
+     */
+    public BoosterPrefetcher(ToLongFunction<String> popularity, int concurrency, Executor executor) {
+        this.popularity = popularity;
+        this.concurrency = Math.max(1, concurrency);
+        this.executor = executor;
+    }
+
+    /**
+     * Fetches the contents of the given boosters
+     *
+     * @return a future completed with true once every booster is fetched, false if some could not be
+     */
+    public CompletableFuture<Boolean> prefetch(Collection<RhoarBooster> boosters) {
+        List<RhoarBooster> ordered = new ArrayList<>(boosters);
+        // Stable, so boosters launched as often as each other keep the catalog order
+        ordered.sort(Comparator.comparingLong((RhoarBooster b) -> popularity.applyAsLong(b.getId())).reversed());
+        for (RhoarBooster booster : ordered) {
+            readiness.put(booster.getId(), Readiness.COLD);
+        }
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        if (ordered.isEmpty()) {
+            result.complete(true);
+            return result;
+        }
+        Queue<RhoarBooster> pending = new ConcurrentLinkedQueue<>(ordered);
+        AtomicInteger remaining = new AtomicInteger(ordered.size());
+        AtomicBoolean failed = new AtomicBoolean();
+        for (int i = 0; i < Math.min(concurrency, ordered.size()); i++) {
+            fetchNext(pending, remaining, failed, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return the readiness of the given booster, {@link Readiness#COLD} if it is not being prefetched
+     */
+    public Readiness getReadiness(RhoarBooster booster) {
+        return readiness.getOrDefault(booster.getId(), Readiness.COLD);
+    }
+
+    /**
+     * @return the number of boosters by readiness
+     */
+    public Map<Readiness, Integer> getReadinessCounts() {
+        Map<Readiness, Integer> counts = new EnumMap<>(Readiness.class);
+        for (Readiness value : Readiness.values()) {
+            counts.put(value, 0);
+        }
+        readiness.values().forEach(value -> counts.merge(value, 1, Integer::sum));
+        return counts;
+    }
+
+    private void fetchNext(Queue<RhoarBooster> pending, AtomicInteger remaining, AtomicBoolean failed, CompletableFuture<Boolean> result) {
+        RhoarBooster booster = pending.poll();
+        if (booster == null) {
+            return;
+        }
+        readiness.put(booster.getId(), Readiness.FETCHING);
+        CompletableFuture<Path> content;
+        try {
+            content = booster.content();
+        } catch (RuntimeException e) {
+            content = new CompletableFuture<>();
+            content.completeExceptionally(e);
+        }
+        content.whenCompleteAsync((path, e) -> {
+            if (e != null) {
+                log.log(Level.WARNING, "Error while prefetching booster " + booster.getId(), e);
+                failed.set(true);
+                readiness.put(booster.getId(), Readiness.FAILED);
+            } else {
+                readiness.put(booster.getId(), Readiness.READY);
+            }
+            if (remaining.decrementAndGet() == 0) {
+                result.complete(!failed.get());
+            } else {
+                fetchNext(pending, remaining, failed, result);
+            }
+        }, executor);
+    }
+}
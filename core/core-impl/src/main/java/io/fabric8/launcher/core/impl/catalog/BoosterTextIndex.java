@@ -0,0 +1,183 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+
+/**
+ * An inverted index of the words describing the boosters of a catalog: the booster names and descriptions, the
+ * names and descriptions of their missions and runtimes, the names of their versions and the values of their metadata.
+ *
+ * Terms are kept in a sorted array, each with the positions of the boosters it appears in and a weight per booster,
+ * so that a query term is looked up as a prefix with a binary search. Every query term must match; the boosters
+ * are ranked by the sum of the weights of the matching terms.
+ */
+class BoosterTextIndex {
+
+    private static final int NAME_WEIGHT = 4;
+
+    private static final int CATEGORY_NAME_WEIGHT = 3;
+
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final int METADATA_WEIGHT = 1;
+
+    private final String[] terms;
+
+    // Same order as the terms, booster positions in ascending order
+    private final int[][] postings;
+
+    // Same order as the postings
+    private final int[][] weights;
+
+    BoosterTextIndex(RhoarBooster[] boosters) {
+        Map<String, Map<Integer, Integer>> index = new HashMap<>();
+        for (int i = 0; i < boosters.length; i++) {
+            RhoarBooster booster = boosters[i];
+            add(index, i, booster.getName(), NAME_WEIGHT);
+            add(index, i, booster.getDescription(), DESCRIPTION_WEIGHT);
+            if (booster.getMission() != null) {
+                add(index, i, booster.getMission().getId(), CATEGORY_NAME_WEIGHT);
+                add(index, i, booster.getMission().getName(), CATEGORY_NAME_WEIGHT);
+                add(index, i, booster.getMission().getDescription(), DESCRIPTION_WEIGHT);
+            }
+            if (booster.getRuntime() != null) {
+                add(index, i, booster.getRuntime().getId(), CATEGORY_NAME_WEIGHT);
+                add(index, i, booster.getRuntime().getName(), CATEGORY_NAME_WEIGHT);
+                add(index, i, booster.getRuntime().getDescription(), DESCRIPTION_WEIGHT);
+            }
+            if (booster.getVersion() != null) {
+                add(index, i, booster.getVersion().getName(), CATEGORY_NAME_WEIGHT);
+            }
+            addValues(index, i, booster.getMetadata().values());
+        }
+        terms = index.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        postings = new int[terms.length][];
+        weights = new int[terms.length][];
+        for (int t = 0; t < terms.length; t++) {
+            Map<Integer, Integer> boosterWeights = index.get(terms[t]);
+            int[] positions = new int[boosterWeights.size()];
+            int p = 0;
+            for (Integer position : boosterWeights.keySet()) {
+                positions[p++] = position;
+            }
+            Arrays.sort(positions);
+            int[] termWeights = new int[positions.length];
+            for (p = 0; p < positions.length; p++) {
+                termWeights[p] = boosterWeights.get(positions[p]);
+            }
+            postings[t] = positions;
+            weights[t] = termWeights;
+        }
+    }
+
+    /**
+     * @param text     the words to look for, each one matching the terms it is a prefix of
+     * @param eligible the positions of the boosters that may match
+     * @return the positions of the matching boosters, best match first and in catalog order otherwise
+     */
+    List<Integer> search(String text, BitSet eligible) {
+        List<String> words = tokenize(text);
+        if (words.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int[] scores = null;
+        for (String word : words) {
+            int[] wordScores = new int[eligible.length()];
+            boolean found = false;
+            for (int t = firstTerm(word); t < terms.length && terms[t].startsWith(word); t++) {
+                int[] positions = postings[t];
+                for (int p = 0; p < positions.length && positions[p] < wordScores.length; p++) {
+                    if (eligible.get(positions[p])) {
+                        wordScores[positions[p]] += weights[t][p];
+                        found = true;
+                    }
+                }
+            }
+            if (!found) {
+                return new ArrayList<>();
+            }
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                for (int i = 0; i < scores.length; i++) {
+                    scores[i] = scores[i] == 0 || wordScores[i] == 0 ? 0 : scores[i] + wordScores[i];
+                }
+            }
+        }
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] > 0) {
+                matches.add(i);
+            }
+        }
+        int[] finalScores = scores;
+        // Stable, so equally good matches keep the catalog order
+        matches.sort((a, b) -> Integer.compare(finalScores[b], finalScores[a]));
+        return matches;
+    }
+
+    /**
+     * @return the number of distinct terms
+     */
+    int size() {
+        return terms.length;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lowerCase.length(); i++) {
+            boolean letterOrDigit = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                tokens.add(lowerCase.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private int firstTerm(String prefix) {
+        int index = Arrays.binarySearch(terms, prefix);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static void addValues(Map<String, Map<Integer, Integer>> index, int position, Collection<?> values) {
+        for (Object value : values) {
+            if (value instanceof Map) {
+                addValues(index, position, ((Map<?, ?>) value).values());
+            } else if (value instanceof Collection) {
+                addValues(index, position, (Collection<?>) value);
+            } else if (value instanceof String) {
+                add(index, position, (String) value, METADATA_WEIGHT);
+            }
+        }
+    }
+
+    private static void add(Map<String, Map<Integer, Integer>> index, int position, String text, int weight) {
+        for (String token : tokenize(text)) {
+            index.computeIfAbsent(token.intern(), t -> new HashMap<>()).merge(position, weight, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import io.fabric8.launcher.booster.catalog.rhoar.AbstractCategory;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+
+/**
+ * Estimates the heap retained by the data of a catalog generation: the data of its boosters and the ids, names,
+ * descriptions and metadata of their missions, runtimes and versions.
+ *
+ * Objects are counted once however many boosters share them. Strings that are equal to a string counted before
+ * but are not the same instance are counted too, and reported apart as the bytes interning would save.
+ *
+ * The sizes are estimates for a 64-bit JVM with compressed oops, counting strings as a header plus a {@code char[]};
+ * JVMs with compact strings retain less. A rebuild holds the next generation along with the one being served, so a
+ * pod needs about twice the retained size of its largest catalog.
+ */
+final class CatalogFootprint {
+
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Only kept while estimating
+    private final Set<String> strings = new HashSet<>();
+
+    private long retainedBytes;
+
+    private long duplicateStringBytes;
+
+    //Visible for testing
+    CatalogFootprint() {
+    }
+
+    /**
+     * @param boosters every booster of a catalog generation
+     */
+    static CatalogFootprint of(Collection<RhoarBooster> boosters) {
+        CatalogFootprint footprint = new CatalogFootprint();
+        for (RhoarBooster booster : boosters) {
+            // The booster and its descriptor
+            footprint.retainedBytes += 64;
+            footprint.add(booster.getData());
+            for (AbstractCategory category : new AbstractCategory[]{booster.getMission(), booster.getRuntime(), booster.getVersion()}) {
+                if (category != null && footprint.visited.add(category)) {
+                    footprint.retainedBytes += 40;
+                    footprint.add(category.getId());
+                    footprint.add(category.getName());
+                    footprint.add(category.getDescription());
+                    footprint.add(category.getMetadata());
+                }
+            }
+        }
+        return footprint;
+    }
+
+    /**
+     * @return the estimated number of bytes retained
+     */
+    long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * @return the estimated number of bytes retained by strings equal to another string of the catalog
+     */
+    long getDuplicateStringBytes() {
+        return duplicateStringBytes;
+    }
+
+    //Visible for testing
+    void add(Object value) {
+        if (value == null || !visited.add(value)) {
+            return;
+        }
+        if (value instanceof String) {
+            String string = (String) value;
+            long bytes = 24 + align(16 + 2L * string.length());
+            retainedBytes += bytes;
+            if (!strings.add(string)) {
+                duplicateStringBytes += bytes;
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            // The map, its table and its entries
+            retainedBytes += 56 + align(16 + 4L * Integer.highestOneBit(Math.max(1, map.size()) * 2)) + 40L * map.size();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                add(entry.getKey());
+                add(entry.getValue());
+            }
+        } else if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            retainedBytes += 24 + align(16 + 4L * collection.size());
+            collection.forEach(this::add);
+        } else {
+            // Boxed primitives
+            retainedBytes += 16;
+        }
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.fabric8.launcher.booster.catalog.Booster;
+import io.fabric8.launcher.booster.catalog.spi.BoosterCatalogPathProvider;
+
+import static io.fabric8.launcher.base.Paths.deleteDirectory;
+import static io.fabric8.launcher.core.impl.catalog.BoosterContents.BOOSTERS_DIR;
+
+/**
+ * Serves the booster catalog from an on-disk snapshot of a previous clone, when there is one for the same
+ * repository and ref, instead of cloning it again.
+ *
+ * A snapshot is a copy of the catalog clone including the fetched booster contents (the {@code .boosters}
+ * directory), without the git metadata. Snapshots live in {@code <root>/<repository hash>-<ref>/<commit>}
+ * and the {@code current} file next to them names the latest one. They are written in a staging directory
+ * and moved into place, so the root can be a volume shared by several pods.
+ *
+ * The contents of the boosters of a loaded snapshot are served from it. The ones missing from it are cloned into
+ * it, where the catalog service expects them: each clone is staged and moved into place, so the pods loading the
+ * same snapshot never see a partial one. Nothing else in a snapshot is modified once it is saved.
+ *
+ * A loaded snapshot is leased with a file in {@code .leases}, renewed while it is served and deleted once it is
+ * released. Saving a snapshot deletes the other snapshots of the ref that are neither current nor leased. A lease
+ * not renewed for {@link #LEASE_EXPIRY_MILLIS} belongs to a pod that is gone.
+ */
+public class CatalogSnapshotPathProvider implements BoosterCatalogPathProvider {
+
+    private static final Logger log = Logger.getLogger(CatalogSnapshotPathProvider.class.getName());
+
+    private static final String CURRENT = "current";
+
+    private static final String SNAPSHOT_PROPERTIES = ".snapshot.properties";
+
+    private static final String COMMIT = "commit";
+
+    private static final String LEASES = ".leases";
+
+    private static final String LEASE_SUFFIX = ".lease";
+
+    private static final String PRUNED_PREFIX = ".pruned-";
+
+    static final long LEASE_EXPIRY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final long LEASE_RENEWAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final Path snapshots;
+
+    private final String repository;
+
+    private final String ref;
+
+    private final boolean load;
+
+    private final BoosterCatalogPathProvider remote;
+
+    private volatile Path catalogPath;
+
+    private volatile String commit;
+
+    private volatile boolean loaded;
+
+    private volatile Path lease;
+
+    private volatile long leaseRenewedMillis;
+
+    /**
+     * @param root       the directory containing the snapshots
+     * @param repository the catalog repository URI
+     * @param ref        the resolved catalog ref
+     * @param load       false to always clone the catalog (eg. when it is known to have changed)
+     * @param remote     the provider cloning the catalog when it is not loaded from a snapshot
+     */
+    public CatalogSnapshotPathProvider(Path root, String repository, String ref, boolean load, BoosterCatalogPathProvider remote) {
+        this.snapshots = root.resolve(hash(repository) + '-' + ref.replaceAll("[^A-Za-z0-9._-]", "_"));
+        this.repository = repository;
+        this.ref = ref;
+        this.load = load;
+        this.remote = remote;
+    }
+
+    @Override
+    public Path createCatalogPath() throws IOException {
+        if (load) {
+            Path snapshot = currentSnapshot();
+            if (snapshot != null) {
+                Path snapshotLease = lease(snapshot.getFileName().toString());
+                // It may have been pruned before it was leased
+                if (snapshotLease != null && Files.isRegularFile(snapshot.resolve(SNAPSHOT_PROPERTIES))) {
+                    log.log(Level.INFO, "Loading catalog snapshot {0}", snapshot);
+                    commit = snapshot.getFileName().toString();
+                    catalogPath = snapshot;
+                    lease = snapshotLease;
+                    leaseRenewedMillis = System.currentTimeMillis();
+                    loaded = true;
+                    return snapshot;
+                }
+                if (snapshotLease != null) {
+                    Files.deleteIfExists(snapshotLease);
+                }
+            }
+        }
+        Path path = remote.createCatalogPath();
+        commit = GitCommands.run(path, "rev-parse", "HEAD").trim();
+        catalogPath = path;
+        return path;
+    }
+
+    @Override
+    public Path createBoosterContentPath(Booster booster) throws IOException {
+        if (!loaded) {
+            return remote.createBoosterContentPath(booster);
+        }
+        renewLease();
+        // The catalog service has created the (empty) directory of a booster missing from the snapshot already
+        return BoosterContents.fetch(catalogPath.resolve(BOOSTERS_DIR), booster);
+    }
+
+    /**
+     * Renews the lease of the loaded snapshot, if it was not renewed lately
+     */
+    public void renewLease() {
+        Path current = lease;
+        long now = System.currentTimeMillis();
+        if (current == null || now - leaseRenewedMillis < LEASE_RENEWAL_MILLIS) {
+            return;
+        }
+        leaseRenewedMillis = now;
+        try {
+            Files.setLastModifiedTime(current, FileTime.fromMillis(now));
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Error while renewing the lease " + current, e);
+        }
+    }
+
+    /**
+     * Releases the lease of the loaded snapshot, once no request serves its catalog anymore
+     */
+    public void release() {
+        Path current = lease;
+        lease = null;
+        try {
+            if (current != null) {
+                Files.deleteIfExists(current);
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Error while releasing catalog snapshot " + catalogPath, e);
+        }
+    }
+
+    /**
+     * @return true if the catalog was loaded from a snapshot
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Stores the cloned catalog and the booster contents fetched so far as the current snapshot of its ref.
+     * Does nothing if the catalog was loaded from a snapshot or the snapshot exists already
+     */
+    public void save() throws IOException {
+        Path source = catalogPath;
+        if (loaded || source == null) {
+            return;
+        }
+        Path snapshot = snapshots.resolve(commit);
+        if (!Files.isDirectory(snapshot)) {
+            Files.createDirectories(snapshots);
+            Path staging = Files.createTempDirectory(snapshots, ".staging");
+            try {
+                copy(source, staging);
+                Properties properties = new Properties();
+                properties.setProperty("repository", repository);
+                properties.setProperty("ref", ref);
+                properties.setProperty(COMMIT, commit);
+                try (Writer writer = Files.newBufferedWriter(staging.resolve(SNAPSHOT_PROPERTIES))) {
+                    properties.store(writer, null);
+                }
+                Files.move(staging, snapshot, StandardCopyOption.ATOMIC_MOVE);
+                log.log(Level.INFO, "Saved catalog snapshot {0}", snapshot);
+            } catch (IOException e) {
+                if (!Files.isDirectory(snapshot)) {
+                    throw e;
+                }
+                // Saved by another pod in the meantime
+                log.log(Level.FINE, "Catalog snapshot {0} already exists", snapshot);
+            } finally {
+                if (Files.exists(staging)) {
+                    deleteDirectory(staging);
+                }
+            }
+        }
+        Path pointer = Files.createTempFile(snapshots, ".current", ".tmp");
+        Files.write(pointer, commit.getBytes(StandardCharsets.UTF_8));
+        Files.move(pointer, snapshots.resolve(CURRENT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        prune();
+    }
+
+    /**
+     * @return true if the ref now points to a different commit than the loaded snapshot
+     */
+    public boolean isStale() throws IOException {
+        if (!loaded) {
+            return false;
+        }
+        String remoteCommit = null;
+        for (String line : GitCommands.run(null, "ls-remote", repository, ref).split("\n")) {
+            String[] columns = line.trim().split("\\s+");
+            if (columns.length == 2) {
+                // Annotated tags are listed twice, the peeled one (ending with ^{}) is the commit
+                if (remoteCommit == null || columns[1].endsWith("^{}")) {
+                    remoteCommit = columns[0];
+                }
+            }
+        }
+        return remoteCommit != null && !remoteCommit.equals(commit);
+    }
+
+    private Path currentSnapshot() {
+        try {
+            Path pointer = snapshots.resolve(CURRENT);
+            if (!Files.isRegularFile(pointer)) {
+                return null;
+            }
+            Path snapshot = snapshots.resolve(new String(Files.readAllBytes(pointer), StandardCharsets.UTF_8).trim());
+            Path propertiesFile = snapshot.resolve(SNAPSHOT_PROPERTIES);
+            if (!Files.isRegularFile(propertiesFile)) {
+                return null;
+            }
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(propertiesFile)) {
+                properties.load(reader);
+            }
+            return snapshot.getFileName().toString().equals(properties.getProperty(COMMIT)) ? snapshot : null;
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Error while reading catalog snapshot from " + snapshots, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return a new lease of the snapshot of the given commit, null if it could not be created
+     */
+    private Path lease(String snapshotCommit) {
+        try {
+            Path leases = Files.createDirectories(snapshots.resolve(LEASES));
+            return Files.createTempFile(leases, snapshotCommit + '.', LEASE_SUFFIX);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Error while leasing catalog snapshot " + snapshotCommit, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the commits of the snapshots with a lease, deleting the expired leases
+     */
+    private Set<String> leasedCommits() throws IOException {
+        Set<String> leased = new HashSet<>();
+        Path leases = snapshots.resolve(LEASES);
+        if (!Files.isDirectory(leases)) {
+            return leased;
+        }
+        long expired = System.currentTimeMillis() - LEASE_EXPIRY_MILLIS;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(leases, "*" + LEASE_SUFFIX)) {
+            for (Path leaseFile : stream) {
+                if (lastModified(leaseFile) < expired) {
+                    log.log(Level.INFO, "Deleting expired catalog snapshot lease {0}", leaseFile);
+                    Files.deleteIfExists(leaseFile);
+                } else {
+                    String name = leaseFile.getFileName().toString();
+                    leased.add(name.substring(0, name.indexOf('.')));
+                }
+            }
+        }
+        return leased;
+    }
+
+    /**
+     * Deletes the snapshots that are neither current nor leased. A snapshot is moved aside before its leases are
+     * checked again, so that a pod leasing it in the meantime keeps it.
+     */
+    private void prune() {
+        try {
+            String current = new String(Files.readAllBytes(snapshots.resolve(CURRENT)), StandardCharsets.UTF_8).trim();
+            Set<String> leased = leasedCommits();
+            List<Path> candidates = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(snapshots, Files::isDirectory)) {
+                stream.forEach(candidates::add);
+            }
+            for (Path version : candidates) {
+                String name = version.getFileName().toString();
+                if (name.startsWith(PRUNED_PREFIX)) {
+                    // Left over by an interrupted prune
+                    deleteDirectory(version);
+                    continue;
+                }
+                if (name.startsWith(".") || name.equals(current) || name.equals(commit) || leased.contains(name)) {
+                    continue;
+                }
+                Path pruned = snapshots.resolve(PRUNED_PREFIX + name);
+                Files.move(version, pruned, StandardCopyOption.ATOMIC_MOVE);
+                if (leasedCommits().contains(name)) {
+                    Files.move(pruned, version, StandardCopyOption.ATOMIC_MOVE);
+                    continue;
+                }
+                log.log(Level.INFO, "Deleting catalog snapshot {0}", version);
+                deleteDirectory(pruned);
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Error while pruning catalog snapshots in " + snapshots, e);
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void copy(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (".git".equals(String.valueOf(dir.getFileName()))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                // Submodules have a .git file instead of a directory
+                if (!".git".equals(String.valueOf(file.getFileName()))) {
+                    Files.copy(file, target.resolve(source.relativize(file).toString()), StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 6; i++) {
+                sb.append(String.format("%02x", hash[i]));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
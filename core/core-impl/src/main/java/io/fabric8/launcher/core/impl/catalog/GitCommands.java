@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the native git client, like the booster catalog does to clone repositories
+ */
+final class GitCommands {
+
+    private GitCommands() {
+        throw new IllegalAccessError("Utility class");
+    }
+
+    /**
+     * @param directory the repository to run the command in, null for the current directory
+     * @param args      the git command and its arguments
+     * @return the output of the command
+     * @throws IOException if the command could not be run or returned a non zero exit code
+     */
+    static String run(Path directory, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        if (directory != null) {
+            command.add("-C");
+            command.add(directory.toString());
+        }
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream is = process.getInputStream()) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new IOException(command + " returned exit code " + exitCode + ": " + output.toString(StandardCharsets.UTF_8.name()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+        return output.toString(StandardCharsets.UTF_8.name());
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.fabric8.launcher.booster.catalog.Booster;
+import io.fabric8.launcher.booster.catalog.spi.BoosterCatalogPathProvider;
+import io.fabric8.launcher.booster.catalog.spi.NativeGitBoosterCatalogPathProvider;
+import io.fabric8.launcher.core.spi.DirectoryReaper;
+
+import static io.fabric8.launcher.core.impl.catalog.BoosterContents.BOOSTERS_DIR;
+
+/**
+ * Clones the booster catalog, reusing the clone of the previous catalog when there is one.
+ *
+ * The previous clone is copied and fast-forwarded with a shallow {@code git fetch} of the ref instead of being
+ * cloned again. The boosters whose descriptors changed between both commits (their {@code booster.yaml} or a
+ * {@code common.yaml} above it) are fetched again, the contents of every other booster are carried over from
+ * the previous clone as hard links. The previous clone is left untouched, as it is still being served.
+ *
+ * The library clone only knows about the catalogs it cloned itself, so the contents of the boosters of a refreshed
+ * catalog are resolved here: the carried over ones as they are, the others cloned next to them.
+ *
+ * Both clones are cache directories of the {@link DirectoryReaper}.
+ */
+public class IncrementalCatalogPathProvider implements BoosterCatalogPathProvider {
+
+    private static final Logger log = Logger.getLogger(IncrementalCatalogPathProvider.class.getName());
+
+    private final String repository;
+
+    private final String ref;
+
+    private final Path previous;
+
+    private final DirectoryReaper reaper;
+
+    // Created along with the catalog path, so that the directory it clones into is not created upfront
+    private volatile BoosterCatalogPathProvider clone;
+
+    private volatile Path catalogPath;
+
+    private volatile boolean incremental;
+
+    private volatile int changedPaths;
+
+    private volatile int carriedOverBoosters;
+
+    /**
+     * @param repository the catalog repository URI
+     * @param ref        the resolved catalog ref
+     * @param previous   the clone of the catalog being replaced, null if there is none
+     * @param reaper     allocates the directory the catalog is cloned into
+     */
+    public IncrementalCatalogPathProvider(String repository, String ref, Path previous, DirectoryReaper reaper) {
+        this.repository = repository;
+        this.ref = ref;
+        this.previous = previous;
+        this.reaper = reaper;
+    }
+
+    @Override
+    public Path createCatalogPath() throws IOException {
+        if (previous != null && Files.isDirectory(previous.resolve(".git"))) {
+            try {
+                Path path = refresh();
+                catalogPath = path;
+                incremental = true;
+                return path;
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Error while refreshing " + previous + ", cloning the catalog again", e);
+            }
+        }
+        Path target = reaper.createCacheDirectory("booster-catalog");
+        clone = new NativeGitBoosterCatalogPathProvider(repository, ref, target);
+        try {
+            Path path = clone.createCatalogPath();
+            catalogPath = path;
+            return path;
+        } catch (IOException | RuntimeException e) {
+            reaper.delete(target);
+            throw e;
+        }
+    }
+
+    @Override
+    public Path createBoosterContentPath(Booster booster) throws IOException {
+        if (incremental) {
+            return BoosterContents.fetch(catalogPath.resolve(BOOSTERS_DIR), booster);
+        }
+        return clone.createBoosterContentPath(booster);
+    }
+
+    /**
+     * @return the catalog clone, null until it is created
+     */
+    public Path getCatalogPath() {
+        return catalogPath;
+    }
+
+    /**
+     * @return true if the catalog was refreshed from the previous clone
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * @return the number of files changed since the previous clone
+     */
+    public int getChangedPaths() {
+        return changedPaths;
+    }
+
+    /**
+     * @return the number of booster contents carried over from the previous clone
+     */
+    public int getCarriedOverBoosters() {
+        return carriedOverBoosters;
+    }
+
+    private Path refresh() throws IOException {
+        String origin = GitCommands.run(previous, "config", "--get", "remote.origin.url").trim();
+        if (!origin.equals(repository)) {
+            throw new IOException("Previous clone is from " + origin + " instead of " + repository);
+        }
+        Path target = reaper.createCacheDirectory("booster-catalog");
+        try {
+            copyTree(previous, target, false, true);
+            String oldCommit = GitCommands.run(target, "rev-parse", "HEAD").trim();
+            GitCommands.run(target, "fetch", "--quiet", "--depth=1", "origin", ref);
+            GitCommands.run(target, "reset", "--quiet", "--hard", "FETCH_HEAD");
+            GitCommands.run(target, "submodule", "--quiet", "update", "--init", "--recursive", "--depth=1");
+            String diff = GitCommands.run(target, "-c", "core.quotepath=false", "diff", "--name-only", oldCommit, "HEAD");
+            Set<String> affected = new HashSet<>();
+            int changed = 0;
+            for (String path : diff.split("\n")) {
+                if (!path.trim().isEmpty()) {
+                    changed++;
+                    affectedBoosters(path.trim(), target, affected);
+                }
+            }
+            int carried = 0;
+            Path boosters = previous.resolve(BOOSTERS_DIR);
+            if (Files.isDirectory(boosters)) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(boosters)) {
+                    for (Path content : stream) {
+                        String id = content.getFileName().toString();
+                        // Skips the fetches that were interrupted
+                        if (!affected.contains(id) && !id.startsWith(".")) {
+                            copyTree(content, target.resolve(BOOSTERS_DIR).resolve(id), true, false);
+                            carried++;
+                        }
+                    }
+                }
+            }
+            changedPaths = changed;
+            carriedOverBoosters = carried;
+            log.log(Level.INFO, "Refreshed catalog {0} to {1}: {2} changed files, {3} boosters to fetch again",
+                    new Object[]{previous, ref, changed, affected.size()});
+            return target;
+        } catch (IOException | RuntimeException e) {
+            reaper.delete(target);
+            throw e;
+        }
+    }
+
+    /**
+     * Adds the ids of the boosters described by the given changed path
+     */
+    private void affectedBoosters(String changedPath, Path target, Set<String> affected) throws IOException {
+        String lowerCase = changedPath.toLowerCase();
+        if (lowerCase.endsWith("booster.yaml")) {
+            affected.add(boosterId(changedPath));
+        } else if (lowerCase.equals("common.yaml") || lowerCase.endsWith("/common.yaml")) {
+            // Applies to every booster below it, in the previous or the new catalog
+            int slash = changedPath.lastIndexOf('/');
+            String dir = slash < 0 ? "" : changedPath.substring(0, slash);
+            for (Path catalog : new Path[]{previous, target}) {
+                collectBoosters(catalog, dir.isEmpty() ? catalog : catalog.resolve(dir), affected);
+            }
+        }
+    }
+
+    private static void collectBoosters(Path catalog, Path root, Set<String> affected) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return !dir.equals(root) && dir.getFileName().toString().startsWith(".") ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (file.getFileName().toString().toLowerCase().endsWith("booster.yaml")) {
+                    affected.add(boosterId(catalog.relativize(file).toString()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Same id as the one given by the catalog service to the booster described by the given file
+     */
+    static String boosterId(String descriptorPath) {
+        String id = descriptorPath.toLowerCase();
+        int dot = id.lastIndexOf('.');
+        if (dot > 0) {
+            id = id.substring(0, dot);
+        }
+        return id.replace('/', '_').replace('\\', '_');
+    }
+
+    private static void copyTree(Path source, Path target, boolean link, boolean skipBoosters) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (skipBoosters && dir.equals(source.resolve(BOOSTERS_DIR))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path copy = target.resolve(source.relativize(file).toString());
+                if (link && attrs.isRegularFile()) {
+                    try {
+                        Files.createLink(copy, file);
+                        return FileVisitResult.CONTINUE;
+                    } catch (IOException | UnsupportedOperationException e) {
+                        // Not on the same filesystem, fallback to a copy
+                    }
+                }
+                Files.copy(file, copy, LinkOption.NOFOLLOW_LINKS, StandardCopyOption.COPY_ATTRIBUTES);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
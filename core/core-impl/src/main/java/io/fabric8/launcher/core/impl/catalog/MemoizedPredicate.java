@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates a predicate at most once per object, and remembers the result for as long as the predicate is kept.
+ *
+ * Objects are compared by identity, so the objects tested must not change in a way that would change the result.
+ * Meant for the boosters of a single catalog generation, which are immutable once indexed: the memoized predicate
+ * is dropped along with the catalog.
+ */
+public final class MemoizedPredicate<T> implements Predicate<T> {
+
+    private final Predicate<? super T> predicate;
+
+    private final ConcurrentMap<Identity, Boolean> results = new ConcurrentHashMap<>();
+
+    private final LongAdder evaluations = new LongAdder();
+
+    public MemoizedPredicate(Predicate<? super T> predicate) {
+        this.predicate = predicate;
+    }
+
+    @Override
+    public boolean test(T t) {
+        Identity key = new Identity(t);
+        Boolean result = results.get(key);
+        if (result == null) {
+            evaluations.increment();
+            result = predicate.test(t);
+            results.putIfAbsent(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of times the wrapped predicate was evaluated
+     */
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    /**
+     * @return the number of objects whose result is remembered
+     */
+    public int size() {
+        return results.size();
+    }
+
+    private static final class Identity {
+
+        private final Object object;
+
+        private Identity(Object object) {
+            this.object = object;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Identity && ((Identity) o).object == object;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(object);
+        }
+    }
+}
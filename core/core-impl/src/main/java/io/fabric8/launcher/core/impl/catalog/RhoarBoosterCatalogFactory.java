@@ -7,18 +7,27 @@
 
 package io.fabric8.launcher.core.impl.catalog;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.Predicate;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.context.Dependent;
 import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Event;
 import javax.enterprise.event.Observes;
 import javax.enterprise.inject.Produces;
 import javax.inject.Inject;
@@ -30,31 +39,108 @@ import io.fabric8.launcher.booster.catalog.rhoar.BoosterPredicates;
 import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
 import io.fabric8.launcher.booster.catalog.rhoar.RhoarBoosterCatalog;
 import io.fabric8.launcher.booster.catalog.rhoar.RhoarBoosterCatalogService;
+import io.fabric8.launcher.booster.catalog.spi.BoosterCatalogPathProvider;
 import io.fabric8.launcher.core.api.catalog.BoosterCatalogFactory;
+import io.fabric8.launcher.core.api.catalog.BoosterCatalogIndex;
+import io.fabric8.launcher.core.api.catalog.CatalogIndexedEvent;
+import io.fabric8.launcher.core.spi.DirectoryReaper;
+import io.fabric8.launcher.core.spi.StatisticsProvider;
 import okhttp3.Request;
 
 import static io.fabric8.launcher.core.impl.CoreEnvVarSysPropNames.LAUNCHER_BACKEND_ENVIRONMENT;
 import static io.fabric8.launcher.core.impl.CoreEnvVarSysPropNames.LAUNCHER_BOOSTER_CATALOG_FILTER;
+import static io.fabric8.launcher.core.impl.CoreEnvVarSysPropNames.LAUNCHER_BOOSTER_CATALOG_SNAPSHOT_ROOT;
 import static io.fabric8.launcher.core.impl.CoreEnvVarSysPropNames.LAUNCHER_PREFETCH_BOOSTERS;
+import static io.fabric8.launcher.core.impl.CoreEnvVarSysPropNames.LAUNCHER_PREFETCH_BOOSTERS_CONCURRENCY;
 
 /**
  * Default implementation of BoosterCatalogFactory
+ *
+ * The catalog is rebuilt blue/green: a reset clones and indexes the next catalog (and prefetches its boosters)
+ * in the background while the current one keeps being served, and then replaces it at once. Resets requested
+ * while a rebuild is running are coalesced into a single rebuild that starts when the running one is done.
+ *
+ * When {@code LAUNCHER_BOOSTER_CATALOG_SNAPSHOT_ROOT} is set, the first catalog is loaded from the snapshot of its
+ * ref if there is one, and checked against the remote repository in the background. Every catalog cloned with all
+ * of its boosters fetched is saved as the snapshot of its ref. A loaded snapshot is leased until the catalog loaded
+ * from it is replaced, so that the other pods do not delete it.
+ *
+ * A rebuild refreshes the clone of the catalog it replaces instead of cloning the catalog again, and fetches only the
+ * boosters whose descriptors changed (see {@link IncrementalCatalogPathProvider}).
+ *
+ * Boosters are prefetched the most launched first, at most {@code LAUNCHER_PREFETCH_BOOSTERS_CONCURRENCY} at a time
+ * (see {@link BoosterPrefetcher}).
+ *
+ * A {@link CatalogIndexedEvent} is fired every time an indexed catalog goes live, before {@link #waitForIndex()} returns.
  */
 @ApplicationScoped
-public class RhoarBoosterCatalogFactory implements BoosterCatalogFactory {
-
-    private final AtomicReference<RhoarBoosterCatalogService> defaultBoosterCatalog = new AtomicReference<>();
+public class RhoarBoosterCatalogFactory implements BoosterCatalogFactory, StatisticsProvider {
 
     private static final Logger log = Logger.getLogger(RhoarBoosterCatalogFactory.class.getName());
 
+    private static final int DEFAULT_PREFETCH_CONCURRENCY = 4;
+
+    // The catalog being served
+    private volatile Catalog live;
+
+    // The rebuild in progress, completed once its catalog is live (or failed)
+    private CompletableFuture<Catalog> building;
+
+    private boolean rebuildRequested;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder resets = new LongAdder();
+
+    private final LongAdder coalescedResets = new LongAdder();
+
+    private final LongAdder failedRebuilds = new LongAdder();
+
+    private final LongAdder snapshotLoads = new LongAdder();
+
+    private final LongAdder snapshotSaves = new LongAdder();
+
+    private final LongAdder staleSnapshots = new LongAdder();
+
+    private final LongAdder incrementalRefreshes = new LongAdder();
+
+    private final LongAdder fullClones = new LongAdder();
+
+    private volatile int lastChangedPaths;
+
+    private volatile int lastCarriedOverBoosters;
+
+    // The clone of the catalog replaced last, deleted when the next one is replaced
+    // so that the requests still using it can complete
+    private Path retiredClone;
+
+    // Same for the snapshot the catalog replaced last was loaded from, released when the next one is replaced
+    private CatalogSnapshotPathProvider retiredSnapshot;
+
     private final ExecutorService async;
 
     private final HttpClient httpClient;
 
+    private final BoosterPopularity popularity;
+
+    private final DirectoryReaper reaper;
+
+    private final Consumer<CatalogIndexedEvent> indexed;
+
     @Inject
-    public RhoarBoosterCatalogFactory(ExecutorService async, HttpClient httpClient) {
+    public RhoarBoosterCatalogFactory(ExecutorService async, HttpClient httpClient, BoosterPopularity popularity, DirectoryReaper reaper,
+                                      Event<CatalogIndexedEvent> indexed) {
+        this(async, httpClient, popularity, reaper, indexed::fire);
+    }
+
+    //Visible for testing
+    RhoarBoosterCatalogFactory(ExecutorService async, HttpClient httpClient, BoosterPopularity popularity, DirectoryReaper reaper,
+                               Consumer<CatalogIndexedEvent> indexed) {
         this.async = async;
         this.httpClient = httpClient;
+        this.popularity = popularity;
+        this.reaper = reaper;
+        this.indexed = indexed;
     }
 
     /**
@@ -68,6 +154,9 @@ public class RhoarBoosterCatalogFactory implements BoosterCatalogFactory {
     protected RhoarBoosterCatalogFactory() {
         this.async = null;
         this.httpClient = null;
+        this.popularity = null;
+        this.reaper = null;
+        this.indexed = null;
     }
 
     // Initialize on startup
@@ -77,53 +166,339 @@ public class RhoarBoosterCatalogFactory implements BoosterCatalogFactory {
 
     @PostConstruct
     @Override
-    public void reset() {
-        defaultBoosterCatalog.set(null);
-        getBoosterCatalog();
+    public synchronized void reset() {
+        resets.increment();
+        if (building != null) {
+            if (rebuildRequested) {
+                coalescedResets.increment();
+            }
+            rebuildRequested = true;
+        } else {
+            rebuild();
+        }
     }
 
     @Produces
     @Dependent
     @Override
     public RhoarBoosterCatalog getBoosterCatalog() {
-        return defaultBoosterCatalog.updateAndGet(this::createBoosterCatalog);
+        return live().catalogService;
     }
 
+    @Override
+    public BoosterCatalogIndex getBoosterCatalogIndex() {
+        Catalog catalog = live();
+        if (catalog.index != null) {
+            return catalog.index;
+        }
+        // Still indexing the first catalog, index what is there so far
+        return new RhoarBoosterCatalogIndex(catalog.catalogService, catalog.catalogService.getBoosters());
+    }
+
+    /**
+     * @return the readiness of the contents of the given booster of the catalog being served
+     */
+    public BoosterPrefetcher.Readiness getReadiness(RhoarBooster booster) {
+        return live().prefetcher.getReadiness(booster);
+    }
+
+    @Override
+    public String getCatalogRef() {
+        return live().ref;
+    }
+
+    @Override
+    public long getGeneration() {
+        return live().generation;
+    }
+
+    @Override
+    public boolean isIndexed() {
+        return live().index != null;
+    }
+
+    /**
+     * Waits until the catalog being rebuilt, if any, is live
+     */
     @Override
     public void waitForIndex() throws InterruptedException, ExecutionException {
-        RhoarBoosterCatalogService catalogService = defaultBoosterCatalog.get();
-        if (catalogService != null) {
-            catalogService.index().get();
+        CompletableFuture<Catalog> rebuild;
+        while ((rebuild = currentRebuild()) != null) {
+            rebuild.get();
+        }
+    }
+
+    @Override
+    public String getStatisticsName() {
+        return "boosterCatalog";
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Catalog catalog = live();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ref", catalog.ref);
+        stats.put("generation", catalog.generation);
+        stats.put("indexed", catalog.index != null);
+        stats.put("boosters", catalog.index != null ? catalog.index.size() : 0);
+        stats.put("indexDurationMillis", catalog.indexDurationMillis);
+        stats.put("rebuilding", currentRebuild() != null);
+        stats.put("resets", resets.sum());
+        stats.put("coalescedResets", coalescedResets.sum());
+        stats.put("failedRebuilds", failedRebuilds.sum());
+        stats.put("snapshotLoads", snapshotLoads.sum());
+        stats.put("snapshotSaves", snapshotSaves.sum());
+        stats.put("staleSnapshots", staleSnapshots.sum());
+        stats.put("incrementalRefreshes", incrementalRefreshes.sum());
+        stats.put("fullClones", fullClones.sum());
+        stats.put("lastChangedPaths", lastChangedPaths);
+        stats.put("lastCarriedOverBoosters", lastCarriedOverBoosters);
+        stats.put("boosterReadiness", catalog.prefetcher.getReadinessCounts());
+        stats.put("filterEvaluations", catalog.filter != null ? catalog.filter.getEvaluations() : 0L);
+        stats.put("searchTerms", catalog.index != null ? catalog.index.getTextIndex().size() : 0);
+        stats.put("estimatedRetainedBytes", catalog.footprint != null ? catalog.footprint.getRetainedBytes() : 0L);
+        stats.put("estimatedDuplicateStringBytes", catalog.footprint != null ? catalog.footprint.getDuplicateStringBytes() : 0L);
+        return stats;
+    }
+
+    private Catalog live() {
+        Catalog catalog = live;
+        if (catalog == null) {
+            synchronized (this) {
+                if (live == null && building == null) {
+                    rebuild();
+                }
+                catalog = live;
+            }
+        }
+        if (catalog != null && catalog.snapshot != null) {
+            // Only touches the lease file once in a while
+            catalog.snapshot.renewLease();
+        }
+        return catalog;
+    }
+
+    private synchronized CompletableFuture<Catalog> currentRebuild() {
+        return building;
+    }
+
+    // Must be called while holding the lock, with no rebuild in progress
+    private void rebuild() {
+        CompletableFuture<Catalog> done = new CompletableFuture<>();
+        building = done;
+        long start = System.currentTimeMillis();
+        if (live == null) {
+            // Nothing to serve yet, so serve the first catalog while it is being indexed
+            String ref;
+            IncrementalCatalogPathProvider clone;
+            CatalogSnapshotPathProvider snapshot;
+            RhoarBoosterCatalogService service;
+            MemoizedPredicate<RhoarBooster> filter;
+            try {
+                ref = resolveRef(LauncherConfiguration.boosterCatalogRepositoryURI(), LauncherConfiguration.boosterCatalogRepositoryRef());
+                clone = clone(ref, null);
+                snapshot = snapshot(ref, true, clone);
+                filter = filter();
+                service = createBoosterCatalog(ref, snapshot != null ? snapshot : clone, filter);
+            } catch (RuntimeException e) {
+                building = null;
+                done.completeExceptionally(e);
+                throw e;
+            }
+            long firstGeneration = generation.incrementAndGet();
+            BoosterPrefetcher prefetcher = prefetcher();
+            live = new Catalog(service, ref, firstGeneration, null, 0, null, null, prefetcher, filter);
+            CompletableFuture<Set<RhoarBooster>> result = service.index();
+            result.thenApply(boosters -> new Catalog(service, ref, firstGeneration, index(service), System.currentTimeMillis() - start, clonePath(clone),
+                                                     loaded(snapshot), prefetcher, filter))
+                    .whenComplete((catalog, e) -> rebuilt(done, catalog, e));
+            result.thenComposeAsync(boosters -> prefetch(service, prefetcher), async)
+                    .thenAccept(fetched -> updateSnapshot(snapshot, fetched));
+        } else {
+            Path previous = live.clonePath;
+            CompletableFuture.supplyAsync(() -> resolveRef(LauncherConfiguration.boosterCatalogRepositoryURI(), LauncherConfiguration.boosterCatalogRepositoryRef()), async)
+                    .thenCompose(ref -> {
+                        // The catalog is being reset because it changed, so it is not loaded from a snapshot
+                        IncrementalCatalogPathProvider clone = clone(ref, previous);
+                        CatalogSnapshotPathProvider snapshot = snapshot(ref, false, clone);
+                        MemoizedPredicate<RhoarBooster> filter = filter();
+                        RhoarBoosterCatalogService service = createBoosterCatalog(ref, snapshot != null ? snapshot : clone, filter);
+                        BoosterPrefetcher prefetcher = prefetcher();
+                        return service.index()
+                                .thenCompose(boosters -> prefetch(service, prefetcher))
+                                .thenApply(fetched -> {
+                                    CompletableFuture.runAsync(() -> updateSnapshot(snapshot, fetched), async);
+                                    return new Catalog(service, ref, generation.incrementAndGet(), index(service), System.currentTimeMillis() - start, clonePath(clone),
+                                                       null, prefetcher, filter);
+                                });
+                    })
+                    .whenComplete((catalog, e) -> rebuilt(done, catalog, e));
+        }
+    }
+
+    /**
+     * @return a future completed with true if every booster was fetched. Fetch failures are logged, as the next catalog
+     * goes live once its boosters are fetched whether all of them could be or not
+     */
+    private static CompletableFuture<Boolean> prefetch(RhoarBoosterCatalogService service, BoosterPrefetcher prefetcher) {
+        if (!LAUNCHER_PREFETCH_BOOSTERS.booleanValue(true)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return prefetcher.prefetch(service.getBoosters());
+    }
+
+    private BoosterPrefetcher prefetcher() {
+        return new BoosterPrefetcher(popularity::getLaunches, LAUNCHER_PREFETCH_BOOSTERS_CONCURRENCY.intValue(DEFAULT_PREFETCH_CONCURRENCY), async);
+    }
+
+    /**
+     * @return the provider cloning the catalog, refreshing the given previous clone if there is one. Null if the
+     * catalog of this ref is bundled with the application, in which case it is not cloned at all
+     */
+    private IncrementalCatalogPathProvider clone(String ref, Path previous) {
+        if (!LauncherConfiguration.ignoreLocalZip()
+                && RhoarBoosterCatalogService.class.getClassLoader().getResource(String.format("/booster-catalog-%s.zip", ref)) != null) {
+            return null;
+        }
+        return new IncrementalCatalogPathProvider(LauncherConfiguration.boosterCatalogRepositoryURI(), ref, previous, reaper);
+    }
+
+    // The clone the next catalog is refreshed from, null if it was not cloned
+    private Path clonePath(IncrementalCatalogPathProvider clone) {
+        if (clone == null || clone.getCatalogPath() == null) {
+            return null;
+        }
+        if (clone.isIncremental()) {
+            incrementalRefreshes.increment();
+            lastChangedPaths = clone.getChangedPaths();
+            lastCarriedOverBoosters = clone.getCarriedOverBoosters();
+        } else {
+            fullClones.increment();
+        }
+        return clone.getCatalogPath();
+    }
+
+    private static CatalogSnapshotPathProvider snapshot(String ref, boolean load, IncrementalCatalogPathProvider clone) {
+        String root = LAUNCHER_BOOSTER_CATALOG_SNAPSHOT_ROOT.value();
+        if (root == null || clone == null) {
+            return null;
+        }
+        return new CatalogSnapshotPathProvider(Paths.get(root), LauncherConfiguration.boosterCatalogRepositoryURI(), ref, load, clone);
+    }
+
+    // Saves a complete cloned catalog, or rebuilds a catalog loaded from a snapshot that is out of date
+    private void updateSnapshot(CatalogSnapshotPathProvider snapshot, boolean fetched) {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            if (snapshot.isLoaded()) {
+                snapshotLoads.increment();
+                if (snapshot.isStale()) {
+                    log.info("Catalog snapshot is out of date, rebuilding the catalog");
+                    staleSnapshots.increment();
+                    reset();
+                }
+            } else if (fetched) {
+                snapshot.save();
+                snapshotSaves.increment();
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Error while updating the catalog snapshot", e);
+        }
+    }
+
+    private void rebuilt(CompletableFuture<Catalog> done, Catalog catalog, Throwable failure) {
+        synchronized (this) {
+            if (failure != null) {
+                failedRebuilds.increment();
+                log.log(Level.SEVERE, "Error while rebuilding the booster catalog, keeping generation " + (live != null ? live.generation : 0), failure);
+            } else {
+                retire(live, catalog);
+                live = catalog;
+                log.info(() -> "Booster catalog " + catalog.ref + " generation " + catalog.generation + " indexed in " + catalog.indexDurationMillis + " ms, retaining about "
+                        + catalog.footprint.getRetainedBytes() / 1024 + " KB");
+            }
+            building = null;
+            if (rebuildRequested) {
+                rebuildRequested = false;
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.log(Level.SEVERE, "Error while rebuilding the booster catalog", e);
+                }
+            }
+        }
+        if (failure != null) {
+            done.completeExceptionally(failure);
+        } else {
+            try {
+                indexed.accept(new CatalogIndexedEvent(catalog.generation, catalog.index));
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "Error while notifying that generation " + catalog.generation + " is indexed", e);
+            }
+            done.complete(catalog);
         }
     }
 
-    private RhoarBoosterCatalogService createBoosterCatalog(RhoarBoosterCatalogService current) {
-        if (current != null) {
-            return current;
+    // The snapshot the first catalog was loaded from, null if it was not
+    private static CatalogSnapshotPathProvider loaded(CatalogSnapshotPathProvider snapshot) {
+        return snapshot != null && snapshot.isLoaded() ? snapshot : null;
+    }
+
+    // Must be called while holding the lock
+    private void retire(Catalog previous, Catalog next) {
+        if (previous == null) {
+            return;
+        }
+        if (previous.snapshot != null && previous.snapshot != next.snapshot) {
+            CatalogSnapshotPathProvider expired = retiredSnapshot;
+            retiredSnapshot = previous.snapshot;
+            if (expired != null) {
+                CompletableFuture.runAsync(expired::release, async);
+            }
+        }
+        if (previous.clonePath == null || previous.clonePath.equals(next.clonePath)) {
+            return;
         }
-        RhoarBoosterCatalogService service = new RhoarBoosterCatalogService.Builder()
+        Path expired = retiredClone;
+        retiredClone = previous.clonePath;
+        if (expired != null) {
+            reaper.delete(expired);
+        }
+    }
+
+    private RhoarBoosterCatalogService createBoosterCatalog(String ref, BoosterCatalogPathProvider pathProvider, @Nullable MemoizedPredicate<RhoarBooster> filter) {
+        RhoarBoosterCatalogService.Builder builder = new RhoarBoosterCatalogService.Builder()
                 .catalogRepository(LauncherConfiguration.boosterCatalogRepositoryURI())
-                .catalogRef(resolveRef(LauncherConfiguration.boosterCatalogRepositoryURI(), LauncherConfiguration.boosterCatalogRepositoryRef()))
+                .catalogRef(ref)
                 .environment(LAUNCHER_BACKEND_ENVIRONMENT.value(defaultEnvironment()))
-                .filter(filter())
-                .executor(async)
-                .build();
-        CompletableFuture<Set<RhoarBooster>> result = service.index();
-        if (LAUNCHER_PREFETCH_BOOSTERS.booleanValue(true)) {
-            result.thenRunAsync(service::prefetchBoosters);
+                .filter(filter != null ? filter : b -> true)
+                .executor(async);
+        if (pathProvider != null) {
+            builder.pathProvider(pathProvider);
         }
-        return service;
+        return builder.build();
     }
 
-    private static Predicate<RhoarBooster> filter() {
-        Predicate<RhoarBooster> filter;
+    private static RhoarBoosterCatalogIndex index(RhoarBoosterCatalogService service) {
+        RhoarBoosterCatalogIndex index = new RhoarBoosterCatalogIndex(service, service.getBoosters());
+        // Built upfront, so that it is swapped in along with the catalog
+        index.getTextIndex();
+        return index;
+    }
+
+    /**
+     * @return the filter of the boosters of a new catalog, null if there is none. The script is compiled once and
+     * evaluated once per booster, as the catalog service applies the filter again on every query
+     */
+    @Nullable
+    private static MemoizedPredicate<RhoarBooster> filter() {
         String script = LAUNCHER_BOOSTER_CATALOG_FILTER.value();
-        if (script != null) {
-            filter = BoosterPredicates.withScriptFilter(script);
-        } else {
-            filter = b -> true;
+        if (script == null) {
+            return null;
         }
-        return filter;
+        return new MemoizedPredicate<>(BoosterPredicates.withScriptFilter(script));
     }
 
     // If no booster environment is specified we choose a default one ourselves:
@@ -154,4 +529,46 @@ public class RhoarBoosterCatalogFactory implements BoosterCatalogFactory {
         }
         return catalogRef;
     }
-}
\ No newline at end of file
+
+    private static final class Catalog {
+
+        private final RhoarBoosterCatalogService catalogService;
+
+        private final String ref;
+
+        private final long generation;
+
+        // Null until the catalog is indexed
+        private final RhoarBoosterCatalogIndex index;
+
+        private final long indexDurationMillis;
+
+        // Null until the catalog is indexed
+        private final CatalogFootprint footprint;
+
+        // The git clone of the catalog, null if it was loaded from a snapshot or bundled with the application
+        private final Path clonePath;
+
+        // The snapshot the catalog was loaded from, leased while it is served. Null if it was not
+        private final CatalogSnapshotPathProvider snapshot;
+
+        private final BoosterPrefetcher prefetcher;
+
+        // Null if the catalog is not filtered
+        private final MemoizedPredicate<RhoarBooster> filter;
+
+        private Catalog(RhoarBoosterCatalogService catalogService, String ref, long generation, RhoarBoosterCatalogIndex index, long indexDurationMillis,
+                        Path clonePath, CatalogSnapshotPathProvider snapshot, BoosterPrefetcher prefetcher, MemoizedPredicate<RhoarBooster> filter) {
+            this.catalogService = catalogService;
+            this.ref = ref;
+            this.generation = generation;
+            this.index = index;
+            this.indexDurationMillis = indexDurationMillis;
+            this.footprint = index != null ? CatalogFootprint.of(catalogService.getBoosters()) : null;
+            this.clonePath = clonePath;
+            this.snapshot = snapshot;
+            this.prefetcher = prefetcher;
+            this.filter = filter;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+import io.fabric8.launcher.booster.catalog.rhoar.AbstractCategory;
+import io.fabric8.launcher.booster.catalog.rhoar.BoosterPredicates;
+import io.fabric8.launcher.booster.catalog.rhoar.Mission;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBoosterCatalog;
+import io.fabric8.launcher.booster.catalog.rhoar.Runtime;
+import io.fabric8.launcher.booster.catalog.rhoar.Version;
+import io.fabric8.launcher.core.api.catalog.BoosterCatalogIndex;
+import org.apache.commons.beanutils.PropertyUtils;
+
+/**
+ * Bitmap indexes over a snapshot of the catalog boosters.
+ *
+ * Every booster gets a position, and each indexed attribute value maps to the set of positions that have it,
+ * so filtering becomes an intersection of {@link BitSet}s. Missions, runtimes, versions and the app enabled
+ * flags are indexed upfront; the paths of the metadata keys seen in the catalog (eg. {@code metadata.app.osio.enabled}
+ * or {@code runtime.metadata.pipelinePlatform}) are indexed the first time they are queried, up to
+ * {@link #MAX_LAZY_INDEXES} paths, after which the remaining paths are tested booster by booster. Those tests are
+ * memoized per combination of remaining parameters (up to {@link #MAX_LAZY_INDEXES} combinations too), so a
+ * repeated query evaluates each booster once. Any other path is tested booster by booster without taking an index
+ * or a memoized test, so that arbitrary query parameters can't use up the slots of the paths the catalog has.
+ *
+ * The text of the boosters is indexed as well, see {@link BoosterTextIndex}.
+ *
+ * Values are resolved and compared exactly like {@link BoosterPredicates#withParameters(Map)} and
+ * {@link BoosterPredicates#withAppEnabled(String)} do.
+ */
+public class RhoarBoosterCatalogIndex implements BoosterCatalogIndex {
+
+    static final int MAX_LAZY_INDEXES = 64;
+
+    private static final String FALSE = "false";
+
+    private final RhoarBoosterCatalog catalog;
+
+    private final RhoarBooster[] boosters;
+
+    private final Map<String, Mission> missions = new HashMap<>();
+
+    private final Map<String, Runtime> runtimes = new HashMap<>();
+
+    private final Map<List<Object>, RhoarBooster> coordinates = new HashMap<>();
+
+    // (mission, runtime) -> first booster of any version, for lookups without a version
+    private final Map<List<Object>, RhoarBooster> anyVersion = new HashMap<>();
+
+    // Application -> boosters enabled for it
+    private final ConcurrentMap<String, BitSet> appEnabled = new ConcurrentHashMap<>();
+
+    // The ids and metadata keys of the catalog, the only paths that may be indexed
+    private final Set<String> knownPaths = new HashSet<>();
+
+    // Parameter path -> value (case insensitive) -> boosters with that value
+    private final ConcurrentMap<String, Map<String, BitSet>> attributes = new ConcurrentHashMap<>();
+
+    // Built on the first search
+    private volatile BoosterTextIndex textIndex;
+
+    // Parameters that are not indexed -> their predicate
+    private final ConcurrentMap<Map<String, List<String>>, Predicate<RhoarBooster>> unindexedPredicates = new ConcurrentHashMap<>();
+
+    public RhoarBoosterCatalogIndex(RhoarBoosterCatalog catalog, Collection<RhoarBooster> boosters) {
+        this.catalog = catalog;
+        this.boosters = boosters.toArray(new RhoarBooster[0]);
+        for (RhoarBooster booster : this.boosters) {
+            if (booster.getMission() != null) {
+                missions.putIfAbsent(booster.getMission().getId(), booster.getMission());
+            }
+            if (booster.getRuntime() != null) {
+                runtimes.putIfAbsent(booster.getRuntime().getId(), booster.getRuntime());
+            }
+            coordinates.putIfAbsent(Arrays.asList(booster.getMission(), booster.getRuntime(), booster.getVersion()), booster);
+            anyVersion.putIfAbsent(Arrays.asList(booster.getMission(), booster.getRuntime()), booster);
+        }
+        for (String path : new String[]{"mission.id", "runtime.id", "version.id"}) {
+            knownPaths.add(path);
+            attribute(path);
+        }
+        for (RhoarBooster booster : this.boosters) {
+            addMetadataPaths("metadata", booster.getMetadata());
+            addMetadataPaths("mission", booster.getMission());
+            addMetadataPaths("runtime", booster.getRuntime());
+            addMetadataPaths("version", booster.getVersion());
+        }
+        for (RhoarBooster booster : this.boosters) {
+            Object apps = booster.getMetadata().get("app");
+            if (apps instanceof Map) {
+                ((Map<?, ?>) apps).keySet().forEach(app -> appEnabled(String.valueOf(app)));
+            }
+        }
+    }
+
+    @Override
+    public RhoarBoosterCatalog getBoosterCatalog() {
+        return catalog;
+    }
+
+    @Override
+    public Optional<Mission> getMission(String missionId) {
+        return Optional.ofNullable(missions.get(missionId));
+    }
+
+    @Override
+    public Optional<Runtime> getRuntime(String runtimeId) {
+        return Optional.ofNullable(runtimes.get(runtimeId));
+    }
+
+    @Override
+    public Optional<RhoarBooster> getBooster(Mission mission, Runtime runtime, Version version) {
+        if (version == null) {
+            // Like the catalog, a missing version matches any version
+            return Optional.ofNullable(anyVersion.get(Arrays.asList(mission, runtime)));
+        }
+        return Optional.ofNullable(coordinates.get(Arrays.asList(mission, runtime, version)));
+    }
+
+    @Override
+    public List<RhoarBooster> getBoosters(String application, Map<String, List<String>> parameters) {
+        BitSet result = matching(application, parameters);
+        List<RhoarBooster> matching = new ArrayList<>(result.cardinality());
+        for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+            matching.add(boosters[i]);
+        }
+        return matching;
+    }
+
+    @Override
+    public List<RhoarBooster> search(String text, String application, Map<String, List<String>> parameters) {
+        List<Integer> positions = getTextIndex().search(text, matching(application, parameters));
+        List<RhoarBooster> matching = new ArrayList<>(positions.size());
+        for (Integer position : positions) {
+            matching.add(boosters[position]);
+        }
+        return matching;
+    }
+
+    @Override
+    public int size() {
+        return boosters.length;
+    }
+
+    /**
+     * @return the number of parameter paths indexed so far
+     */
+    int getAttributeCount() {
+        return attributes.size();
+    }
+
+    /**
+     * @return the number of memoized predicates of parameters that are not indexed
+     */
+    int getUnindexedPredicateCount() {
+        return unindexedPredicates.size();
+    }
+
+    private Predicate<RhoarBooster> unindexedPredicate(Map<String, List<String>> parameters) {
+        if (!knownPaths.containsAll(parameters.keySet())) {
+            return BoosterPredicates.withParameters(parameters);
+        }
+        Predicate<RhoarBooster> predicate = unindexedPredicates.get(parameters);
+        if (predicate == null) {
+            predicate = new MemoizedPredicate<>(BoosterPredicates.withParameters(parameters));
+            if (unindexedPredicates.size() < MAX_LAZY_INDEXES) {
+                Predicate<RhoarBooster> existing = unindexedPredicates.putIfAbsent(parameters, predicate);
+                if (existing != null) {
+                    predicate = existing;
+                }
+            }
+        }
+        return predicate;
+    }
+
+    /**
+     * @return the text index of the boosters, built the first time it is needed
+     */
+    BoosterTextIndex getTextIndex() {
+        BoosterTextIndex index = textIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = textIndex;
+                if (index == null) {
+                    index = new BoosterTextIndex(boosters);
+                    textIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return the positions of the boosters enabled for the given application and matching the given parameters
+     */
+    private BitSet matching(String application, Map<String, List<String>> parameters) {
+        BitSet result = new BitSet(boosters.length);
+        if (application == null) {
+            result.set(0, boosters.length);
+        } else {
+            result.or(appEnabled(application));
+        }
+        Map<String, List<String>> unindexed = new HashMap<>();
+        for (Map.Entry<String, List<String>> parameter : parameters.entrySet()) {
+            Map<String, BitSet> index = attribute(parameter.getKey());
+            if (index == null) {
+                // Copied, as it may become the key of a memoized predicate
+                unindexed.put(parameter.getKey(), new ArrayList<>(parameter.getValue()));
+                continue;
+            }
+            BitSet matches = new BitSet(boosters.length);
+            for (String value : parameter.getValue()) {
+                BitSet withValue = index.get(value.isEmpty() ? "true" : value);
+                if (withValue != null) {
+                    matches.or(withValue);
+                }
+            }
+            result.and(matches);
+        }
+        if (!unindexed.isEmpty()) {
+            Predicate<RhoarBooster> remaining = unindexedPredicate(unindexed);
+            for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+                if (!remaining.test(boosters[i])) {
+                    result.clear(i);
+                }
+            }
+        }
+        return result;
+    }
+
+    private BitSet appEnabled(String application) {
+        BitSet enabled = appEnabled.get(application);
+        if (enabled == null) {
+            enabled = bits(BoosterPredicates.withAppEnabled(application));
+            if (appEnabled.size() < MAX_LAZY_INDEXES) {
+                appEnabled.putIfAbsent(application, enabled);
+            }
+        }
+        return enabled;
+    }
+
+    /**
+     * @return the index of the given parameter path, or null if the catalog doesn't have that path or too many paths
+     * are indexed already
+     */
+    private Map<String, BitSet> attribute(String path) {
+        Map<String, BitSet> index = attributes.get(path);
+        if (index == null && attributes.size() < MAX_LAZY_INDEXES && knownPaths.contains(path)) {
+            index = attributes.computeIfAbsent(path, this::buildAttribute);
+        }
+        return index;
+    }
+
+    private Map<String, BitSet> buildAttribute(String path) {
+        // Same comparison as the case insensitive equals used by the parameter predicate
+        Map<String, BitSet> index = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < boosters.length; i++) {
+            index.computeIfAbsent(valueByPath(boosters[i], path), v -> new BitSet(boosters.length)).set(i);
+        }
+        return index;
+    }
+
+    private void addMetadataPaths(String path, AbstractCategory category) {
+        if (category != null) {
+            addMetadataPaths(path + ".metadata", category.getMetadata());
+        }
+    }
+
+    /**
+     * Adds the path of every key of the given metadata, nested maps included
+     */
+    private void addMetadataPaths(String prefix, Map<?, ?> metadata) {
+        if (metadata == null) {
+            return;
+        }
+        metadata.forEach((key, value) -> {
+            String path = prefix + "." + key;
+            knownPaths.add(path);
+            if (value instanceof Map) {
+                addMetadataPaths(path, (Map<?, ?>) value);
+            }
+        });
+    }
+
+    private BitSet bits(Predicate<RhoarBooster> predicate) {
+        BitSet bits = new BitSet(boosters.length);
+        for (int i = 0; i < boosters.length; i++) {
+            if (predicate.test(boosters[i])) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private static String valueByPath(RhoarBooster booster, String path) {
+        try {
+            return Objects.toString(PropertyUtils.getNestedProperty(booster, path), FALSE);
+        } catch (Exception e) {
+            return FALSE;
+        }
+    }
+}
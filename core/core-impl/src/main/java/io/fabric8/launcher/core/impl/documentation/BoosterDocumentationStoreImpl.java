@@ -1,11 +1,11 @@
 package io.fabric8.launcher.core.impl.documentation;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -17,6 +17,7 @@ import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
 import io.fabric8.launcher.core.api.documentation.BoosterDocumentationStore;
+import io.fabric8.launcher.core.spi.DirectoryReaper;
 
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
@@ -32,19 +33,27 @@ public final class BoosterDocumentationStoreImpl implements BoosterDocumentation
 
     private volatile CompletableFuture<Path> pathCompletableFuture;
 
+    private final AtomicLong generation = new AtomicLong();
+
     private final ExecutorService executorService;
 
     private Supplier<Path> documentationPathSupplier;
 
+    private final DirectoryReaper reaper;
+
+    // The clone replaced last, deleted when the next one is replaced so that the requests still using it can complete
+    private Path retiredPath;
+
     @Inject
-    public BoosterDocumentationStoreImpl(final ExecutorService executorService) {
-        this(executorService, BoosterDocumentationStoreImpl::cloneGitRepository);
+    public BoosterDocumentationStoreImpl(final ExecutorService executorService, final DirectoryReaper reaper) {
+        this(executorService, () -> cloneGitRepository(reaper), reaper);
     }
 
     //Visible for testing
-    BoosterDocumentationStoreImpl(final ExecutorService executorService, final Supplier<Path> documentationPathSupplier) {
+    BoosterDocumentationStoreImpl(final ExecutorService executorService, final Supplier<Path> documentationPathSupplier, final DirectoryReaper reaper) {
         this.executorService = requireNonNull(executorService, "executorService must be specified.");
         this.documentationPathSupplier = requireNonNull(documentationPathSupplier, "documentationPathSupplier must be specified.");
+        this.reaper = requireNonNull(reaper, "reaper must be specified.");
     }
 
     // Initialize on startup
@@ -67,6 +76,11 @@ public final class BoosterDocumentationStoreImpl implements BoosterDocumentation
         return getDocumentationPath(false);
     }
 
+    @Override
+    public long getGeneration() {
+        return generation.get();
+    }
+
     @Override
     public void waitForDocumentation() throws ExecutionException, InterruptedException {
         getDocumentationPath().get();
@@ -74,24 +88,46 @@ public final class BoosterDocumentationStoreImpl implements BoosterDocumentation
 
     private synchronized CompletableFuture<Path> getDocumentationPath(final boolean reload) {
         if (reload || pathCompletableFuture == null) {
+            final CompletableFuture<Path> previous = pathCompletableFuture;
             pathCompletableFuture = createDocumentationPathFuture();
+            generation.incrementAndGet();
+            if (previous != null) {
+                pathCompletableFuture.thenAcceptBoth(previous, (path, replaced) -> retire(replaced));
+            }
         }
         return pathCompletableFuture;
     }
 
+    private synchronized void retire(final Path replaced) {
+        final Path expired = retiredPath;
+        retiredPath = replaced;
+        if (expired != null && !expired.equals(replaced)) {
+            reaper.delete(expired);
+        }
+    }
+
     private CompletableFuture<Path> createDocumentationPathFuture() {
         return CompletableFuture.supplyAsync(documentationPathSupplier, executorService);
     }
 
     //Visible for testing
     static Path cloneGitRepository() {
+        return cloneGitRepository(new DirectoryReaper() {
+            @Override
+            public void delete(Path path) {
+                // Not used
+            }
+        });
+    }
+
+    private static Path cloneGitRepository(final DirectoryReaper reaper) {
         final String readmeRepositoryURI = DOCUMENTATION_REPOSITORY;
         final String branch = DOCUMENTATION_BRANCH;
         logger.log(Level.INFO, "Indexing contents from {0} using {1} ref",
                    new Object[]{readmeRepositoryURI, branch});
 
         try {
-            final Path catalogPath = Files.createTempDirectory("booster-documentation");
+            final Path catalogPath = reaper.createCacheDirectory("booster-documentation");
             logger.log(Level.INFO, "Created {0}", catalogPath);
             final ProcessBuilder builder = new ProcessBuilder()
                     .command("git", "clone", readmeRepositoryURI,
@@ -0,0 +1,56 @@
+package io.fabric8.launcher.core.impl.events;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import io.fabric8.launcher.core.api.events.LauncherStatusEventKind;
+import io.fabric8.launcher.core.api.events.StatusMessageEvent;
+
+/**
+ * Passes the {@link LauncherStatusEventKind} events of a launch on in the order of their kinds, whatever the order
+ * of the steps firing them. An event is held back until the events of every previous kind were passed on.
+ *
+ * Events of other kinds (eg. errors) are passed on as they come.
+ */
+public class OrderedEventConsumer implements Consumer<StatusMessageEvent> {
+
+    private static final LauncherStatusEventKind[] KINDS = LauncherStatusEventKind.values();
+
+    private final Consumer<StatusMessageEvent> delegate;
+
+    private final Map<LauncherStatusEventKind, StatusMessageEvent> pending = new EnumMap<>(LauncherStatusEventKind.class);
+
+    // The ordinal of the next kind to be passed on
+    private int next;
+
+    public OrderedEventConsumer(Consumer<StatusMessageEvent> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void accept(StatusMessageEvent event) {
+        if (!(event.getStatusMessage() instanceof LauncherStatusEventKind)) {
+            delegate.accept(event);
+            return;
+        }
+        LauncherStatusEventKind kind = (LauncherStatusEventKind) event.getStatusMessage();
+        if (kind.ordinal() < next) {
+            // Fired again, its turn has passed already
+            delegate.accept(event);
+            return;
+        }
+        pending.put(kind, event);
+        while (next < KINDS.length && pending.containsKey(KINDS[next])) {
+            delegate.accept(pending.remove(KINDS[next]));
+            next++;
+        }
+    }
+
+    /**
+     * @return the number of events held back
+     */
+    public synchronized int getPendingEvents() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,384 @@
+package io.fabric8.launcher.core.impl.journal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.launcher.core.api.events.LauncherStatusEventKind;
+import io.fabric8.launcher.core.api.journal.ImmutableLaunchStatus;
+import io.fabric8.launcher.core.api.journal.LaunchJournal;
+import io.fabric8.launcher.core.api.journal.LaunchStatus;
+import io.fabric8.launcher.core.spi.StatisticsProvider;
+
+import static io.fabric8.launcher.core.impl.CoreEnvVarSysPropNames.LAUNCHER_LAUNCH_JOURNAL_FILE;
+import static io.fabric8.launcher.core.impl.CoreEnvVarSysPropNames.LAUNCHER_LAUNCH_JOURNAL_MAX_BYTES;
+import static io.fabric8.launcher.core.impl.CoreEnvVarSysPropNames.LAUNCHER_LAUNCH_JOURNAL_MAX_LAUNCHES;
+
+/**
+ * Keeps the status of the recent launches in memory and, when {@code LAUNCHER_LAUNCH_JOURNAL_FILE} is set, appends
+ * every change to that file as a line of JSON.
+ *
+ * Changes are appended by a task of the executor, which writes every change made meanwhile and forces them to disk
+ * at once. When the file grows above {@code LAUNCHER_LAUNCH_JOURNAL_MAX_BYTES} it is compacted: rewritten with the
+ * last status of the running launches and of the most recent {@code LAUNCHER_LAUNCH_JOURNAL_MAX_LAUNCHES} others.
+ *
+ * On startup the file is read back. The launches still running when the launcher was stopped cannot be resumed
+ * here, the credentials of their users are not kept, so they are marked as interrupted. Their status consumers are
+ * gone along with the previous launcher, the status endpoint sends the interruption to the clients connecting again.
+ * The status of such a launch tells which steps are over, what they created and the step index to launch again from
+ * to resume it.
+ */
+@ApplicationScoped
+public class LaunchJournalImpl implements LaunchJournal, StatisticsProvider {
+
+    private static final Logger log = Logger.getLogger(LaunchJournalImpl.class.getName());
+
+    private static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+
+    private static final int DEFAULT_MAX_LAUNCHES = 1000;
+
+    static final String INTERRUPTED_MESSAGE = "The launch was interrupted by a restart of the launcher, launch it again to resume it";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    // By start, guarded by this
+    private final Map<UUID, LaunchStatus> launches = new LinkedHashMap<>();
+
+    private final Queue<LaunchStatus> unwritten = new ConcurrentLinkedQueue<>();
+
+    // Set while a flush is pending, so that changes made meanwhile are written at once
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    // Guards the file
+    private final Object writeLock = new Object();
+
+    @Nullable
+    private final Path file;
+
+    private final long maxBytes;
+
+    private final int maxLaunches;
+
+    private final Executor executor;
+
+    private final LongAdder appendedRecords = new LongAdder();
+
+    private final LongAdder flushes = new LongAdder();
+
+    private final LongAdder compactions = new LongAdder();
+
+    private final LongAdder writeErrors = new LongAdder();
+
+    private final LongAdder interrupted = new LongAdder();
+
+    private FileChannel channel;
+
+    private long compactedBytes;
+
+    @Inject
+    public LaunchJournalImpl(ExecutorService async) {
+        this(LAUNCHER_LAUNCH_JOURNAL_FILE.value() != null ? Paths.get(LAUNCHER_LAUNCH_JOURNAL_FILE.value()) : null,
+             LAUNCHER_LAUNCH_JOURNAL_MAX_BYTES.longValue(DEFAULT_MAX_BYTES),
+             LAUNCHER_LAUNCH_JOURNAL_MAX_LAUNCHES.intValue(DEFAULT_MAX_LAUNCHES),
+             async);
+    }
+
+    //Visible for testing
+    LaunchJournalImpl(@Nullable Path file, long maxBytes, int maxLaunches, Executor executor) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxLaunches = Math.max(1, maxLaunches);
+        this.executor = executor;
+        recover();
+    }
+
+    /**
+     * no-args constructor used by CDI for proxying only
+     * but is subsequently replaced with an instance
+     * created using the above constructor.
+     *
+     * @deprecated do not use this constructor
+     */
+    @Deprecated
+    protected LaunchJournalImpl() {
+        this.file = null;
+        this.maxBytes = 0;
+        this.maxLaunches = 0;
+        this.executor = null;
+    }
+
+    // Create the journal eagerly on startup, the interrupted launches are recovered by the constructor
+    public void init(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        // Do nothing
+    }
+
+    @Override
+    public synchronized Optional<LaunchStatus> getStatus(UUID id) {
+        return Optional.ofNullable(launches.get(id));
+    }
+
+    /**
+     * Records that the launch of the given projectile started
+     *
+     * @param user the user who started the launch
+     */
+    public void started(UUID id, @Nullable String user) {
+        long now = System.currentTimeMillis();
+        update(id, status -> ImmutableLaunchStatus.builder()
+                .id(id)
+                .user(user)
+                .state(LaunchStatus.State.RUNNING)
+                .startedAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+    /**
+     * Records that a step of the launch of the given projectile is over
+     *
+     * @param outputs what the step created
+     */
+    public void stepCompleted(UUID id, LauncherStatusEventKind step, Map<String, String> outputs) {
+        update(id, status -> status == null ? null : ImmutableLaunchStatus.builder()
+                .from(status)
+                .addCompletedSteps(step)
+                .putAllOutputs(outputs)
+                .updatedAt(System.currentTimeMillis())
+                .build());
+    }
+
+    /**
+     * Records that the launch of the given projectile is over
+     */
+    public void completed(UUID id) {
+        update(id, status -> status == null ? null : ImmutableLaunchStatus.copyOf(status)
+                .withState(LaunchStatus.State.COMPLETED)
+                .withUpdatedAt(System.currentTimeMillis()));
+    }
+
+    /**
+     * Records that the launch of the given projectile failed
+     */
+    public void failed(UUID id, @Nullable String error) {
+        update(id, status -> status == null ? null : ImmutableLaunchStatus.copyOf(status)
+                .withState(LaunchStatus.State.FAILED)
+                .withError(error)
+                .withUpdatedAt(System.currentTimeMillis()));
+    }
+
+    @Override
+    public String getStatisticsName() {
+        return "launchJournal";
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("launches", launches.size());
+            stats.put("running", launches.values().stream().filter(s -> s.getState() == LaunchStatus.State.RUNNING).count());
+        }
+        stats.put("interrupted", interrupted.sum());
+        stats.put("appendedRecords", appendedRecords.sum());
+        stats.put("flushes", flushes.sum());
+        stats.put("compactions", compactions.sum());
+        stats.put("writeErrors", writeErrors.sum());
+        stats.put("fileBytes", file != null && Files.isRegularFile(file) ? file.toFile().length() : 0L);
+        return stats;
+    }
+
+    private void update(UUID id, UnaryOperator<LaunchStatus> change) {
+        synchronized (this) {
+            LaunchStatus status = change.apply(launches.get(id));
+            if (status == null) {
+                return;
+            }
+            launches.put(id, status);
+            evict();
+            unwritten.add(status);
+        }
+        if (file != null && dirty.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Forgets the oldest launches that are over, beyond the maximum number of launches kept
+     */
+    private synchronized void evict() {
+        int over = launches.size() - maxLaunches;
+        for (Iterator<LaunchStatus> it = launches.values().iterator(); over > 0 && it.hasNext(); ) {
+            if (it.next().getState() != LaunchStatus.State.RUNNING) {
+                it.remove();
+                over--;
+            }
+        }
+    }
+
+    //Visible for testing
+    void flush() {
+        synchronized (writeLock) {
+            dirty.set(false);
+            List<LaunchStatus> batch = new ArrayList<>();
+            for (LaunchStatus status = unwritten.poll(); status != null; status = unwritten.poll()) {
+                batch.add(status);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                FileChannel out = channel();
+                write(out, batch);
+                out.force(false);
+                appendedRecords.add(batch.size());
+                flushes.increment();
+                if (out.size() > Math.max(maxBytes, 2 * compactedBytes)) {
+                    compact();
+                }
+            } catch (IOException e) {
+                writeErrors.increment();
+                log.log(Level.WARNING, "Error while writing the launch journal " + file, e);
+                closeChannel();
+            }
+        }
+    }
+
+    /**
+     * Rewrites the file with the last status of every launch kept in memory
+     */
+    private void compact() throws IOException {
+        synchronized (writeLock) {
+            List<LaunchStatus> snapshot;
+            synchronized (this) {
+                snapshot = new ArrayList<>(launches.values());
+            }
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, ".journal", ".tmp");
+            try {
+                try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    write(out, snapshot);
+                    out.force(false);
+                    compactedBytes = out.size();
+                }
+                closeChannel();
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                compactions.increment();
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private void recover() {
+        if (file == null || !Files.isRegularFile(file)) {
+            return;
+        }
+        int lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lines++;
+                try {
+                    LaunchStatus status = MAPPER.readValue(line, LaunchStatus.class);
+                    launches.put(status.getId(), status);
+                } catch (IOException | RuntimeException e) {
+                    // Most likely the last line, cut short by a crash
+                    log.log(Level.WARNING, "Ignoring unreadable line {0} of the launch journal {1}", new Object[]{lines, file});
+                }
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Error while reading the launch journal " + file, e);
+            return;
+        }
+        List<UUID> running = new ArrayList<>();
+        launches.forEach((id, status) -> {
+            if (status.getState() == LaunchStatus.State.RUNNING) {
+                running.add(id);
+            }
+        });
+        long now = System.currentTimeMillis();
+        for (UUID id : running) {
+            launches.put(id, ImmutableLaunchStatus.copyOf(launches.get(id))
+                    .withState(LaunchStatus.State.INTERRUPTED)
+                    .withError(INTERRUPTED_MESSAGE)
+                    .withUpdatedAt(now));
+            interrupted.increment();
+        }
+        evict();
+        try {
+            compact();
+        } catch (IOException e) {
+            writeErrors.increment();
+            log.log(Level.WARNING, "Error while compacting the launch journal " + file, e);
+        }
+        log.log(Level.INFO, "Recovered {0} launches from the launch journal {1}, {2} of them interrupted",
+                new Object[]{launches.size(), file, running.size()});
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.log(Level.FINE, "Error while closing the launch journal", e);
+            }
+            channel = null;
+        }
+    }
+
+    private static void write(FileChannel out, List<LaunchStatus> statuses) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (LaunchStatus status : statuses) {
+            lines.append(MAPPER.writeValueAsString(status)).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
@@ -85,7 +85,7 @@ public class ChangeArquillianConfigurationPreparer implements ProjectilePreparer
             xformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
             xformer.setOutputProperty(OutputKeys.INDENT, "yes");
             xformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
-            xformer.transform(new DOMSource(document), new StreamResult(path.toFile()));
+            xformer.transform(new DOMSource(document), new StreamResult(beforeWrite(path).toFile()));
         } catch (TransformerException e) {
             LOG.log(Level.WARNING, "Failed to update configuration for arquillian in " + path.toAbsolutePath(), e);
         }
@@ -67,10 +67,12 @@ public class ChangeMavenMetadataPreparer implements ProjectilePreparer {
                         parent.setGroupId(model.getGroupId());
                         parent.setArtifactId(model.getArtifactId());
                         parent.setVersion(model.getVersion());
+                        beforeWrite(modulePom);
                         Maven.writeModel(moduleModel);
                     }
                 }
             }
+            beforeWrite(pom);
             Maven.writeModel(model);
         }
     }
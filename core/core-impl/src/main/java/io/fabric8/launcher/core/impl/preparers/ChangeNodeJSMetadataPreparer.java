@@ -58,6 +58,7 @@ public class ChangeNodeJSMetadataPreparer implements ProjectilePreparer {
             }
 
             JsonWriterFactory writerFactory = Json.createWriterFactory(Collections.singletonMap(JsonGenerator.PRETTY_PRINTING, true));
+            beforeWrite(packageJsonPath);
             try (OutputStream out = Files.newOutputStream(packageJsonPath);
                  JsonWriter writer = writerFactory.createWriter(out)) {
                 writer.write(job.build());
@@ -68,7 +68,7 @@ public class ReadmePreparer implements ProjectilePreparer {
                     values.putAll(runtimeProperties);
                     String readmeOutput = readmeProcessor.processTemplate(template, values);
                     // Write README.adoc
-                    Files.write(projectPath.resolve("README.adoc"), readmeOutput.getBytes());
+                    Files.write(beforeWrite(projectPath.resolve("README.adoc")), readmeOutput.getBytes());
                     // Delete README.md
                     Files.deleteIfExists(projectPath.resolve("README.md"));
                 }
@@ -23,6 +23,7 @@ import io.fabric8.launcher.service.git.api.GitService;
 import io.fabric8.launcher.service.git.api.ImmutableGitOrganization;
 import org.apache.commons.text.StringSubstitutor;
 
+import static io.fabric8.launcher.base.Paths.breakLink;
 import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.GITHUB_CREATE;
 import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.GITHUB_PUSHED;
 import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.GITHUB_WEBHOOK;
@@ -34,11 +35,15 @@ import static java.util.Collections.singletonMap;
 @Dependent
 public class GitSteps {
 
-    @Inject
-    private GitService gitService;
-
     private static final Logger log = Logger.getLogger(GitSteps.class.getName());
 
+    private final GitService gitService;
+
+    @Inject
+    public GitSteps(GitService gitService) {
+        this.gitService = gitService;
+    }
+
     public GitRepository createGitRepository(CreateProjectile projectile) {
         GitRepository gitRepository;
         final String organizationName = projectile.getGitOrganization();
@@ -73,7 +78,7 @@ public class GitSteps {
                     Map<String, String> values = new HashMap<>();
                     values.put("loggedUser", gitService.getLoggedUser().getLogin());
                     String newContent = new StringSubstitutor(values).replace(content);
-                    Files.write(readmeAdocPath, newContent.getBytes());
+                    Files.write(breakLink(readmeAdocPath), newContent.getBytes());
                 } catch (IOException e) {
                     log.log(Level.SEVERE, "Error while replacing README.adoc variables", e);
                 }
@@ -0,0 +1,179 @@
+package io.fabric8.launcher.core.impl.steps;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nullable;
+
+import io.fabric8.launcher.core.api.events.LauncherStatusEventKind;
+import io.fabric8.launcher.core.api.journal.LaunchStatus;
+import io.fabric8.launcher.service.git.api.GitRepository;
+import io.fabric8.launcher.service.git.api.ImmutableGitRepository;
+import io.fabric8.launcher.service.openshift.api.OpenShiftProject;
+
+/**
+ * The steps of a launch completed so far and what they created: the git repository, the pushed commit, the
+ * OpenShift project and the resources applied to it.
+ *
+ * {@link LaunchSteps} records a checkpoint once a step is over and does not run the steps with a checkpoint again,
+ * so a step being retried, or a launch being resumed with the same checkpoints, starts from the last checkpoint.
+ * A launch resuming an earlier one gets the checkpoints of the earlier one from its {@link LaunchStatus}, see
+ * {@link #resume(LaunchStatus)}.
+ */
+public class LaunchCheckpoints {
+
+    static final String GIT_REPOSITORY = "gitRepository";
+
+    static final String GIT_REPOSITORY_URL = "gitRepositoryUrl";
+
+    static final String GIT_CLONE_URL = "gitCloneUrl";
+
+    static final String OPENSHIFT_PROJECT = "openShiftProject";
+
+    static final String OPENSHIFT_PROJECT_URL = "openShiftProjectUrl";
+
+    private final Set<LauncherStatusEventKind> completed = EnumSet.noneOf(LauncherStatusEventKind.class);
+
+    private final BiConsumer<LauncherStatusEventKind, Map<String, String>> listener;
+
+    @Nullable
+    private GitRepository gitRepository;
+
+    @Nullable
+    private OpenShiftProject openShiftProject;
+
+    public LaunchCheckpoints() {
+        this((step, outputs) -> {
+        });
+    }
+
+    /**
+     * @param listener notified of every checkpoint, with what its step created
+     */
+    public LaunchCheckpoints(BiConsumer<LauncherStatusEventKind, Map<String, String>> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return true if the given step is over
+     */
+    public synchronized boolean isCompleted(LauncherStatusEventKind step) {
+        return completed.contains(step);
+    }
+
+    /**
+     * @return the steps that are over
+     */
+    public synchronized Set<LauncherStatusEventKind> getCompleted() {
+        return completed.isEmpty() ? EnumSet.noneOf(LauncherStatusEventKind.class) : EnumSet.copyOf(completed);
+    }
+
+    /**
+     * @return the git repository, null until {@link LauncherStatusEventKind#GITHUB_CREATE} is over
+     */
+    @Nullable
+    public synchronized GitRepository getGitRepository() {
+        return gitRepository;
+    }
+
+    /**
+     * @return the OpenShift project, null until {@link LauncherStatusEventKind#OPENSHIFT_CREATE} is over
+     */
+    @Nullable
+    public synchronized OpenShiftProject getOpenShiftProject() {
+        return openShiftProject;
+    }
+
+    /**
+     * Records that the git repository was created
+     */
+    public void gitRepositoryCreated(GitRepository repository) {
+        synchronized (this) {
+            this.gitRepository = repository;
+            completed.add(LauncherStatusEventKind.GITHUB_CREATE);
+        }
+        Map<String, String> outputs = new LinkedHashMap<>();
+        outputs.put(GIT_REPOSITORY, repository.getFullName());
+        outputs.put(GIT_REPOSITORY_URL, String.valueOf(repository.getHomepage()));
+        outputs.put(GIT_CLONE_URL, String.valueOf(repository.getGitCloneUri()));
+        listener.accept(LauncherStatusEventKind.GITHUB_CREATE, outputs);
+    }
+
+    /**
+     * Records that the OpenShift project was created
+     */
+    public void openShiftProjectCreated(OpenShiftProject project) {
+        synchronized (this) {
+            this.openShiftProject = project;
+            completed.add(LauncherStatusEventKind.OPENSHIFT_CREATE);
+        }
+        Map<String, String> outputs = new LinkedHashMap<>();
+        outputs.put(OPENSHIFT_PROJECT, project.getName());
+        outputs.put(OPENSHIFT_PROJECT_URL, String.valueOf(project.getConsoleOverviewUrl()));
+        listener.accept(LauncherStatusEventKind.OPENSHIFT_CREATE, outputs);
+    }
+
+    /**
+     * Records that a step without any outcome (push, pipeline, webhooks) is over
+     */
+    public void completed(LauncherStatusEventKind step) {
+        synchronized (this) {
+            if (step == LauncherStatusEventKind.GITHUB_CREATE && gitRepository == null
+                    || step == LauncherStatusEventKind.OPENSHIFT_CREATE && openShiftProject == null) {
+                throw new IllegalArgumentException(step.name() + " is completed with what it created");
+            }
+            completed.add(step);
+        }
+        listener.accept(step, Collections.emptyMap());
+    }
+
+    /**
+     * Records the steps completed by the launch of the given status, in order, as if they had just completed.
+     *
+     * The git repository is restored from the outputs of the status, {@link LauncherStatusEventKind#GITHUB_CREATE}
+     * is left out when they lack it (eg. a status recorded before the clone URL was). The OpenShift project is not
+     * restored, the OpenShift service configures the projects it returned itself: {@link LauncherStatusEventKind#OPENSHIFT_CREATE}
+     * is run again and finds the project created by the resumed launch.
+     *
+     * @param status the status of the launch being resumed
+     */
+    public void resume(LaunchStatus status) {
+        for (LauncherStatusEventKind step : LauncherStatusEventKind.values()) {
+            if (!status.getCompletedSteps().contains(step) || step == LauncherStatusEventKind.OPENSHIFT_CREATE) {
+                continue;
+            }
+            if (step == LauncherStatusEventKind.GITHUB_CREATE) {
+                GitRepository repository = gitRepository(status.getOutputs());
+                if (repository != null) {
+                    gitRepositoryCreated(repository);
+                }
+            } else {
+                completed(step);
+            }
+        }
+    }
+
+    @Nullable
+    private static GitRepository gitRepository(Map<String, String> outputs) {
+        String fullName = outputs.get(GIT_REPOSITORY);
+        String homepage = outputs.get(GIT_REPOSITORY_URL);
+        String cloneUrl = outputs.get(GIT_CLONE_URL);
+        if (fullName == null || homepage == null || cloneUrl == null) {
+            return null;
+        }
+        try {
+            return ImmutableGitRepository.builder()
+                    .fullName(fullName)
+                    .homepage(URI.create(homepage))
+                    .gitCloneUri(URI.create(cloneUrl))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
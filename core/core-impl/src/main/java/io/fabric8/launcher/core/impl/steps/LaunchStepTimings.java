@@ -0,0 +1,119 @@
+package io.fabric8.launcher.core.impl.steps;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import io.fabric8.launcher.core.api.events.LauncherStatusEventKind;
+import io.fabric8.launcher.core.spi.StatisticsProvider;
+
+/**
+ * Keeps track of the time spent in every step of the launches, of the retries of the steps, and of the time saved by
+ * running the git and the OpenShift steps at the same time.
+ */
+@ApplicationScoped
+public class LaunchStepTimings implements StatisticsProvider {
+
+    private final Map<LauncherStatusEventKind, Timing> steps = new EnumMap<>(LauncherStatusEventKind.class);
+
+    private final Timing launches = new Timing();
+
+    // Sum of the step times minus the launch time, ie. how much the overlapping steps saved
+    private final LongAdder savedNanos = new LongAdder();
+
+    public LaunchStepTimings() {
+        for (LauncherStatusEventKind kind : LauncherStatusEventKind.values()) {
+            steps.put(kind, new Timing());
+        }
+    }
+
+    /**
+     * Records the time spent in a step
+     */
+    public void step(LauncherStatusEventKind kind, long nanos) {
+        steps.get(kind).record(nanos);
+    }
+
+    /**
+     * Records that a step failed with a transient error and is retried
+     */
+    public void retried(LauncherStatusEventKind kind) {
+        steps.get(kind).retries.increment();
+    }
+
+    /**
+     * Records the time spent in a whole launch
+     *
+     * @param nanos     the time from the start to the end of the launch
+     * @param stepNanos the time spent in each of its steps, added up
+     */
+    public void launch(long nanos, long stepNanos) {
+        launches.record(nanos);
+        savedNanos.add(Math.max(0, stepNanos - nanos));
+    }
+
+    /**
+     * @return the number of times the given step was run
+     */
+    public long getCount(LauncherStatusEventKind kind) {
+        return steps.get(kind).count.sum();
+    }
+
+    /**
+     * @return the number of times the given step was retried
+     */
+    public long getRetries(LauncherStatusEventKind kind) {
+        return steps.get(kind).retries.sum();
+    }
+
+    @Override
+    public String getStatisticsName() {
+        return "launchSteps";
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long count = launches.count.sum();
+        stats.put("launches", count);
+        stats.put("averageLaunchMillis", launches.averageMillis());
+        stats.put("averageSavedMillis", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(savedNanos.sum() / count));
+        Map<String, Object> byStep = new LinkedHashMap<>();
+        steps.forEach((kind, timing) -> {
+            Map<String, Object> step = new LinkedHashMap<>();
+            step.put("count", timing.count.sum());
+            step.put("averageMillis", timing.averageMillis());
+            step.put("maxMillis", TimeUnit.NANOSECONDS.toMillis(timing.maxNanos.get()));
+            step.put("retries", timing.retries.sum());
+            byStep.put(kind.name(), step);
+        });
+        stats.put("steps", byStep);
+        return stats;
+    }
+
+    private static class Timing {
+        final LongAdder count = new LongAdder();
+
+        final LongAdder totalNanos = new LongAdder();
+
+        final AtomicLong maxNanos = new AtomicLong();
+
+        final LongAdder retries = new LongAdder();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        long averageMillis() {
+            long n = count.sum();
+            return n == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.sum() / n);
+        }
+    }
+}
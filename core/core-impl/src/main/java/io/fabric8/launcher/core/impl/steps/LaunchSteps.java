@@ -0,0 +1,260 @@
+package io.fabric8.launcher.core.impl.steps;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.fabric8.launcher.core.api.Boom;
+import io.fabric8.launcher.core.api.ImmutableBoom;
+import io.fabric8.launcher.core.api.events.LauncherStatusEventKind;
+import io.fabric8.launcher.core.api.events.StatusMessageEvent;
+import io.fabric8.launcher.core.api.projectiles.CreateProjectile;
+import io.fabric8.launcher.core.api.projectiles.ImmutableLauncherCreateProjectile;
+import io.fabric8.launcher.core.impl.events.OrderedEventConsumer;
+import io.fabric8.launcher.service.git.api.GitRepository;
+import io.fabric8.launcher.service.openshift.api.OpenShiftProject;
+
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.GITHUB_CREATE;
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.GITHUB_PUSHED;
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.GITHUB_WEBHOOK;
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.OPENSHIFT_CREATE;
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.OPENSHIFT_PIPELINE;
+import static java.util.Collections.singletonMap;
+
+/**
+ * Runs the steps of a launch, the ones not depending on each other at the same time:
+ *
+ * <pre>
+ * GITHUB_CREATE -&gt; GITHUB_PUSHED --+
+ *                                   +--&gt; OPENSHIFT_PIPELINE -&gt; GITHUB_WEBHOOK
+ * OPENSHIFT_CREATE -----------------+
+ * </pre>
+ *
+ * The OpenShift project is created on the given executor while the git repository is created and pushed to on the
+ * calling thread. The build pipeline needs both, its builds clone the pushed repository. When the executor does
+ * not take the task, the OpenShift project is created once the git repository is pushed to, as it used to be.
+ *
+ * Every step records a checkpoint in the {@link LaunchCheckpoints} of the launch once it is over. A step failing
+ * with a transient error (see {@link StepRetryPolicy}) is run again after a delay, the steps before it are not. The
+ * steps already in the checkpoints the launch is given are not run again either, only their events are fired.
+ *
+ * The status events are still fired in the order of the steps, whichever step completes first.
+ */
+public class LaunchSteps {
+
+    private static final Logger log = Logger.getLogger(LaunchSteps.class.getName());
+
+    private final GitSteps gitSteps;
+
+    private final OpenShiftSteps openShiftSteps;
+
+    private final Executor executor;
+
+    private final LaunchStepTimings timings;
+
+    private final StepRetryPolicy retryPolicy;
+
+    /**
+     * @param gitSteps       the git steps, callable from any thread
+     * @param openShiftSteps the OpenShift steps, callable from any thread
+     * @param executor       the executor creating the OpenShift project, it should reject the task rather than queue
+     *                       it behind tasks waiting for this launch
+     * @param timings        where the time spent in every step is recorded
+     * @param retryPolicy    which failed steps are retried and when
+     */
+    public LaunchSteps(GitSteps gitSteps, OpenShiftSteps openShiftSteps, Executor executor, LaunchStepTimings timings,
+                       StepRetryPolicy retryPolicy) {
+        this.gitSteps = gitSteps;
+        this.openShiftSteps = openShiftSteps;
+        this.executor = executor;
+        this.timings = timings;
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Runs the steps of the given projectile. Returns or throws once every started step is over.
+     *
+     * @return the created git repository and OpenShift project
+     */
+    public Boom launch(CreateProjectile projectile) {
+        return launch(projectile, new LaunchCheckpoints());
+    }
+
+    /**
+     * Runs the steps of the given projectile missing from the given checkpoints. Returns or throws once every
+     * started step is over, the checkpoints then hold every step that completed.
+     *
+     * @return the created git repository and OpenShift project
+     */
+    public Boom launch(CreateProjectile projectile, LaunchCheckpoints checkpoints) {
+        long start = System.nanoTime();
+        Map<LauncherStatusEventKind, Long> stepNanos = Collections.synchronizedMap(new EnumMap<>(LauncherStatusEventKind.class));
+        CreateProjectile ordered = ImmutableLauncherCreateProjectile.builder()
+                .from(projectile)
+                .eventConsumer(new OrderedEventConsumer(projectile.getEventConsumer()))
+                .build();
+
+        CompletableFuture<OpenShiftProject> project;
+        try {
+            project = CompletableFuture.supplyAsync(() -> createOpenShiftProject(ordered, checkpoints, stepNanos), executor);
+        } catch (RejectedExecutionException e) {
+            log.log(Level.FINE, "Launch executor is saturated, creating the OpenShift project after the git repository", e);
+            project = null;
+        }
+
+        GitRepository gitRepository;
+        try {
+            gitRepository = createGitRepository(ordered, checkpoints, stepNanos);
+            step(ordered, GITHUB_PUSHED, checkpoints, stepNanos, attempt -> {
+                gitSteps.pushToGitRepository(ordered, gitRepository);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            if (project != null) {
+                // Do not leave the OpenShift step running on a project directory about to be deleted
+                project.handle((p, t) -> null).join();
+            }
+            throw e;
+        }
+        OpenShiftProject openShiftProject = project != null ? join(project) : createOpenShiftProject(ordered, checkpoints, stepNanos);
+
+        step(ordered, OPENSHIFT_PIPELINE, checkpoints, stepNanos, attempt -> {
+            openShiftSteps.configureBuildPipeline(ordered, openShiftProject, gitRepository);
+            return null;
+        });
+        step(ordered, GITHUB_WEBHOOK, checkpoints, stepNanos, attempt -> {
+            List<URL> webhooks = openShiftSteps.getWebhooks(openShiftProject);
+            gitSteps.createWebHooks(ordered, gitRepository, webhooks);
+            return null;
+        });
+
+        long nanos = System.nanoTime() - start;
+        timings.launch(nanos, stepNanos.values().stream().mapToLong(Long::longValue).sum());
+        if (log.isLoggable(Level.FINE)) {
+            Map<LauncherStatusEventKind, Long> stepMillis = new EnumMap<>(LauncherStatusEventKind.class);
+            stepNanos.forEach((kind, n) -> stepMillis.put(kind, TimeUnit.NANOSECONDS.toMillis(n)));
+            log.log(Level.FINE, "Projectile {0} launched in {1} ms, step timings (ms): {2}",
+                    new Object[]{projectile.getId(), TimeUnit.NANOSECONDS.toMillis(nanos), stepMillis});
+        }
+        return ImmutableBoom
+                .builder()
+                .createdProject(openShiftProject)
+                .createdRepository(gitRepository)
+                .build();
+    }
+
+    private GitRepository createGitRepository(CreateProjectile projectile, LaunchCheckpoints checkpoints,
+                                              Map<LauncherStatusEventKind, Long> stepNanos) {
+        if (checkpoints.isCompleted(GITHUB_CREATE)) {
+            GitRepository repository = checkpoints.getGitRepository();
+            projectile.getEventConsumer().accept(new StatusMessageEvent(projectile.getId(), GITHUB_CREATE,
+                                                                        singletonMap("location", repository.getHomepage())));
+            return repository;
+        }
+        GitRepository repository = step(projectile, GITHUB_CREATE, null, stepNanos, attempt -> {
+            if (attempt > 1) {
+                // The failed attempt may have created the repository anyway, look it up first
+                CreateProjectile lookup = ImmutableLauncherCreateProjectile.builder()
+                        .from(projectile)
+                        .startOfStep(Math.max(projectile.getStartOfStep(), GITHUB_PUSHED.ordinal()))
+                        .build();
+                try {
+                    return gitSteps.createGitRepository(lookup);
+                } catch (IllegalArgumentException e) {
+                    log.log(Level.FINE, "Repository not created by the failed attempt, creating it again", e);
+                }
+            }
+            return gitSteps.createGitRepository(projectile);
+        });
+        checkpoints.gitRepositoryCreated(repository);
+        return repository;
+    }
+
+    private OpenShiftProject createOpenShiftProject(CreateProjectile projectile, LaunchCheckpoints checkpoints,
+                                                    Map<LauncherStatusEventKind, Long> stepNanos) {
+        if (checkpoints.isCompleted(OPENSHIFT_CREATE)) {
+            OpenShiftProject project = checkpoints.getOpenShiftProject();
+            projectile.getEventConsumer().accept(new StatusMessageEvent(projectile.getId(), OPENSHIFT_CREATE,
+                                                                        singletonMap("location", project.getConsoleOverviewUrl())));
+            return project;
+        }
+        OpenShiftProject project = step(projectile, OPENSHIFT_CREATE, null, stepNanos,
+                                        attempt -> openShiftSteps.createOpenShiftProject(projectile));
+        checkpoints.openShiftProjectCreated(project);
+        return project;
+    }
+
+    /**
+     * Runs a step, unless it has a checkpoint already, retrying it while it fails with a transient error
+     *
+     * @param checkpoints where the step is recorded once over, null if it is recorded by the caller
+     * @param step        the step, given the number of the attempt
+     */
+    private <T> T step(CreateProjectile projectile, LauncherStatusEventKind kind, LaunchCheckpoints checkpoints,
+                       Map<LauncherStatusEventKind, Long> stepNanos, IntFunction<T> step) {
+        if (checkpoints != null && checkpoints.isCompleted(kind)) {
+            projectile.getEventConsumer().accept(new StatusMessageEvent(projectile.getId(), kind));
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    T result = step.apply(attempt);
+                    if (checkpoints != null) {
+                        checkpoints.completed(kind);
+                    }
+                    return result;
+                } catch (RuntimeException e) {
+                    if (attempt >= retryPolicy.getAttempts() || !retryPolicy.isRetryable(e)) {
+                        throw e;
+                    }
+                    long delay = retryPolicy.getDelayMillis(attempt);
+                    log.log(Level.WARNING, "Step {0} of projectile {1} failed ({2}), retrying in {3} ms",
+                            new Object[]{kind.name(), projectile.getId(), e.getMessage(), delay});
+                    timings.retried(kind);
+                    sleep(delay, e);
+                }
+            }
+        } finally {
+            long nanos = System.nanoTime() - start;
+            stepNanos.put(kind, nanos);
+            timings.step(kind, nanos);
+        }
+    }
+
+    private static void sleep(long millis, RuntimeException failure) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.addSuppressed(e);
+            throw failure;
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
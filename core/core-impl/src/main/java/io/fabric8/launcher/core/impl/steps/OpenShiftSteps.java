@@ -38,9 +38,12 @@ public class OpenShiftSteps {
 
     private static final Logger log = Logger.getLogger(OpenShiftSteps.class.getName());
 
-    @Inject
-    private OpenShiftService openShiftService;
+    private final OpenShiftService openShiftService;
 
+    @Inject
+    public OpenShiftSteps(OpenShiftService openShiftService) {
+        this.openShiftService = openShiftService;
+    }
 
     /**
      * Creates an Openshift project if the project doesn't exist.
@@ -0,0 +1,86 @@
+package io.fabric8.launcher.core.impl.steps;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.launcher.base.http.HttpException;
+
+/**
+ * Tells which failures of a launch step are worth retrying, and how long to wait before retrying them.
+ *
+ * A failure is retryable when the Git provider or the OpenShift cluster answered with a 429, 502, 503 or 504 status,
+ * or when it could not be reached at all (connection refused, timeout). The delay doubles with every attempt, plus
+ * up to half of it at random so that the launches failing at the same time are not retried at the same time.
+ */
+public class StepRetryPolicy {
+
+    /**
+     * Never retries
+     */
+    public static final StepRetryPolicy NONE = new StepRetryPolicy(1, 0);
+
+    private final int attempts;
+
+    private final long backoffMillis;
+
+    /**
+     * @param attempts      the maximum number of attempts of a step, the first one included
+     * @param backoffMillis the delay before the first retry
+     */
+    public StepRetryPolicy(int attempts, long backoffMillis) {
+        this.attempts = Math.max(1, attempts);
+        this.backoffMillis = Math.max(0, backoffMillis);
+    }
+
+    /**
+     * @return the maximum number of attempts of a step, the first one included
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @param attempt the failed attempt, starting at 1
+     * @return the number of milliseconds to wait before the next attempt
+     */
+    public long getDelayMillis(int attempt) {
+        if (backoffMillis == 0) {
+            return 0;
+        }
+        long delay = backoffMillis << Math.min(attempt - 1, 10);
+        return delay + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * @return true if the given failure, or one of its causes, is transient
+     */
+    public boolean isRetryable(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof HttpException) {
+                int status = ((HttpException) t).getStatusCode();
+                // No status when the request could not be sent or its response not read
+                if (isRetryableStatus(status) || (status == -1 && t.getCause() instanceof IOException)) {
+                    return true;
+                }
+            } else if (t instanceof org.kohsuke.github.HttpException) {
+                if (isRetryableStatus(((org.kohsuke.github.HttpException) t).getResponseCode())) {
+                    return true;
+                }
+            } else if (t instanceof KubernetesClientException) {
+                if (isRetryableStatus(((KubernetesClientException) t).getCode())) {
+                    return true;
+                }
+            } else if (t instanceof ConnectException || t instanceof SocketTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRetryableStatus(int status) {
+        return status == 429 || status == 502 || status == 503 || status == 504;
+    }
+}
@@ -0,0 +1,295 @@
+package io.fabric8.launcher.core.impl.workspace;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import io.fabric8.launcher.booster.catalog.AbstractBoosterCatalogService;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBoosterCatalog;
+import io.fabric8.launcher.core.spi.DirectoryReaper;
+import io.fabric8.launcher.core.spi.StatisticsProvider;
+
+import static io.fabric8.launcher.core.impl.CoreEnvVarSysPropNames.LAUNCHER_MEMORY_WORKSPACE_THRESHOLD;
+import static io.fabric8.launcher.core.impl.CoreEnvVarSysPropNames.LAUNCHER_WORKSPACE_LINK_ENABLED;
+
+/**
+ * Creates the project directories boosters are copied to, all of them allocated by the {@link DirectoryReaper}.
+ *
+ * A booster is materialized in the first of these that applies:
+ * <ol>
+ * <li>Boosters up to the configured size threshold are copied to a memory filesystem (tmpfs, eg. /dev/shm) so that
+ * the copy, the preparers, the zip and the git push never touch the disk, unless the reaper has no memory filesystem
+ * or it is full</li>
+ * <li>Larger boosters are hard linked to the booster catalog clone on disk, when linking is enabled and supported</li>
+ * <li>Otherwise they are copied to disk</li>
+ * </ol>
+ *
+ * When the booster catalog clone and the {@link DirectoryReaper} root share a filesystem, the booster files are
+ * hard linked instead of copied, so materializing a booster only costs the directory structure. Only read-only files
+ * are linked: the catalog files are made read-only before being linked, and the ones that can't be are copied. A
+ * writer that does not detach a linked file first through
+ * {@link io.fabric8.launcher.core.spi.ProjectilePreparer#beforeWrite(Path)} fails instead of changing the catalog.
+ * Linking is turned off for good the first time it is not supported (eg. the clone lives on another device).
+ *
+ * The workspace is still a regular {@link Path} on the default filesystem, so {@link java.io.File} based
+ * consumers (JGit, the OpenShift steps) keep working unchanged.
+ */
+@ApplicationScoped
+public class ProjectWorkspaceFactory implements StatisticsProvider {
+
+    private static final Logger log = Logger.getLogger(ProjectWorkspaceFactory.class.getName());
+
+    private static final String PREFIX = "projectDir";
+
+    private static final long DEFAULT_THRESHOLD = 4L * 1024 * 1024;
+
+    private final DirectoryReaper reaper;
+
+    private final long threshold;
+
+    private volatile boolean linkFiles;
+
+    // Booster contents -> size, measured once per catalog
+    private final ConcurrentMap<Path, Long> boosterSizes = new ConcurrentHashMap<>();
+
+    // The catalog the sizes were measured for
+    private volatile RhoarBoosterCatalog sizedCatalog;
+
+    private final LongAdder memoryWorkspaces = new LongAdder();
+
+    private final LongAdder diskWorkspaces = new LongAdder();
+
+    private final LongAdder memoryFallbacks = new LongAdder();
+
+    private final LongAdder linkedWorkspaces = new LongAdder();
+
+    private final LongAdder linkedFiles = new LongAdder();
+
+    private final LongAdder copiedFiles = new LongAdder();
+
+    @Inject
+    public ProjectWorkspaceFactory(DirectoryReaper reaper) {
+        this(reaper,
+             LAUNCHER_MEMORY_WORKSPACE_THRESHOLD.longValue(DEFAULT_THRESHOLD),
+             LAUNCHER_WORKSPACE_LINK_ENABLED.booleanValue(true));
+    }
+
+    //Visible for testing
+    ProjectWorkspaceFactory(DirectoryReaper reaper, long threshold, boolean linkFiles) {
+        this.reaper = reaper;
+        this.threshold = threshold;
+        this.linkFiles = linkFiles;
+    }
+
+    /**
+     * no-args constructor used by CDI for proxying only
+     * but is subsequently replaced with an instance
+     * created using the above constructor.
+     *
+     * @deprecated do not use this constructor
+     */
+    @Deprecated
+    protected ProjectWorkspaceFactory() {
+        this.reaper = null;
+        this.threshold = 0;
+    }
+
+    /**
+     * Creates a new project directory and copies the given booster into it
+     *
+     * @param catalog the catalog the booster belongs to
+     * @param booster the booster to be copied
+     * @return the project directory
+     * @throws IOException if the booster could not be copied
+     */
+    public Path materialize(RhoarBoosterCatalog catalog, RhoarBooster booster) throws IOException {
+        Path contentPath = contentOf(booster);
+        long size = sizeOf(catalog, contentPath);
+        if (size >= 0 && size <= threshold) {
+            Path workspace = reaper.createMemoryDirectory(PREFIX, size);
+            if (workspace != null) {
+                try {
+                    catalog.copy(booster, workspace);
+                    memoryWorkspaces.increment();
+                    return workspace;
+                } catch (IOException e) {
+                    // Most likely the memory filesystem is full, retry on disk
+                    log.log(Level.FINE, "Could not copy booster to memory workspace, falling back to disk", e);
+                    reaper.delete(workspace);
+                }
+            }
+            memoryFallbacks.increment();
+        }
+        if (linkFiles && contentPath != null) {
+            // Linked files take no space of their own
+            Path workspace = reaper.createTempDirectory(PREFIX, 0);
+            if (link(contentPath, workspace)) {
+                linkedWorkspaces.increment();
+                return workspace;
+            }
+            reaper.delete(workspace);
+        }
+        // The copy is reserved against the workspace quota before it is written
+        Path workspace = reaper.createTempDirectory(PREFIX, Math.max(size, 0));
+        catalog.copy(booster, workspace);
+        diskWorkspaces.increment();
+        return workspace;
+    }
+
+    @Override
+    public String getStatisticsName() {
+        return "workspaces";
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("memoryThreshold", threshold);
+        stats.put("memoryWorkspaces", memoryWorkspaces.sum());
+        stats.put("memoryFallbacks", memoryFallbacks.sum());
+        stats.put("diskWorkspaces", diskWorkspaces.sum());
+        stats.put("linkFiles", linkFiles);
+        stats.put("linkedWorkspaces", linkedWorkspaces.sum());
+        stats.put("linkedFiles", linkedFiles.sum());
+        stats.put("copiedFiles", copiedFiles.sum());
+        return stats;
+    }
+
+    /**
+     * Mirrors the booster contents into the workspace, hard linking the files and copying the ones that can't be linked.
+     * Skips the same files as {@link RhoarBoosterCatalog#copy}.
+     *
+     * @return false if no file could be linked at all, in which case linking is disabled
+     */
+    private boolean link(Path source, Path workspace) throws IOException {
+        List<String> excluded = AbstractBoosterCatalogService.Companion.getEXCLUDED_PROJECT_FILES();
+        // Linked and copied files
+        long[] counts = new long[2];
+        boolean[] linkable = {true};
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (isExcluded(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                Files.createDirectories(workspace.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (isExcluded(file)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                Path target = workspace.resolve(source.relativize(file).toString());
+                boolean linked = false;
+                // Symbolic links are followed when copied, so they are never linked
+                if (linkable[0] && attrs.isRegularFile() && makeReadOnly(file)) {
+                    linked = tryLink(target, file);
+                    // Stop trying if the very first link failed
+                    linkable[0] = linked || counts[0] > 0;
+                }
+                if (linked) {
+                    counts[0]++;
+                } else {
+                    Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+                    counts[1]++;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            private boolean isExcluded(Path path) {
+                return !path.equals(source) && excluded.contains(path.getFileName().toString().toLowerCase(Locale.ENGLISH));
+            }
+        });
+        linkedFiles.add(counts[0]);
+        copiedFiles.add(counts[1]);
+        if (!linkable[0]) {
+            log.log(Level.INFO, "Hard links are not supported between {0} and {1}, booster files will be copied",
+                    new Object[]{source, workspace});
+            linkFiles = false;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the given catalog file can't be written to (anymore), false if it can't be made read-only
+     * (eg. it belongs to another user)
+     */
+    private static boolean makeReadOnly(Path file) {
+        return !Files.isWritable(file) || file.toFile().setWritable(false, false);
+    }
+
+    private static boolean tryLink(Path link, Path existing) {
+        try {
+            Files.createLink(link, existing);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            log.log(Level.FINE, "Could not link " + existing, e);
+            return false;
+        }
+    }
+
+    /**
+     * @return the size of the booster contents in bytes, measured again for every new catalog, or -1 if it could not be determined
+     */
+    private long sizeOf(RhoarBoosterCatalog catalog, Path contentPath) {
+        if (sizedCatalog != catalog) {
+            synchronized (this) {
+                // The contents of a re-indexed catalog may have changed
+                if (sizedCatalog != catalog) {
+                    boosterSizes.clear();
+                    sizedCatalog = catalog;
+                }
+            }
+        }
+        return contentPath != null ? boosterSizes.computeIfAbsent(contentPath, ProjectWorkspaceFactory::directorySize) : -1;
+    }
+
+    /**
+     * @return the booster contents, fetched if they were not yet, or null if they could not be
+     */
+    private static Path contentOf(RhoarBooster booster) {
+        try {
+            return booster.content().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            log.log(Level.FINE, "Could not fetch booster contents", e);
+            return null;
+        }
+    }
+
+    private static long directorySize(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(file -> !directory.relativize(file).startsWith(".git"))
+                    .filter(Files::isRegularFile)
+                    .mapToLong(file -> file.toFile().length())
+                    .sum();
+        } catch (IOException e) {
+            log.log(Level.FINE, "Could not compute size of " + directory, e);
+            return -1;
+        }
+    }
+}
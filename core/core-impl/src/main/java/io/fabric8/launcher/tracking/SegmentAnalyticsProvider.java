@@ -17,6 +17,7 @@ import com.segment.analytics.messages.TrackMessage;
 import io.fabric8.launcher.base.identity.TokenIdentity;
 import io.fabric8.launcher.core.api.Projectile;
 import io.fabric8.launcher.core.api.projectiles.CreateProjectile;
+import io.fabric8.launcher.core.impl.catalog.BoosterPopularity;
 
 import static io.fabric8.launcher.core.impl.CoreEnvVarSysPropNames.LAUNCHER_TRACKER_SEGMENT_TOKEN;
 
@@ -47,8 +48,11 @@ public class SegmentAnalyticsProvider {
     @Nullable
     private final Analytics analytics;
 
+    private final BoosterPopularity popularity;
+
     @Inject
-    public SegmentAnalyticsProvider(ExecutorService async) {
+    public SegmentAnalyticsProvider(ExecutorService async, BoosterPopularity popularity) {
+        this.popularity = popularity;
         final String token = LAUNCHER_TRACKER_SEGMENT_TOKEN.value();
         if (token != null && !token.isEmpty()) {
             analytics = Analytics.builder(token).networkExecutor(async).build();
@@ -68,9 +72,14 @@ public class SegmentAnalyticsProvider {
     @Deprecated
     protected SegmentAnalyticsProvider() {
         this.analytics = null;
+        this.popularity = null;
     }
 
     public void trackingMessage(CreateProjectile projectile, @Nullable TokenIdentity tokenIdentity) {
+        // Kept locally whether launches are sent to Segment or not, to prefetch the most launched boosters first
+        if (projectile.getBooster() != null) {
+            popularity.launched(projectile.getBooster());
+        }
         if (analytics != null) {
             // Create properties
             final Map<String, String> props = new HashMap<>();
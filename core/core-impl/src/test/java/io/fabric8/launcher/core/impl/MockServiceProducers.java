@@ -12,6 +12,8 @@ import javax.enterprise.inject.Produces;
 import io.fabric8.launcher.base.Paths;
 import io.fabric8.launcher.base.identity.TokenIdentity;
 import io.fabric8.launcher.core.spi.DirectoryReaper;
+import io.fabric8.launcher.core.spi.LaunchExecutor;
+import io.fabric8.launcher.core.spi.LaunchStepExecutor;
 import io.fabric8.launcher.service.git.api.GitService;
 import io.fabric8.launcher.service.git.api.GitServiceFactory;
 import io.fabric8.launcher.service.git.spi.GitProvider;
@@ -58,4 +60,16 @@ public class MockServiceProducers {
     ExecutorService getExecutorService() {
         return ForkJoinPool.commonPool();
     }
+
+    @Produces
+    @LaunchExecutor
+    ExecutorService getLaunchExecutor() {
+        return ForkJoinPool.commonPool();
+    }
+
+    @Produces
+    @LaunchStepExecutor
+    ExecutorService getLaunchStepExecutor() {
+        return ForkJoinPool.commonPool();
+    }
 }
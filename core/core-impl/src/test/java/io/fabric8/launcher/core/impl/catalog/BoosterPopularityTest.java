@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BoosterPopularityTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldPersistTheLaunches() throws Exception {
+        // GIVEN
+        Path file = folder.getRoot().toPath().resolve("data/popularity.properties");
+        BoosterPopularity popularity = new BoosterPopularity(file, Runnable::run);
+        // WHEN
+        popularity.launched(booster("vert.x_rest-http_booster"));
+        popularity.launched(booster("vert.x_rest-http_booster"));
+        popularity.launched(booster("spring-boot_crud_booster"));
+        // THEN
+        BoosterPopularity reloaded = new BoosterPopularity(file, Runnable::run);
+        softly.assertThat(reloaded.getLaunches("vert.x_rest-http_booster")).isEqualTo(2);
+        softly.assertThat(reloaded.getLaunches("spring-boot_crud_booster")).isEqualTo(1);
+        softly.assertThat(reloaded.getLaunches("nodejs_crud_booster")).isZero();
+    }
+
+    @Test
+    public void shouldCountLaunchesInMemoryWithoutAFile() {
+        BoosterPopularity popularity = new BoosterPopularity(null, Runnable::run);
+        popularity.launched(booster("vert.x_rest-http_booster"));
+        softly.assertThat(popularity.getLaunches("vert.x_rest-http_booster")).isEqualTo(1);
+    }
+
+    private static RhoarBooster booster(String id) {
+        RhoarBooster booster = new RhoarBooster(Collections.emptyMap(), b -> new CompletableFuture<>());
+        booster.setId(id);
+        return booster;
+    }
+}
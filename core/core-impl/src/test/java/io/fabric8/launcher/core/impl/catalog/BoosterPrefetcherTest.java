@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.launcher.booster.catalog.Booster;
+import io.fabric8.launcher.booster.catalog.BoosterFetcher;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static io.fabric8.launcher.core.impl.catalog.BoosterPrefetcher.Readiness.COLD;
+import static io.fabric8.launcher.core.impl.catalog.BoosterPrefetcher.Readiness.FAILED;
+import static io.fabric8.launcher.core.impl.catalog.BoosterPrefetcher.Readiness.FETCHING;
+import static io.fabric8.launcher.core.impl.catalog.BoosterPrefetcher.Readiness.READY;
+
+public class BoosterPrefetcherTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    // The fetches in progress, completed by the tests
+    private final Map<String, CompletableFuture<Path>> fetches = new ConcurrentHashMap<>();
+
+    private final List<String> fetchOrder = Collections.synchronizedList(new ArrayList<>());
+
+    private final BoosterFetcher fetcher = booster -> {
+        fetchOrder.add(booster.getId());
+        return fetches.computeIfAbsent(booster.getId(), id -> new CompletableFuture<>());
+    };
+
+    @Test
+    public void shouldFetchTheMostLaunchedBoostersFirst() throws Exception {
+        // GIVEN
+        Map<String, Long> launches = new HashMap<>();
+        launches.put("c", 10L);
+        launches.put("b", 3L);
+        BoosterPrefetcher prefetcher = new BoosterPrefetcher(id -> launches.getOrDefault(id, 0L), 2, Runnable::run);
+        List<RhoarBooster> boosters = Arrays.asList(booster("a"), booster("b"), booster("c"), booster("d"));
+        // WHEN
+        CompletableFuture<Boolean> result = prefetcher.prefetch(boosters);
+        // THEN
+        softly.assertThat(fetchOrder).containsExactly("c", "b");
+        softly.assertThat(prefetcher.getReadiness(boosters.get(2))).isEqualTo(FETCHING);
+        softly.assertThat(prefetcher.getReadiness(boosters.get(0))).isEqualTo(COLD);
+        fetches.get("b").complete(Paths.get("b"));
+        softly.assertThat(fetchOrder).containsExactly("c", "b", "a");
+        softly.assertThat(prefetcher.getReadiness(boosters.get(1))).isEqualTo(READY);
+        fetches.get("c").completeExceptionally(new IllegalStateException("Clone failed"));
+        fetches.get("a").complete(Paths.get("a"));
+        fetches.get("d").complete(Paths.get("d"));
+        softly.assertThat(result.get(5, TimeUnit.SECONDS)).isFalse();
+        softly.assertThat(prefetcher.getReadiness(boosters.get(2))).isEqualTo(FAILED);
+        softly.assertThat(prefetcher.getReadinessCounts()).containsEntry(READY, 3).containsEntry(FAILED, 1).containsEntry(COLD, 0);
+    }
+
+    @Test
+    public void shouldCompleteWhenEveryBoosterIsFetched() throws Exception {
+        BoosterPrefetcher prefetcher = new BoosterPrefetcher(id -> 0, 8, Runnable::run);
+        CompletableFuture<Boolean> result = prefetcher.prefetch(Arrays.asList(booster("a"), booster("b")));
+        fetches.values().forEach(fetch -> fetch.complete(Paths.get("booster")));
+        softly.assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+        softly.assertThat(prefetcher.prefetch(Collections.emptyList()).get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void shouldConsiderUnknownBoostersCold() {
+        BoosterPrefetcher prefetcher = new BoosterPrefetcher(id -> 0, 1, Runnable::run);
+        softly.assertThat(prefetcher.getReadiness(booster("unknown"))).isEqualTo(COLD);
+    }
+
+    private RhoarBooster booster(String id) {
+        RhoarBooster booster = new RhoarBooster(Collections.emptyMap(), fetcher);
+        booster.setId(id);
+        return booster;
+    }
+}
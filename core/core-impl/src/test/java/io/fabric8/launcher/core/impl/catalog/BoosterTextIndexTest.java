@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import io.fabric8.launcher.booster.catalog.rhoar.Mission;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import io.fabric8.launcher.booster.catalog.rhoar.Runtime;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class BoosterTextIndexTest {
+
+    private static final Mission CRUD = new Mission("crud", "CRUD", "Create, read, update and delete", Collections.emptyMap());
+
+    private static final Mission HEALTH = new Mission("health-check", "Health Check", "Liveness and readiness probes", Collections.emptyMap());
+
+    private static final Runtime VERTX = new Runtime("vert.x", "Eclipse Vert.x", "A reactive toolkit", Collections.emptyMap(), "vertx.svg");
+
+    private static final Runtime SPRING = new Runtime("spring-boot", "Spring Boot", "Opinionated Spring", Collections.emptyMap(), "spring.svg");
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    private final List<RhoarBooster> boosters = Arrays.asList(
+            booster("Vert.x CRUD", "A database example", CRUD, VERTX, "postgresql"),
+            booster("Spring Boot CRUD", "Reactive database access with reactive drivers", CRUD, SPRING, "mysql"),
+            booster("Vert.x Health Check", "Probes", HEALTH, VERTX, "kubernetes"),
+            booster("Spring Boot Health Check", "Probes", HEALTH, SPRING, null));
+
+    private final RhoarBoosterCatalogIndex index = new RhoarBoosterCatalogIndex(null, boosters);
+
+    @Test
+    public void shouldMatchEveryWordAsAPrefix() {
+        softly.assertThat(index.search("crud", null, Collections.emptyMap())).containsExactly(boosters.get(0), boosters.get(1));
+        softly.assertThat(index.search("Health vert", null, Collections.emptyMap())).containsExactly(boosters.get(2));
+        softly.assertThat(index.search("postgres", null, Collections.emptyMap())).containsExactly(boosters.get(0));
+        softly.assertThat(index.search("crud kubernetes", null, Collections.emptyMap())).isEmpty();
+        softly.assertThat(index.search("unknown", null, Collections.emptyMap())).isEmpty();
+        softly.assertThat(index.search(" - ", null, Collections.emptyMap())).isEmpty();
+    }
+
+    @Test
+    public void shouldRankByWeight() {
+        // Twice in its own description first, then once in the description of their runtime
+        softly.assertThat(index.search("reactive", null, Collections.emptyMap())).containsExactly(boosters.get(1), boosters.get(0), boosters.get(2));
+    }
+
+    @Test
+    public void shouldSearchAmongTheFilteredBoosters() {
+        Map<String, List<String>> parameters = new HashMap<>();
+        parameters.put("runtime.id", Collections.singletonList("spring-boot"));
+        softly.assertThat(index.search("health", null, parameters)).containsExactly(boosters.get(3));
+        softly.assertThat(index.search("health", "osio", Collections.emptyMap())).containsExactly(boosters.get(2));
+    }
+
+    @Test
+    public void shouldTokenizeOnLettersAndDigits() {
+        softly.assertThat(BoosterTextIndex.tokenize("Vert.x 3.5 - Élan_vital")).containsExactly("vert", "x", "3", "5", "élan", "vital");
+        softly.assertThat(BoosterTextIndex.tokenize(null)).isEmpty();
+    }
+
+    private static RhoarBooster booster(String name, String description, Mission mission, Runtime runtime, String database) {
+        Map<String, Object> metadata = new HashMap<>();
+        if (database != null) {
+            metadata.put("database", database);
+        }
+        metadata.put("app", Collections.singletonMap("osio", Collections.singletonMap("enabled", runtime == VERTX)));
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", name);
+        data.put("description", description);
+        data.put("metadata", metadata);
+        RhoarBooster booster = new RhoarBooster(data, b -> CompletableFuture.completedFuture(null));
+        // Boosters are equal by id
+        booster.setId(name);
+        booster.setMission(mission);
+        booster.setRuntime(runtime);
+        return booster;
+    }
+}
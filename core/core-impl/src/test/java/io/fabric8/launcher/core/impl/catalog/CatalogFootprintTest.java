@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class CatalogFootprintTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Test
+    public void shouldCountSharedObjectsOnce() {
+        // GIVEN
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("app", Collections.singletonMap("launcher", Collections.singletonMap("enabled", true)));
+        CatalogFootprint single = new CatalogFootprint();
+        single.add(metadata);
+
+        // WHEN
+        CatalogFootprint shared = new CatalogFootprint();
+        shared.add(Arrays.asList(metadata, metadata));
+
+        // THEN
+        softly.assertThat(single.getRetainedBytes()).isPositive();
+        // Only the list is added
+        softly.assertThat(shared.getRetainedBytes() - single.getRetainedBytes()).isEqualTo(24 + 24);
+        softly.assertThat(shared.getDuplicateStringBytes()).isZero();
+    }
+
+    @Test
+    public void shouldReportEqualStringsThatAreNotShared() {
+        // GIVEN
+        String runtime = "vert.x";
+        String copy = new String(runtime);
+
+        // WHEN
+        CatalogFootprint footprint = new CatalogFootprint();
+        footprint.add(Arrays.asList(runtime, copy, runtime));
+
+        // THEN
+        softly.assertThat(footprint.getDuplicateStringBytes()).isEqualTo(24 + 32);
+        // The list, then the string and its copy
+        softly.assertThat(footprint.getRetainedBytes()).isEqualTo(24 + 32 + 2 * (24 + 32));
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import io.fabric8.launcher.booster.catalog.Booster;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import io.fabric8.launcher.booster.catalog.spi.BoosterCatalogPathProvider;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CatalogSnapshotPathProviderTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private TestGitRepository repository;
+
+    private Path root;
+
+    @Before
+    public void setUp() throws Exception {
+        repository = new TestGitRepository(folder.newFolder("catalog").toPath());
+        root = folder.newFolder("snapshots").toPath();
+        repository.commit("booster.yaml", "name: First");
+    }
+
+    @Test
+    public void shouldLoadTheSavedSnapshot() throws Exception {
+        // GIVEN
+        CatalogSnapshotPathProvider first = provider(true);
+        Path clone = first.createCatalogPath();
+        Files.createDirectories(clone.resolve(".boosters/booster-1"));
+        Files.write(clone.resolve(".boosters/booster-1/pom.xml"), "<project/>".getBytes(StandardCharsets.UTF_8));
+        first.save();
+        // WHEN
+        CatalogSnapshotPathProvider second = provider(true);
+        Path snapshot = second.createCatalogPath();
+        // THEN
+        softly.assertThat(first.isLoaded()).isFalse();
+        softly.assertThat(second.isLoaded()).isTrue();
+        softly.assertThat(snapshot).startsWith(root);
+        softly.assertThat(snapshot.resolve("booster.yaml")).hasContent("name: First");
+        softly.assertThat(snapshot.resolve(".boosters/booster-1/pom.xml")).hasContent("<project/>");
+        softly.assertThat(snapshot.resolve(".git")).doesNotExist();
+        softly.assertThat(second.isStale()).isFalse();
+    }
+
+    @Test
+    public void shouldDetectChangesInTheRemote() throws Exception {
+        // GIVEN
+        CatalogSnapshotPathProvider first = provider(true);
+        first.createCatalogPath();
+        first.save();
+        CatalogSnapshotPathProvider second = provider(true);
+        second.createCatalogPath();
+        // WHEN
+        repository.commit("booster.yaml", "name: Second");
+        // THEN
+        softly.assertThat(second.isStale()).isTrue();
+        CatalogSnapshotPathProvider refreshed = provider(false);
+        softly.assertThat(refreshed.createCatalogPath().resolve("booster.yaml")).hasContent("name: Second");
+        softly.assertThat(refreshed.isLoaded()).isFalse();
+    }
+
+    @Test
+    public void shouldNotLoadWhenThereIsNoSnapshot() throws Exception {
+        CatalogSnapshotPathProvider provider = provider(true);
+        softly.assertThat(provider.createCatalogPath().resolve("booster.yaml")).hasContent("name: First");
+        softly.assertThat(provider.isLoaded()).isFalse();
+        softly.assertThat(provider.isStale()).isFalse();
+    }
+
+    @Test
+    public void shouldServeTheBoosterContentsFromTheLoadedSnapshot() throws Exception {
+        // GIVEN
+        CatalogSnapshotPathProvider first = provider(true);
+        Path clone = first.createCatalogPath();
+        Files.createDirectories(clone.resolve(".boosters/booster-1"));
+        Files.write(clone.resolve(".boosters/booster-1/pom.xml"), "<project/>".getBytes(StandardCharsets.UTF_8));
+        first.save();
+        // WHEN
+        CatalogSnapshotPathProvider second = provider(true, new UnreachableRemote());
+        Path snapshot = second.createCatalogPath();
+        Path content = second.createBoosterContentPath(booster("booster-1", null));
+        // THEN
+        softly.assertThat(second.isLoaded()).isTrue();
+        softly.assertThat(content).isEqualTo(snapshot.resolve(".boosters/booster-1"));
+        softly.assertThat(content.resolve("pom.xml")).hasContent("<project/>");
+    }
+
+    @Test
+    public void shouldFetchTheBoostersMissingFromTheSnapshotIntoIt() throws Exception {
+        // GIVEN
+        TestGitRepository boosterRepository = new TestGitRepository(folder.newFolder("booster-2").toPath());
+        boosterRepository.commit("pom.xml", "<project>2</project>");
+        CatalogSnapshotPathProvider first = provider(true);
+        first.createCatalogPath();
+        first.save();
+        CatalogSnapshotPathProvider second = provider(true, new UnreachableRemote());
+        Path snapshot = second.createCatalogPath();
+        // As the catalog service does before asking for the contents
+        Files.createDirectories(snapshot.resolve(".boosters/booster-2"));
+        // WHEN
+        Path content = second.createBoosterContentPath(booster("booster-2", boosterRepository.getUri()));
+        // THEN
+        softly.assertThat(content).isEqualTo(snapshot.resolve(".boosters/booster-2"));
+        softly.assertThat(content.resolve("pom.xml")).hasContent("<project>2</project>");
+        second.release();
+        CatalogSnapshotPathProvider third = provider(true, new UnreachableRemote());
+        third.createCatalogPath();
+        softly.assertThat(third.createBoosterContentPath(booster("booster-2", null)).resolve("pom.xml"))
+                .hasContent("<project>2</project>");
+    }
+
+    @Test
+    public void shouldOnlyPruneTheSnapshotsThatAreNotLeased() throws Exception {
+        // GIVEN
+        CatalogSnapshotPathProvider first = provider(true);
+        first.createCatalogPath();
+        first.save();
+        String firstCommit = repository.git("rev-parse", "HEAD").trim();
+        CatalogSnapshotPathProvider loaded = provider(true);
+        loaded.createCatalogPath();
+        // WHEN
+        repository.commit("booster.yaml", "name: Second");
+        saveSnapshot();
+        repository.commit("booster.yaml", "name: Third");
+        String thirdCommit = repository.git("rev-parse", "HEAD").trim();
+        saveSnapshot();
+        // THEN
+        softly.assertThat(snapshotCommits()).containsOnly(firstCommit, thirdCommit);
+        // WHEN
+        loaded.release();
+        repository.commit("booster.yaml", "name: Fourth");
+        String fourthCommit = repository.git("rev-parse", "HEAD").trim();
+        saveSnapshot();
+        // THEN
+        softly.assertThat(snapshotCommits()).containsOnly(fourthCommit);
+    }
+
+    private void saveSnapshot() throws IOException {
+        CatalogSnapshotPathProvider provider = provider(false);
+        provider.createCatalogPath();
+        provider.save();
+    }
+
+    private Set<String> snapshotCommits() throws IOException {
+        Set<String> commits = new HashSet<>();
+        try (DirectoryStream<Path> refs = Files.newDirectoryStream(root)) {
+            for (Path ref : refs) {
+                try (DirectoryStream<Path> snapshots = Files.newDirectoryStream(ref, Files::isDirectory)) {
+                    for (Path snapshot : snapshots) {
+                        if (!snapshot.getFileName().toString().startsWith(".")) {
+                            commits.add(snapshot.getFileName().toString());
+                        }
+                    }
+                }
+            }
+        }
+        return commits;
+    }
+
+    private static RhoarBooster booster(String id, String gitRepository) {
+        Map<String, Object> data = new HashMap<>();
+        if (gitRepository != null) {
+            Booster.setDataValue(data, "source/git/url", gitRepository);
+            Booster.setDataValue(data, "source/git/ref", "master");
+        }
+        RhoarBooster booster = new RhoarBooster(data, b -> CompletableFuture.completedFuture(null));
+        booster.setId(id);
+        return booster;
+    }
+
+    private CatalogSnapshotPathProvider provider(boolean load) {
+        String uri = repository.getUri();
+        return provider(load, new IncrementalCatalogPathProvider(uri, "master", null, new TestDirectoryReaper(folder.getRoot().toPath())));
+    }
+
+    private CatalogSnapshotPathProvider provider(boolean load, BoosterCatalogPathProvider remote) {
+        return new CatalogSnapshotPathProvider(root, repository.getUri(), "master", load, remote);
+    }
+
+    /**
+     * Fails the test if the catalog is cloned or a booster is fetched from the remote
+     */
+    private static class UnreachableRemote implements BoosterCatalogPathProvider {
+
+        @Override
+        public Path createCatalogPath() throws IOException {
+            throw new IOException("The catalog should not be cloned");
+        }
+
+        @Override
+        public Path createBoosterContentPath(Booster booster) throws IOException {
+            throw new IOException("The booster should not be fetched from the remote");
+        }
+    }
+}
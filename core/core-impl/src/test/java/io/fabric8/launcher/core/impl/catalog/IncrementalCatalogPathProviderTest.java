@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBoosterCatalogService;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IncrementalCatalogPathProviderTest {
+
+    private static final String SPRING_BOOT_DESCRIPTOR = "spring-boot/community/rest-http/booster.yaml";
+
+    private static final String VERTX_DESCRIPTOR = "vert.x/community/rest-http/booster.yaml";
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private TestGitRepository repository;
+
+    @Before
+    public void setUp() throws Exception {
+        repository = new TestGitRepository(folder.newFolder("catalog").toPath());
+        repository.commit("spring-boot/booster.yaml", "name: Spring Boot");
+        repository.commit("vert.x/booster.yaml", "name: Vert.x");
+    }
+
+    @Test
+    public void shouldOnlyFetchTheChangedBoostersAgain() throws Exception {
+        // GIVEN
+        Path previous = clone(null);
+        repository.commit("vert.x/booster.yaml", "name: Eclipse Vert.x");
+        // WHEN
+        IncrementalCatalogPathProvider provider = provider(previous);
+        Path catalog = provider.createCatalogPath();
+        // THEN
+        softly.assertThat(provider.isIncremental()).isTrue();
+        softly.assertThat(provider.getChangedPaths()).isEqualTo(1);
+        softly.assertThat(provider.getCarriedOverBoosters()).isEqualTo(1);
+        softly.assertThat(catalog).isNotEqualTo(previous).hasParent(folder.getRoot().toPath());
+        softly.assertThat(catalog.resolve("vert.x/booster.yaml")).hasContent("name: Eclipse Vert.x");
+        softly.assertThat(catalog.resolve(".boosters/spring-boot_booster/pom.xml")).hasContent("<project/>");
+        softly.assertThat(catalog.resolve(".boosters/vert.x_booster")).doesNotExist();
+        softly.assertThat(previous.resolve("vert.x/booster.yaml")).hasContent("name: Vert.x");
+    }
+
+    @Test
+    public void shouldFetchEveryBoosterBelowAChangedCommonDescriptor() throws Exception {
+        // GIVEN
+        Path previous = clone(null);
+        repository.commit("common.yaml", "version: 2");
+        // WHEN
+        IncrementalCatalogPathProvider provider = provider(previous);
+        Path catalog = provider.createCatalogPath();
+        // THEN
+        softly.assertThat(provider.isIncremental()).isTrue();
+        softly.assertThat(provider.getCarriedOverBoosters()).isZero();
+        softly.assertThat(catalog.resolve(".boosters")).doesNotExist();
+    }
+
+    @Test
+    public void shouldCloneWhenThereIsNoPreviousClone() throws Exception {
+        IncrementalCatalogPathProvider provider = provider(folder.newFolder("empty").toPath());
+        softly.assertThat(provider.createCatalogPath().resolve("spring-boot/booster.yaml")).hasContent("name: Spring Boot");
+        softly.assertThat(provider.isIncremental()).isFalse();
+    }
+
+    @Test
+    public void shouldUseTheSameBoosterIdsAsTheCatalog() {
+        softly.assertThat(IncrementalCatalogPathProvider.boosterId("vert.x/community/rest-http/booster.yaml")).isEqualTo("vert.x_community_rest-http_booster");
+        softly.assertThat(IncrementalCatalogPathProvider.boosterId("Spring-Boot/Booster.yaml")).isEqualTo("spring-boot_booster");
+    }
+
+    @Test
+    public void shouldOnlyFetchTheChangedBoostersThroughTheCatalogService() throws Exception {
+        // GIVEN
+        TestGitRepository springBoot = new TestGitRepository(folder.newFolder("spring-boot").toPath());
+        springBoot.commit("pom.xml", "<project>1</project>");
+        TestGitRepository vertx = new TestGitRepository(folder.newFolder("vert.x").toPath());
+        vertx.commit("pom.xml", "<project>1</project>");
+        repository.commit(SPRING_BOOT_DESCRIPTOR, descriptor(springBoot, "Spring Boot"));
+        repository.commit(VERTX_DESCRIPTOR, descriptor(vertx, "Vert.x"));
+        IncrementalCatalogPathProvider first = provider(null);
+        Map<String, Path> before = fetchContents(first);
+        springBoot.commit("pom.xml", "<project>2</project>");
+        vertx.commit("pom.xml", "<project>2</project>");
+        repository.commit(VERTX_DESCRIPTOR, descriptor(vertx, "Eclipse Vert.x"));
+        // WHEN
+        IncrementalCatalogPathProvider provider = provider(first.getCatalogPath());
+        Map<String, Path> after = fetchContents(provider);
+        // THEN
+        String springBootId = IncrementalCatalogPathProvider.boosterId(SPRING_BOOT_DESCRIPTOR);
+        String vertxId = IncrementalCatalogPathProvider.boosterId(VERTX_DESCRIPTOR);
+        softly.assertThat(provider.isIncremental()).isTrue();
+        softly.assertThat(before.keySet()).contains(springBootId, vertxId);
+        softly.assertThat(after.keySet()).isEqualTo(before.keySet());
+        softly.assertThat(after.get(springBootId)).startsWith(provider.getCatalogPath());
+        softly.assertThat(after.get(springBootId).resolve("pom.xml")).hasContent("<project>1</project>");
+        softly.assertThat(after.get(vertxId)).startsWith(provider.getCatalogPath());
+        softly.assertThat(after.get(vertxId).resolve("pom.xml")).hasContent("<project>2</project>");
+        softly.assertThat(before.get(vertxId).resolve("pom.xml")).hasContent("<project>1</project>");
+    }
+
+    private static String descriptor(TestGitRepository booster, String description) {
+        return "description: " + description + "\n"
+                + "source:\n"
+                + "  git:\n"
+                + "    url: " + booster.getUri() + "\n"
+                + "    ref: master\n";
+    }
+
+    // Indexes the catalog with the catalog service and fetches the contents of every booster, by booster id
+    private Map<String, Path> fetchContents(IncrementalCatalogPathProvider provider) throws Exception {
+        RhoarBoosterCatalogService service = new RhoarBoosterCatalogService.Builder()
+                .catalogRepository(repository.getUri())
+                .catalogRef("master")
+                .pathProvider(provider)
+                .build();
+        service.index().get(30, TimeUnit.SECONDS);
+        Map<String, Path> contents = new HashMap<>();
+        for (RhoarBooster booster : service.getBoosters()) {
+            if (booster.getGitRepo() == null) {
+                // The descriptors of the other tests
+                continue;
+            }
+            contents.put(booster.getId(), booster.content().get(30, TimeUnit.SECONDS));
+        }
+        return contents;
+    }
+
+    // Clones the catalog and fetches the contents of every booster
+    private Path clone(Path previous) throws IOException {
+        Path catalog = provider(previous).createCatalogPath();
+        for (String id : new String[]{"spring-boot_booster", "vert.x_booster"}) {
+            Path content = Files.createDirectories(catalog.resolve(".boosters").resolve(id));
+            Files.write(content.resolve("pom.xml"), "<project/>".getBytes(StandardCharsets.UTF_8));
+        }
+        return catalog;
+    }
+
+    private IncrementalCatalogPathProvider provider(Path previous) {
+        return new IncrementalCatalogPathProvider(repository.getUri(), "master", previous, new TestDirectoryReaper(folder.getRoot().toPath()));
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class MemoizedPredicateTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Test
+    public void shouldEvaluateOncePerObject() {
+        // GIVEN
+        AtomicInteger calls = new AtomicInteger();
+        MemoizedPredicate<List<String>> predicate = new MemoizedPredicate<>(list -> calls.incrementAndGet() % 2 == 1);
+        List<String> first = new ArrayList<>();
+        // Equal, but not the same
+        List<String> second = new ArrayList<>();
+
+        // WHEN
+        for (int i = 0; i < 3; i++) {
+            softly.assertThat(predicate.test(first)).isTrue();
+            softly.assertThat(predicate.test(second)).isFalse();
+        }
+
+        // THEN
+        softly.assertThat(calls).hasValue(2);
+        softly.assertThat(predicate.getEvaluations()).isEqualTo(2);
+        softly.assertThat(predicate.size()).isEqualTo(2);
+    }
+}
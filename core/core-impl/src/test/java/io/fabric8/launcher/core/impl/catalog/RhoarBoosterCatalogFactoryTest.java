@@ -7,10 +7,16 @@
 
 package io.fabric8.launcher.core.impl.catalog;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 import io.fabric8.launcher.base.http.HttpClient;
 import io.fabric8.launcher.booster.catalog.rhoar.RhoarBoosterCatalog;
+import io.fabric8.launcher.core.api.catalog.CatalogIndexedEvent;
 import org.arquillian.smart.testing.rules.git.server.GitServer;
 import org.assertj.core.api.JUnitSoftAssertions;
 import org.junit.Before;
@@ -18,9 +24,11 @@ import org.junit.ClassRule;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.ProvideSystemProperty;
+import org.junit.rules.TemporaryFolder;
 
 import static io.fabric8.launcher.booster.catalog.LauncherConfiguration.PropertyName.LAUNCHER_BOOSTER_CATALOG_REF;
 import static io.fabric8.launcher.booster.catalog.LauncherConfiguration.PropertyName.LAUNCHER_BOOSTER_CATALOG_REPOSITORY;
+import static io.fabric8.launcher.core.impl.CoreEnvVarSysPropNames.LAUNCHER_PREFETCH_BOOSTERS;
 
 /**
  * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
@@ -35,16 +43,25 @@ public class RhoarBoosterCatalogFactoryTest {
     @Rule
     public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
 
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
     @Rule
     public final ProvideSystemProperty boosterCatalogProperties =
-            new ProvideSystemProperty(LAUNCHER_BOOSTER_CATALOG_REF, "openshift-online-free")
-                    .and(LAUNCHER_BOOSTER_CATALOG_REPOSITORY, "http://localhost:" + gitServer.getPort() + "/booster-catalog");
+            new ProvideSystemProperty(LAUNCHER_BOOSTER_CATALOG_REF, "master")
+                    .and(LAUNCHER_BOOSTER_CATALOG_REPOSITORY, "http://localhost:" + gitServer.getPort() + "/booster-catalog")
+                    .and(LAUNCHER_PREFETCH_BOOSTERS.propertyKey(), "false");
+
+    private final GatedExecutor executor = new GatedExecutor();
+
+    private final List<CatalogIndexedEvent> indexed = Collections.synchronizedList(new ArrayList<>());
 
     private RhoarBoosterCatalogFactory factory;
 
     @Before
     public void setUp() {
-        factory = new RhoarBoosterCatalogFactory(ForkJoinPool.commonPool(), HttpClient.create());
+        factory = new RhoarBoosterCatalogFactory(executor, HttpClient.create(), new BoosterPopularity(null, ForkJoinPool.commonPool()),
+                                                 new TestDirectoryReaper(folder.getRoot().toPath()), indexed::add);
     }
 
     @Test
@@ -54,6 +71,32 @@ public class RhoarBoosterCatalogFactoryTest {
         softly.assertThat(factory.getBoosterCatalog()).isSameAs(defaultService);
     }
 
+    @Test
+    public void testResetKeepsServingTheCurrentCatalogUntilTheNextIsIndexed() throws Exception {
+        // GIVEN
+        RhoarBoosterCatalog current = factory.getBoosterCatalog();
+        factory.waitForIndex();
+        long generation = factory.getGeneration();
+        // WHEN
+        executor.close();
+        factory.reset();
+        factory.reset();
+        factory.reset();
+        // THEN
+        softly.assertThat(factory.getBoosterCatalog()).isSameAs(current);
+        softly.assertThat(factory.isIndexed()).isTrue();
+        softly.assertThat(factory.getStatistics()).containsEntry("rebuilding", true);
+        executor.open();
+        factory.waitForIndex();
+        softly.assertThat(factory.getBoosterCatalog()).isNotSameAs(current);
+        softly.assertThat(factory.getBoosterCatalogIndex().getBoosterCatalog()).isSameAs(factory.getBoosterCatalog());
+        softly.assertThat(factory.getGeneration()).isEqualTo(generation + 2);
+        softly.assertThat(factory.getStatistics()).containsEntry("coalescedResets", 1L);
+        softly.assertThat(indexed).extracting(CatalogIndexedEvent::getGeneration)
+                .containsExactly(generation, generation + 1, generation + 2);
+        softly.assertThat(indexed.get(2).getIndex()).isSameAs(factory.getBoosterCatalogIndex());
+    }
+
     @Test
     public void testResolveRef() {
         String ref = factory.resolveRef("https://github.com/fabric8-launcher/launcher-booster-catalog", "latest");
@@ -66,4 +109,60 @@ public class RhoarBoosterCatalogFactoryTest {
         softly.assertThat(ref).isNotEqualTo("latest");
     }
 
+    /**
+     * Runs the tasks on the common pool, holding them back while closed
+     */
+    private static class GatedExecutor extends AbstractExecutorService {
+
+        // Guarded by this
+        private List<Runnable> held;
+
+        synchronized void close() {
+            held = new ArrayList<>();
+        }
+
+        void open() {
+            List<Runnable> tasks;
+            synchronized (this) {
+                tasks = held;
+                held = null;
+            }
+            tasks.forEach(ForkJoinPool.commonPool()::execute);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            synchronized (this) {
+                if (held != null) {
+                    held.add(command);
+                    return;
+                }
+            }
+            ForkJoinPool.commonPool().execute(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return false;
+        }
+    }
 }
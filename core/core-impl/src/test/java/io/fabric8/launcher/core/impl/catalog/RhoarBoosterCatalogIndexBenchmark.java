@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import io.fabric8.launcher.booster.catalog.rhoar.Mission;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import io.fabric8.launcher.booster.catalog.rhoar.Runtime;
+import io.fabric8.launcher.booster.catalog.rhoar.Version;
+import org.junit.Test;
+
+import static io.fabric8.launcher.booster.catalog.rhoar.BoosterPredicates.withAppEnabled;
+import static io.fabric8.launcher.booster.catalog.rhoar.BoosterPredicates.withParameters;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares filtering the catalog with the booster predicates against {@link RhoarBoosterCatalogIndex}, and
+ * searching the catalog text by scanning the boosters against its {@link BoosterTextIndex}.
+ *
+ * Not picked up by the default surefire includes, run it with
+ * {@code mvn test -Dtest=RhoarBoosterCatalogIndexBenchmark}
+ */
+public class RhoarBoosterCatalogIndexBenchmark {
+
+    private static final int[] SIZES = {100, 1_000, 10_000, 50_000};
+
+    private static final int ITERATIONS = 200;
+
+    @Test
+    public void compareFiltering() {
+        Map<String, List<String>> query = new HashMap<>();
+        query.put("mission.id", Collections.singletonList("mission-3"));
+        query.put("runtime.id", Collections.singletonList("runtime-1"));
+        for (int size : SIZES) {
+            List<RhoarBooster> boosters = boosters(size);
+            long start = System.nanoTime();
+            RhoarBoosterCatalogIndex index = new RhoarBoosterCatalogIndex(null, boosters);
+            long build = System.nanoTime() - start;
+
+            Predicate<RhoarBooster> filter = withAppEnabled("osio").and(withParameters(query));
+            List<RhoarBooster> expected = boosters.stream().filter(filter).collect(Collectors.toList());
+            assertThat(index.getBoosters("osio", query)).containsExactlyElementsOf(expected);
+
+            long linear = measure(() -> boosters.stream().filter(filter).collect(Collectors.toList()));
+            long indexed = measure(() -> index.getBoosters("osio", query));
+            System.out.printf("%6d boosters: index built in %5d ms, predicates %9d ns/query, index %9d ns/query (%d matches)%n",
+                              size, TimeUnit.NANOSECONDS.toMillis(build), linear, indexed, expected.size());
+        }
+    }
+
+    @Test
+    public void compareSearching() {
+        for (int size : SIZES) {
+            List<RhoarBooster> boosters = boosters(size);
+            RhoarBoosterCatalogIndex index = new RhoarBoosterCatalogIndex(null, boosters);
+            long start = System.nanoTime();
+            int terms = index.getTextIndex().size();
+            long build = System.nanoTime() - start;
+
+            Predicate<RhoarBooster> scan = b -> b.getName().toLowerCase().contains("booster 42")
+                    || b.getDescription().toLowerCase().contains("booster 42");
+            List<RhoarBooster> found = index.search("booster 42", null, Collections.emptyMap());
+            assertThat(found).isNotEmpty();
+
+            long linear = measure(() -> boosters.stream().filter(scan).collect(Collectors.toList()));
+            long indexed = measure(() -> index.search("booster 42", null, Collections.emptyMap()));
+            System.out.printf("%6d boosters: text index of %6d terms built in %5d ms, scan %9d ns/query, index %9d ns/query (%d matches)%n",
+                              size, terms, TimeUnit.NANOSECONDS.toMillis(build), linear, indexed, found.size());
+        }
+    }
+
+    private static long measure(Runnable query) {
+        // Warm up
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.run();
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+
+    private static List<RhoarBooster> boosters(int size) {
+        List<Mission> missions = new ArrayList<>();
+        List<Runtime> runtimes = new ArrayList<>();
+        List<Version> versions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            missions.add(new Mission("mission-" + i));
+            runtimes.add(new Runtime("runtime-" + i));
+            versions.add(new Version("version-" + i));
+        }
+        List<RhoarBooster> boosters = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("name", "Booster " + i);
+            data.put("description", "The booster number " + i + " of " + size);
+            data.put("metadata", Collections.singletonMap("app", Collections.singletonMap("osio", Collections.singletonMap("enabled", i % 7 != 0))));
+            RhoarBooster booster = new RhoarBooster(data, b -> CompletableFuture.completedFuture(null));
+            booster.setMission(missions.get(i % missions.size()));
+            booster.setRuntime(runtimes.get((i / missions.size()) % runtimes.size()));
+            booster.setVersion(versions.get((i / (missions.size() * runtimes.size())) % versions.size()));
+            boosters.add(booster);
+        }
+        return boosters;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import io.fabric8.launcher.booster.catalog.rhoar.Mission;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import io.fabric8.launcher.booster.catalog.rhoar.Runtime;
+import io.fabric8.launcher.booster.catalog.rhoar.Version;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static io.fabric8.launcher.booster.catalog.rhoar.BoosterPredicates.withAppEnabled;
+import static io.fabric8.launcher.booster.catalog.rhoar.BoosterPredicates.withParameters;
+
+public class RhoarBoosterCatalogIndexTest {
+
+    private static final Mission CRUD = new Mission("crud");
+
+    private static final Mission REST = new Mission("rest-http");
+
+    private static final Runtime VERTX = new Runtime("vert.x");
+
+    private static final Runtime SPRING = new Runtime("spring-boot");
+
+    private static final Version COMMUNITY = new Version("community");
+
+    private static final Version REDHAT = new Version("redhat");
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    private final List<RhoarBooster> boosters = Arrays.asList(
+            booster(CRUD, VERTX, COMMUNITY, true),
+            booster(CRUD, VERTX, REDHAT, false),
+            booster(CRUD, SPRING, null, true),
+            booster(REST, SPRING, COMMUNITY, false),
+            booster(REST, null, null, true));
+
+    private final RhoarBoosterCatalogIndex index = new RhoarBoosterCatalogIndex(null, boosters);
+
+    @Test
+    public void shouldLookupByIds() {
+        softly.assertThat(index.size()).isEqualTo(5);
+        softly.assertThat(index.getMission("crud")).contains(CRUD);
+        softly.assertThat(index.getMission("foo")).isEmpty();
+        softly.assertThat(index.getRuntime("spring-boot")).contains(SPRING);
+        softly.assertThat(index.getRuntime("foo")).isEmpty();
+        softly.assertThat(index.getBooster(CRUD, VERTX, REDHAT)).containsSame(boosters.get(1));
+        softly.assertThat(index.getBooster(CRUD, SPRING, null)).containsSame(boosters.get(2));
+        softly.assertThat(index.getBooster(REST, VERTX, null)).isEmpty();
+    }
+
+    @Test
+    public void shouldMatchAnyVersionWhenNoneIsGiven() {
+        softly.assertThat(index.getBooster(CRUD, VERTX, null)).containsSame(boosters.get(0));
+        softly.assertThat(index.getBooster(REST, SPRING, null)).containsSame(boosters.get(3));
+        softly.assertThat(index.getBooster(REST, SPRING, REDHAT)).isEmpty();
+        softly.assertThat(index.getBooster(REST, null, null)).containsSame(boosters.get(4));
+    }
+
+    @Test
+    public void shouldFilterLikeThePredicates() {
+        List<Map<String, List<String>>> queries = Arrays.asList(
+                Collections.emptyMap(),
+                params("mission.id", "crud"),
+                params("mission.id", "CRUD", "rest-http"),
+                params("runtime.id", "vert.x"),
+                params("runtime.id", "false"),
+                params("version.id", "community"),
+                params("version.id", "false"),
+                merge(params("mission.id", "crud"), params("runtime.id", "spring-boot")),
+                params("mission.id", "foo"),
+                params("mission.id"),
+                params("metadata.flag", ""),
+                params("metadata.flag", "TRUE"),
+                params("metadata.flag", "false"),
+                params("does.not.exist", "false"));
+        for (String application : new String[]{null, "osio", "unknown"}) {
+            for (Map<String, List<String>> query : queries) {
+                List<RhoarBooster> expected = boosters.stream()
+                        .filter(withAppEnabled(application).and(withParameters(query)))
+                        .collect(Collectors.toList());
+                softly.assertThat(index.getBoosters(application, query))
+                        .as("app %s with %s", application, query)
+                        .containsExactlyElementsOf(expected);
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotIndexPathsTheCatalogDoesNotHave() {
+        // GIVEN
+        for (int i = 0; i < RhoarBoosterCatalogIndex.MAX_LAZY_INDEXES; i++) {
+            index.getBoosters(null, params("metadata.unknown" + i, "false"));
+        }
+        softly.assertThat(index.getAttributeCount()).isEqualTo(3);
+        softly.assertThat(index.getUnindexedPredicateCount()).isZero();
+        // WHEN
+        List<RhoarBooster> result = index.getBoosters(null, merge(params("metadata.app.osio.enabled", "true"), params("mission.id", "crud")));
+        // THEN
+        softly.assertThat(index.getAttributeCount()).isEqualTo(4);
+        softly.assertThat(result).containsExactly(boosters.get(0), boosters.get(2));
+    }
+
+    @Test
+    public void shouldFallbackToPredicatesWhenTooManyPaths() {
+        // GIVEN
+        RhoarBoosterCatalogIndex index = new RhoarBoosterCatalogIndex(null, Arrays.asList(
+                booster(CRUD, VERTX, COMMUNITY, true), booster(REST, SPRING, REDHAT, false)));
+        for (int i = 0; i < RhoarBoosterCatalogIndex.MAX_LAZY_INDEXES; i++) {
+            index.getBoosters(null, params("metadata.key" + i, "false"));
+        }
+        softly.assertThat(index.getAttributeCount()).isEqualTo(RhoarBoosterCatalogIndex.MAX_LAZY_INDEXES);
+        // WHEN
+        List<RhoarBooster> result = index.getBoosters(null, merge(params("metadata.flag", "true"), params("mission.id", "crud")));
+        // THEN
+        softly.assertThat(index.getAttributeCount()).isEqualTo(RhoarBoosterCatalogIndex.MAX_LAZY_INDEXES);
+        softly.assertThat(result).hasSize(1).allMatch(b -> b.getMission() == CRUD);
+    }
+
+    @Test
+    public void shouldMemoizeThePredicatesOfUnindexedPaths() {
+        // GIVEN
+        RhoarBoosterCatalogIndex index = new RhoarBoosterCatalogIndex(null, Arrays.asList(
+                booster(CRUD, VERTX, COMMUNITY, true), booster(REST, SPRING, REDHAT, false)));
+        for (int i = 0; i < RhoarBoosterCatalogIndex.MAX_LAZY_INDEXES; i++) {
+            index.getBoosters(null, params("metadata.key" + i, "false"));
+        }
+        Map<String, List<String>> query = params("metadata.flag", "true");
+        int predicates = index.getUnindexedPredicateCount();
+        // WHEN
+        List<RhoarBooster> first = index.getBoosters("osio", query);
+        List<RhoarBooster> second = index.getBoosters("osio", params("metadata.flag", "true"));
+        index.getBoosters("osio", params("metadata.unknown", "true"));
+        // THEN
+        softly.assertThat(index.getUnindexedPredicateCount()).isEqualTo(predicates + 1);
+        softly.assertThat(second).containsExactlyElementsOf(first).hasSize(1).allMatch(b -> b.getMission() == CRUD);
+    }
+
+    private static Map<String, List<String>> params(String key, String... values) {
+        Map<String, List<String>> params = new HashMap<>();
+        params.put(key, Arrays.asList(values));
+        return params;
+    }
+
+    @SafeVarargs
+    private static Map<String, List<String>> merge(Map<String, List<String>>... params) {
+        Map<String, List<String>> merged = new HashMap<>();
+        for (Map<String, List<String>> param : params) {
+            merged.putAll(param);
+        }
+        return merged;
+    }
+
+    private static RhoarBooster booster(Mission mission, Runtime runtime, Version version, boolean flag) {
+        Map<String, Object> osio = new HashMap<>();
+        osio.put("enabled", flag);
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("flag", flag);
+        for (int i = 0; i < RhoarBoosterCatalogIndex.MAX_LAZY_INDEXES; i++) {
+            metadata.put("key" + i, i);
+        }
+        metadata.put("app", Collections.singletonMap("osio", osio));
+        Map<String, Object> data = new HashMap<>();
+        data.put("metadata", metadata);
+        RhoarBooster booster = new RhoarBooster(data, b -> CompletableFuture.completedFuture(null));
+        booster.setMission(mission);
+        booster.setRuntime(runtime);
+        booster.setVersion(version);
+        return booster;
+    }
+}
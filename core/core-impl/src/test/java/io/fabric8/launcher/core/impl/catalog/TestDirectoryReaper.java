@@ -0,0 +1,45 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import io.fabric8.launcher.core.spi.DirectoryReaper;
+
+import static io.fabric8.launcher.base.Paths.deleteDirectory;
+
+/**
+ * Allocates the directories of the catalog tests under a single root, and deletes them right away
+ */
+final class TestDirectoryReaper implements DirectoryReaper {
+
+    private final Path root;
+
+    TestDirectoryReaper(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public Path createCacheDirectory(String prefix) throws IOException {
+        return Files.createTempDirectory(root, prefix);
+    }
+
+    @Override
+    public void delete(Path path) {
+        try {
+            if (Files.exists(path)) {
+                deleteDirectory(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
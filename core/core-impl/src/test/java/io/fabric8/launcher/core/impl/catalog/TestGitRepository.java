@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.fabric8.launcher.core.impl.catalog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A local git repository the catalog tests commit to
+ */
+final class TestGitRepository {
+
+    private final Path directory;
+
+    /**
+     * Initializes a repository with a master branch in the given directory
+     */
+    TestGitRepository(Path directory) throws IOException {
+        this.directory = directory;
+        git("init", "--quiet");
+        git("checkout", "--quiet", "-b", "master");
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    String getUri() {
+        return directory.toUri().toString();
+    }
+
+    /**
+     * Writes the given file, creating its parent directories, and commits it
+     */
+    void commit(String file, String content) throws IOException {
+        Path path = directory.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        git("add", file);
+        git("-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "--quiet", "-m", "Update " + file);
+    }
+
+    String git(String... args) throws IOException {
+        return GitCommands.run(directory, args);
+    }
+}
@@ -7,10 +7,13 @@ import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
+import io.fabric8.launcher.core.spi.DirectoryReaper;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -26,7 +29,7 @@ public class BoosterDocumentationStoreImplTest {
         when(mockDownloader.get())
                 .thenReturn(expectedFirstPath)
                 .thenReturn(expectedSecondPath);
-        final BoosterDocumentationStoreImpl boosterDocumentationStore = new BoosterDocumentationStoreImpl(ForkJoinPool.commonPool(), mockDownloader);
+        final BoosterDocumentationStoreImpl boosterDocumentationStore = new BoosterDocumentationStoreImpl(ForkJoinPool.commonPool(), mockDownloader, mock(DirectoryReaper.class));
 
         //When getting the documentation path future
         final CompletableFuture<Path> firstFuture = boosterDocumentationStore.getDocumentationPath();
@@ -63,7 +66,7 @@ public class BoosterDocumentationStoreImplTest {
             return Paths.get("/v1");
         });
 
-        final BoosterDocumentationStoreImpl boosterDocumentationStore = new BoosterDocumentationStoreImpl(ForkJoinPool.commonPool(), mockDownloader);
+        final BoosterDocumentationStoreImpl boosterDocumentationStore = new BoosterDocumentationStoreImpl(ForkJoinPool.commonPool(), mockDownloader, mock(DirectoryReaper.class));
 
         //When initializing
         boosterDocumentationStore.initialize();
@@ -77,4 +80,32 @@ public class BoosterDocumentationStoreImplTest {
         //Then the counter has been incremented
         assertThat(counter.get()).isEqualTo(1);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldDeleteTheReplacedDocumentationOnceReplacedAgain() throws Exception {
+        //Given a downloader with three versions and a documentation store
+        @SuppressWarnings("unchecked") final Supplier<Path> mockDownloader = mock(Supplier.class);
+        final Path firstPath = Paths.get("/v1");
+        final Path secondPath = Paths.get("/v2");
+        when(mockDownloader.get())
+                .thenReturn(firstPath)
+                .thenReturn(secondPath)
+                .thenReturn(Paths.get("/v3"));
+        final DirectoryReaper reaper = mock(DirectoryReaper.class);
+        final BoosterDocumentationStoreImpl boosterDocumentationStore = new BoosterDocumentationStoreImpl(ForkJoinPool.commonPool(), mockDownloader, reaper);
+        boosterDocumentationStore.waitForDocumentation();
+
+        //When reloading the documentation
+        boosterDocumentationStore.reloadDocumentation().get();
+
+        //Then the first version is kept for the requests still using it
+        verify(reaper, never()).delete(firstPath);
+
+        //When reloading the documentation again
+        boosterDocumentationStore.reloadDocumentation().get();
+
+        //Then the first version is deleted
+        verify(reaper, timeout(5000)).delete(firstPath);
+        verify(reaper, never()).delete(secondPath);
+    }
+}
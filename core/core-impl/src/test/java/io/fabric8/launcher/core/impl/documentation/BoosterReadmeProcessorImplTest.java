@@ -34,7 +34,9 @@ public class BoosterReadmeProcessorImplTest {
     @BeforeClass
     public static void setUp() throws URISyntaxException {
         final URI repoUri = BoosterReadmeProcessorImplTest.class.getResource("/repos/documentation").toURI();
-        documentationStore = new BoosterDocumentationStoreImpl(ForkJoinPool.commonPool(), () -> Paths.get(repoUri));
+        documentationStore = new BoosterDocumentationStoreImpl(ForkJoinPool.commonPool(), () -> Paths.get(repoUri), path -> {
+            // The repository is never reloaded
+        });
     }
 
     @Test
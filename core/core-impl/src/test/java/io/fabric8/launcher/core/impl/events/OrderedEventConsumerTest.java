@@ -0,0 +1,59 @@
+package io.fabric8.launcher.core.impl.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import io.fabric8.launcher.core.api.events.StatusEventKind;
+import io.fabric8.launcher.core.api.events.StatusMessageEvent;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.GITHUB_CREATE;
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.GITHUB_PUSHED;
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.OPENSHIFT_CREATE;
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.OPENSHIFT_PIPELINE;
+
+public class OrderedEventConsumerTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    private final UUID id = UUID.randomUUID();
+
+    private final List<StatusMessageEvent> events = new ArrayList<>();
+
+    private final OrderedEventConsumer consumer = new OrderedEventConsumer(events::add);
+
+    @Test
+    public void shouldHoldBackEventsUntilThePreviousStepsFiredTheirs() {
+        // WHEN
+        consumer.accept(new StatusMessageEvent(id, OPENSHIFT_CREATE));
+        consumer.accept(new StatusMessageEvent(id, GITHUB_CREATE));
+        // THEN
+        softly.assertThat(kinds()).containsExactly(GITHUB_CREATE);
+        softly.assertThat(consumer.getPendingEvents()).isEqualTo(1);
+        consumer.accept(new StatusMessageEvent(id, GITHUB_PUSHED));
+        softly.assertThat(kinds()).containsExactly(GITHUB_CREATE, GITHUB_PUSHED, OPENSHIFT_CREATE);
+        consumer.accept(new StatusMessageEvent(id, OPENSHIFT_PIPELINE));
+        softly.assertThat(kinds()).containsExactly(GITHUB_CREATE, GITHUB_PUSHED, OPENSHIFT_CREATE, OPENSHIFT_PIPELINE);
+        softly.assertThat(consumer.getPendingEvents()).isZero();
+    }
+
+    @Test
+    public void shouldPassErrorsOnAtOnce() {
+        // WHEN
+        consumer.accept(new StatusMessageEvent(id, OPENSHIFT_CREATE));
+        consumer.accept(new StatusMessageEvent(id, new IllegalStateException("Repository exists")));
+        // THEN
+        softly.assertThat(events).hasSize(1);
+        softly.assertThat(events.get(0).getData()).containsEntry("error", "Repository exists");
+    }
+
+    private List<StatusEventKind> kinds() {
+        List<StatusEventKind> kinds = new ArrayList<>();
+        events.forEach(event -> kinds.add(event.getStatusMessage()));
+        return kinds;
+    }
+}
@@ -0,0 +1,133 @@
+package io.fabric8.launcher.core.impl.journal;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import io.fabric8.launcher.core.api.journal.LaunchStatus;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.GITHUB_CREATE;
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.GITHUB_PUSHED;
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.OPENSHIFT_CREATE;
+import static java.util.Collections.singletonMap;
+
+public class LaunchJournalImplTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldKeepTheStatusOfTheLaunches() {
+        // GIVEN
+        LaunchJournalImpl journal = new LaunchJournalImpl(null, 1024, 10, Runnable::run);
+        UUID id = UUID.randomUUID();
+        // WHEN
+        journal.started(id, "foo");
+        journal.stepCompleted(id, GITHUB_CREATE, singletonMap("gitRepository", "foo/bar"));
+        journal.stepCompleted(id, OPENSHIFT_CREATE, Collections.emptyMap());
+        // THEN
+        LaunchStatus status = journal.getStatus(id).orElseThrow(IllegalStateException::new);
+        softly.assertThat(status.getState()).isEqualTo(LaunchStatus.State.RUNNING);
+        softly.assertThat(status.getCompletedSteps()).containsExactly(GITHUB_CREATE, OPENSHIFT_CREATE);
+        softly.assertThat(status.getOutputs()).containsEntry("gitRepository", "foo/bar");
+        softly.assertThat(status.getNextStep()).isEqualTo(GITHUB_PUSHED.ordinal());
+        journal.failed(id, "Bad Gateway");
+        softly.assertThat(journal.getStatus(id).map(LaunchStatus::getState)).contains(LaunchStatus.State.FAILED);
+        softly.assertThat(journal.getStatus(id).map(LaunchStatus::getError)).contains("Bad Gateway");
+        softly.assertThat(journal.getStatus(UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    public void shouldMarkTheRunningLaunchesAsInterruptedOnRestart() throws Exception {
+        // GIVEN
+        Path file = folder.getRoot().toPath().resolve("journal/launches.log");
+        LaunchJournalImpl journal = new LaunchJournalImpl(file, 1024 * 1024, 10, Runnable::run);
+        UUID running = UUID.randomUUID();
+        UUID completed = UUID.randomUUID();
+        journal.started(running, "foo");
+        journal.stepCompleted(running, GITHUB_CREATE, singletonMap("gitRepositoryUrl", "https://github.com/foo/bar"));
+        journal.started(completed, "foo");
+        journal.completed(completed);
+        // WHEN
+        LaunchJournalImpl restarted = new LaunchJournalImpl(file, 1024 * 1024, 10, Runnable::run);
+        // THEN
+        LaunchStatus status = restarted.getStatus(running).orElseThrow(IllegalStateException::new);
+        softly.assertThat(status.getState()).isEqualTo(LaunchStatus.State.INTERRUPTED);
+        softly.assertThat(status.getUser()).isEqualTo("foo");
+        softly.assertThat(status.getCompletedSteps()).containsExactly(GITHUB_CREATE);
+        softly.assertThat(status.getOutputs()).containsEntry("gitRepositoryUrl", "https://github.com/foo/bar");
+        softly.assertThat(status.getNextStep()).isEqualTo(GITHUB_PUSHED.ordinal());
+        softly.assertThat(restarted.getStatus(completed).map(LaunchStatus::getState)).contains(LaunchStatus.State.COMPLETED);
+        softly.assertThat(status.getError()).isEqualTo(LaunchJournalImpl.INTERRUPTED_MESSAGE);
+    }
+
+    @Test
+    public void shouldIgnoreALineCutShortByACrash() throws Exception {
+        // GIVEN
+        Path file = folder.newFile("launches.log").toPath();
+        LaunchJournalImpl journal = new LaunchJournalImpl(file, 1024 * 1024, 10, Runnable::run);
+        UUID id = UUID.randomUUID();
+        journal.started(id, "foo");
+        Files.write(file, "{\"id\":\"".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        // WHEN
+        LaunchJournalImpl restarted = new LaunchJournalImpl(file, 1024 * 1024, 10, Runnable::run);
+        // THEN
+        softly.assertThat(restarted.getStatus(id).map(LaunchStatus::getState)).contains(LaunchStatus.State.INTERRUPTED);
+    }
+
+    @Test
+    public void shouldWriteTheChangesMadeMeanwhileAtOnce() throws Exception {
+        // GIVEN
+        Path file = folder.getRoot().toPath().resolve("launches.log");
+        List<Runnable> tasks = new ArrayList<>();
+        LaunchJournalImpl journal = new LaunchJournalImpl(file, 1024 * 1024, 10, tasks::add);
+        UUID id = UUID.randomUUID();
+        // WHEN
+        journal.started(id, "foo");
+        journal.stepCompleted(id, GITHUB_CREATE, Collections.emptyMap());
+        journal.stepCompleted(id, GITHUB_PUSHED, Collections.emptyMap());
+        // THEN
+        softly.assertThat(tasks).hasSize(1);
+        tasks.get(0).run();
+        softly.assertThat(Files.readAllLines(file)).hasSize(3);
+        softly.assertThat(journal.getStatistics())
+                .containsEntry("appendedRecords", 3L)
+                .containsEntry("flushes", 1L);
+    }
+
+    @Test
+    public void shouldCompactTheJournalOnceItIsTooLarge() throws Exception {
+        // GIVEN
+        Path file = folder.getRoot().toPath().resolve("launches.log");
+        LaunchJournalImpl journal = new LaunchJournalImpl(file, 2048, 5, Runnable::run);
+        List<UUID> ids = new ArrayList<>();
+        // WHEN
+        for (int i = 0; i < 100; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            journal.started(id, "foo");
+            journal.stepCompleted(id, GITHUB_CREATE, singletonMap("gitRepository", "foo/bar-" + i));
+            journal.completed(id);
+        }
+        // THEN
+        softly.assertThat(Files.size(file)).isLessThanOrEqualTo(2 * 2048L);
+        softly.assertThat((Long) journal.getStatistics().get("compactions")).isPositive();
+        softly.assertThat(journal.getStatistics()).containsEntry("launches", 5);
+        LaunchJournalImpl restarted = new LaunchJournalImpl(file, 2048, 5, Runnable::run);
+        softly.assertThat(restarted.getStatus(ids.get(0))).isEmpty();
+        softly.assertThat(restarted.getStatus(ids.get(99)).map(LaunchStatus::getOutputs))
+                .contains(singletonMap("gitRepository", "foo/bar-99"));
+    }
+}
@@ -0,0 +1,322 @@
+package io.fabric8.launcher.core.impl.steps;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.fabric8.launcher.base.http.HttpException;
+import io.fabric8.launcher.core.api.Boom;
+import io.fabric8.launcher.core.api.events.LauncherStatusEventKind;
+import io.fabric8.launcher.core.api.events.StatusEventKind;
+import io.fabric8.launcher.core.api.journal.ImmutableLaunchStatus;
+import io.fabric8.launcher.core.api.journal.LaunchStatus;
+import io.fabric8.launcher.core.api.projectiles.CreateProjectile;
+import io.fabric8.launcher.core.api.projectiles.ImmutableLauncherCreateProjectile;
+import io.fabric8.launcher.service.git.api.GitRepository;
+import io.fabric8.launcher.service.git.api.GitService;
+import io.fabric8.launcher.service.openshift.api.OpenShiftProject;
+import io.fabric8.launcher.service.openshift.api.OpenShiftService;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.GITHUB_CREATE;
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.GITHUB_PUSHED;
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.GITHUB_WEBHOOK;
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.OPENSHIFT_CREATE;
+import static io.fabric8.launcher.core.api.events.LauncherStatusEventKind.OPENSHIFT_PIPELINE;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LaunchStepsTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final GitService gitService = mock(GitService.class);
+
+    private final OpenShiftService openShiftService = mock(OpenShiftService.class);
+
+    private final GitRepository gitRepository = mock(GitRepository.class);
+
+    private final OpenShiftProject openShiftProject = mock(OpenShiftProject.class);
+
+    private final List<StatusEventKind> events = Collections.synchronizedList(new ArrayList<>());
+
+    private final LaunchStepTimings timings = new LaunchStepTimings();
+
+    private ExecutorService executor;
+
+    private CreateProjectile projectile;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newSingleThreadExecutor();
+        projectile = ImmutableLauncherCreateProjectile.builder()
+                .projectLocation(folder.newFolder("project").toPath())
+                .openShiftProjectName("my-project")
+                .eventConsumer(event -> events.add(event.getStatusMessage()))
+                .build();
+        when(gitRepository.getGitCloneUri()).thenReturn(URI.create("https://github.com/foo/my-project.git"));
+        when(gitService.createRepository(anyString(), anyString())).thenReturn(gitRepository);
+        when(openShiftService.createProject("my-project")).thenReturn(openShiftProject);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldCreateTheOpenShiftProjectWhileCreatingTheGitRepository() {
+        // GIVEN
+        CountDownLatch projectCreated = new CountDownLatch(1);
+        when(openShiftService.createProject("my-project")).thenAnswer(invocation -> {
+            projectCreated.countDown();
+            return openShiftProject;
+        });
+        when(gitService.createRepository(anyString(), anyString())).thenAnswer(invocation -> {
+            // Would time out if the OpenShift project was only created afterwards
+            softly.assertThat(projectCreated.await(5, TimeUnit.SECONDS)).isTrue();
+            return gitRepository;
+        });
+        // WHEN
+        Boom boom = launchSteps(executor).launch(projectile);
+        // THEN
+        softly.assertThat(boom.getCreatedRepository()).isSameAs(gitRepository);
+        softly.assertThat(boom.getCreatedProject()).isSameAs(openShiftProject);
+        softly.assertThat(events).containsExactly(GITHUB_CREATE, GITHUB_PUSHED, OPENSHIFT_CREATE, OPENSHIFT_PIPELINE, GITHUB_WEBHOOK);
+        verify(openShiftService).configureProject(openShiftProject, URI.create("https://github.com/foo/my-project.git"));
+        softly.assertThat(timings.getCount(OPENSHIFT_CREATE)).isEqualTo(1);
+        softly.assertThat(timings.getCount(GITHUB_WEBHOOK)).isEqualTo(1);
+        softly.assertThat(timings.getStatistics()).containsEntry("launches", 1L);
+    }
+
+    @Test
+    public void shouldConfigureTheBuildPipelineOnceTheRepositoryIsPushed() {
+        // GIVEN
+        List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        when(openShiftService.createProject("my-project")).thenAnswer(invocation -> {
+            calls.add("createProject");
+            return openShiftProject;
+        });
+        doAnswer(invocation -> {
+            Thread.sleep(100);
+            calls.add("push");
+            return null;
+        }).when(gitService).push(any(), any());
+        doAnswer(invocation -> calls.add("configureProject"))
+                .when(openShiftService).configureProject(any(OpenShiftProject.class), any(URI.class));
+        // WHEN
+        launchSteps(executor).launch(projectile);
+        // THEN
+        softly.assertThat(calls).containsExactly("createProject", "push", "configureProject");
+    }
+
+    @Test
+    public void shouldRunEveryStepWhenTheExecutorIsSaturated() {
+        // WHEN
+        Boom boom = launchSteps(task -> {
+            throw new RejectedExecutionException("Saturated");
+        }).launch(projectile);
+        // THEN
+        softly.assertThat(boom.getCreatedProject()).isSameAs(openShiftProject);
+        softly.assertThat(events).containsExactly(GITHUB_CREATE, GITHUB_PUSHED, OPENSHIFT_CREATE, OPENSHIFT_PIPELINE, GITHUB_WEBHOOK);
+    }
+
+    @Test
+    public void shouldNotFireTheEventsOfLaterStepsWhenTheGitRepositoryCannotBeCreated() {
+        // GIVEN
+        when(gitService.createRepository(anyString(), anyString())).thenThrow(new IllegalArgumentException("Repository exists"));
+        // WHEN
+        assertThatThrownBy(() -> launchSteps(executor).launch(projectile))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Repository exists");
+        // THEN
+        verify(openShiftService).createProject("my-project");
+        softly.assertThat(events).isEmpty();
+    }
+
+    @Test
+    public void shouldThrowTheErrorOfTheOpenShiftStep() {
+        // GIVEN
+        when(openShiftService.createProject("my-project")).thenThrow(new IllegalStateException("Quota exceeded"));
+        // WHEN
+        assertThatThrownBy(() -> launchSteps(executor).launch(projectile))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Quota exceeded");
+        // THEN
+        softly.assertThat(events).containsExactly(GITHUB_CREATE, GITHUB_PUSHED);
+    }
+
+    @Test
+    public void shouldRetryAStepFailingWithATransientErrorFromItsCheckpoint() {
+        // GIVEN
+        AtomicInteger pushes = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (pushes.incrementAndGet() == 1) {
+                throw new HttpException(502, "Bad Gateway");
+            }
+            return null;
+        }).when(gitService).push(any(), any());
+        LaunchCheckpoints checkpoints = new LaunchCheckpoints();
+        // WHEN
+        launchSteps(executor).launch(projectile, checkpoints);
+        // THEN
+        softly.assertThat(pushes).hasValue(2);
+        verify(gitService, times(1)).createRepository(anyString(), anyString());
+        softly.assertThat(timings.getRetries(GITHUB_PUSHED)).isEqualTo(1);
+        softly.assertThat(events).containsExactly(GITHUB_CREATE, GITHUB_PUSHED, OPENSHIFT_CREATE, OPENSHIFT_PIPELINE, GITHUB_WEBHOOK);
+        softly.assertThat(checkpoints.getCompleted()).containsExactly(LauncherStatusEventKind.values());
+    }
+
+    @Test
+    public void shouldLookUpTheRepositoryWhenRetryingItsCreation() {
+        // GIVEN
+        when(gitService.createRepository(anyString(), anyString())).thenThrow(new HttpException(504, "Gateway Timeout"));
+        when(gitService.getRepository("my-project")).thenReturn(Optional.of(gitRepository));
+        // WHEN
+        Boom boom = launchSteps(executor).launch(projectile);
+        // THEN
+        softly.assertThat(boom.getCreatedRepository()).isSameAs(gitRepository);
+        verify(gitService, times(1)).createRepository(anyString(), anyString());
+        softly.assertThat(events).containsExactly(GITHUB_CREATE, GITHUB_PUSHED, OPENSHIFT_CREATE, OPENSHIFT_PIPELINE, GITHUB_WEBHOOK);
+    }
+
+    @Test
+    public void shouldNotRetryPermanentErrors() {
+        // GIVEN
+        doThrow(new HttpException(401, "Unauthorized")).when(gitService).push(any(), any());
+        // WHEN
+        assertThatThrownBy(() -> launchSteps(executor).launch(projectile))
+                .isInstanceOf(HttpException.class);
+        // THEN
+        verify(gitService, times(1)).push(any(), any());
+        softly.assertThat(timings.getRetries(GITHUB_PUSHED)).isZero();
+    }
+
+    @Test
+    public void shouldGiveUpAfterTheLastAttempt() {
+        // GIVEN
+        doThrow(new HttpException(503, "Service Unavailable")).when(gitService).push(any(), any());
+        // WHEN
+        assertThatThrownBy(() -> launchSteps(executor).launch(projectile))
+                .isInstanceOf(HttpException.class);
+        // THEN
+        verify(gitService, times(3)).push(any(), any());
+    }
+
+    @Test
+    public void shouldOnlyRunTheStepsWithoutCheckpoint() {
+        // GIVEN
+        LaunchCheckpoints checkpoints = new LaunchCheckpoints();
+        checkpoints.gitRepositoryCreated(gitRepository);
+        checkpoints.completed(GITHUB_PUSHED);
+        checkpoints.openShiftProjectCreated(openShiftProject);
+        // WHEN
+        Boom boom = launchSteps(executor).launch(projectile, checkpoints);
+        // THEN
+        softly.assertThat(boom.getCreatedRepository()).isSameAs(gitRepository);
+        verify(gitService, never()).createRepository(anyString(), anyString());
+        verify(gitService, never()).getRepository(anyString());
+        verify(gitService, never()).push(any(), any());
+        verify(openShiftService, never()).findProject(anyString());
+        verify(openShiftService).configureProject(openShiftProject, URI.create("https://github.com/foo/my-project.git"));
+        softly.assertThat(events).containsExactly(GITHUB_CREATE, GITHUB_PUSHED, OPENSHIFT_CREATE, OPENSHIFT_PIPELINE, GITHUB_WEBHOOK);
+    }
+
+    @Test
+    public void shouldNotifyEveryCheckpointWithWhatItsStepCreated() {
+        // GIVEN
+        when(gitRepository.getFullName()).thenReturn("foo/my-project");
+        Map<LauncherStatusEventKind, Map<String, String>> notified = Collections.synchronizedMap(new EnumMap<>(LauncherStatusEventKind.class));
+        // WHEN
+        launchSteps(executor).launch(projectile, new LaunchCheckpoints(notified::put));
+        // THEN
+        softly.assertThat(notified).containsOnlyKeys(LauncherStatusEventKind.values());
+        softly.assertThat(notified.get(GITHUB_CREATE)).containsEntry("gitRepository", "foo/my-project");
+        softly.assertThat(notified.get(OPENSHIFT_CREATE)).containsKey("openShiftProjectUrl");
+        softly.assertThat(notified.get(GITHUB_PUSHED)).isEmpty();
+    }
+
+    @Test
+    public void shouldResumeFromTheStepsCompletedByAnEarlierLaunch() {
+        // GIVEN
+        LaunchStatus failed = ImmutableLaunchStatus.builder()
+                .id(UUID.randomUUID())
+                .state(LaunchStatus.State.FAILED)
+                .addCompletedSteps(GITHUB_CREATE, GITHUB_PUSHED, OPENSHIFT_CREATE)
+                .putOutputs("gitRepository", "foo/my-project")
+                .putOutputs("gitRepositoryUrl", "https://github.com/foo/my-project")
+                .putOutputs("gitCloneUrl", "https://github.com/foo/my-project.git")
+                .putOutputs("openShiftProject", "my-project")
+                .startedAt(0)
+                .updatedAt(0)
+                .build();
+        when(openShiftService.findProject("my-project")).thenReturn(Optional.of(openShiftProject));
+        Map<LauncherStatusEventKind, Map<String, String>> notified = Collections.synchronizedMap(new EnumMap<>(LauncherStatusEventKind.class));
+        LaunchCheckpoints checkpoints = new LaunchCheckpoints(notified::put);
+        // WHEN
+        checkpoints.resume(failed);
+        Boom boom = launchSteps(executor).launch(projectile, checkpoints);
+        // THEN
+        softly.assertThat(boom.getCreatedRepository().getFullName()).isEqualTo("foo/my-project");
+        softly.assertThat(boom.getCreatedProject()).isSameAs(openShiftProject);
+        verify(gitService, never()).createRepository(anyString(), anyString());
+        verify(gitService, never()).push(any(), any());
+        // The project is looked up again, the OpenShift service configures the projects it returns
+        verify(openShiftService, never()).createProject(anyString());
+        verify(openShiftService).configureProject(openShiftProject, URI.create("https://github.com/foo/my-project.git"));
+        softly.assertThat(notified.get(GITHUB_CREATE)).containsEntry("gitCloneUrl", "https://github.com/foo/my-project.git");
+        softly.assertThat(events).containsExactly(GITHUB_CREATE, GITHUB_PUSHED, OPENSHIFT_CREATE, OPENSHIFT_PIPELINE, GITHUB_WEBHOOK);
+    }
+
+    @Test
+    public void shouldNotRestoreARepositoryRecordedWithoutItsCloneUrl() {
+        // GIVEN
+        LaunchStatus failed = ImmutableLaunchStatus.builder()
+                .id(UUID.randomUUID())
+                .state(LaunchStatus.State.INTERRUPTED)
+                .addCompletedSteps(GITHUB_CREATE)
+                .putOutputs("gitRepository", "foo/my-project")
+                .startedAt(0)
+                .updatedAt(0)
+                .build();
+        LaunchCheckpoints checkpoints = new LaunchCheckpoints();
+        // WHEN
+        checkpoints.resume(failed);
+        // THEN
+        softly.assertThat(checkpoints.getCompleted()).isEmpty();
+    }
+
+    private LaunchSteps launchSteps(Executor executor) {
+        return new LaunchSteps(new GitSteps(gitService), new OpenShiftSteps(openShiftService), executor, timings,
+                               new StepRetryPolicy(3, 0));
+    }
+}
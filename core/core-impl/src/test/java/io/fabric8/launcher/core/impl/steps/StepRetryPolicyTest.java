@@ -0,0 +1,45 @@
+package io.fabric8.launcher.core.impl.steps;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.launcher.base.http.HttpException;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class StepRetryPolicyTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    private final StepRetryPolicy policy = new StepRetryPolicy(3, 100);
+
+    @Test
+    public void shouldRetryTransientErrors() {
+        softly.assertThat(policy.isRetryable(new HttpException(502, "Bad Gateway"))).isTrue();
+        softly.assertThat(policy.isRetryable(new HttpException("Error while executing request", new IOException("unexpected end of stream")))).isTrue();
+        softly.assertThat(policy.isRetryable(new KubernetesClientException("Service Unavailable", 503, null))).isTrue();
+        softly.assertThat(policy.isRetryable(new UncheckedIOException(
+                new org.kohsuke.github.HttpException("Too many requests", 429, "Too Many Requests", "https://api.github.com")))).isTrue();
+        softly.assertThat(policy.isRetryable(new IllegalStateException(new SocketTimeoutException("Read timed out")))).isTrue();
+    }
+
+    @Test
+    public void shouldNotRetryPermanentErrors() {
+        softly.assertThat(policy.isRetryable(new HttpException(404, "Not Found"))).isFalse();
+        softly.assertThat(policy.isRetryable(new KubernetesClientException("Forbidden", 403, null))).isFalse();
+        softly.assertThat(policy.isRetryable(new IllegalArgumentException("Repository not found"))).isFalse();
+        softly.assertThat(policy.isRetryable(new UncheckedIOException(new IOException("Disk full")))).isFalse();
+    }
+
+    @Test
+    public void shouldDoubleTheDelayOnEveryAttempt() {
+        softly.assertThat(policy.getDelayMillis(1)).isBetween(100L, 150L);
+        softly.assertThat(policy.getDelayMillis(2)).isBetween(200L, 300L);
+        softly.assertThat(policy.getDelayMillis(3)).isBetween(400L, 600L);
+        softly.assertThat(StepRetryPolicy.NONE.getAttempts()).isEqualTo(1);
+    }
+}
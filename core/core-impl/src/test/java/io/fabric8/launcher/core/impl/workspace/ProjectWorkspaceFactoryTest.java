@@ -0,0 +1,211 @@
+package io.fabric8.launcher.core.impl.workspace;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBoosterCatalog;
+import io.fabric8.launcher.core.spi.DirectoryReaper;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static io.fabric8.launcher.base.Paths.deleteDirectory;
+import static io.fabric8.launcher.base.Paths.linkCount;
+
+public class ProjectWorkspaceFactoryTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    // Stands for the memory filesystem of the reaper, null if it has none
+    private Path memoryRoot;
+
+    private Path diskRoot;
+
+    private Path contents;
+
+    private RhoarBooster booster;
+
+    private final List<Long> reservations = new ArrayList<>();
+
+    private final List<Long> memoryReservations = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        memoryRoot = folder.newFolder("shm").toPath();
+        diskRoot = folder.newFolder("disk").toPath();
+        contents = folder.newFolder("booster").toPath();
+        Files.write(contents.resolve("pom.xml"), new byte[100]);
+        Files.createDirectories(contents.resolve(".git"));
+        Files.write(contents.resolve(".git/HEAD"), new byte[1000]);
+        booster = new RhoarBooster(Collections.emptyMap(), b -> CompletableFuture.completedFuture(contents));
+    }
+
+    @Test
+    public void shouldMaterializeSmallBoostersInMemory() throws IOException {
+        // GIVEN
+        ProjectWorkspaceFactory factory = new ProjectWorkspaceFactory(reaper(), 150, false);
+        // WHEN
+        Path workspace = factory.materialize(catalog(null), booster);
+        // THEN
+        softly.assertThat(workspace).startsWith(memoryRoot);
+        softly.assertThat(workspace.resolve("pom.xml")).hasBinaryContent(new byte[100]);
+        softly.assertThat(reservations).isEmpty();
+        softly.assertThat(memoryReservations).containsExactly(100L);
+        softly.assertThat(factory.getStatistics())
+                .containsEntry("memoryWorkspaces", 1L)
+                .containsEntry("diskWorkspaces", 0L);
+    }
+
+    @Test
+    public void shouldMaterializeLargeBoostersOnDisk() throws IOException {
+        // GIVEN
+        ProjectWorkspaceFactory factory = new ProjectWorkspaceFactory(reaper(), 50, false);
+        // WHEN
+        Path workspace = factory.materialize(catalog(null), booster);
+        // THEN
+        softly.assertThat(workspace).startsWith(diskRoot);
+        softly.assertThat(workspace.resolve("pom.xml")).hasBinaryContent(new byte[100]);
+        // The .git directory is not copied, so it is not reserved
+        softly.assertThat(reservations).containsExactly(100L);
+        softly.assertThat(factory.getStatistics())
+                .containsEntry("memoryWorkspaces", 0L)
+                .containsEntry("diskWorkspaces", 1L);
+    }
+
+    @Test
+    public void shouldMaterializeOnDiskWithoutMemoryFilesystem() throws IOException {
+        // GIVEN
+        memoryRoot = null;
+        ProjectWorkspaceFactory factory = new ProjectWorkspaceFactory(reaper(), 150, false);
+        // WHEN
+        Path workspace = factory.materialize(catalog(null), booster);
+        // THEN
+        softly.assertThat(workspace).startsWith(diskRoot);
+        softly.assertThat(factory.getStatistics()).containsEntry("memoryFallbacks", 1L);
+    }
+
+    @Test
+    public void shouldPreferMemoryToLinksForSmallBoosters() throws IOException {
+        // GIVEN
+        ProjectWorkspaceFactory factory = new ProjectWorkspaceFactory(reaper(), 150, true);
+        // WHEN
+        Path workspace = factory.materialize(catalog(null), booster);
+        // THEN
+        softly.assertThat(workspace).startsWith(memoryRoot);
+        softly.assertThat(linkCount(contents.resolve("pom.xml"))).isEqualTo(1);
+        softly.assertThat(factory.getStatistics())
+                .containsEntry("memoryWorkspaces", 1L)
+                .containsEntry("linkedWorkspaces", 0L);
+    }
+
+    @Test
+    public void shouldFallBackToDiskWhenTheMemoryFilesystemIsFull() throws IOException {
+        // GIVEN
+        ProjectWorkspaceFactory factory = new ProjectWorkspaceFactory(reaper(), 150, false);
+        // WHEN
+        Path workspace = factory.materialize(catalog(memoryRoot), booster);
+        // THEN
+        softly.assertThat(workspace).startsWith(diskRoot);
+        softly.assertThat(workspace.resolve("pom.xml")).exists();
+        softly.assertThat(memoryRoot.toFile().list()).isEmpty();
+        softly.assertThat(factory.getStatistics())
+                .containsEntry("memoryFallbacks", 1L)
+                .containsEntry("diskWorkspaces", 1L);
+    }
+
+    @Test
+    public void shouldMeasureTheBoostersAgainOnceTheCatalogIsReindexed() throws IOException {
+        // GIVEN
+        ProjectWorkspaceFactory factory = new ProjectWorkspaceFactory(reaper(), 150, false);
+        RhoarBoosterCatalog catalog = catalog(null);
+        softly.assertThat(factory.materialize(catalog, booster)).startsWith(memoryRoot);
+        Files.write(contents.resolve("pom.xml"), new byte[200]);
+        // The size measured for the current catalog is kept
+        softly.assertThat(factory.materialize(catalog, booster)).startsWith(memoryRoot);
+        // WHEN
+        Path workspace = factory.materialize(catalog(null), booster);
+        // THEN
+        softly.assertThat(workspace).startsWith(diskRoot);
+        softly.assertThat(reservations).containsExactly(200L);
+    }
+
+    @Test
+    public void shouldLinkTheFetchedContentsReadOnly() throws IOException {
+        // GIVEN
+        ProjectWorkspaceFactory factory = new ProjectWorkspaceFactory(reaper(), 0, true);
+        // Not fetched yet
+        RhoarBooster fetching = new RhoarBooster(Collections.emptyMap(), b -> CompletableFuture.supplyAsync(() -> contents));
+        // WHEN
+        Path workspace = factory.materialize(catalog(null), fetching);
+        // THEN
+        softly.assertThat(workspace).startsWith(diskRoot);
+        softly.assertThat(linkCount(workspace.resolve("pom.xml"))).isEqualTo(2);
+        softly.assertThat(Files.getPosixFilePermissions(contents.resolve("pom.xml"))).doesNotContain(PosixFilePermission.OWNER_WRITE);
+        softly.assertThat(workspace.resolve(".git")).doesNotExist();
+        softly.assertThat(reservations).containsExactly(0L);
+        softly.assertThat(factory.getStatistics())
+                .containsEntry("linkedWorkspaces", 1L)
+                .containsEntry("linkedFiles", 1L);
+    }
+
+    private DirectoryReaper reaper() {
+        return new DirectoryReaper() {
+            @Override
+            public void delete(Path path) {
+                try {
+                    deleteDirectory(path);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public Path createTempDirectory(String prefix, long expectedBytes) throws IOException {
+                reservations.add(expectedBytes);
+                return Files.createTempDirectory(diskRoot, prefix);
+            }
+
+            @Override
+            public Path createMemoryDirectory(String prefix, long expectedBytes) throws IOException {
+                if (memoryRoot == null) {
+                    return null;
+                }
+                memoryReservations.add(expectedBytes);
+                return Files.createTempDirectory(memoryRoot, prefix);
+            }
+        };
+    }
+
+    /**
+     * @param full the root under which copies fail as if the filesystem was full, null if none does
+     * @return a catalog copying the booster contents without its .git directory
+     */
+    private RhoarBoosterCatalog catalog(Path full) {
+        return (RhoarBoosterCatalog) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{RhoarBoosterCatalog.class}, (proxy, method, args) -> {
+            if (!"copy".equals(method.getName())) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            Path workspace = (Path) args[1];
+            if (full != null && workspace.startsWith(full)) {
+                Files.write(workspace.resolve("pom.xml"), new byte[10]);
+                throw new IOException("No space left on device");
+            }
+            Files.copy(contents.resolve("pom.xml"), workspace.resolve("pom.xml"));
+            return Path.class.equals(method.getReturnType()) ? workspace : CompletableFuture.completedFuture(workspace);
+        });
+    }
+}
@@ -103,6 +103,8 @@ esac
   #export LAUNCHER_BACKEND_ENVIRONMENT=development
 # This will prevent boosters being downloaded at startup making development faster (default = true)
   export LAUNCHER_PREFETCH_BOOSTERS=false
+# Directory (eg. a volume shared by the pods) where catalog snapshots are kept to speed up startups (default = unset)
+  #export LAUNCHER_BOOSTER_CATALOG_SNAPSHOT_ROOT=/var/lib/launcher/catalog-snapshots
 
 # For launchpad-booster-catalog-service
   #export LAUNCHER_BOOSTER_CATALOG_REPOSITORY=https://github.com/fabric8-launcher/launcher-booster-catalog.git
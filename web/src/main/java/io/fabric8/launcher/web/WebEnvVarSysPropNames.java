@@ -0,0 +1,36 @@
+package io.fabric8.launcher.web;
+
+import io.fabric8.launcher.base.EnvironmentEnum;
+
+/**
+ * Environment variables and system properties used by the web layer
+ */
+public enum WebEnvVarSysPropNames implements EnvironmentEnum {
+    LAUNCHER_ZIP_CACHE_ENABLED,
+    LAUNCHER_ZIP_CACHE_MEMORY_SIZE,
+    LAUNCHER_ZIP_CACHE_DISK_SIZE,
+    LAUNCHER_ZIP_TEMPLATES_ENABLED,
+    LAUNCHER_ZIP_TEMPLATES_SIZE,
+    LAUNCHER_ZIP_PARALLEL_THRESHOLD,
+    LAUNCHER_ZIP_THREADS,
+    LAUNCHER_GZIP_LEVEL,
+    LAUNCHER_GZIP_MIN_SIZE,
+    LAUNCHER_GZIP_EXCLUDED_TYPES,
+    LAUNCHER_UPLOAD_MAX_BYTES,
+    LAUNCHER_UPLOAD_MAX_ENTRIES,
+    LAUNCHER_UPLOAD_MAX_RATIO,
+    LAUNCHER_WORKSPACE_ROOT,
+    LAUNCHER_WORKSPACE_QUOTA,
+    LAUNCHER_WORKSPACE_QUOTA_WAIT,
+    LAUNCHER_WORKSPACE_MAX_AGE,
+    LAUNCHER_WORKSPACE_SWEEP_INTERVAL,
+    LAUNCHER_MEMORY_WORKSPACE_ENABLED,
+    LAUNCHER_MEMORY_WORKSPACE_ROOT,
+    LAUNCHER_MEMORY_WORKSPACE_QUOTA,
+    LAUNCHER_CATALOG_CACHE_MAX_ENTRIES,
+    LAUNCHER_CATALOG_DELTA_GENERATIONS,
+    LAUNCHER_LAUNCH_CONCURRENCY,
+    LAUNCHER_LAUNCH_USER_CONCURRENCY,
+    LAUNCHER_LAUNCH_QUEUE_SIZE,
+    LAUNCHER_LAUNCH_THREADS
+}
@@ -1,41 +1,42 @@
 package io.fabric8.launcher.web.endpoints;
 
-import java.util.Map;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.concurrent.ExecutionException;
-import java.util.function.Predicate;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
-import javax.json.JsonArrayBuilder;
-import javax.json.JsonObjectBuilder;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.CacheControl;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
-import io.fabric8.launcher.booster.catalog.rhoar.Mission;
 import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
-import io.fabric8.launcher.booster.catalog.rhoar.RhoarBoosterCatalog;
-import io.fabric8.launcher.booster.catalog.rhoar.Runtime;
-import io.fabric8.launcher.booster.catalog.rhoar.Version;
 import io.fabric8.launcher.core.api.catalog.BoosterCatalogFactory;
-
-import static io.fabric8.launcher.base.JsonUtils.toJsonObjectBuilder;
-import static io.fabric8.launcher.booster.catalog.rhoar.BoosterPredicates.withAppEnabled;
-import static io.fabric8.launcher.booster.catalog.rhoar.BoosterPredicates.withParameters;
-import static io.fabric8.launcher.booster.catalog.rhoar.BoosterPredicates.withRuntime;
-import static javax.json.Json.createArrayBuilder;
-import static javax.json.Json.createObjectBuilder;
+import io.fabric8.launcher.web.providers.catalog.CatalogDelta;
+import io.fabric8.launcher.web.providers.catalog.CatalogFields;
+import io.fabric8.launcher.web.providers.catalog.CatalogHistory;
+import io.fabric8.launcher.web.providers.catalog.CatalogJsonWriter;
+import io.fabric8.launcher.web.providers.catalog.CatalogResponseCache;
+import io.fabric8.launcher.web.providers.catalog.CatalogResponseCache.RenderedCatalog;
 
 /**
  * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
@@ -46,79 +47,144 @@ public class BoosterCatalogEndpoint {
 
     private static final String HEADER_APP = "X-App";
 
+    private static final String HEADER_GENERATION = "X-Catalog-Generation";
+
+    private static final String SINCE = "since";
+
+    private static final String QUERY = "q";
+
+    private static final String LIMIT = "limit";
+
+    private static final int MAX_SEARCH_LIMIT = 100;
+
     @Inject
     private BoosterCatalogFactory boosterCatalogFactory;
 
+    @Inject
+    private CatalogResponseCache responseCache;
+
+    @Inject
+    private CatalogHistory catalogHistory;
+
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    @SuppressWarnings("squid:S3776")
-    public Response getCatalog(@HeaderParam(HEADER_APP) String application, @Context UriInfo uriInfo) {
+    public Response getCatalog(@HeaderParam(HEADER_APP) String application,
+                               @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding,
+                               @Context UriInfo uriInfo,
+                               @Context Request request) {
         MultivaluedMap<String, String> parameters = getQueryParameters(uriInfo);
-        RhoarBoosterCatalog catalog = boosterCatalogFactory.getBoosterCatalog();
-
-        Predicate<RhoarBooster> filter = withAppEnabled(application).and(withParameters(parameters));
-
-        JsonObjectBuilder response = createObjectBuilder();
-        JsonArrayBuilder boosterArray = createArrayBuilder();
-        // Remove environment entry
-        for (RhoarBooster b : catalog.getBoosters(filter)) {
-            Map<String, Object> data = b.getExportableData();
-            data.remove("environment");
-            boosterArray.add(toJsonObjectBuilder(data));
+        RenderedCatalog catalog = responseCache.get(application, parameters, out -> renderCatalog(application, parameters, out));
+        // The gzipped document is a different representation, so it needs its own strong entity tag
+        boolean gzip = acceptsGzip(acceptEncoding);
+        EntityTag entityTag = new EntityTag(gzip ? catalog.getEntityTag() + "-gzip" : catalog.getEntityTag());
+        Response.ResponseBuilder response = request.evaluatePreconditions(entityTag);
+        if (response == null) {
+            response = gzip ?
+                    Response.ok(catalog.getGzippedBytes()).header(HttpHeaders.CONTENT_ENCODING, "gzip") :
+                    Response.ok(catalog.getBytes());
         }
-        response.add("boosters", boosterArray);
-
-        JsonArrayBuilder runtimeArray = createArrayBuilder();
-        // Add runtimes
-        for (Runtime r : catalog.getRuntimes(filter)) {
-            JsonObjectBuilder runtime = createObjectBuilder()
-                    .add("id", r.getId())
-                    .add("name", r.getName())
-                    .add("icon", r.getIcon());
-            if (r.getDescription() != null) {
-                runtime.add("description", r.getDescription());
-            }
-            if (!r.getMetadata().isEmpty()) {
-                runtime.add("metadata", toJsonObjectBuilder(r.getMetadata()));
-            }
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoCache(true);
+        return response.type(MediaType.APPLICATION_JSON_TYPE)
+                .tag(entityTag)
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.VARY, HEADER_APP + ", " + HttpHeaders.ACCEPT_ENCODING)
+                .header(HEADER_GENERATION, catalog.getGeneration())
+                .build();
+    }
 
-            //Add versions
-            JsonArrayBuilder versionArray = createArrayBuilder();
-            for (Version v : catalog.getVersions(filter.and(withRuntime(r)))) {
-                JsonObjectBuilder version = createObjectBuilder()
-                        .add("id", v.getId())
-                        .add("name", v.getName());
-                if (v.getDescription() != null) {
-                    version.add("description", v.getDescription());
-                }
-                if (!v.getMetadata().isEmpty()) {
-                    version.add("metadata", toJsonObjectBuilder(v.getMetadata()));
-                }
-                versionArray.add(version);
+    /**
+     * Renders the catalog, with only the fields asked for by the {@code fields[type]} parameters and, if the
+     * {@code since} parameter is a generation that is still known, only the changes since that generation
+     */
+    private void renderCatalog(String application, MultivaluedMap<String, String> parameters, OutputStream out) throws IOException {
+        CatalogFields fields = CatalogFields.parse(parameters);
+        String since = parameters.getFirst(SINCE);
+        CatalogDelta delta = null;
+        if (since != null) {
+            try {
+                delta = catalogHistory.since(Long.parseLong(since)).orElse(null);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid catalog generation: " + since);
             }
-            runtime.add("versions", versionArray);
+        }
+        MultivaluedMap<String, String> filters = new MultivaluedHashMap<>();
+        parameters.forEach((name, values) -> {
+            if (!SINCE.equals(name) && !CatalogFields.isFieldsParameter(name)) {
+                filters.put(name, values);
+            }
+        });
+        List<RhoarBooster> boosters = boosterCatalogFactory.getBoosterCatalogIndex().getBoosters(application, filters);
+        CatalogJsonWriter.writeCatalog(boosters, fields, delta, out);
+    }
 
-            runtimeArray.add(runtime);
+    /**
+     * @param acceptEncoding the Accept-Encoding header of the request
+     * @return true if the client accepts gzip, ie. it lists gzip (or *, if gzip is not listed) with a q-value above 0
+     */
+    //Visible for testing
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
         }
-        response.add("runtimes", runtimeArray);
-
-        // Add missions
-        JsonArrayBuilder missionArray = createArrayBuilder();
-        for (Mission m : catalog.getMissions(filter)) {
-            JsonObjectBuilder mission = createObjectBuilder()
-                    .add("id", m.getId())
-                    .add("name", m.getName());
-            if (m.getDescription() != null) {
-                mission.add("description", m.getDescription());
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
             }
-            if (!m.getMetadata().isEmpty()) {
-                mission.add("metadata", toJsonObjectBuilder(m.getMetadata()));
+            if ("gzip".equals(name) || "x-gzip".equals(name)) {
+                gzip = gzip == null ? quality : Math.max(gzip, quality);
+            } else if ("*".equals(name)) {
+                any = quality;
             }
-            missionArray.add(mission);
         }
-        response.add("missions", missionArray);
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return any != null && any > 0;
+    }
 
-        return Response.ok(response.build()).build();
+    /**
+     * Searches the boosters by the words describing them, among the boosters enabled for the given application and
+     * matching the other query parameters (eg. {@code runtime.id=vert.x}, like the catalog)
+     *
+     * @param query the words to look for
+     * @param limit the maximum number of boosters to return, the total and the facets count every booster found
+     */
+    @GET
+    @Path("/search")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response search(@HeaderParam(HEADER_APP) String application,
+                           @QueryParam(QUERY) String query,
+                           @QueryParam(LIMIT) @DefaultValue("20") int limit,
+                           @Context UriInfo uriInfo) throws IOException {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("The " + QUERY + " parameter is required");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new IllegalArgumentException("The " + LIMIT + " parameter must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        MultivaluedMap<String, String> filters = new MultivaluedHashMap<>();
+        getQueryParameters(uriInfo).forEach((name, values) -> {
+            if (!QUERY.equals(name) && !LIMIT.equals(name)) {
+                filters.put(name, values);
+            }
+        });
+        List<RhoarBooster> hits = boosterCatalogFactory.getBoosterCatalogIndex().search(query, application, filters);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CatalogJsonWriter.writeSearchResults(query, hits, limit, out);
+        return Response.ok(out.toByteArray(), MediaType.APPLICATION_JSON_TYPE).build();
     }
 
     /**
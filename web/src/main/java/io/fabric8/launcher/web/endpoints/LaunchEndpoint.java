@@ -3,19 +3,29 @@ package io.fabric8.launcher.web.endpoints;
 import java.io.IOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.ws.rs.BeanParam;
 import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.container.Suspended;
@@ -24,23 +34,34 @@ import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
-import io.fabric8.launcher.base.Paths;
+import io.fabric8.launcher.core.api.Boom;
 import io.fabric8.launcher.core.api.DefaultMissionControl;
 import io.fabric8.launcher.core.api.ImmutableAsyncBoom;
 import io.fabric8.launcher.core.api.events.LauncherStatusEventKind;
+import io.fabric8.launcher.core.api.events.StatusEventKind;
 import io.fabric8.launcher.core.api.events.StatusMessageEvent;
 import io.fabric8.launcher.core.api.events.StatusMessageEventBroker;
+import io.fabric8.launcher.core.api.journal.LaunchJournal;
+import io.fabric8.launcher.core.api.journal.LaunchStatus;
 import io.fabric8.launcher.core.api.projectiles.CreateProjectile;
 import io.fabric8.launcher.core.api.projectiles.ImmutableLauncherCreateProjectile;
 import io.fabric8.launcher.core.api.security.Secured;
 import io.fabric8.launcher.core.spi.DirectoryReaper;
+import io.fabric8.launcher.core.spi.LaunchExecutor;
 import io.fabric8.launcher.web.endpoints.inputs.LaunchProjectileInput;
 import io.fabric8.launcher.web.endpoints.inputs.UploadZipProjectileInput;
 import io.fabric8.launcher.web.endpoints.inputs.ZipProjectileInput;
+import io.fabric8.launcher.web.endpoints.outputs.ZipProjectileOutput;
+import io.fabric8.launcher.web.providers.launch.LaunchQueueEventKind;
+import io.fabric8.launcher.web.providers.launch.LaunchScheduler;
+import io.fabric8.launcher.web.providers.zip.ZipArchive;
+import io.fabric8.launcher.web.providers.zip.ZipArchiveCache;
+import io.fabric8.launcher.web.providers.zip.ZipTemplateStore;
+import io.fabric8.launcher.web.providers.zip.ZipUploadExtractor;
 import org.apache.commons.lang3.time.StopWatch;
 import org.jboss.resteasy.annotations.providers.multipart.MultipartForm;
 
-import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
 
 /**
  * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
@@ -53,6 +74,11 @@ public class LaunchEndpoint {
 
     private static Logger log = Logger.getLogger(LaunchEndpoint.class.getName());
 
+    // The queue event comes last, so that the index of every step is still its execution step index
+    private static final List<StatusEventKind> EVENT_TYPES = Stream.concat(Stream.of(LauncherStatusEventKind.values()),
+                                                                           Stream.of(LaunchQueueEventKind.QUEUED))
+            .collect(Collectors.toList());
+
     @Inject
     private DefaultMissionControl missionControl;
 
@@ -62,25 +88,57 @@ public class LaunchEndpoint {
     @Inject
     private DirectoryReaper reaper;
 
+    @Inject
+    private ZipArchiveCache zipCache;
+
+    @Inject
+    private ZipTemplateStore zipTemplates;
+
+    @Inject
+    private ZipUploadExtractor uploadExtractor;
+
+    @Inject
+    private LaunchJournal journal;
+
+    @Inject
+    private LaunchScheduler scheduler;
+
+    @Inject
+    private HttpServletRequest request;
+
+    @Inject
+    @LaunchExecutor
+    private ExecutorService launchExecutor;
+
     @GET
     @Path("/zip")
     @Produces(APPLICATION_ZIP)
     public Response zip(@Valid @BeanParam ZipProjectileInput zipProjectile) throws IOException {
-        CreateProjectile projectile = null;
-        try {
-            projectile = missionControl.prepare(zipProjectile);
-            String filename = Objects.toString(zipProjectile.getProjectName(), zipProjectile.getArtifactId());
-            byte[] zipContents = Paths.zip(filename, projectile.getProjectLocation());
-            return Response
-                    .ok(zipContents)
-                    .type(APPLICATION_ZIP)
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + ".zip\"")
-                    .build();
-        } finally {
-            if (projectile != null) {
-                reaper.delete(projectile.getProjectLocation());
-            }
+        long start = System.nanoTime();
+        String filename = Objects.toString(zipProjectile.getProjectName(), zipProjectile.getArtifactId());
+        Response.ResponseBuilder response;
+        if (zipCache.isEnabled()) {
+            ZipArchive archive = zipCache.get(zipProjectile, os -> {
+                CreateProjectile projectile = missionControl.prepare(zipProjectile);
+                try {
+                    zipTemplates.zip(zipProjectile, filename, projectile.getProjectLocation(), os);
+                } finally {
+                    reaper.delete(projectile.getProjectLocation());
+                }
+            });
+            response = Response.ok(new ZipProjectileOutput(filename, archive::writeTo, archive::close, start));
+        } else {
+            CreateProjectile projectile = missionControl.prepare(zipProjectile);
+            // The project directory is reaped once the archive was streamed to the client
+            java.nio.file.Path projectLocation = projectile.getProjectLocation();
+            response = Response.ok(new ZipProjectileOutput(filename, projectLocation,
+                                                           os -> zipTemplates.zip(zipProjectile, filename, projectLocation, os),
+                                                           reaper::delete, start));
         }
+        return response
+                .type(APPLICATION_ZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + ".zip\"")
+                .build();
     }
 
     @POST
@@ -92,9 +150,23 @@ public class LaunchEndpoint {
         CreateProjectile projectile = ImmutableLauncherCreateProjectile.builder()
                 .from(missionControl.prepare(launchProjectileInput))
                 .startOfStep(launchProjectileInput.getExecutionStep())
+                .resumedLaunchId(launchProjectileInput.getResumedLaunchId())
                 .eventConsumer(eventBroker::send)
+                .user(userName())
                 .build();
-        doLaunch(projectile, response, asyncResponse);
+        doLaunch(projectile, projectile.getProjectLocation(), response, asyncResponse);
+    }
+
+    @GET
+    @Path("/launch/{id}")
+    @Secured
+    @Produces(MediaType.APPLICATION_JSON)
+    public LaunchStatus launchStatus(@PathParam("id") String id) {
+        String user = userName();
+        // The launches of other users are not found, rather than forbidden, not to tell they exist
+        return journal.getStatus(UUID.fromString(id))
+                .filter(status -> user != null && user.equals(status.getUser()))
+                .orElseThrow(() -> new NotFoundException("Launch not found: " + id));
     }
 
     @POST
@@ -103,44 +175,92 @@ public class LaunchEndpoint {
     @Produces(MediaType.APPLICATION_JSON)
     public void uploadZip(@Valid @MultipartForm UploadZipProjectileInput input, @Suspended AsyncResponse asyncResponse,
                           @Context HttpServletResponse response) throws IOException {
-        java.nio.file.Path projectDir = Files.createTempDirectory("projectDir");
-        Paths.unzip(input.getZipContents(), projectDir);
+        java.nio.file.Path projectDir = reaper.createTempDirectory("projectDir");
         java.nio.file.Path projectLocation;
-        try (DirectoryStream<java.nio.file.Path> stream =
-                     Files.newDirectoryStream(projectDir)) {
-            projectLocation = stream.iterator().next();
+        try {
+            uploadExtractor.extract(input.getZipContents(), projectDir);
+            try (DirectoryStream<java.nio.file.Path> stream =
+                         Files.newDirectoryStream(projectDir)) {
+                projectLocation = stream.iterator().next();
+            }
+        } catch (IOException | RuntimeException e) {
+            reaper.delete(projectDir);
+            throw e;
         }
         CreateProjectile projectile = ImmutableLauncherCreateProjectile.builder()
                 .projectLocation(projectLocation)
                 .eventConsumer(eventBroker::send)
+                .user(userName())
                 .gitOrganization(input.getGitOrganization())
                 .gitRepositoryName(input.getGitRepository())
                 .startOfStep(input.getExecutionStep())
+                .resumedLaunchId(input.getResumedLaunchId())
                 .openShiftProjectName(input.getProjectName())
                 .build();
-        try {
-            doLaunch(projectile, response, asyncResponse);
-        } finally {
-            reaper.delete(projectDir);
-        }
+        doLaunch(projectile, projectDir, response, asyncResponse);
     }
 
 
-    private void doLaunch(CreateProjectile projectile, @Context HttpServletResponse response, @Suspended AsyncResponse asyncResponse) throws IOException {
-        // No need to hold off the processing, return the status link immediately
-        // Need to close the response's OutputStream after resuming to automatically flush the contents
-        try (ServletOutputStream stream = response.getOutputStream()) {
-            asyncResponse.resume(ImmutableAsyncBoom.builder()
-                                         .uuid(projectile.getId())
-                                         .eventTypes(asList(LauncherStatusEventKind.values()))
-                                         .build());
+    /**
+     * Launches the given projectile once the {@link LaunchScheduler} lets it, on the launch executor
+     *
+     * @param workspace the directory holding the project, deleted once the launch is over or rejected
+     */
+    private void doLaunch(CreateProjectile projectile, java.nio.file.Path workspace, @Context HttpServletResponse response,
+                          @Suspended AsyncResponse asyncResponse) throws IOException {
+        LaunchScheduler.Ticket ticket;
+        try {
+            ticket = scheduler.schedule(projectile.getUser(), position -> projectile.getEventConsumer().accept(
+                    new StatusMessageEvent(projectile.getId(), LaunchQueueEventKind.QUEUED, singletonMap("position", position))));
+        } catch (RuntimeException e) {
+            // Rejected, the client is told when to try again
+            reaper.delete(workspace);
+            throw e;
+        }
+        Supplier<Boom> launch;
+        try {
+            // The launch runs once the request is over, what it needs from the request must be looked up now
+            launch = missionControl.prepareLaunch(projectile);
+            // No need to hold off the processing, return the status link immediately
+            // Need to close the response's OutputStream after resuming to automatically flush the contents
+            try (ServletOutputStream stream = response.getOutputStream()) {
+                asyncResponse.resume(ImmutableAsyncBoom.builder()
+                                             .uuid(projectile.getId())
+                                             .eventTypes(EVENT_TYPES)
+                                             .build());
+            }
+        } catch (IOException | RuntimeException e) {
+            ticket.release();
+            reaper.delete(workspace);
+            throw e;
         }
 
+        ticket.getAdmission().thenRun(() -> {
+            try {
+                launchExecutor.execute(() -> runLaunch(projectile, launch, ticket, workspace));
+            } catch (RejectedExecutionException e) {
+                log.log(Level.WARNING, "Launch executor is saturated, projectile " + projectile.getId() + " is not launched", e);
+                projectile.getEventConsumer().accept(new StatusMessageEvent(
+                        projectile.getId(), new IllegalStateException("Too many launches in progress, try again later", e)));
+                ticket.release();
+                reaper.delete(workspace);
+            }
+        });
+    }
+
+    /**
+     * @return the name of the authenticated user, see SecuredFilter#filter
+     */
+    private String userName() {
+        return (String) request.getAttribute("USER_NAME");
+    }
+
+    private void runLaunch(CreateProjectile projectile, Supplier<Boom> launch, LaunchScheduler.Ticket ticket, java.nio.file.Path workspace) {
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
         try {
             log.log(Level.INFO, "Launching projectile {0}", projectile);
-            missionControl.launch(projectile);
+            launch.get();
             stopWatch.stop();
             log.log(Level.INFO, "Projectile {0} launched. Time Elapsed: {1}", new Object[]{projectile.getId(), stopWatch});
         } catch (Exception ex) {
@@ -148,7 +268,8 @@ public class LaunchEndpoint {
             log.log(Level.WARNING, "Projectile " + projectile + " failed to launch. Time Elapsed: " + stopWatch, ex);
             projectile.getEventConsumer().accept(new StatusMessageEvent(projectile.getId(), ex));
         } finally {
-            reaper.delete(projectile.getProjectLocation());
+            ticket.release();
+            reaper.delete(workspace);
         }
     }
 
@@ -0,0 +1,37 @@
+package io.fabric8.launcher.web.endpoints;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.json.JsonObjectBuilder;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import io.fabric8.launcher.core.spi.StatisticsProvider;
+
+import static io.fabric8.launcher.base.JsonUtils.toJsonObjectBuilder;
+import static javax.json.Json.createObjectBuilder;
+
+/**
+ * Exposes the counters of every registered {@link StatisticsProvider}
+ */
+@Path("/statistics")
+@ApplicationScoped
+public class StatisticsEndpoint {
+
+    @Inject
+    private Instance<StatisticsProvider> statisticsProviders;
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getStatistics() {
+        JsonObjectBuilder response = createObjectBuilder();
+        for (StatisticsProvider provider : statisticsProviders) {
+            response.add(provider.getStatisticsName(), toJsonObjectBuilder(provider.getStatistics()));
+        }
+        return Response.ok(response.build()).build();
+    }
+}
@@ -1,5 +1,7 @@
 package io.fabric8.launcher.web.endpoints.inputs;
 
+import java.util.UUID;
+
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
 import javax.ws.rs.DefaultValue;
@@ -63,6 +65,9 @@ public class LaunchProjectileInput implements LauncherProjectileContext {
     @DefaultValue("0")
     private String step;
 
+    @HeaderParam("X-Resumed-Launch-Id")
+    private String resumedLaunchId;
+
     @Override
     public Mission getMission() {
         return mission;
@@ -115,6 +120,14 @@ public class LaunchProjectileInput implements LauncherProjectileContext {
         }
     }
 
+    public UUID getResumedLaunchId() {
+        try {
+            return resumedLaunchId != null ? UUID.fromString(resumedLaunchId) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     void setGitOrganization(String gitOrganization) {
         this.gitOrganization = gitOrganization;
     }
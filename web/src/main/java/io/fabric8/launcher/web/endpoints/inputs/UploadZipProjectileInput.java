@@ -1,6 +1,7 @@
 package io.fabric8.launcher.web.endpoints.inputs;
 
 import java.io.InputStream;
+import java.util.UUID;
 
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
@@ -47,6 +48,9 @@ public class UploadZipProjectileInput implements UploadZipProjectileContext {
     @DefaultValue("0")
     private String executionStep;
 
+    @HeaderParam("X-Resumed-Launch-Id")
+    private String resumedLaunchId;
+
     @Override
     public InputStream getZipContents() {
         return zipContents;
@@ -74,4 +78,12 @@ public class UploadZipProjectileInput implements UploadZipProjectileContext {
             return 0;
         }
     }
+
+    public UUID getResumedLaunchId() {
+        try {
+            return resumedLaunchId != null ? UUID.fromString(resumedLaunchId) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,136 @@
+package io.fabric8.launcher.web.endpoints.outputs;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.ws.rs.core.StreamingOutput;
+
+import io.fabric8.launcher.base.Paths;
+import io.fabric8.launcher.web.providers.zip.ZipArchiveCache;
+
+/**
+ * Streams a zipped project directory straight to the response {@link OutputStream}
+ * instead of materializing the whole archive in memory.
+ *
+ * The project directory is handed to the given cleanup {@link Consumer} once the stream completes or the client aborts.
+ * Archives built beforehand (eg. by the {@link ZipArchiveCache}) are streamed the same way, and metered alike.
+ */
+public class ZipProjectileOutput implements StreamingOutput {
+
+    private static final Logger log = Logger.getLogger(ZipProjectileOutput.class.getName());
+
+    private final String root;
+
+    private final ZipArchiveCache.ArchiveWriter writer;
+
+    private final Runnable cleanup;
+
+    private final long start;
+
+    /**
+     * @param root            the root directory name inside the zip
+     * @param projectLocation the project directory to be zipped
+     * @param cleanup         called with the project directory once streaming is over
+     * @param start           the {@link System#nanoTime()} when the request started, used to report time to first byte
+     */
+    public ZipProjectileOutput(String root, Path projectLocation, Consumer<Path> cleanup, long start) {
+        this(root, projectLocation, os -> Paths.zip(root, projectLocation, os), cleanup, start);
+    }
+
+    /**
+     * @param root            the root directory name inside the zip
+     * @param projectLocation the project directory to be zipped
+     * @param writer          zips the project directory to the response
+     * @param cleanup         called with the project directory once streaming is over
+     * @param start           the {@link System#nanoTime()} when the request started, used to report time to first byte
+     */
+    public ZipProjectileOutput(String root, Path projectLocation, ZipArchiveCache.ArchiveWriter writer, Consumer<Path> cleanup, long start) {
+        this(root, writer, () -> cleanup.accept(projectLocation), start);
+    }
+
+    /**
+     * @param root    the root directory name inside the zip
+     * @param writer  writes the archive to the response
+     * @param cleanup called once streaming is over
+     * @param start   the {@link System#nanoTime()} when the request started, used to report time to first byte
+     */
+    public ZipProjectileOutput(String root, ZipArchiveCache.ArchiveWriter writer, Runnable cleanup, long start) {
+        this.root = root;
+        this.writer = writer;
+        this.cleanup = cleanup;
+        this.start = start;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        MeteredOutputStream os = new MeteredOutputStream(output);
+        try {
+            writer.write(os);
+            log.log(Level.INFO, "Zip {0}.zip streamed. Bytes written: {1}, Time to first byte: {2}ms, Time Elapsed: {3}ms",
+                    new Object[]{root, os.getBytesWritten(), os.getTimeToFirstByte(start), elapsedMillis(start)});
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Zip {0}.zip aborted after {1} bytes. Time Elapsed: {2}ms",
+                    new Object[]{root, os.getBytesWritten(), elapsedMillis(start)});
+            throw e;
+        } finally {
+            cleanup.run();
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Counts the written bytes and records when the first byte hits the wire.
+     * Closing this stream does not close the underlying container stream.
+     */
+    private static class MeteredOutputStream extends FilterOutputStream {
+
+        private long bytesWritten;
+
+        private long firstByteNanos = -1;
+
+        MeteredOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            mark(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            mark(len);
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        private void mark(int len) {
+            if (firstByteNanos < 0 && len > 0) {
+                firstByteNanos = System.nanoTime();
+            }
+            bytesWritten += len;
+        }
+
+        long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        long getTimeToFirstByte(long start) {
+            return firstByteNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(firstByteNanos - start);
+        }
+    }
+}
@@ -13,7 +13,10 @@ import javax.websocket.Session;
 import javax.websocket.server.PathParam;
 import javax.websocket.server.ServerEndpoint;
 
+import io.fabric8.launcher.core.api.events.StatusMessageEvent;
 import io.fabric8.launcher.core.api.events.StatusMessageEventBroker;
+import io.fabric8.launcher.core.api.journal.LaunchJournal;
+import io.fabric8.launcher.core.api.journal.LaunchStatus;
 
 /**
  * A websocket based resource that informs clients about the status of the operations
@@ -28,12 +31,19 @@ public class MissionControlStatusEndpoint {
     @Inject
     private StatusMessageEventBroker statusMessageEventBroker;
 
+    @Inject
+    private LaunchJournal launchJournal;
+
     @OnOpen
     public void onOpen(Session session, @PathParam("uuid") String uuid) {
         logger.log(Level.INFO, "WebSocket session opened: {0}", uuid);
         UUID key = UUID.fromString(uuid);
         RemoteEndpoint.Async asyncRemote = session.getAsyncRemote();
         statusMessageEventBroker.setConsumer(key, asyncRemote::sendText);
+        // A launch interrupted by a restart has no events coming, so tell the clients connecting again
+        launchJournal.getStatus(key)
+                .filter(status -> status.getState() == LaunchStatus.State.INTERRUPTED)
+                .ifPresent(status -> statusMessageEventBroker.send(new StatusMessageEvent(key, new IllegalStateException(status.getError()))));
     }
 
     @OnClose
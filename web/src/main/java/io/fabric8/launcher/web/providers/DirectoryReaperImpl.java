@@ -1,44 +1,512 @@
 package io.fabric8.launcher.web.providers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
 import io.fabric8.launcher.core.spi.DirectoryReaper;
+import io.fabric8.launcher.core.spi.StatisticsProvider;
 
 import static io.fabric8.launcher.base.Paths.deleteDirectory;
+import static io.fabric8.launcher.base.Paths.linkCount;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_MEMORY_WORKSPACE_ENABLED;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_MEMORY_WORKSPACE_QUOTA;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_MEMORY_WORKSPACE_ROOT;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_WORKSPACE_MAX_AGE;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_WORKSPACE_QUOTA;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_WORKSPACE_QUOTA_WAIT;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_WORKSPACE_ROOT;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_WORKSPACE_SWEEP_INTERVAL;
 
 /**
- * Deletes temporary directories
+ * Allocates every temporary directory under a single managed root and deletes them.
+ *
+ * Scratch directories count against a disk quota: the bytes expected by an allocation are reserved when the
+ * directory is created and released when it is deleted, so a burst of allocations waits for deletions (then
+ * fails) as soon as it would exceed the quota. The periodic sweep only raises a reservation to the size actually
+ * measured and accounts for the untracked leftovers. A file hard linked to other files (eg. a booster file linked to
+ * the catalog clone) is only measured the first time the sweep finds it, and the cache directories are measured
+ * first. Cache directories are not part of the quota. Anything left
+ * in the root by a previous run is deleted at startup, and scratch directories older than the maximum age are
+ * swept periodically. The root must not be shared between pods.
+ *
+ * Scratch directories can also be created on a memory filesystem (tmpfs, eg. /dev/shm), under a directory of its
+ * own that is managed the same way with a quota of its own. Memory allocations never wait: they are refused when
+ * they do not fit, so that the caller falls back to disk.
  *
  * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
  */
 @ApplicationScoped
-public class DirectoryReaperImpl implements DirectoryReaper {
+public class DirectoryReaperImpl implements DirectoryReaper, StatisticsProvider {
+
+    private static final Logger log = Logger.getLogger(DirectoryReaperImpl.class.getName());
+
+    private static final long DEFAULT_QUOTA = 2L * 1024 * 1024 * 1024;
+
+    private static final long DEFAULT_MAX_AGE_SECONDS = TimeUnit.HOURS.toSeconds(1);
+
+    private static final long DEFAULT_SWEEP_INTERVAL_SECONDS = 60;
+
+    private static final long DEFAULT_QUOTA_WAIT_SECONDS = 30;
+
+    private static final long DEFAULT_MEMORY_QUOTA = 256L * 1024 * 1024;
 
     @Inject
     private ExecutorService executor;
 
-    private static final Logger log = Logger.getLogger(DirectoryReaperImpl.class.getName());
+    private final Pool disk;
+
+    // Null if there is no memory filesystem
+    @Nullable
+    private final Pool memory;
+
+    private final Path cacheRoot;
+
+    private final long maxAgeMillis;
+
+    private final long sweepIntervalSeconds;
+
+    private final long quotaWaitMillis;
+
+    private final ConcurrentMap<Path, Scratch> scratchDirectories = new ConcurrentHashMap<>();
+
+    // Directory -> creation time in millis
+    private final ConcurrentMap<Path, Long> cacheDirectories = new ConcurrentHashMap<>();
+
+    private volatile long cacheBytes;
+
+    private final LongAdder pendingReaps = new LongAdder();
+
+    private final LongAdder reaped = new LongAdder();
+
+    private final LongAdder reapNanos = new LongAdder();
+
+    private final AtomicLong maxReapNanos = new AtomicLong();
+
+    private final LongAdder swept = new LongAdder();
+
+    private final LongAdder quotaWaits = new LongAdder();
+
+    private final LongAdder quotaRejections = new LongAdder();
+
+    private final LongAdder memoryRejections = new LongAdder();
+
+    private final Object quotaLock = new Object();
+
+    private ScheduledExecutorService sweeper;
+
+    public DirectoryReaperImpl() {
+        this(Paths.get(LAUNCHER_WORKSPACE_ROOT.value(Paths.get(System.getProperty("java.io.tmpdir"), "launcher-workspaces").toString())),
+             LAUNCHER_MEMORY_WORKSPACE_ENABLED.booleanValue(true) ? Paths.get(LAUNCHER_MEMORY_WORKSPACE_ROOT.value("/dev/shm")) : null,
+             LAUNCHER_WORKSPACE_QUOTA.longValue(DEFAULT_QUOTA),
+             LAUNCHER_MEMORY_WORKSPACE_QUOTA.longValue(DEFAULT_MEMORY_QUOTA),
+             TimeUnit.SECONDS.toMillis(LAUNCHER_WORKSPACE_MAX_AGE.longValue(DEFAULT_MAX_AGE_SECONDS)),
+             LAUNCHER_WORKSPACE_SWEEP_INTERVAL.longValue(DEFAULT_SWEEP_INTERVAL_SECONDS),
+             TimeUnit.SECONDS.toMillis(LAUNCHER_WORKSPACE_QUOTA_WAIT.longValue(DEFAULT_QUOTA_WAIT_SECONDS)));
+    }
 
+    //Visible for testing
+    DirectoryReaperImpl(Path root, long quota, long maxAgeMillis, long sweepIntervalSeconds, long quotaWaitMillis) {
+        this(root, null, quota, 0, maxAgeMillis, sweepIntervalSeconds, quotaWaitMillis);
+    }
+
+    //Visible for testing
+    DirectoryReaperImpl(Path root, @Nullable Path memoryRoot, long quota, long memoryQuota, long maxAgeMillis, long sweepIntervalSeconds, long quotaWaitMillis) {
+        this.disk = new Pool(root.resolve("tmp"), quota);
+        // The memory filesystem is shared with the rest of the pod
+        this.memory = memoryRoot != null && Files.isDirectory(memoryRoot) && Files.isWritable(memoryRoot) ?
+                new Pool(memoryRoot.resolve("launcher-workspaces"), memoryQuota) : null;
+        this.cacheRoot = root.resolve("cache");
+        this.maxAgeMillis = maxAgeMillis;
+        this.sweepIntervalSeconds = sweepIntervalSeconds;
+        this.quotaWaitMillis = quotaWaitMillis;
+    }
+
+    // Initialize on startup
+    public void init(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        // Do nothing
+    }
+
+    @PostConstruct
+    void start() {
+        // Whatever is in the root was left behind by a previous run
+        try {
+            for (Path root : new Path[]{disk.root, cacheRoot, memory != null ? memory.root : null}) {
+                if (root == null) {
+                    continue;
+                }
+                if (Files.isDirectory(root)) {
+                    log.log(Level.INFO, "Deleting orphan directories in {0}", root);
+                    deleteDirectory(root);
+                }
+                Files.createDirectories(root);
+            }
+        } catch (IOException e) {
+            log.log(Level.SEVERE, "Error while preparing workspace root " + disk.root.getParent(), e);
+        }
+        if (sweepIntervalSeconds > 0) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "workspace-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalSeconds, sweepIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    @Override
+    public Path createTempDirectory(String prefix) throws IOException {
+        return createTempDirectory(prefix, 0);
+    }
+
+    @Override
+    public Path createTempDirectory(String prefix, long expectedBytes) throws IOException {
+        return create(prefix, reserve(Math.max(expectedBytes, 0)));
+    }
+
+    @Override
+    @Nullable
+    public Path createMemoryDirectory(String prefix, long expectedBytes) throws IOException {
+        Scratch scratch = memory != null ? tryReserve(memory, Math.max(expectedBytes, 0)) : null;
+        if (scratch == null) {
+            memoryRejections.increment();
+            return null;
+        }
+        return create(prefix, scratch);
+    }
+
+    @Override
+    public Path createCacheDirectory(String prefix) throws IOException {
+        Path directory = Files.createTempDirectory(createDirectories(cacheRoot), prefix);
+        cacheDirectories.put(directory, System.currentTimeMillis());
+        return directory;
+    }
+
+    @Override
     public void delete(Path path) {
+        long start = System.nanoTime();
+        pendingReaps.increment();
         if (executor != null) {
-            executor.submit(() -> performDelete(path));
+            executor.submit(() -> performDelete(path, start));
         } else {
-            performDelete(path);
+            performDelete(path, start);
         }
     }
 
-    private void performDelete(Path path) {
+    /**
+     * Measures the managed directories and deletes the orphan or expired scratch directories
+     */
+    void sweep() {
+        try {
+            long now = System.currentTimeMillis();
+            // The hard linked files measured so far
+            Set<Object> linked = new HashSet<>();
+            long cached = 0;
+            for (Path directory : cacheDirectories.keySet()) {
+                cached += Math.max(measure(directory, linked), 0);
+            }
+            cacheBytes = cached;
+            Map<Pool, Long> leftovers = new LinkedHashMap<>();
+            for (Pool pool : memory != null ? new Pool[]{disk, memory} : new Pool[]{disk}) {
+                leftovers.put(pool, sweep(pool, now, linked));
+            }
+            synchronized (quotaLock) {
+                leftovers.forEach((pool, bytes) -> pool.leftoverBytes = bytes);
+                quotaLock.notifyAll();
+            }
+        } catch (Exception e) {
+            log.log(Level.SEVERE, "Error while sweeping workspaces", e);
+        }
+    }
+
+    /**
+     * @return the bytes of the untracked directories of the given pool
+     */
+    private long sweep(Pool pool, long now, Set<Object> linked) throws IOException {
+        long leftovers = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(pool.root)) {
+            for (Path directory : stream) {
+                // Untracked directories (eg. left behind by a failed delete) are aged by their modification time
+                Scratch scratch = scratchDirectories.get(directory);
+                long age = now - (scratch != null ? scratch.created : Files.getLastModifiedTime(directory).toMillis());
+                if (age > maxAgeMillis) {
+                    log.log(Level.WARNING, "Sweeping stale directory {0}", directory);
+                    swept.increment();
+                    if (scratch != null && scratchDirectories.remove(directory, scratch)) {
+                        release(scratch);
+                    }
+                    deleteQuietly(directory);
+                } else if (scratch != null) {
+                    charge(directory, scratch, measure(directory, linked));
+                } else {
+                    leftovers += Math.max(measure(directory, linked), 0);
+                }
+            }
+        }
+        return leftovers;
+    }
+
+    @Override
+    public String getStatisticsName() {
+        return "workspaceManager";
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long count = reaped.sum();
+        stats.put("root", disk.root.getParent().toString());
+        stats.put("quotaBytes", disk.quota);
+        stats.put("memoryRoot", memory != null ? memory.root.toString() : null);
+        stats.put("memoryQuotaBytes", memory != null ? memory.quota : 0L);
+        synchronized (quotaLock) {
+            stats.put("liveBytes", disk.usedBytes());
+            stats.put("memoryLiveBytes", memory != null ? memory.usedBytes() : 0L);
+        }
+        stats.put("cacheBytes", cacheBytes);
+        stats.put("scratchDirectories", scratchDirectories.size());
+        stats.put("cacheDirectories", cacheDirectories.size());
+        stats.put("pendingReaps", pendingReaps.sum());
+        stats.put("reaped", count);
+        stats.put("reapLatencyAvgMillis", count == 0 ? 0L : TimeUnit.NANOSECONDS.toMillis(reapNanos.sum() / count));
+        stats.put("reapLatencyMaxMillis", TimeUnit.NANOSECONDS.toMillis(maxReapNanos.get()));
+        stats.put("swept", swept.sum());
+        stats.put("quotaWaits", quotaWaits.sum());
+        stats.put("quotaRejections", quotaRejections.sum());
+        stats.put("memoryRejections", memoryRejections.sum());
+        return stats;
+    }
+
+    /**
+     * Reserves the given bytes against the disk quota, waiting for deletions if they do not fit.
+     * A reservation larger than the quota is let through once nothing else is in use.
+     */
+    private Scratch reserve(long bytes) throws IOException {
+        synchronized (quotaLock) {
+            if (!fits(bytes)) {
+                quotaWaits.increment();
+                long deadline = System.currentTimeMillis() + quotaWaitMillis;
+                long remaining;
+                while (!fits(bytes) && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                    try {
+                        quotaLock.wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while waiting for workspace quota", e);
+                    }
+                }
+                if (!fits(bytes)) {
+                    quotaRejections.increment();
+                    throw new IOException("Workspace quota of " + disk.quota + " bytes exceeded, try again later");
+                }
+            }
+            disk.liveBytes += bytes;
+            return new Scratch(disk, System.currentTimeMillis(), bytes);
+        }
+    }
+
+    // Guarded by quotaLock
+    private boolean fits(long bytes) {
+        long used = disk.usedBytes();
+        return used == 0 || (used < disk.quota && bytes <= disk.quota - used);
+    }
+
+    /**
+     * Reserves the given bytes against the quota of the given pool if they fit, leaving as much room on its
+     * filesystem for the files rewritten once the directory is filled
+     *
+     * @return the reservation, null if the bytes do not fit
+     */
+    @Nullable
+    private Scratch tryReserve(Pool pool, long bytes) {
+        try {
+            if (Files.getFileStore(createDirectories(pool.root)).getUsableSpace() <= bytes * 2) {
+                return null;
+            }
+        } catch (IOException e) {
+            log.log(Level.FINE, "Could not measure the free space of " + pool.root, e);
+            return null;
+        }
+        synchronized (quotaLock) {
+            if (bytes > pool.quota - pool.usedBytes()) {
+                return null;
+            }
+            pool.liveBytes += bytes;
+            return new Scratch(pool, System.currentTimeMillis(), bytes);
+        }
+    }
+
+    private Path create(String prefix, Scratch scratch) throws IOException {
+        Path directory;
+        try {
+            directory = Files.createTempDirectory(createDirectories(scratch.pool.root), prefix);
+        } catch (IOException | RuntimeException e) {
+            release(scratch);
+            throw e;
+        }
+        scratchDirectories.put(directory, scratch);
+        return directory;
+    }
+
+    /**
+     * Raises the bytes charged for a scratch directory to its measured size, never below its reservation
+     */
+    private void charge(Path directory, Scratch scratch, long measured) {
+        synchronized (quotaLock) {
+            // The directory may have been deleted while it was measured
+            if (measured >= 0 && scratchDirectories.get(directory) == scratch) {
+                long charged = Math.max(scratch.reserved, measured);
+                scratch.pool.liveBytes += charged - scratch.charged;
+                scratch.charged = charged;
+            }
+        }
+    }
+
+    private void release(Scratch scratch) {
+        synchronized (quotaLock) {
+            scratch.pool.liveBytes -= scratch.charged;
+            scratch.charged = 0;
+            quotaLock.notifyAll();
+        }
+    }
+
+    private void performDelete(Path path, long start) {
         log.log(Level.INFO, "Deleting {0}", path);
         try {
-            deleteDirectory(path);
+            if (Files.exists(path)) {
+                deleteDirectory(path);
+            }
         } catch (Exception e) {
             log.log(Level.SEVERE, "Error while deleting" + path, e);
+        } finally {
+            Scratch scratch = scratchDirectories.remove(path);
+            if (scratch != null) {
+                release(scratch);
+            }
+            cacheDirectories.remove(path);
+            long elapsed = System.nanoTime() - start;
+            pendingReaps.decrement();
+            reaped.increment();
+            reapNanos.add(elapsed);
+            maxReapNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    /**
+     * @param linked the keys of the hard linked files measured so far, the ones measured now are added to it
+     * @return the bytes of the files of the given directory, not counting the hard linked files already measured
+     */
+    private static long measure(Path directory, Set<Object> linked) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> size(file, linked)).sum();
+        } catch (IOException | RuntimeException e) {
+            // The directory is most likely being deleted
+            return -1;
+        }
+    }
+
+    private static long size(Path file, Set<Object> linked) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            Object key = attributes.fileKey();
+            if (key != null && linkCount(file) > 1 && !linked.add(key)) {
+                return 0;
+            }
+            return attributes.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path directory) {
+        try {
+            deleteDirectory(directory);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Error while deleting " + directory, e);
+        }
+    }
+
+    private static Path createDirectories(Path root) throws IOException {
+        // The root may have been removed by an external tmp cleaner
+        return Files.createDirectories(root);
+    }
+
+    /**
+     * A root scratch directories are created in, with its own quota
+     */
+    private static class Pool {
+
+        private final Path root;
+
+        private final long quota;
+
+        // Bytes charged by the tracked scratch directories, guarded by quotaLock
+        private long liveBytes;
+
+        // Bytes of the untracked scratch directories measured by the last sweep, guarded by quotaLock
+        private long leftoverBytes;
+
+        private Pool(Path root, long quota) {
+            this.root = root;
+            this.quota = quota;
+        }
+
+        // Guarded by quotaLock
+        private long usedBytes() {
+            return liveBytes + leftoverBytes;
+        }
+    }
+
+    private static class Scratch {
+
+        private final Pool pool;
+
+        private final long created;
+
+        private final long reserved;
+
+        // Guarded by quotaLock
+        private long charged;
+
+        private Scratch(Pool pool, long created, long reserved) {
+            this.pool = pool;
+            this.created = created;
+            this.reserved = reserved;
+            this.charged = reserved;
         }
     }
 }
@@ -0,0 +1,34 @@
+package io.fabric8.launcher.web.providers;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.Provider;
+
+import io.fabric8.launcher.web.providers.launch.LaunchQueueFullException;
+
+import static javax.json.Json.createArrayBuilder;
+import static javax.json.Json.createObjectBuilder;
+
+/**
+ * Rejects the launches the launch queue has no room for with a 429, telling when to try again
+ */
+@Provider
+public class LaunchQueueFullExceptionMapper implements ExceptionMapper<LaunchQueueFullException> {
+
+    // Not in the JAX-RS 2.0 Response.Status
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    @Override
+    public Response toResponse(LaunchQueueFullException exception) {
+        return Response.status(TOO_MANY_REQUESTS)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.RETRY_AFTER, exception.getRetryAfterSeconds())
+                .entity(createArrayBuilder()
+                                .add(createObjectBuilder()
+                                             .add("message", exception.getMessage()))
+                                .build())
+                .build();
+    }
+}
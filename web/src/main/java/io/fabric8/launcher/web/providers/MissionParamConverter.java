@@ -10,7 +10,7 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.ParamConverter;
 
 import io.fabric8.launcher.booster.catalog.rhoar.Mission;
-import io.fabric8.launcher.booster.catalog.rhoar.RhoarBoosterCatalog;
+import io.fabric8.launcher.core.api.catalog.BoosterCatalogFactory;
 
 import static javax.json.Json.createArrayBuilder;
 import static javax.json.Json.createObjectBuilder;
@@ -23,17 +23,14 @@ public class MissionParamConverter implements ParamConverter<Mission> {
 
     // Cannot use constructor-type injection (gives NPE in CdiInjectorFactory)
     @Inject
-    private Instance<RhoarBoosterCatalog> catalogInstance;
+    private Instance<BoosterCatalogFactory> catalogFactoryInstance;
 
     @Override
     public Mission fromString(final String missionId) {
         if (missionId == null) {
             throw new IllegalArgumentException("Mission ID is required");
         } else {
-            RhoarBoosterCatalog catalog = catalogInstance.get();
-            return catalog.getMissions().stream()
-                    .filter(mission -> mission.getId().equals(missionId))
-                    .findFirst()
+            return catalogFactoryInstance.get().getBoosterCatalogIndex().getMission(missionId)
                     .orElseThrow(() -> {
                         Response response = Response.status(Response.Status.BAD_REQUEST)
                                 .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
@@ -9,8 +9,8 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.ParamConverter;
 
-import io.fabric8.launcher.booster.catalog.rhoar.RhoarBoosterCatalog;
 import io.fabric8.launcher.booster.catalog.rhoar.Runtime;
+import io.fabric8.launcher.core.api.catalog.BoosterCatalogFactory;
 
 import static javax.json.Json.createArrayBuilder;
 import static javax.json.Json.createObjectBuilder;
@@ -23,17 +23,14 @@ public class RuntimeParamConverter implements ParamConverter<Runtime> {
 
     // Cannot use constructor-type injection (gives NPE in CdiInjectorFactory)
     @Inject
-    private Instance<RhoarBoosterCatalog> catalogInstance;
+    private Instance<BoosterCatalogFactory> catalogFactoryInstance;
 
     @Override
     public Runtime fromString(String runtimeId) {
         if (runtimeId == null) {
             throw new IllegalArgumentException("Runtime ID is required");
         } else {
-            RhoarBoosterCatalog catalog = catalogInstance.get();
-            return catalog.getRuntimes().stream()
-                    .filter(runtime -> runtime.getId().equals(runtimeId))
-                    .findFirst()
+            return catalogFactoryInstance.get().getBoosterCatalogIndex().getRuntime(runtimeId)
                     .orElseThrow(() -> {
                         Response response = Response.status(Response.Status.BAD_REQUEST)
                                 .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
@@ -0,0 +1,30 @@
+package io.fabric8.launcher.web.providers;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.Provider;
+
+import io.fabric8.launcher.base.zip.ZipLimitExceededException;
+
+import static javax.json.Json.createArrayBuilder;
+import static javax.json.Json.createObjectBuilder;
+
+/**
+ * Rejects uploaded archives exceeding the configured limits with a 413
+ */
+@Provider
+public class ZipLimitExceededExceptionMapper implements ExceptionMapper<ZipLimitExceededException> {
+
+    @Override
+    public Response toResponse(ZipLimitExceededException exception) {
+        return Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                .entity(createArrayBuilder()
+                                .add(createObjectBuilder()
+                                             .add("message", exception.getMessage()))
+                                .build())
+                .build();
+    }
+}
@@ -0,0 +1,148 @@
+package io.fabric8.launcher.web.providers.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+
+/**
+ * The changes of the booster catalog between a previous generation and the current one, as seen by a client that
+ * got the catalog document of that generation with the same filters.
+ *
+ * The boosters, runtimes and missions that changed are compared by fingerprint. An object that is not served anymore
+ * is listed as removed when it is gone from the catalog or when something about it changed; listing an object the
+ * client never got is harmless, missing one is not.
+ */
+public final class CatalogDelta {
+
+    private final long since;
+
+    private final CatalogHistory.Snapshot previous;
+
+    private final CatalogHistory.Snapshot current;
+
+    CatalogDelta(long since, CatalogHistory.Snapshot previous, CatalogHistory.Snapshot current) {
+        this.since = since;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    /**
+     * @return the generation the changes are relative to
+     */
+    public long getSince() {
+        return since;
+    }
+
+    /**
+     * @return true if the given booster is new or changed since the previous generation
+     */
+    public boolean isBoosterChanged(RhoarBooster booster) {
+        RemovedBooster before = previous.boosters.get(booster.getId());
+        RemovedBooster now = current.boosters.get(booster.getId());
+        return before == null || now == null || before.fingerprint != now.fingerprint;
+    }
+
+    /**
+     * @param served the ids of the boosters in the current document
+     * @return the boosters of the previous generation that are not served anymore
+     */
+    public List<RemovedBooster> getRemovedBoosters(Set<String> served) {
+        List<RemovedBooster> removed = new ArrayList<>();
+        for (Map.Entry<String, RemovedBooster> entry : previous.boosters.entrySet()) {
+            if (!served.contains(entry.getKey())) {
+                RemovedBooster now = current.boosters.get(entry.getKey());
+                if (now == null || now.fingerprint != entry.getValue().fingerprint) {
+                    removed.add(entry.getValue());
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return true if the runtime with the given id (or the versions its boosters use) is new or changed
+     */
+    public boolean isRuntimeChanged(String id) {
+        return changed(previous.runtimes, current.runtimes, id);
+    }
+
+    /**
+     * @return true if the mission with the given id is new or changed
+     */
+    public boolean isMissionChanged(String id) {
+        return changed(previous.missions, current.missions, id);
+    }
+
+    /**
+     * @param served  the ids of the runtimes in the current document
+     * @param touched the ids of the runtimes of the changed and removed boosters
+     * @return the ids of the runtimes of the previous generation that are not served anymore
+     */
+    public Set<String> getRemovedRuntimes(Set<String> served, Set<String> touched) {
+        return removed(previous.runtimes, current.runtimes, served, touched);
+    }
+
+    /**
+     * @param served  the ids of the missions in the current document
+     * @param touched the ids of the missions of the changed and removed boosters
+     * @return the ids of the missions of the previous generation that are not served anymore
+     */
+    public Set<String> getRemovedMissions(Set<String> served, Set<String> touched) {
+        return removed(previous.missions, current.missions, served, touched);
+    }
+
+    private static boolean changed(Map<String, Long> previous, Map<String, Long> current, String id) {
+        Long before = previous.get(id);
+        return before == null || !before.equals(current.get(id));
+    }
+
+    private static Set<String> removed(Map<String, Long> previous, Map<String, Long> current, Set<String> served, Set<String> touched) {
+        Set<String> removed = new TreeSet<>();
+        for (Map.Entry<String, Long> entry : previous.entrySet()) {
+            String id = entry.getKey();
+            if (!served.contains(id) && (touched.contains(id) || !Objects.equals(entry.getValue(), current.get(id)))) {
+                removed.add(id);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * A booster of a catalog generation, identified by the ids of its mission, runtime and version as the clients
+     * know it
+     */
+    public static final class RemovedBooster {
+
+        private final long fingerprint;
+
+        private final String mission;
+
+        private final String runtime;
+
+        private final String version;
+
+        RemovedBooster(long fingerprint, String mission, String runtime, String version) {
+            this.fingerprint = fingerprint;
+            this.mission = mission;
+            this.runtime = runtime;
+            this.version = version;
+        }
+
+        public String getMission() {
+            return mission;
+        }
+
+        public String getRuntime() {
+            return runtime;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+    }
+}
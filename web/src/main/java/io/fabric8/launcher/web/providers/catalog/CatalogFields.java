@@ -0,0 +1,87 @@
+package io.fabric8.launcher.web.providers.catalog;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The members of the catalog objects a client asked for, with sparse fieldset parameters like
+ * {@code fields[runtimes]=id,name,icon}.
+ *
+ * The type is one of {@code boosters}, {@code runtimes} or {@code missions}. Every member of the types without a
+ * {@code fields} parameter is included, an empty parameter (eg. {@code fields[boosters]=}) leaves the type out.
+ */
+public final class CatalogFields {
+
+    public static final String BOOSTERS = "boosters";
+
+    public static final String RUNTIMES = "runtimes";
+
+    public static final String MISSIONS = "missions";
+
+    /**
+     * Includes every member of every type
+     */
+    public static final CatalogFields ALL = new CatalogFields(Collections.emptyMap());
+
+    private static final String PREFIX = "fields[";
+
+    private final Map<String, Set<String>> members;
+
+    private CatalogFields(Map<String, Set<String>> members) {
+        this.members = members;
+    }
+
+    /**
+     * @param parameters the query parameters
+     * @return the fields asked for by the {@code fields[type]} parameters
+     * @throws IllegalArgumentException if a parameter is for an unknown type
+     */
+    public static CatalogFields parse(Map<String, List<String>> parameters) {
+        Map<String, Set<String>> members = new HashMap<>();
+        for (Map.Entry<String, List<String>> parameter : parameters.entrySet()) {
+            if (!isFieldsParameter(parameter.getKey())) {
+                continue;
+            }
+            String type = parameter.getKey().substring(PREFIX.length(), parameter.getKey().length() - 1);
+            if (!BOOSTERS.equals(type) && !RUNTIMES.equals(type) && !MISSIONS.equals(type)) {
+                throw new IllegalArgumentException("Unknown catalog type in " + parameter.getKey());
+            }
+            Set<String> names = members.computeIfAbsent(type, t -> new HashSet<>());
+            for (String value : parameter.getValue()) {
+                for (String name : value.split(",")) {
+                    if (!name.trim().isEmpty()) {
+                        names.add(name.trim());
+                    }
+                }
+            }
+        }
+        return members.isEmpty() ? ALL : new CatalogFields(members);
+    }
+
+    /**
+     * @return true if the given query parameter is a sparse fieldset parameter
+     */
+    public static boolean isFieldsParameter(String name) {
+        return name.startsWith(PREFIX) && name.endsWith("]");
+    }
+
+    /**
+     * @return true if the objects of the given type are included at all
+     */
+    public boolean includes(String type) {
+        Set<String> names = members.get(type);
+        return names == null || !names.isEmpty();
+    }
+
+    /**
+     * @return true if the given member of the objects of the given type is included
+     */
+    public boolean includes(String type, String member) {
+        Set<String> names = members.get(type);
+        return names == null || names.contains(member);
+    }
+}
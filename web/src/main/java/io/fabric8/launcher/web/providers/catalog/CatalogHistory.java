@@ -0,0 +1,221 @@
+package io.fabric8.launcher.web.providers.catalog;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.fabric8.launcher.booster.catalog.rhoar.Mission;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import io.fabric8.launcher.booster.catalog.rhoar.Runtime;
+import io.fabric8.launcher.booster.catalog.rhoar.Version;
+import io.fabric8.launcher.core.api.catalog.BoosterCatalogFactory;
+import io.fabric8.launcher.core.api.catalog.BoosterCatalogIndex;
+import io.fabric8.launcher.core.api.catalog.CatalogIndexedEvent;
+import io.fabric8.launcher.core.spi.StatisticsProvider;
+
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_CATALOG_DELTA_GENERATIONS;
+
+/**
+ * Remembers the fingerprints of the boosters, runtimes and missions of the last catalog generations, so that
+ * clients can ask for the changes since the generation they already have.
+ *
+ * A generation is recorded when the {@link BoosterCatalogFactory} starts serving it, once it is fully indexed. Only the last
+ * {@code LAUNCHER_CATALOG_DELTA_GENERATIONS} generations are kept, the changes since an older (or unknown)
+ * generation are not available and the whole catalog is served instead.
+ */
+@ApplicationScoped
+public class CatalogHistory implements StatisticsProvider {
+
+    private static final int DEFAULT_GENERATIONS = 8;
+
+    // The fingerprints only need the digest of the serialized objects
+    private static final OutputStream NULL = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private final BoosterCatalogFactory catalogFactory;
+
+    private final int maxGenerations;
+
+    // Guarded by itself, oldest generation first
+    private final Map<Long, Snapshot> snapshots = new LinkedHashMap<>();
+
+    private final LongAdder deltas = new LongAdder();
+
+    private final LongAdder unknownGenerations = new LongAdder();
+
+    @Inject
+    public CatalogHistory(BoosterCatalogFactory catalogFactory) {
+        this(catalogFactory, LAUNCHER_CATALOG_DELTA_GENERATIONS.intValue(DEFAULT_GENERATIONS));
+    }
+
+    //Visible for testing
+    CatalogHistory(BoosterCatalogFactory catalogFactory, int maxGenerations) {
+        this.catalogFactory = catalogFactory;
+        this.maxGenerations = Math.max(1, maxGenerations);
+    }
+
+    /**
+     * no-args constructor used by CDI for proxying only
+     * but is subsequently replaced with an instance
+     * created using the above constructor.
+     *
+     * @deprecated do not use this constructor
+     */
+    @Deprecated
+    protected CatalogHistory() {
+        this.catalogFactory = null;
+        this.maxGenerations = 0;
+    }
+
+    /**
+     * Records a catalog generation once it is indexed and served
+     */
+    public void onIndexed(@Observes CatalogIndexedEvent event) {
+        record(event.getGeneration(), event.getIndex());
+    }
+
+    //Visible for testing
+    void record(long generation, BoosterCatalogIndex index) {
+        synchronized (snapshots) {
+            if (snapshots.containsKey(generation)) {
+                return;
+            }
+        }
+        Snapshot snapshot = new Snapshot(index.getBoosters(null, Collections.emptyMap()));
+        synchronized (snapshots) {
+            snapshots.putIfAbsent(generation, snapshot);
+            while (snapshots.size() > maxGenerations) {
+                snapshots.remove(snapshots.keySet().iterator().next());
+            }
+        }
+    }
+
+    /**
+     * @param generation the generation the client has
+     * @return the changes since the given generation, empty if that generation is not known (anymore)
+     */
+    public Optional<CatalogDelta> since(long generation) {
+        Snapshot previous;
+        Snapshot current;
+        synchronized (snapshots) {
+            previous = snapshots.get(generation);
+            current = snapshots.get(catalogFactory.getGeneration());
+        }
+        if (previous == null || current == null) {
+            unknownGenerations.increment();
+            return Optional.empty();
+        }
+        deltas.increment();
+        return Optional.of(new CatalogDelta(generation, previous, current));
+    }
+
+    @Override
+    public String getStatisticsName() {
+        return "catalogHistory";
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (snapshots) {
+            stats.put("generations", new TreeSet<>(snapshots.keySet()));
+        }
+        stats.put("maxGenerations", maxGenerations);
+        stats.put("deltas", deltas.sum());
+        stats.put("unknownGenerations", unknownGenerations.sum());
+        return stats;
+    }
+
+    /**
+     * The fingerprints of the objects of a catalog generation
+     */
+    static final class Snapshot {
+
+        final Map<String, CatalogDelta.RemovedBooster> boosters = new HashMap<>();
+
+        final Map<String, Long> runtimes = new HashMap<>();
+
+        final Map<String, Long> missions = new HashMap<>();
+
+        Snapshot(List<RhoarBooster> catalog) {
+            Map<Runtime, Set<Version>> versions = new TreeMap<>();
+            Set<Mission> allMissions = new TreeSet<>();
+            for (RhoarBooster b : catalog) {
+                boosters.put(b.getId(), new CatalogDelta.RemovedBooster(
+                        fingerprint(generator -> CatalogJsonWriter.writeBooster(generator, b, CatalogFields.ALL)),
+                        b.getMission() != null ? b.getMission().getId() : null,
+                        b.getRuntime() != null ? b.getRuntime().getId() : null,
+                        b.getVersion() != null ? b.getVersion().getId() : null));
+                if (b.getMission() != null) {
+                    allMissions.add(b.getMission());
+                }
+                if (b.getRuntime() != null) {
+                    Set<Version> runtimeVersions = versions.computeIfAbsent(b.getRuntime(), r -> new TreeSet<>());
+                    if (b.getVersion() != null) {
+                        runtimeVersions.add(b.getVersion());
+                    }
+                }
+            }
+            versions.forEach((runtime, runtimeVersions) -> runtimes.put(runtime.getId(),
+                    fingerprint(generator -> CatalogJsonWriter.writeRuntime(generator, runtime, runtimeVersions, CatalogFields.ALL))));
+            for (Mission mission : allMissions) {
+                missions.put(mission.getId(),
+                        fingerprint(generator -> CatalogJsonWriter.writeCategory(generator, mission, CatalogFields.ALL, CatalogFields.MISSIONS)));
+            }
+        }
+
+        /**
+         * @return the first 8 bytes of the SHA-256 digest of what the given writer writes
+         */
+        private static long fingerprint(JsonWriter writer) {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+            try (JsonGenerator generator = CatalogJsonWriter.createGenerator(new DigestOutputStream(NULL, digest))) {
+                writer.write(generator);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error while fingerprinting the catalog", e);
+            }
+            byte[] hash = digest.digest();
+            long fingerprint = 0;
+            for (int i = 0; i < 8; i++) {
+                fingerprint = (fingerprint << 8) | (hash[i] & 0xff);
+            }
+            return fingerprint;
+        }
+    }
+
+    @FunctionalInterface
+    private interface JsonWriter {
+
+        void write(JsonGenerator generator) throws IOException;
+    }
+}
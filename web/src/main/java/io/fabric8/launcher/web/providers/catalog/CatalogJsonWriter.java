@@ -0,0 +1,363 @@
+package io.fabric8.launcher.web.providers.catalog;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.CharacterEscapes;
+import com.fasterxml.jackson.core.io.SerializedString;
+import io.fabric8.launcher.booster.catalog.rhoar.AbstractCategory;
+import io.fabric8.launcher.booster.catalog.rhoar.Mission;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import io.fabric8.launcher.booster.catalog.rhoar.Runtime;
+import io.fabric8.launcher.booster.catalog.rhoar.Version;
+
+/**
+ * Streams the booster catalog document ({@code boosters}, {@code runtimes} and {@code missions}) with a Jackson
+ * {@link JsonGenerator}, without building an intermediate JSON tree nor copying the booster data.
+ * The document can be restricted to some fields (see {@link CatalogFields}) and to the changes since a previous
+ * catalog generation (see {@link CatalogDelta}).
+ *
+ * Values are written the way {@link io.fabric8.launcher.base.JsonUtils#toJsonObjectBuilder(Map)} and the javax.json
+ * writer do, so the document is the same as the one built with javax.json.
+ */
+public final class CatalogJsonWriter {
+
+    private static final JsonFactory FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .setCharacterEscapes(new JsonpCharacterEscapes());
+
+    // Booster data entries replaced by the id of the booster mission, runtime and version
+    private static final String MISSION = "mission";
+
+    private static final String RUNTIME = "runtime";
+
+    private static final String VERSION = "version";
+
+    private static final String ENVIRONMENT = "environment";
+
+    private CatalogJsonWriter() {
+        throw new IllegalAccessError("Utility class");
+    }
+
+    /**
+     * Writes the catalog document of the given boosters
+     */
+    public static void writeCatalog(List<RhoarBooster> boosters, OutputStream out) throws IOException {
+        writeCatalog(boosters, CatalogFields.ALL, null, out);
+    }
+
+    /**
+     * Writes the catalog document of the given boosters, with only the given fields
+     *
+     * @param delta if not null, only the objects that changed since the generation of the delta are written, along
+     *              with the {@code since} generation and the {@code removed} objects
+     */
+    public static void writeCatalog(List<RhoarBooster> boosters, CatalogFields fields, @Nullable CatalogDelta delta, OutputStream out) throws IOException {
+        Set<Mission> missions = new TreeSet<>();
+        Map<Runtime, Set<Version>> runtimes = new TreeMap<>();
+        for (RhoarBooster b : boosters) {
+            if (b.getMission() != null) {
+                missions.add(b.getMission());
+            }
+            if (b.getRuntime() != null) {
+                Set<Version> versions = runtimes.computeIfAbsent(b.getRuntime(), r -> new TreeSet<>());
+                if (b.getVersion() != null) {
+                    versions.add(b.getVersion());
+                }
+            }
+        }
+        List<RhoarBooster> written = boosters;
+        List<CatalogDelta.RemovedBooster> removed = Collections.emptyList();
+        // The runtimes and missions of the changed and removed boosters may be listed differently
+        Set<String> touchedRuntimes = new HashSet<>();
+        Set<String> touchedMissions = new HashSet<>();
+        if (delta != null) {
+            written = new ArrayList<>();
+            Set<String> served = new HashSet<>();
+            for (RhoarBooster b : boosters) {
+                served.add(b.getId());
+                if (delta.isBoosterChanged(b)) {
+                    written.add(b);
+                    touchedRuntimes.add(b.getRuntime() != null ? b.getRuntime().getId() : null);
+                    touchedMissions.add(b.getMission() != null ? b.getMission().getId() : null);
+                }
+            }
+            removed = delta.getRemovedBoosters(served);
+            for (CatalogDelta.RemovedBooster b : removed) {
+                touchedRuntimes.add(b.getRuntime());
+                touchedMissions.add(b.getMission());
+            }
+        }
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.writeStartObject();
+            if (delta != null) {
+                generator.writeNumberField("since", delta.getSince());
+            }
+            if (fields.includes(CatalogFields.BOOSTERS)) {
+                generator.writeArrayFieldStart(CatalogFields.BOOSTERS);
+                for (RhoarBooster b : written) {
+                    writeBooster(generator, b, fields);
+                }
+                generator.writeEndArray();
+            }
+
+            if (fields.includes(CatalogFields.RUNTIMES)) {
+                generator.writeArrayFieldStart(CatalogFields.RUNTIMES);
+                for (Map.Entry<Runtime, Set<Version>> entry : runtimes.entrySet()) {
+                    String id = entry.getKey().getId();
+                    if (delta == null || delta.isRuntimeChanged(id) || touchedRuntimes.contains(id)) {
+                        writeRuntime(generator, entry.getKey(), entry.getValue(), fields);
+                    }
+                }
+                generator.writeEndArray();
+            }
+
+            if (fields.includes(CatalogFields.MISSIONS)) {
+                generator.writeArrayFieldStart(CatalogFields.MISSIONS);
+                for (Mission m : missions) {
+                    if (delta == null || delta.isMissionChanged(m.getId()) || touchedMissions.contains(m.getId())) {
+                        writeCategory(generator, m, fields, CatalogFields.MISSIONS);
+                    }
+                }
+                generator.writeEndArray();
+            }
+
+            if (delta != null) {
+                writeRemoved(generator, delta, fields, removed, ids(runtimes.keySet()), touchedRuntimes, ids(missions), touchedMissions);
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes the results of a catalog search: the first boosters found, the number of boosters found and how many of
+     * them belong to each mission and runtime
+     *
+     * @param hits  the boosters found, best match first
+     * @param limit the maximum number of boosters to write
+     */
+    public static void writeSearchResults(String query, List<RhoarBooster> hits, int limit, OutputStream out) throws IOException {
+        Map<String, Integer> missions = new TreeMap<>();
+        Map<String, Integer> runtimes = new TreeMap<>();
+        for (RhoarBooster b : hits) {
+            if (b.getMission() != null) {
+                missions.merge(b.getMission().getId(), 1, Integer::sum);
+            }
+            if (b.getRuntime() != null) {
+                runtimes.merge(b.getRuntime().getId(), 1, Integer::sum);
+            }
+        }
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("query", query);
+            generator.writeNumberField("total", hits.size());
+            generator.writeArrayFieldStart(CatalogFields.BOOSTERS);
+            for (RhoarBooster b : hits.subList(0, Math.min(limit, hits.size()))) {
+                writeBooster(generator, b, CatalogFields.ALL);
+            }
+            generator.writeEndArray();
+            generator.writeObjectFieldStart("facets");
+            writeCounts(generator, CatalogFields.MISSIONS, missions);
+            writeCounts(generator, CatalogFields.RUNTIMES, runtimes);
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * @return a generator writing UTF-8 to the given stream, which is left open once the generator is closed
+     */
+    static JsonGenerator createGenerator(OutputStream out) throws IOException {
+        // The UTF-8 generator would escape the characters outside of the BMP, the writer encodes them as is
+        return FACTORY.createGenerator(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the exportable data of the booster (its data, with the ids of its mission, runtime and version),
+     * without its environment
+     */
+    static void writeBooster(JsonGenerator generator, RhoarBooster booster, CatalogFields fields) throws IOException {
+        generator.writeStartObject();
+        for (Map.Entry<String, Object> entry : booster.getExportableData().entrySet()) {
+            String key = entry.getKey();
+            if (!ENVIRONMENT.equals(key) && fields.includes(CatalogFields.BOOSTERS, key)) {
+                generator.writeFieldName(key);
+                writeValue(generator, entry.getValue());
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    static void writeRuntime(JsonGenerator generator, Runtime runtime, Set<Version> versions, CatalogFields fields) throws IOException {
+        generator.writeStartObject();
+        writeCategoryFields(generator, runtime, fields, CatalogFields.RUNTIMES);
+        if (fields.includes(CatalogFields.RUNTIMES, "versions")) {
+            generator.writeArrayFieldStart("versions");
+            for (Version v : versions) {
+                writeCategory(generator, v, CatalogFields.ALL, null);
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    static void writeCategory(JsonGenerator generator, AbstractCategory category, CatalogFields fields, String type) throws IOException {
+        generator.writeStartObject();
+        writeCategoryFields(generator, category, fields, type);
+        generator.writeEndObject();
+    }
+
+    private static void writeCategoryFields(JsonGenerator generator, AbstractCategory category, CatalogFields fields, String type) throws IOException {
+        if (fields.includes(type, "id")) {
+            generator.writeStringField("id", category.getId());
+        }
+        if (fields.includes(type, "name")) {
+            generator.writeStringField("name", category.getName());
+        }
+        if (category instanceof Runtime && fields.includes(type, "icon")) {
+            generator.writeStringField("icon", ((Runtime) category).getIcon());
+        }
+        if (category.getDescription() != null && fields.includes(type, "description")) {
+            generator.writeStringField("description", category.getDescription());
+        }
+        if (!category.getMetadata().isEmpty() && fields.includes(type, "metadata")) {
+            generator.writeFieldName("metadata");
+            writeValue(generator, category.getMetadata());
+        }
+    }
+
+    private static void writeRemoved(JsonGenerator generator, CatalogDelta delta, CatalogFields fields, List<CatalogDelta.RemovedBooster> removed,
+                                     Set<String> servedRuntimes, Set<String> touchedRuntimes,
+                                     Set<String> servedMissions, Set<String> touchedMissions) throws IOException {
+        generator.writeObjectFieldStart("removed");
+        if (fields.includes(CatalogFields.BOOSTERS)) {
+            generator.writeArrayFieldStart(CatalogFields.BOOSTERS);
+            for (CatalogDelta.RemovedBooster b : removed) {
+                generator.writeStartObject();
+                generator.writeStringField(MISSION, b.getMission());
+                generator.writeStringField(RUNTIME, b.getRuntime());
+                generator.writeStringField(VERSION, b.getVersion());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        if (fields.includes(CatalogFields.RUNTIMES)) {
+            generator.writeArrayFieldStart(CatalogFields.RUNTIMES);
+            for (String id : delta.getRemovedRuntimes(servedRuntimes, touchedRuntimes)) {
+                generator.writeString(id);
+            }
+            generator.writeEndArray();
+        }
+        if (fields.includes(CatalogFields.MISSIONS)) {
+            generator.writeArrayFieldStart(CatalogFields.MISSIONS);
+            for (String id : delta.getRemovedMissions(servedMissions, touchedMissions)) {
+                generator.writeString(id);
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeCounts(JsonGenerator generator, String name, Map<String, Integer> counts) throws IOException {
+        generator.writeObjectFieldStart(name);
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            generator.writeNumberField(count.getKey(), count.getValue());
+        }
+        generator.writeEndObject();
+    }
+
+    private static Set<String> ids(Collection<? extends AbstractCategory> categories) {
+        Set<String> ids = new HashSet<>();
+        for (AbstractCategory category : categories) {
+            ids.add(category.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Writes a value of a map read from YAML, like {@link io.fabric8.launcher.base.JsonUtils#toJsonObjectBuilder(Map)}
+     * converts it
+     */
+    static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value instanceof Map) {
+            generator.writeStartObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                generator.writeFieldName(String.valueOf(entry.getKey()));
+                writeValue(generator, entry.getValue());
+            }
+            generator.writeEndObject();
+        } else if (value instanceof Iterable) {
+            generator.writeStartArray();
+            for (Object item : (Iterable<?>) value) {
+                writeValue(generator, item);
+            }
+            generator.writeEndArray();
+        } else if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            // javax.json writes doubles as BigDecimal.valueOf(double)
+            generator.writeNumber(BigDecimal.valueOf((Double) value));
+        } else if (value instanceof Long) {
+            generator.writeNumber((Long) value);
+        } else if (value instanceof Integer) {
+            generator.writeNumber((Integer) value);
+        } else if (value instanceof BigInteger) {
+            generator.writeNumber((BigInteger) value);
+        } else if (value instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) value);
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    /**
+     * Escapes the control characters like the javax.json writer does: lowercase {@code \\u00xx} sequences, except for
+     * the ones with a short escape sequence
+     */
+    private static final class JsonpCharacterEscapes extends CharacterEscapes {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] escapes;
+
+        private JsonpCharacterEscapes() {
+            escapes = standardAsciiEscapesForJSON();
+            for (int c = 0; c < 0x20; c++) {
+                if (c != '\b' && c != '\t' && c != '\n' && c != '\f' && c != '\r') {
+                    escapes[c] = ESCAPE_CUSTOM;
+                }
+            }
+        }
+
+        @Override
+        public int[] getEscapeCodesForAscii() {
+            return escapes;
+        }
+
+        @Override
+        public SerializableString getEscapeSequence(int ch) {
+            // Also asked for every non ASCII character, which is written as is
+            return ch < 0x20 ? new SerializedString(String.format("\\u%04x", ch)) : null;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package io.fabric8.launcher.web.providers.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.core.MultivaluedMap;
+
+import io.fabric8.launcher.core.api.catalog.BoosterCatalogFactory;
+import io.fabric8.launcher.core.spi.StatisticsProvider;
+
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_CATALOG_CACHE_MAX_ENTRIES;
+
+/**
+ * Keeps the serialized (and gzipped) booster catalog responses per normalized application and query parameters.
+ *
+ * All the responses belong to the catalog ref and generation they were rendered from, and are dropped at once
+ * when the catalog is reset. Responses rendered while the catalog is still being indexed are never kept.
+ * Once the maximum number of entries is reached, new parameter combinations are rendered on every request.
+ */
+@ApplicationScoped
+public class CatalogResponseCache implements StatisticsProvider {
+
+    private static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private final BoosterCatalogFactory catalogFactory;
+
+    private final int maxEntries;
+
+    private final AtomicReference<Responses> current = new AtomicReference<>(new Responses(null));
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder uncached = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    @Inject
+    public CatalogResponseCache(BoosterCatalogFactory catalogFactory) {
+        this(catalogFactory, LAUNCHER_CATALOG_CACHE_MAX_ENTRIES.intValue(DEFAULT_MAX_ENTRIES));
+    }
+
+    //Visible for testing
+    CatalogResponseCache(BoosterCatalogFactory catalogFactory, int maxEntries) {
+        this.catalogFactory = catalogFactory;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * no-args constructor used by CDI for proxying only
+     * but is subsequently replaced with an instance
+     * created using the above constructor.
+     *
+     * @deprecated do not use this constructor
+     */
+    @Deprecated
+    protected CatalogResponseCache() {
+        this.catalogFactory = null;
+        this.maxEntries = 0;
+    }
+
+    /**
+     * Returns the rendered catalog for the given application and parameters, rendering it on a miss
+     *
+     * @param application the application (X-App header), may be null
+     * @param parameters  the query parameters used to filter the catalog
+     * @param renderer    writes the catalog JSON document
+     * @return the rendered catalog
+     */
+    public RenderedCatalog get(String application, MultivaluedMap<String, String> parameters, CatalogRenderer renderer) {
+        String ref = catalogFactory.getCatalogRef();
+        long generation = catalogFactory.getGeneration();
+        String scope = ref + ':' + generation;
+        Responses responses = current.get();
+        if (!scope.equals(responses.scope)) {
+            Responses fresh = new Responses(scope);
+            if (current.compareAndSet(responses, fresh)) {
+                if (responses.scope != null) {
+                    invalidations.increment();
+                }
+                responses = fresh;
+            } else {
+                responses = current.get();
+            }
+        }
+        String key = key(application, parameters);
+        RenderedCatalog rendered = responses.entries.get(key);
+        if (rendered != null) {
+            hits.increment();
+            return rendered;
+        }
+        misses.increment();
+        boolean indexed = catalogFactory.isIndexed();
+        rendered = render(ref, generation, renderer);
+        // Only keep what was rendered from a fully indexed catalog that was not reset in the meantime
+        if (indexed && scope.equals(responses.scope) && current.get() == responses && responses.entries.size() < maxEntries) {
+            RenderedCatalog existing = responses.entries.putIfAbsent(key, rendered);
+            return existing != null ? existing : rendered;
+        }
+        uncached.increment();
+        return rendered;
+    }
+
+    @Override
+    public String getStatisticsName() {
+        return "catalogResponses";
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Responses responses = current.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("scope", responses.scope);
+        stats.put("entries", responses.entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("bytes", responses.entries.values().stream().mapToLong(r -> r.getBytes().length + r.getGzippedBytes().length).sum());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("uncached", uncached.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    /**
+     * @return a key that does not depend on the order of the parameters or of their values
+     */
+    static String key(String application, MultivaluedMap<String, String> parameters) {
+        StringBuilder key = new StringBuilder(encode(application == null ? "" : application)).append('?');
+        Map<String, List<String>> sorted = new TreeMap<>(parameters);
+        for (Map.Entry<String, List<String>> entry : sorted.entrySet()) {
+            List<String> values = new ArrayList<>(entry.getValue());
+            values.sort(null);
+            for (String value : values) {
+                key.append(encode(entry.getKey())).append('=').append(encode(value)).append('&');
+            }
+        }
+        return key.toString();
+    }
+
+    private static RenderedCatalog render(String ref, long generation, CatalogRenderer renderer) {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        try {
+            renderer.render(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error while rendering the catalog", e);
+        }
+        byte[] bytes = json.toByteArray();
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped) {
+            {
+                // Compressed once per catalog generation, so it is worth the extra effort
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error while compressing the catalog", e);
+        }
+        return new RenderedCatalog(bytes, gzipped.toByteArray(), sanitize(ref) + '-' + digest(bytes), generation);
+    }
+
+    private static String digest(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 10; i++) {
+                sb.append(String.format("%02x", hash[i]));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String sanitize(String ref) {
+        return ref == null ? "unknown" : ref.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Responses {
+
+        private final String scope;
+
+        private final ConcurrentMap<String, RenderedCatalog> entries = new ConcurrentHashMap<>();
+
+        private Responses(String scope) {
+            this.scope = scope;
+        }
+    }
+
+    /**
+     * Writes a catalog JSON document
+     */
+    @FunctionalInterface
+    public interface CatalogRenderer {
+
+        void render(OutputStream out) throws IOException;
+    }
+
+    /**
+     * A serialized catalog response
+     */
+    public static final class RenderedCatalog {
+
+        private final byte[] bytes;
+
+        private final byte[] gzippedBytes;
+
+        private final String entityTag;
+
+        private final long generation;
+
+        RenderedCatalog(byte[] bytes, byte[] gzippedBytes, String entityTag, long generation) {
+            this.bytes = bytes;
+            this.gzippedBytes = gzippedBytes;
+            this.entityTag = entityTag;
+            this.generation = generation;
+        }
+
+        /**
+         * @return the JSON document
+         */
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return the gzipped JSON document
+         */
+        public byte[] getGzippedBytes() {
+            return gzippedBytes;
+        }
+
+        /**
+         * @return the strong entity tag of the JSON document (unquoted), derived from the catalog ref and the contents
+         */
+        public String getEntityTag() {
+            return entityTag;
+        }
+
+        /**
+         * @return the catalog generation the document was rendered from
+         */
+        public long getGeneration() {
+            return generation;
+        }
+    }
+}
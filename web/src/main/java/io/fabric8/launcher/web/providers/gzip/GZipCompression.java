@@ -0,0 +1,138 @@
+package io.fabric8.launcher.web.providers.gzip;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import io.fabric8.launcher.core.spi.StatisticsProvider;
+
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_GZIP_EXCLUDED_TYPES;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_GZIP_LEVEL;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_GZIP_MIN_SIZE;
+
+/**
+ * Settings, {@link Deflater} pool and counters shared by every response compressed by the {@link GZipFilter}
+ */
+@ApplicationScoped
+public class GZipCompression implements StatisticsProvider {
+
+    private static final String DEFAULT_EXCLUDED_TYPES = "application/zip,application/gzip,application/x-gzip," +
+            "application/x-compress,application/x-bzip2,application/x-xz,image/png,image/jpeg,image/gif,image/webp," +
+            "font/woff,font/woff2,audio/*,video/*";
+
+    private static final int DEFAULT_MIN_SIZE = 1024;
+
+    private static final int POOL_SIZE = 64;
+
+    private final int level;
+
+    private final int minSize;
+
+    private final Set<String> excludedTypes;
+
+    private final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private final LongAdder compressedResponses = new LongAdder();
+
+    private final LongAdder uncompressedResponses = new LongAdder();
+
+    private final LongAdder uncompressedBytes = new LongAdder();
+
+    private final LongAdder compressedBytes = new LongAdder();
+
+    public GZipCompression() {
+        this(LAUNCHER_GZIP_LEVEL.intValue(Deflater.DEFAULT_COMPRESSION),
+             LAUNCHER_GZIP_MIN_SIZE.intValue(DEFAULT_MIN_SIZE),
+             LAUNCHER_GZIP_EXCLUDED_TYPES.value(DEFAULT_EXCLUDED_TYPES));
+    }
+
+    //Visible for testing
+    GZipCompression(int level, int minSize, String excludedTypes) {
+        this.level = level;
+        this.minSize = minSize;
+        this.excludedTypes = Arrays.stream(excludedTypes.split(","))
+                .map(String::trim)
+                .filter(type -> !type.isEmpty())
+                .map(type -> type.toLowerCase(Locale.ENGLISH))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the number of bytes below which responses are sent uncompressed
+     */
+    int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * @param contentType the response content type, may be null
+     * @return true if responses with this content type should be compressed
+     */
+    boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        String mediaType = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ENGLISH);
+        int slash = mediaType.indexOf('/');
+        return !excludedTypes.contains(mediaType) &&
+                !(slash > 0 && excludedTypes.contains(mediaType.substring(0, slash) + "/*"));
+    }
+
+    Deflater borrowDeflater() {
+        Deflater deflater = deflaters.poll();
+        return deflater != null ? deflater : new Deflater(level, true);
+    }
+
+    void releaseDeflater(Deflater deflater) {
+        deflater.reset();
+        if (!deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    void recordCompressed(long uncompressed, long compressed) {
+        compressedResponses.increment();
+        uncompressedBytes.add(uncompressed);
+        compressedBytes.add(compressed);
+    }
+
+    void recordUncompressed() {
+        uncompressedResponses.increment();
+    }
+
+    @PreDestroy
+    void destroy() {
+        Deflater deflater;
+        while ((deflater = deflaters.poll()) != null) {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public String getStatisticsName() {
+        return "gzip";
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("level", level);
+        stats.put("minSize", minSize);
+        stats.put("compressedResponses", compressedResponses.sum());
+        stats.put("uncompressedResponses", uncompressedResponses.sum());
+        stats.put("uncompressedBytes", uncompressedBytes.sum());
+        stats.put("compressedBytes", compressedBytes.sum());
+        stats.put("pooledDeflaters", deflaters.size());
+        return stats;
+    }
+}
@@ -2,6 +2,7 @@ package io.fabric8.launcher.web.providers.gzip;
 
 import java.io.IOException;
 
+import javax.inject.Inject;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
@@ -17,6 +18,10 @@ import javax.servlet.http.HttpServletResponse;
  */
 @WebFilter(filterName = "GZipFilter", urlPatterns = "/*", asyncSupported = true)
 public class GZipFilter implements Filter {
+
+    @Inject
+    private GZipCompression compression;
+
     @Override
     public void init(FilterConfig filterConfig) {
 
@@ -33,9 +38,9 @@ public class GZipFilter implements Filter {
         HttpServletResponse httpResponse = (HttpServletResponse) response;
 
         if (acceptsGZipEncoding(httpRequest)) {
-            httpResponse.setHeader("Content-Encoding", "gzip");
+            // Content-Encoding is only set once the output stream decided to compress the body
             try (GZipServletResponseWrapper gzipResponse =
-                         new GZipServletResponseWrapper(httpResponse)) {
+                         new GZipServletResponseWrapper(httpResponse, compression)) {
                 chain.doFilter(request, gzipResponse);
             }
         } else {
@@ -1,48 +1,118 @@
 package io.fabric8.launcher.web.providers.gzip;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
 
 /**
+ * Decides whether the response is worth compressing once the first bytes are written:
+ * already compressed media types are passed through untouched, bodies smaller than the minimum size are
+ * buffered and sent as is, anything else is gzipped with a pooled {@link Deflater}.
+ *
  * @author <a href="mailto:ggastald@redhat.com">George Gastaldi</a>
  */
 class GZipServletOutputStream extends ServletOutputStream {
 
-    private GZIPOutputStream gzipOutputStream;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
 
-    public GZipServletOutputStream(OutputStream output)
-            throws IOException {
+    private enum State {
+        UNDECIDED, PASSTHROUGH, COMPRESSING, CLOSED
+    }
+
+    private final GZipServletResponseWrapper wrapper;
+
+    private final HttpServletResponse response;
+
+    private final GZipCompression compression;
+
+    private final ByteArrayOutputStream buffer;
+
+    private final CRC32 crc = new CRC32();
+
+    private final byte[] deflateBuffer = new byte[8192];
+
+    private State state = State.UNDECIDED;
+
+    private OutputStream output;
+
+    private Deflater deflater;
+
+    private long compressedBytes;
+
+    GZipServletOutputStream(GZipServletResponseWrapper wrapper, GZipCompression compression) {
         super();
-        this.gzipOutputStream = new GZIPOutputStream(output);
+        this.wrapper = wrapper;
+        this.response = (HttpServletResponse) wrapper.getResponse();
+        this.compression = compression;
+        this.buffer = new ByteArrayOutputStream(compression.getMinSize());
     }
 
     @Override
     public void close() throws IOException {
-        this.gzipOutputStream.close();
+        switch (state) {
+            case UNDECIDED:
+                // The whole body fits in the buffer, not worth compressing
+                passthrough(buffer.size() > 0 ? buffer.size() : wrapper.getDeclaredContentLength());
+                break;
+            case COMPRESSING:
+                finish();
+                break;
+            case CLOSED:
+                return;
+            default:
+                break;
+        }
+        state = State.CLOSED;
+        output.close();
     }
 
     @Override
     public void flush() throws IOException {
-        this.gzipOutputStream.flush();
+        // Until it is known whether the body is compressed, flushing would commit the headers
+        if (output != null) {
+            output.flush();
+        }
     }
 
     @Override
     public void write(byte[] b) throws IOException {
-        this.gzipOutputStream.write(b);
+        write(b, 0, b.length);
     }
 
     @Override
     public void write(byte[] b, int off, int len) throws IOException {
-        this.gzipOutputStream.write(b, off, len);
+        switch (state) {
+            case UNDECIDED:
+                if (!isCompressible()) {
+                    passthrough(wrapper.getDeclaredContentLength());
+                    output.write(b, off, len);
+                } else if (buffer.size() + len < compression.getMinSize()) {
+                    buffer.write(b, off, len);
+                } else {
+                    startCompressing();
+                    deflate(b, off, len);
+                }
+                break;
+            case PASSTHROUGH:
+                output.write(b, off, len);
+                break;
+            case COMPRESSING:
+                deflate(b, off, len);
+                break;
+            default:
+                throw new IOException("Stream closed");
+        }
     }
 
     @Override
     public void write(int b) throws IOException {
-        this.gzipOutputStream.write(b);
+        write(new byte[]{(byte) b}, 0, 1);
     }
 
     @Override
@@ -54,4 +124,75 @@ class GZipServletOutputStream extends ServletOutputStream {
     public void setWriteListener(WriteListener writeListener) {
 
     }
+
+    private boolean isCompressible() {
+        long declaredLength = wrapper.getDeclaredContentLength();
+        return response.getHeader("Content-Encoding") == null &&
+                !(declaredLength >= 0 && declaredLength < compression.getMinSize()) &&
+                compression.isCompressible(response.getContentType());
+    }
+
+    private void passthrough(long contentLength) throws IOException {
+        state = State.PASSTHROUGH;
+        compression.recordUncompressed();
+        if (contentLength >= 0) {
+            response.setContentLengthLong(contentLength);
+        }
+        output = response.getOutputStream();
+        buffer.writeTo(output);
+    }
+
+    private void startCompressing() throws IOException {
+        state = State.COMPRESSING;
+        response.setHeader("Content-Encoding", "gzip");
+        response.addHeader("Vary", "Accept-Encoding");
+        output = response.getOutputStream();
+        deflater = compression.borrowDeflater();
+        output.write(GZIP_HEADER);
+        compressedBytes = GZIP_HEADER.length;
+        byte[] buffered = buffer.toByteArray();
+        deflate(buffered, 0, buffered.length);
+    }
+
+    private void deflate(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        crc.update(b, off, len);
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            writeDeflated();
+        }
+    }
+
+    private void finish() throws IOException {
+        try {
+            deflater.finish();
+            while (!deflater.finished()) {
+                writeDeflated();
+            }
+            writeTrailer((int) crc.getValue(), (int) deflater.getBytesRead());
+            compression.recordCompressed(deflater.getBytesRead(), compressedBytes);
+        } finally {
+            compression.releaseDeflater(deflater);
+            deflater = null;
+        }
+    }
+
+    private void writeDeflated() throws IOException {
+        int count = deflater.deflate(deflateBuffer, 0, deflateBuffer.length);
+        if (count > 0) {
+            output.write(deflateBuffer, 0, count);
+            compressedBytes += count;
+        }
+    }
+
+    private void writeTrailer(int crcValue, int size) throws IOException {
+        byte[] trailer = {
+                (byte) crcValue, (byte) (crcValue >> 8), (byte) (crcValue >> 16), (byte) (crcValue >> 24),
+                (byte) size, (byte) (size >> 8), (byte) (size >> 16), (byte) (size >> 24)
+        };
+        output.write(trailer);
+        compressedBytes += trailer.length;
+    }
 }
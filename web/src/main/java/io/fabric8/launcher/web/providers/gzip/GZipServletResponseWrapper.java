@@ -16,8 +16,13 @@ class GZipServletResponseWrapper extends HttpServletResponseWrapper implements A
 
     private PrintWriter printWriter = null;
 
-    public GZipServletResponseWrapper(HttpServletResponse response) {
+    private final GZipCompression compression;
+
+    private long declaredContentLength = -1;
+
+    public GZipServletResponseWrapper(HttpServletResponse response, GZipCompression compression) {
         super(response);
+        this.compression = compression;
     }
 
     @Override
@@ -76,8 +81,7 @@ class GZipServletResponseWrapper extends HttpServletResponseWrapper implements A
                     "PrintWriter obtained already - cannot get OutputStream");
         }
         if (this.gzipOutputStream == null) {
-            this.gzipOutputStream = new GZipServletOutputStream(
-                    getResponse().getOutputStream());
+            this.gzipOutputStream = new GZipServletOutputStream(this, compression);
         }
         return this.gzipOutputStream;
     }
@@ -89,8 +93,7 @@ class GZipServletResponseWrapper extends HttpServletResponseWrapper implements A
                     "OutputStream obtained already - cannot get PrintWriter");
         }
         if (this.printWriter == null) {
-            this.gzipOutputStream = new GZipServletOutputStream(
-                    getResponse().getOutputStream());
+            this.gzipOutputStream = new GZipServletOutputStream(this, compression);
             this.printWriter = new PrintWriter(new OutputStreamWriter(
                     this.gzipOutputStream, getResponse().getCharacterEncoding()));
         }
@@ -100,8 +103,22 @@ class GZipServletResponseWrapper extends HttpServletResponseWrapper implements A
 
     @Override
     public void setContentLength(int len) {
-        //ignore, since content length of zipped content
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        //not forwarded yet, since content length of zipped content
         //does not match content length of unzipped content.
+        //The output stream sets it if the response is not compressed.
+        this.declaredContentLength = len;
+    }
+
+    /**
+     * @return the content length set by the application, or -1 if unknown
+     */
+    long getDeclaredContentLength() {
+        return declaredContentLength;
     }
 
 }
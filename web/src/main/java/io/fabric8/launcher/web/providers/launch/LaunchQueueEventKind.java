@@ -0,0 +1,28 @@
+package io.fabric8.launcher.web.providers.launch;
+
+import io.fabric8.launcher.core.api.events.StatusEventKind;
+
+/**
+ * Status messages sent while a launch waits for the {@link LaunchScheduler} to start it
+ */
+public enum LaunchQueueEventKind implements StatusEventKind {
+
+    QUEUED("Waiting for the other launches to complete");
+
+    LaunchQueueEventKind(String message) {
+        this.message = message;
+    }
+
+    private final String message;
+
+    @Override
+    public String message() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return message;
+    }
+
+}
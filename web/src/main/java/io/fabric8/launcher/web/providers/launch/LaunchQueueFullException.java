@@ -0,0 +1,23 @@
+package io.fabric8.launcher.web.providers.launch;
+
+/**
+ * Thrown when a launch can neither start nor wait in the queue of the {@link LaunchScheduler}
+ */
+public class LaunchQueueFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public LaunchQueueFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return how long the client should wait before launching again
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
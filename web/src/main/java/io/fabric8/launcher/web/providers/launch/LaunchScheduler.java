@@ -0,0 +1,271 @@
+package io.fabric8.launcher.web.providers.launch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+
+import io.fabric8.launcher.core.spi.StatisticsProvider;
+
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_LAUNCH_CONCURRENCY;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_LAUNCH_QUEUE_SIZE;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_LAUNCH_USER_CONCURRENCY;
+
+/**
+ * Limits how many launches run at the same time, overall and for every user.
+ *
+ * A launch that cannot start waits in a bounded queue and is told its position in it whenever it changes. The
+ * queue is FIFO, except that a launch whose user already runs as many launches as allowed lets the launches of
+ * the other users behind it start first. Once the queue is full, new launches are rejected with a
+ * {@link LaunchQueueFullException} telling when to try again.
+ */
+@ApplicationScoped
+public class LaunchScheduler implements StatisticsProvider {
+
+    private static final Logger log = Logger.getLogger(LaunchScheduler.class.getName());
+
+    static final int DEFAULT_CONCURRENCY = 10;
+
+    private static final int DEFAULT_USER_CONCURRENCY = 2;
+
+    private static final int DEFAULT_QUEUE_SIZE = 100;
+
+    // Until a launch completed, there is no telling how long the queue takes to drain
+    private static final long DEFAULT_RETRY_AFTER_SECONDS = 30;
+
+    private final int concurrency;
+
+    private final int userConcurrency;
+
+    private final int queueSize;
+
+    private final Deque<Ticket> queue = new ArrayDeque<>();
+
+    // User -> launches running
+    private final Map<String, Integer> runningByUser = new HashMap<>();
+
+    private int running;
+
+    private final LongAdder admitted = new LongAdder();
+
+    private final LongAdder queued = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder waitNanos = new LongAdder();
+
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder launchNanos = new LongAdder();
+
+    public LaunchScheduler() {
+        this(LAUNCHER_LAUNCH_CONCURRENCY.intValue(DEFAULT_CONCURRENCY),
+             LAUNCHER_LAUNCH_USER_CONCURRENCY.intValue(DEFAULT_USER_CONCURRENCY),
+             LAUNCHER_LAUNCH_QUEUE_SIZE.intValue(DEFAULT_QUEUE_SIZE));
+    }
+
+    //Visible for testing
+    LaunchScheduler(int concurrency, int userConcurrency, int queueSize) {
+        if (concurrency < 1 || userConcurrency < 1 || queueSize < 0) {
+            throw new IllegalArgumentException("Invalid launch limits: concurrency=" + concurrency
+                                                       + ", userConcurrency=" + userConcurrency + ", queueSize=" + queueSize);
+        }
+        this.concurrency = concurrency;
+        this.userConcurrency = userConcurrency;
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Asks for a launch to start. The launch must not start before the admission of the returned ticket completes,
+     * and the ticket must be released once the launch is over, or abandoned.
+     *
+     * @param user     the user launching, null if unknown (the launch is then only subject to the global limit)
+     * @param position notified of the position of the launch in the queue (starting at 1) while it waits
+     * @return the ticket of the launch
+     * @throws LaunchQueueFullException if the launch cannot wait in the queue
+     */
+    public Ticket schedule(@Nullable String user, IntConsumer position) {
+        Ticket ticket = new Ticket(user, position);
+        // The position may change as soon as the lock is released
+        int queuedAt;
+        synchronized (this) {
+            // Every launch queued is waiting for its user, so a launch under the limits may start right away
+            if (running < concurrency && isUnderUserLimit(user)) {
+                start(ticket);
+            } else if (queue.size() >= queueSize) {
+                rejected.increment();
+                long retryAfter = getRetryAfterSeconds();
+                log.log(Level.WARNING, "Launch queue is full, rejecting the launch of {0}", user);
+                throw new LaunchQueueFullException("Too many launches in progress, try again in " + retryAfter + " seconds",
+                                                   retryAfter);
+            } else {
+                queue.add(ticket);
+                ticket.position = queue.size();
+                queued.increment();
+            }
+            queuedAt = ticket.position;
+        }
+        if (queuedAt > 0) {
+            ticket.notifyPosition(queuedAt);
+        } else {
+            ticket.admission.complete(null);
+        }
+        return ticket;
+    }
+
+    @Override
+    public String getStatisticsName() {
+        return "launchScheduler";
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long count = admitted.sum();
+        stats.put("concurrency", concurrency);
+        stats.put("userConcurrency", userConcurrency);
+        stats.put("queueSize", queueSize);
+        synchronized (this) {
+            stats.put("running", running);
+            stats.put("waiting", queue.size());
+        }
+        stats.put("admitted", count);
+        stats.put("queued", queued.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("averageWaitMillis", count == 0 ? 0L : TimeUnit.NANOSECONDS.toMillis(waitNanos.sum() / count));
+        stats.put("maxWaitMillis", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+        stats.put("averageLaunchMillis", getAverageLaunchMillis());
+        return stats;
+    }
+
+    private void release(Ticket ticket) {
+        List<Ticket> started = new ArrayList<>();
+        Map<Ticket, Integer> moved = new LinkedHashMap<>();
+        synchronized (this) {
+            if (ticket.released) {
+                return;
+            }
+            ticket.released = true;
+            if (ticket.position > 0) {
+                queue.remove(ticket);
+            } else {
+                running--;
+                if (ticket.user != null) {
+                    runningByUser.computeIfPresent(ticket.user, (user, n) -> n > 1 ? n - 1 : null);
+                }
+                completed.increment();
+                launchNanos.add(System.nanoTime() - ticket.startNanos);
+            }
+            int position = 0;
+            for (Iterator<Ticket> it = queue.iterator(); it.hasNext(); ) {
+                Ticket next = it.next();
+                if (running < concurrency && isUnderUserLimit(next.user)) {
+                    it.remove();
+                    start(next);
+                    started.add(next);
+                } else if (next.position != ++position) {
+                    next.position = position;
+                    moved.put(next, position);
+                }
+            }
+        }
+        moved.forEach(Ticket::notifyPosition);
+        started.forEach(t -> t.admission.complete(null));
+    }
+
+    private void start(Ticket ticket) {
+        running++;
+        if (ticket.user != null) {
+            runningByUser.merge(ticket.user, 1, Integer::sum);
+        }
+        ticket.position = 0;
+        ticket.startNanos = System.nanoTime();
+        long waited = ticket.startNanos - ticket.createdNanos;
+        admitted.increment();
+        waitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+    }
+
+    private boolean isUnderUserLimit(@Nullable String user) {
+        return user == null || runningByUser.getOrDefault(user, 0) < userConcurrency;
+    }
+
+    private long getAverageLaunchMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0L : TimeUnit.NANOSECONDS.toMillis(launchNanos.sum() / count);
+    }
+
+    // Time for the launches in the queue to start, one batch of concurrent launches after the other
+    private long getRetryAfterSeconds() {
+        long averageMillis = getAverageLaunchMillis();
+        if (averageMillis == 0) {
+            return DEFAULT_RETRY_AFTER_SECONDS;
+        }
+        long batches = queue.size() / concurrency + 1;
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(averageMillis * batches + 999));
+    }
+
+    /**
+     * A launch scheduled by the {@link LaunchScheduler}
+     */
+    public class Ticket {
+
+        private final String user;
+
+        private final IntConsumer positionListener;
+
+        private final CompletableFuture<Void> admission = new CompletableFuture<>();
+
+        private final long createdNanos = System.nanoTime();
+
+        private long startNanos;
+
+        // Position in the queue, 0 once started
+        private int position;
+
+        private boolean released;
+
+        private Ticket(String user, IntConsumer positionListener) {
+            this.user = user;
+            this.positionListener = positionListener;
+        }
+
+        /**
+         * @return completed once the launch may start
+         */
+        public CompletableFuture<Void> getAdmission() {
+            return admission;
+        }
+
+        /**
+         * Lets the next launch start, once this one is over or if it does not wait to start anymore
+         */
+        public void release() {
+            LaunchScheduler.this.release(this);
+        }
+
+        private void notifyPosition(int position) {
+            try {
+                positionListener.accept(position);
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "Error while notifying the position of a queued launch", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package io.fabric8.launcher.web.providers.launch;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Produces;
+
+import io.fabric8.launcher.core.spi.LaunchExecutor;
+import io.fabric8.launcher.core.spi.LaunchStepExecutor;
+import io.fabric8.launcher.core.spi.StatisticsProvider;
+
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_LAUNCH_CONCURRENCY;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_LAUNCH_THREADS;
+
+/**
+ * The threads running the launches, apart from the managed executor shared by the HTTP callbacks, the catalog and
+ * the housekeeping tasks.
+ *
+ * Every launch admitted by the {@link LaunchScheduler} takes a thread, so there are as many threads as launches
+ * running at the same time unless configured otherwise. Launches wait in a queue as large as the pool when every
+ * thread is busy, and are rejected beyond that.
+ *
+ * The steps a launch runs alongside itself (its OpenShift project creation) have a pool of the same size. The launch
+ * waits for them, so they are never queued: a step is rejected when no step thread is idle, and the launch then runs
+ * it on its own thread. Neither pool can thus wait for the other one.
+ */
+@ApplicationScoped
+public class LaunchThreadPool implements StatisticsProvider {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    @Resource
+    private ManagedThreadFactory managedThreadFactory;
+
+    private final int threads;
+
+    private ThreadPoolExecutor executor;
+
+    private ThreadPoolExecutor stepExecutor;
+
+    private final LongAdder submitted = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder dequeued = new LongAdder();
+
+    private final LongAdder queueNanos = new LongAdder();
+
+    private final AtomicLong maxQueueNanos = new AtomicLong();
+
+    private final LongAdder stepsRejected = new LongAdder();
+
+    public LaunchThreadPool() {
+        this(LAUNCHER_LAUNCH_THREADS.intValue(LAUNCHER_LAUNCH_CONCURRENCY.intValue(LaunchScheduler.DEFAULT_CONCURRENCY)));
+    }
+
+    //Visible for testing
+    LaunchThreadPool(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid number of launch threads: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    @PostConstruct
+    void start() {
+        start(managedThreadFactory);
+    }
+
+    //Visible for testing
+    void start(ThreadFactory threadFactory) {
+        executor = new InstrumentedExecutor(threads, threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        stepExecutor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                                              new SynchronousQueue<>(), threadFactory, (task, pool) -> {
+            stepsRejected.increment();
+            throw new RejectedExecutionException("No idle launch step thread");
+        });
+        stepExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        if (stepExecutor != null) {
+            stepExecutor.shutdown();
+        }
+    }
+
+    /**
+     * @return the executor running the launches
+     */
+    @Produces
+    @LaunchExecutor
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @return the executor running the steps of the launches alongside them, rejecting the steps it cannot start
+     * right away
+     */
+    @Produces
+    @LaunchStepExecutor
+    public ExecutorService getStepExecutor() {
+        return stepExecutor;
+    }
+
+    @Override
+    public String getStatisticsName() {
+        return "launchExecutor";
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long started = dequeued.sum();
+        stats.put("threads", threads);
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("largestPoolSize", executor.getLargestPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queuedTasks", executor.getQueue().size());
+        stats.put("submitted", submitted.sum());
+        stats.put("completed", executor.getCompletedTaskCount());
+        stats.put("rejected", rejected.sum());
+        stats.put("averageQueueMillis", started == 0 ? 0L : TimeUnit.NANOSECONDS.toMillis(queueNanos.sum() / started));
+        stats.put("maxQueueMillis", TimeUnit.NANOSECONDS.toMillis(maxQueueNanos.get()));
+        stats.put("activeStepThreads", stepExecutor.getActiveCount());
+        stats.put("completedSteps", stepExecutor.getCompletedTaskCount());
+        stats.put("stepsRunInline", stepsRejected.sum());
+        return stats;
+    }
+
+    /**
+     * Measures how long the tasks wait for a thread and counts the ones rejected
+     */
+    private class InstrumentedExecutor extends ThreadPoolExecutor {
+
+        InstrumentedExecutor(int threads, ThreadFactory threadFactory) {
+            super(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(threads), threadFactory);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            long queued = System.nanoTime();
+            try {
+                super.execute(() -> {
+                    long waited = System.nanoTime() - queued;
+                    dequeued.increment();
+                    queueNanos.add(waited);
+                    maxQueueNanos.accumulateAndGet(waited, Math::max);
+                    command.run();
+                });
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                throw e;
+            }
+            submitted.increment();
+        }
+    }
+}
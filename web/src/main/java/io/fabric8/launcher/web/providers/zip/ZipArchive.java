@@ -0,0 +1,130 @@
+package io.fabric8.launcher.web.providers.zip;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A finished zip archive held by the {@link ZipArchiveCache}, either in memory or spilled to disk.
+ *
+ * Every archive returned by {@link ZipArchiveCache#get} holds a reader reference, to be released with
+ * {@link #close()} once it was streamed. Disk-backed archives are only deleted once they were evicted and no reader
+ * holds them anymore.
+ */
+public final class ZipArchive implements Closeable {
+
+    private static final Logger log = Logger.getLogger(ZipArchive.class.getName());
+
+    private final byte[] contents;
+
+    private final Path file;
+
+    private final long size;
+
+    // Guarded by this
+    private int readers;
+
+    private boolean evicted;
+
+    private boolean deleted;
+
+    private ZipArchive(byte[] contents, Path file, long size) {
+        this.contents = contents;
+        this.file = file;
+        this.size = size;
+    }
+
+    static ZipArchive inMemory(byte[] contents) {
+        return new ZipArchive(contents, null, contents.length);
+    }
+
+    static ZipArchive onDisk(Path file, long size) {
+        return new ZipArchive(null, file, size);
+    }
+
+    /**
+     * @return the archive size in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    boolean isInMemory() {
+        return contents != null;
+    }
+
+    byte[] getContents() {
+        return contents;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Writes the archive contents to the given {@link OutputStream}
+     */
+    public void writeTo(OutputStream os) throws IOException {
+        if (contents != null) {
+            os.write(contents);
+        } else {
+            Files.copy(file, os);
+        }
+    }
+
+    /**
+     * Releases the reader reference taken by {@link ZipArchiveCache#get}
+     */
+    @Override
+    public void close() {
+        boolean delete;
+        synchronized (this) {
+            readers--;
+            delete = readers == 0 && evicted && file != null && !deleted;
+            deleted |= delete;
+        }
+        if (delete) {
+            deleteFile();
+        }
+    }
+
+    /**
+     * Takes a reader reference, keeping the file of this archive until it is released
+     *
+     * @return false if the file of this archive is deleted already
+     */
+    synchronized boolean acquire() {
+        if (deleted) {
+            return false;
+        }
+        readers++;
+        return true;
+    }
+
+    /**
+     * Marks this archive as no longer cached, releasing its file once the last reader is done
+     */
+    void evict() {
+        boolean delete;
+        synchronized (this) {
+            evicted = true;
+            delete = readers == 0 && file != null && !deleted;
+            deleted |= delete;
+        }
+        if (delete) {
+            deleteFile();
+        }
+    }
+
+    private void deleteFile() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Error while deleting cached archive " + file, e);
+        }
+    }
+}
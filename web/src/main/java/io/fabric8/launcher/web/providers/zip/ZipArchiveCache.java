@@ -0,0 +1,386 @@
+package io.fabric8.launcher.web.providers.zip;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import io.fabric8.launcher.base.Paths;
+import io.fabric8.launcher.booster.catalog.rhoar.AbstractCategory;
+import io.fabric8.launcher.core.api.catalog.BoosterCatalogFactory;
+import io.fabric8.launcher.core.api.documentation.BoosterDocumentationStore;
+import io.fabric8.launcher.core.api.projectiles.context.ZipProjectileContext;
+import io.fabric8.launcher.core.spi.DirectoryReaper;
+import io.fabric8.launcher.core.spi.StatisticsProvider;
+
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_ZIP_CACHE_DISK_SIZE;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_ZIP_CACHE_ENABLED;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_ZIP_CACHE_MEMORY_SIZE;
+
+/**
+ * Content-addressed cache of generated zip projects.
+ *
+ * Archives are keyed by a hash of the normalized {@link ZipProjectileContext} plus the catalog ref,
+ * built on disk, kept in memory when they fit the memory budget, spilled to disk once it is exhausted and finally
+ * evicted (LRU).
+ * Identical concurrent requests share a single build. The whole cache is invalidated when the catalog
+ * is reset or the documentation is reloaded.
+ */
+@ApplicationScoped
+public class ZipArchiveCache implements StatisticsProvider {
+
+    private static final Logger log = Logger.getLogger(ZipArchiveCache.class.getName());
+
+    private static final long DEFAULT_MEMORY_SIZE = 64L * 1024 * 1024;
+
+    private static final long DEFAULT_DISK_SIZE = 512L * 1024 * 1024;
+
+    private final Supplier<String> scopeSupplier;
+
+    private final DirectoryReaper reaper;
+
+    private final boolean enabled;
+
+    private final long maxMemoryBytes;
+
+    private final long maxDiskBytes;
+
+    // Access-ordered: iteration starts with the least recently used archive
+    private final LinkedHashMap<String, ZipArchive> archives = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final ConcurrentMap<String, CompletableFuture<ZipArchive>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder spills = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    // Guarded by this
+    private String scope;
+
+    private long memoryBytes;
+
+    private long diskBytes;
+
+    private Path spillDirectory;
+
+    @Inject
+    public ZipArchiveCache(BoosterCatalogFactory catalogFactory, BoosterDocumentationStore documentationStore, DirectoryReaper reaper) {
+        this(() -> catalogFactory.getCatalogRef() + ':' + catalogFactory.getGeneration() + ':' + documentationStore.getGeneration(),
+             reaper,
+             LAUNCHER_ZIP_CACHE_ENABLED.booleanValue(true),
+             LAUNCHER_ZIP_CACHE_MEMORY_SIZE.longValue(DEFAULT_MEMORY_SIZE),
+             LAUNCHER_ZIP_CACHE_DISK_SIZE.longValue(DEFAULT_DISK_SIZE));
+    }
+
+    //Visible for testing
+    ZipArchiveCache(Supplier<String> scopeSupplier, boolean enabled, long maxMemoryBytes, long maxDiskBytes) {
+        this(scopeSupplier, null, enabled, maxMemoryBytes, maxDiskBytes);
+    }
+
+    private ZipArchiveCache(Supplier<String> scopeSupplier, DirectoryReaper reaper, boolean enabled, long maxMemoryBytes, long maxDiskBytes) {
+        this.scopeSupplier = scopeSupplier;
+        this.reaper = reaper;
+        this.enabled = enabled;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxDiskBytes = maxDiskBytes;
+    }
+
+    /**
+     * no-args constructor used by CDI for proxying only
+     * but is subsequently replaced with an instance
+     * created using the above constructor.
+     *
+     * @deprecated do not use this constructor
+     */
+    @Deprecated
+    protected ZipArchiveCache() {
+        this.scopeSupplier = null;
+        this.reaper = null;
+        this.enabled = false;
+        this.maxMemoryBytes = 0;
+        this.maxDiskBytes = 0;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached archive for the given context, building it with the given {@link ArchiveWriter} on a miss.
+     * Concurrent calls for the same context wait for the build already in progress.
+     *
+     * The returned archive holds a reader reference, {@link ZipArchive#close() close} it once it was streamed.
+     */
+    public ZipArchive get(ZipProjectileContext context, ArchiveWriter writer) throws IOException {
+        String currentScope = scopeSupplier.get();
+        String key = key(currentScope, context);
+        while (true) {
+            ZipArchive archive = lookup(currentScope, key);
+            if (archive != null) {
+                hits.increment();
+                return archive;
+            }
+            CompletableFuture<ZipArchive> future = new CompletableFuture<>();
+            CompletableFuture<ZipArchive> existing = inFlight.putIfAbsent(key, future);
+            if (existing != null) {
+                coalesced.increment();
+                archive = await(existing);
+                if (archive.acquire()) {
+                    return archive;
+                }
+                // Evicted and deleted before this request could read it
+                continue;
+            }
+            try {
+                // Another request may have finished the same build in the meantime
+                archive = lookup(currentScope, key);
+                if (archive != null) {
+                    hits.increment();
+                } else {
+                    misses.increment();
+                    archive = build(writer);
+                    archive.acquire();
+                    store(currentScope, key, archive);
+                }
+                future.complete(archive);
+                return archive;
+            } catch (IOException | RuntimeException e) {
+                if (archive != null) {
+                    archive.close();
+                }
+                future.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, future);
+            }
+        }
+    }
+
+    /**
+     * Drops every cached archive
+     */
+    public synchronized void invalidateAll() {
+        for (ZipArchive archive : archives.values()) {
+            archive.evict();
+        }
+        archives.clear();
+        memoryBytes = 0;
+        diskBytes = 0;
+    }
+
+    @PreDestroy
+    synchronized void destroy() {
+        invalidateAll();
+        if (spillDirectory != null && reaper != null) {
+            reaper.delete(spillDirectory);
+        } else if (spillDirectory != null) {
+            try {
+                Paths.deleteDirectory(spillDirectory);
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Error while deleting " + spillDirectory, e);
+            }
+        }
+    }
+
+    @Override
+    public String getStatisticsName() {
+        return "zipCache";
+    }
+
+    @Override
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("spills", spills.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("entries", archives.size());
+        stats.put("memoryBytes", memoryBytes);
+        stats.put("diskBytes", diskBytes);
+        stats.put("maxMemoryBytes", maxMemoryBytes);
+        stats.put("maxDiskBytes", maxDiskBytes);
+        return stats;
+    }
+
+    private synchronized ZipArchive lookup(String currentScope, String key) {
+        if (!Objects.equals(scope, currentScope)) {
+            if (scope != null) {
+                log.log(Level.INFO, "Catalog or documentation changed, invalidating {0} cached archives", archives.size());
+            }
+            invalidateAll();
+            scope = currentScope;
+        }
+        ZipArchive archive = archives.get(key);
+        // Taken before releasing the lock, so that the archive cannot be deleted before it is streamed
+        if (archive != null && !archive.acquire()) {
+            archive = null;
+        }
+        return archive;
+    }
+
+    private synchronized void store(String currentScope, String key, ZipArchive archive) throws IOException {
+        // Do not cache archives built against a catalog that was reset in the meantime, nor the ones too large
+        if (!Objects.equals(scope, currentScope) || archive.getSize() > maxDiskBytes) {
+            // Deleted once streamed
+            archive.evict();
+            return;
+        }
+        ZipArchive previous = archives.put(key, archive);
+        if (previous != null) {
+            release(previous);
+        }
+        account(archive, 1);
+        trim();
+    }
+
+    /**
+     * Spills least recently used in-memory archives to disk and evicts the least recently used ones from disk
+     * until both budgets are respected
+     */
+    private void trim() throws IOException {
+        Iterator<Map.Entry<String, ZipArchive>> it = archives.entrySet().iterator();
+        while (memoryBytes > maxMemoryBytes && it.hasNext()) {
+            Map.Entry<String, ZipArchive> entry = it.next();
+            ZipArchive archive = entry.getValue();
+            if (archive.isInMemory()) {
+                account(archive, -1);
+                ZipArchive spilled = spill(archive);
+                entry.setValue(spilled);
+                account(spilled, 1);
+            }
+        }
+        it = archives.entrySet().iterator();
+        while (diskBytes > maxDiskBytes && it.hasNext()) {
+            ZipArchive archive = it.next().getValue();
+            if (!archive.isInMemory()) {
+                it.remove();
+                release(archive);
+                evictions.increment();
+            }
+        }
+    }
+
+    private ZipArchive spill(ZipArchive archive) throws IOException {
+        Path file = Files.createTempFile(spillDirectory(), "archive", ".zip");
+        Files.write(file, archive.getContents());
+        spills.increment();
+        return ZipArchive.onDisk(file, archive.getSize());
+    }
+
+    private void release(ZipArchive archive) {
+        account(archive, -1);
+        archive.evict();
+    }
+
+    private void account(ZipArchive archive, int sign) {
+        if (archive.isInMemory()) {
+            memoryBytes += sign * archive.getSize();
+        } else {
+            diskBytes += sign * archive.getSize();
+        }
+    }
+
+    private synchronized Path spillDirectory() throws IOException {
+        if (spillDirectory == null) {
+            spillDirectory = reaper != null ? reaper.createCacheDirectory("zip-cache") : Files.createTempDirectory("zip-cache");
+        }
+        return spillDirectory;
+    }
+
+    /**
+     * Builds the archive on disk, so that large archives are never held in memory. Archives fitting the memory
+     * budget are then read back once.
+     */
+    private ZipArchive build(ArchiveWriter writer) throws IOException {
+        Path file = Files.createTempFile(spillDirectory(), "archive", ".zip");
+        try {
+            try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(file))) {
+                writer.write(os);
+            }
+            long size = Files.size(file);
+            if (size > maxMemoryBytes) {
+                return ZipArchive.onDisk(file, size);
+            }
+            byte[] contents = Files.readAllBytes(file);
+            Files.delete(file);
+            return ZipArchive.inMemory(contents);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private static ZipArchive await(CompletableFuture<ZipArchive> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    //Visible for testing
+    static String key(String scope, ZipProjectileContext context) {
+        StringBuilder sb = new StringBuilder(scope);
+        for (String value : new String[]{
+                id(context.getMission()), id(context.getRuntime()), id(context.getRuntimeVersion()),
+                context.getGroupId(), context.getArtifactId(), context.getProjectVersion(), context.getProjectName()}) {
+            sb.append('\n').append(Objects.toString(value, ""));
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String id(AbstractCategory category) {
+        return category == null ? null : category.getId();
+    }
+
+    /**
+     * Writes a zip archive to the given {@link OutputStream}
+     */
+    @FunctionalInterface
+    public interface ArchiveWriter {
+        void write(OutputStream os) throws IOException;
+    }
+}
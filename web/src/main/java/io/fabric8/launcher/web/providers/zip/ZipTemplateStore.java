@@ -0,0 +1,290 @@
+package io.fabric8.launcher.web.providers.zip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import io.fabric8.launcher.base.zip.ParallelZipWriter;
+import io.fabric8.launcher.base.zip.ZipTemplate;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import io.fabric8.launcher.core.api.catalog.BoosterCatalogFactory;
+import io.fabric8.launcher.core.api.catalog.CatalogIndexedEvent;
+import io.fabric8.launcher.core.api.projectiles.context.ZipProjectileContext;
+import io.fabric8.launcher.core.spi.StatisticsProvider;
+
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_ZIP_PARALLEL_THRESHOLD;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_ZIP_TEMPLATES_ENABLED;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_ZIP_TEMPLATES_SIZE;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_ZIP_THREADS;
+
+/**
+ * Holds a precompressed {@link ZipTemplate} per booster, so that zipping a prepared project only deflates
+ * the files the preparers changed.
+ *
+ * Templates are built for the fetched boosters of every catalog generation once it is indexed, and for the other
+ * boosters the first time they are zipped. They are dropped when the catalog is reset, and kept in memory up to
+ * {@code LAUNCHER_ZIP_TEMPLATES_SIZE} bytes, the least recently used ones being dropped first. Building them upfront
+ * stops once that size is reached.
+ * Templates are built, and projects without a template are compressed, by a {@link ParallelZipWriter} running on
+ * a pool of {@code LAUNCHER_ZIP_THREADS} threads dedicated to compression.
+ */
+@ApplicationScoped
+public class ZipTemplateStore implements StatisticsProvider {
+
+    private static final Logger log = Logger.getLogger(ZipTemplateStore.class.getName());
+
+    private static final long DEFAULT_PARALLEL_THRESHOLD = 1024L * 1024;
+
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final BoosterCatalogFactory catalogFactory;
+
+    private final boolean enabled;
+
+    private final ForkJoinPool pool;
+
+    private final ParallelZipWriter parallelZipWriter;
+
+    private final long maxBytes;
+
+    // Access ordered, guarded by this
+    private final LinkedHashMap<Path, CompletableFuture<ZipTemplate>> templates = new LinkedHashMap<>(16, 0.75f, true);
+
+    // The compressed size of the built templates, guarded by this
+    private long templateBytes;
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder splicedArchives = new LongAdder();
+
+    private final LongAdder deflatedArchives = new LongAdder();
+
+    private final LongAdder reusedEntries = new LongAdder();
+
+    private final LongAdder prebuiltTemplates = new LongAdder();
+
+    private volatile long generation = -1;
+
+    @Inject
+    public ZipTemplateStore(BoosterCatalogFactory catalogFactory) {
+        this(catalogFactory, LAUNCHER_ZIP_TEMPLATES_ENABLED.booleanValue(true),
+             newPool(LAUNCHER_ZIP_THREADS.intValue(Math.max(1, Runtime.getRuntime().availableProcessors() - 1))),
+             LAUNCHER_ZIP_PARALLEL_THRESHOLD.longValue(DEFAULT_PARALLEL_THRESHOLD),
+             LAUNCHER_ZIP_TEMPLATES_SIZE.longValue(DEFAULT_MAX_BYTES));
+    }
+
+    //Visible for testing
+    ZipTemplateStore(BoosterCatalogFactory catalogFactory, boolean enabled, ForkJoinPool pool, long parallelThreshold, long maxBytes) {
+        this.catalogFactory = catalogFactory;
+        this.enabled = enabled;
+        this.pool = pool;
+        this.parallelZipWriter = new ParallelZipWriter(pool, parallelThreshold);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * no-args constructor used by CDI for proxying only
+     * but is subsequently replaced with an instance
+     * created using the above constructor.
+     *
+     * @deprecated do not use this constructor
+     */
+    @Deprecated
+    protected ZipTemplateStore() {
+        this.catalogFactory = null;
+        this.enabled = false;
+        this.pool = null;
+        this.parallelZipWriter = null;
+        this.maxBytes = 0;
+    }
+
+    /**
+     * Zips the project prepared for the given context, reusing the precompressed booster files when possible
+     *
+     * @param context         the context the project was prepared for
+     * @param root            the root directory to be used
+     * @param projectLocation the prepared project directory
+     * @param os              the {@link OutputStream} which the zip operation will be written to
+     * @throws IOException if any I/O error happens
+     */
+    public void zip(ZipProjectileContext context, String root, Path projectLocation, OutputStream os) throws IOException {
+        ZipTemplate template = enabled ? getTemplate(context) : null;
+        if (template == null) {
+            deflatedArchives.increment();
+            parallelZipWriter.zip(root, projectLocation, os);
+        } else {
+            splicedArchives.increment();
+            reusedEntries.add(template.writeTo(root, projectLocation, os));
+        }
+    }
+
+    /**
+     * Builds the templates of the fetched boosters of the indexed catalog in the background
+     */
+    public void onIndexed(@Observes CatalogIndexedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long indexedGeneration = event.getGeneration();
+        clearIfStale(indexedGeneration);
+        List<Path> contentPaths = new ArrayList<>();
+        for (RhoarBooster booster : event.getIndex().getBoosters(null, Collections.emptyMap())) {
+            Path contentPath = booster.getContentPath();
+            // The boosters of the first catalog may not be fetched yet
+            if (contentPath != null && Files.isDirectory(contentPath)) {
+                contentPaths.add(contentPath);
+            }
+        }
+        pool.execute(() -> {
+            for (Path contentPath : contentPaths) {
+                synchronized (this) {
+                    if (generation != indexedGeneration || templateBytes >= maxBytes) {
+                        return;
+                    }
+                }
+                if (getTemplate(contentPath) != null) {
+                    prebuiltTemplates.increment();
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    @Override
+    public String getStatisticsName() {
+        return "zipTemplates";
+    }
+
+    @Override
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        int count = 0;
+        for (CompletableFuture<ZipTemplate> future : templates.values()) {
+            if (future.getNow(null) != null) {
+                count++;
+            }
+        }
+        stats.put("enabled", enabled);
+        stats.put("templates", count);
+        stats.put("templateBytes", templateBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("evictions", evictions.sum());
+        stats.put("threads", pool.getParallelism());
+        stats.put("activeThreads", pool.getActiveThreadCount());
+        stats.put("splicedArchives", splicedArchives.sum());
+        stats.put("deflatedArchives", deflatedArchives.sum());
+        stats.put("reusedEntries", reusedEntries.sum());
+        stats.put("prebuiltTemplates", prebuiltTemplates.sum());
+        return stats;
+    }
+
+    private ZipTemplate getTemplate(ZipProjectileContext context) {
+        clearIfStale(catalogFactory.getGeneration());
+        Path contentPath = catalogFactory.getBoosterCatalogIndex()
+                .getBooster(context.getMission(), context.getRuntime(), context.getRuntimeVersion())
+                .map(RhoarBooster::getContentPath)
+                .orElse(null);
+        if (contentPath == null) {
+            return null;
+        }
+        return getTemplate(contentPath);
+    }
+
+    /**
+     * Drops the templates of the previous catalog generations
+     */
+    private void clearIfStale(long currentGeneration) {
+        if (generation != currentGeneration) {
+            synchronized (this) {
+                if (generation != currentGeneration) {
+                    templates.clear();
+                    templateBytes = 0;
+                    generation = currentGeneration;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the template of the given booster contents, built on the first call, or null if another request
+     * is building it or if it could not be built
+     */
+    //Visible for testing
+    ZipTemplate getTemplate(Path contentPath) {
+        CompletableFuture<ZipTemplate> future = new CompletableFuture<>();
+        synchronized (this) {
+            CompletableFuture<ZipTemplate> existing = templates.putIfAbsent(contentPath, future);
+            if (existing != null) {
+                // Do not wait for a template being built by another request, deflating directly is as fast
+                return existing.getNow(null);
+            }
+        }
+        ZipTemplate template;
+        try {
+            template = parallelZipWriter.template(contentPath);
+            log.log(Level.FINE, "Built zip template for {0}: {1} entries", new Object[]{contentPath, template.getEntryCount()});
+        } catch (IOException | RuntimeException e) {
+            log.log(Level.WARNING, "Could not build zip template for " + contentPath, e);
+            template = null;
+        }
+        store(contentPath, future, template);
+        future.complete(template);
+        return template;
+    }
+
+    /**
+     * Accounts for the built template, then drops the least recently used templates beyond the maximum size
+     */
+    private synchronized void store(Path contentPath, CompletableFuture<ZipTemplate> future, ZipTemplate template) {
+        // The catalog may have been reset while the template was built
+        if (templates.get(contentPath) != future) {
+            return;
+        }
+        if (template == null || template.getCompressedSize() > maxBytes) {
+            templates.remove(contentPath);
+            return;
+        }
+        templateBytes += template.getCompressedSize();
+        for (Iterator<Map.Entry<Path, CompletableFuture<ZipTemplate>>> it = templates.entrySet().iterator();
+             templateBytes > maxBytes && it.hasNext(); ) {
+            Map.Entry<Path, CompletableFuture<ZipTemplate>> entry = it.next();
+            ZipTemplate eldest = entry.getKey().equals(contentPath) ? null : entry.getValue().getNow(null);
+            // Templates still being built are accounted for once they are stored
+            if (eldest != null) {
+                it.remove();
+                templateBytes -= eldest.getCompressedSize();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static ForkJoinPool newPool(int threads) {
+        return new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("zip-worker-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+}
@@ -0,0 +1,104 @@
+package io.fabric8.launcher.web.providers.zip;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import io.fabric8.launcher.base.Paths;
+import io.fabric8.launcher.base.zip.ZipLimitExceededException;
+import io.fabric8.launcher.base.zip.ZipLimits;
+import io.fabric8.launcher.core.spi.StatisticsProvider;
+
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_UPLOAD_MAX_BYTES;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_UPLOAD_MAX_ENTRIES;
+import static io.fabric8.launcher.web.WebEnvVarSysPropNames.LAUNCHER_UPLOAD_MAX_RATIO;
+
+/**
+ * Extracts uploaded projects straight from the request stream, enforcing the configured {@link ZipLimits}
+ * so that a single upload cannot fill the temporary disk
+ */
+@ApplicationScoped
+public class ZipUploadExtractor implements StatisticsProvider {
+
+    private static final Logger log = Logger.getLogger(ZipUploadExtractor.class.getName());
+
+    private static final long DEFAULT_MAX_BYTES = 100L * 1024 * 1024;
+
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private static final int DEFAULT_MAX_RATIO = 100;
+
+    private final ZipLimits limits;
+
+    private final LongAdder uploads = new LongAdder();
+
+    private final LongAdder rejectedUploads = new LongAdder();
+
+    private final LongAdder extractedBytes = new LongAdder();
+
+    private final LongAdder extractionNanos = new LongAdder();
+
+    public ZipUploadExtractor() {
+        this(new ZipLimits(LAUNCHER_UPLOAD_MAX_BYTES.longValue(DEFAULT_MAX_BYTES),
+                           LAUNCHER_UPLOAD_MAX_ENTRIES.intValue(DEFAULT_MAX_ENTRIES),
+                           LAUNCHER_UPLOAD_MAX_RATIO.intValue(DEFAULT_MAX_RATIO)));
+    }
+
+    //Visible for testing
+    ZipUploadExtractor(ZipLimits limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Unzips the uploaded archive into the given directory
+     *
+     * @param is        the uploaded zip contents
+     * @param outputDir the output directory
+     * @throws ZipLimitExceededException if the archive exceeds the configured limits
+     * @throws IOException               if the archive could not be read
+     */
+    public void extract(InputStream is, Path outputDir) throws IOException {
+        long start = System.nanoTime();
+        try {
+            long bytes = Paths.unzip(is, outputDir, limits);
+            long elapsed = System.nanoTime() - start;
+            uploads.increment();
+            extractedBytes.add(bytes);
+            extractionNanos.add(elapsed);
+            log.log(Level.FINE, "Upload of {0} bytes extracted in {1}ms", new Object[]{bytes, TimeUnit.NANOSECONDS.toMillis(elapsed)});
+        } catch (ZipLimitExceededException e) {
+            rejectedUploads.increment();
+            log.log(Level.WARNING, "Upload rejected: {0}", e.getMessage());
+            throw e;
+        }
+    }
+
+    @Override
+    public String getStatisticsName() {
+        return "uploads";
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long bytes = extractedBytes.sum();
+        long millis = TimeUnit.NANOSECONDS.toMillis(extractionNanos.sum());
+        stats.put("uploads", uploads.sum());
+        stats.put("rejectedUploads", rejectedUploads.sum());
+        stats.put("extractedBytes", bytes);
+        stats.put("extractionMillis", millis);
+        stats.put("bytesPerSecond", millis == 0 ? 0L : bytes * 1000 / millis);
+        stats.put("maxBytes", limits.getMaxBytes());
+        stats.put("maxEntries", limits.getMaxEntries());
+        stats.put("maxRatio", limits.getMaxRatio());
+        return stats;
+    }
+}
@@ -27,6 +27,7 @@ import org.junit.runner.RunWith;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
 
 @RunWith(Arquillian.class)
 @RunAsClient
@@ -59,4 +60,22 @@ public class BoosterCatalogEndpointIT extends BaseResourceIT {
                 .body("missions", not(empty()));
     }
 
+    @Test
+    public void shouldRespondNotModifiedWhenETagMatches() {
+        String etag = given()
+                .spec(configureEndpoint())
+                .when()
+                .get("/")
+                .then()
+                .assertThat().statusCode(200)
+                .header("ETag", notNullValue())
+                .extract().header("ETag");
+        given()
+                .spec(configureEndpoint())
+                .header("If-None-Match", etag)
+                .when()
+                .get("/")
+                .then()
+                .assertThat().statusCode(304);
+    }
 }
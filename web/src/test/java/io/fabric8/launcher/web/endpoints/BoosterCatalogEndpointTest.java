@@ -0,0 +1,27 @@
+package io.fabric8.launcher.web.endpoints;
+
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static io.fabric8.launcher.web.endpoints.BoosterCatalogEndpoint.acceptsGzip;
+
+public class BoosterCatalogEndpointTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Test
+    public void shouldHonorTheQualityOfTheAcceptedEncodings() {
+        softly.assertThat(acceptsGzip(null)).isFalse();
+        softly.assertThat(acceptsGzip("identity")).isFalse();
+        softly.assertThat(acceptsGzip("gzip")).isTrue();
+        softly.assertThat(acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+        softly.assertThat(acceptsGzip("gzip;q=0")).isFalse();
+        softly.assertThat(acceptsGzip("gzip; q=0.0, identity")).isFalse();
+        softly.assertThat(acceptsGzip("*")).isTrue();
+        softly.assertThat(acceptsGzip("*;q=0")).isFalse();
+        softly.assertThat(acceptsGzip("gzip;q=0, *")).isFalse();
+        softly.assertThat(acceptsGzip("gzip, *;q=0")).isTrue();
+    }
+}
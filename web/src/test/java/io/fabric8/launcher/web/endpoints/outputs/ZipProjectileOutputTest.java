@@ -0,0 +1,92 @@
+package io.fabric8.launcher.web.endpoints.outputs;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class ZipProjectileOutputTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldStreamZipAndCleanupProjectLocation() throws IOException {
+        // GIVEN
+        Path projectLocation = temporaryFolder.newFolder().toPath();
+        Files.write(projectLocation.resolve("pom.xml"), "<project/>".getBytes());
+        AtomicReference<Path> reaped = new AtomicReference<>();
+        ZipProjectileOutput output = new ZipProjectileOutput("demo", projectLocation, reaped::set, System.nanoTime());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        // WHEN
+        output.write(baos);
+
+        // THEN
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                entries.add(entry.getName());
+            }
+        }
+        assertThat(entries).anyMatch(name -> name.endsWith("pom.xml"));
+        assertThat(reaped.get()).isEqualTo(projectLocation);
+    }
+
+    @Test
+    public void shouldCleanupProjectLocationWhenClientAborts() throws IOException {
+        // GIVEN
+        Path projectLocation = temporaryFolder.newFolder().toPath();
+        Files.write(projectLocation.resolve("pom.xml"), "<project/>".getBytes());
+        AtomicReference<Path> reaped = new AtomicReference<>();
+        ZipProjectileOutput output = new ZipProjectileOutput("demo", projectLocation, reaped::set, System.nanoTime());
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // WHEN
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> output.write(broken));
+
+        // THEN
+        assertThat(reaped.get()).isEqualTo(projectLocation);
+    }
+
+    @Test
+    public void shouldReleaseAPrebuiltArchiveWhenClientAborts() {
+        // GIVEN
+        AtomicBoolean released = new AtomicBoolean();
+        ZipProjectileOutput output = new ZipProjectileOutput("demo", os -> os.write(new byte[]{'P', 'K'}),
+                                                             () -> released.set(true), System.nanoTime());
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // WHEN
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> output.write(broken));
+
+        // THEN
+        assertThat(released).isTrue();
+    }
+}
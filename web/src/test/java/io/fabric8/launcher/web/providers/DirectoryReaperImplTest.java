@@ -0,0 +1,189 @@
+package io.fabric8.launcher.web.providers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class DirectoryReaperImplTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldDeleteOrphansAtStartup() throws IOException {
+        // GIVEN
+        Path root = temporaryFolder.newFolder().toPath();
+        Path orphan = Files.createDirectories(root.resolve("tmp").resolve("projectDir123"));
+
+        // WHEN
+        DirectoryReaperImpl reaper = new DirectoryReaperImpl(root, Long.MAX_VALUE, Long.MAX_VALUE, 0, 0);
+        reaper.start();
+
+        // THEN
+        assertThat(orphan).doesNotExist();
+        assertThat(reaper.createTempDirectory("projectDir")).startsWith(root);
+    }
+
+    @Test
+    public void shouldTrackLiveBytesAndReapLatency() throws IOException {
+        // GIVEN
+        DirectoryReaperImpl reaper = new DirectoryReaperImpl(temporaryFolder.newFolder().toPath(), Long.MAX_VALUE, Long.MAX_VALUE, 0, 0);
+        reaper.start();
+        Path directory = reaper.createTempDirectory("projectDir");
+        Files.write(directory.resolve("pom.xml"), new byte[100]);
+        reaper.sweep();
+        assertThat(reaper.getStatistics()).containsEntry("liveBytes", 100L).containsEntry("scratchDirectories", 1);
+
+        // WHEN
+        reaper.delete(directory);
+
+        // THEN
+        assertThat(directory).doesNotExist();
+        assertThat(reaper.getStatistics())
+                .containsEntry("liveBytes", 0L)
+                .containsEntry("scratchDirectories", 0)
+                .containsEntry("reaped", 1L)
+                .containsEntry("pendingReaps", 0L);
+    }
+
+    @Test
+    public void shouldSweepExpiredDirectories() throws IOException {
+        // GIVEN
+        Path root = temporaryFolder.newFolder().toPath();
+        DirectoryReaperImpl reaper = new DirectoryReaperImpl(root, Long.MAX_VALUE, TimeUnit.MINUTES.toMillis(1), 0, 0);
+        reaper.start();
+        Path live = reaper.createTempDirectory("projectDir");
+        Path leftover = Files.createDirectories(root.resolve("tmp").resolve("leftover"));
+        Files.setLastModifiedTime(leftover, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1)));
+
+        // WHEN
+        reaper.sweep();
+
+        // THEN
+        assertThat(live).exists();
+        assertThat(leftover).doesNotExist();
+        assertThat(reaper.getStatistics()).containsEntry("swept", 1L);
+    }
+
+    @Test
+    public void shouldRejectWhenQuotaIsExhausted() throws IOException {
+        // GIVEN
+        DirectoryReaperImpl reaper = new DirectoryReaperImpl(temporaryFolder.newFolder().toPath(), 10, Long.MAX_VALUE, 0, 50);
+        reaper.start();
+        Path directory = reaper.createTempDirectory("projectDir");
+        Files.write(directory.resolve("pom.xml"), new byte[100]);
+        reaper.sweep();
+
+        // WHEN
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> reaper.createTempDirectory("projectDir"));
+        reaper.delete(directory);
+
+        // THEN
+        assertThat(reaper.createTempDirectory("projectDir")).exists();
+        assertThat(reaper.getStatistics()).containsEntry("quotaRejections", 1L);
+    }
+
+    @Test
+    public void shouldReserveTheExpectedBytesWithoutWaitingForTheSweep() throws IOException {
+        // GIVEN
+        DirectoryReaperImpl reaper = new DirectoryReaperImpl(temporaryFolder.newFolder().toPath(), 100, Long.MAX_VALUE, 0, 50);
+        reaper.start();
+        Path first = reaper.createTempDirectory("projectDir", 60);
+
+        // WHEN
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> reaper.createTempDirectory("projectDir", 60));
+        reaper.delete(first);
+
+        // THEN
+        assertThat(reaper.createTempDirectory("projectDir", 60)).exists();
+        assertThat(reaper.getStatistics())
+                .containsEntry("liveBytes", 60L)
+                .containsEntry("quotaRejections", 1L);
+    }
+
+    @Test
+    public void shouldNotCountCacheDirectoriesTowardsTheQuota() throws IOException {
+        // GIVEN
+        DirectoryReaperImpl reaper = new DirectoryReaperImpl(temporaryFolder.newFolder().toPath(), 10, Long.MAX_VALUE, 0, 0);
+        reaper.start();
+        Path cache = reaper.createCacheDirectory("zips");
+        Files.write(cache.resolve("archive.zip"), new byte[100]);
+
+        // WHEN
+        reaper.sweep();
+
+        // THEN
+        assertThat(reaper.createTempDirectory("projectDir")).exists();
+        assertThat(reaper.getStatistics())
+                .containsEntry("liveBytes", 0L)
+                .containsEntry("cacheBytes", 100L);
+    }
+
+    @Test
+    public void shouldNotMeasureHardLinkedFilesTwice() throws IOException {
+        // GIVEN
+        DirectoryReaperImpl reaper = new DirectoryReaperImpl(temporaryFolder.newFolder().toPath(), Long.MAX_VALUE, Long.MAX_VALUE, 0, 0);
+        reaper.start();
+        Path cache = reaper.createCacheDirectory("booster-catalog");
+        Files.write(cache.resolve("pom.xml"), new byte[100]);
+        Path directory = reaper.createTempDirectory("projectDir");
+        Files.createLink(directory.resolve("pom.xml"), cache.resolve("pom.xml"));
+        Files.write(directory.resolve("README.adoc"), new byte[10]);
+
+        // WHEN
+        reaper.sweep();
+
+        // THEN
+        assertThat(reaper.getStatistics())
+                .containsEntry("liveBytes", 10L)
+                .containsEntry("cacheBytes", 100L);
+    }
+
+    @Test
+    public void shouldRefuseMemoryDirectoriesBeyondTheMemoryQuota() throws IOException {
+        // GIVEN
+        Path memoryRoot = temporaryFolder.newFolder().toPath();
+        Path orphan = Files.createDirectories(memoryRoot.resolve("launcher-workspaces").resolve("projectDir123"));
+        DirectoryReaperImpl reaper = new DirectoryReaperImpl(temporaryFolder.newFolder().toPath(), memoryRoot, Long.MAX_VALUE, 100, Long.MAX_VALUE, 0, 0);
+        reaper.start();
+        Path first = reaper.createMemoryDirectory("projectDir", 60);
+
+        // WHEN
+        Path second = reaper.createMemoryDirectory("projectDir", 60);
+        reaper.delete(first);
+
+        // THEN
+        assertThat(orphan).doesNotExist();
+        assertThat(first).doesNotExist();
+        assertThat(first.getParent()).isEqualTo(memoryRoot.resolve("launcher-workspaces"));
+        assertThat(second).isNull();
+        assertThat(reaper.createMemoryDirectory("projectDir", 60)).exists();
+        assertThat(reaper.getStatistics())
+                .containsEntry("memoryLiveBytes", 60L)
+                .containsEntry("liveBytes", 0L)
+                .containsEntry("memoryRejections", 1L);
+    }
+
+    @Test
+    public void shouldRefuseMemoryDirectoriesWithoutMemoryFilesystem() throws IOException {
+        // GIVEN
+        DirectoryReaperImpl reaper = new DirectoryReaperImpl(temporaryFolder.newFolder().toPath(), Long.MAX_VALUE, Long.MAX_VALUE, 0, 0);
+        reaper.start();
+
+        // WHEN
+        Path directory = reaper.createMemoryDirectory("projectDir", 0);
+
+        // THEN
+        assertThat(directory).isNull();
+        assertThat(reaper.getStatistics()).containsEntry("memoryRoot", null);
+    }
+}
@@ -0,0 +1,208 @@
+package io.fabric8.launcher.web.providers.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.fabric8.launcher.base.JsonUtils;
+import io.fabric8.launcher.booster.catalog.rhoar.Mission;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBoosterCatalog;
+import io.fabric8.launcher.booster.catalog.rhoar.Runtime;
+import io.fabric8.launcher.booster.catalog.rhoar.Version;
+import io.fabric8.launcher.core.api.catalog.BoosterCatalogFactory;
+import io.fabric8.launcher.core.api.catalog.BoosterCatalogIndex;
+import io.fabric8.launcher.core.api.catalog.CatalogIndexedEvent;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CatalogHistoryTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    private final FakeCatalogFactory catalogFactory = new FakeCatalogFactory();
+
+    private final CatalogHistory history = new CatalogHistory(catalogFactory, 2);
+
+    @Test
+    public void shouldWriteTheChangesSinceAKnownGeneration() throws IOException {
+        // GIVEN
+        List<RhoarBooster> boosters = new ArrayList<>(CatalogJsonWriterTest.boosters(20));
+        catalogFactory.boosters = boosters;
+        indexed();
+        List<RhoarBooster> next = new ArrayList<>(boosters);
+        // booster-3 is renamed, booster-5 is gone and booster-20 is new, in a new runtime
+        next.set(3, copy(boosters.get(3), "name", "Renamed"));
+        next.remove(5);
+        RhoarBooster added = copy(boosters.get(0), "name", "New");
+        added.setId("booster-20");
+        added.setRuntime(new Runtime("runtime-new", "New runtime", null, new LinkedHashMap<>(), "new.svg"));
+        next.add(added);
+        catalogFactory.reset(next);
+        indexed();
+
+        // WHEN
+        Optional<CatalogDelta> delta = history.since(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CatalogJsonWriter.writeCatalog(next, CatalogFields.ALL, delta.orElse(null), out);
+
+        // THEN
+        assertThat(delta).isPresent();
+        JsonNode json = JsonUtils.readTree(new String(out.toByteArray(), UTF_8));
+        softly.assertThat(json.get("since").asLong()).isEqualTo(1);
+        softly.assertThat(values(json.get("boosters"), "name")).containsExactly("Renamed", "New");
+        // runtime-1 is untouched
+        softly.assertThat(values(json.get("runtimes"), "id")).containsExactly("runtime-new", "runtime-0");
+        softly.assertThat(values(json.get("missions"), "id")).containsExactly("mission-0", "mission-3", "mission-5");
+        softly.assertThat(json.get("removed").get("boosters").toString())
+                .isEqualTo("[{\"mission\":\"mission-5\",\"runtime\":\"runtime-0\",\"version\":\"version-0\"}]");
+        softly.assertThat(json.get("removed").get("runtimes")).isEmpty();
+        softly.assertThat(json.get("removed").get("missions")).isEmpty();
+    }
+
+    @Test
+    public void shouldForgetTheOldestGenerations() {
+        // GIVEN
+        catalogFactory.boosters = CatalogJsonWriterTest.boosters(5);
+        indexed();
+        catalogFactory.reset(CatalogJsonWriterTest.boosters(6));
+        indexed();
+        catalogFactory.reset(CatalogJsonWriterTest.boosters(7));
+        indexed();
+
+        // WHEN
+        Optional<CatalogDelta> oldest = history.since(1);
+        Optional<CatalogDelta> previous = history.since(2);
+        Optional<CatalogDelta> current = history.since(3);
+
+        // THEN
+        softly.assertThat(oldest).isEmpty();
+        softly.assertThat(previous).isPresent();
+        softly.assertThat(current).isPresent();
+        softly.assertThat(history.getStatistics()).containsEntry("deltas", 2L).containsEntry("unknownGenerations", 1L);
+    }
+
+    @Test
+    public void shouldNotWriteTheChangesUntilTheCurrentGenerationIsIndexed() {
+        // GIVEN
+        catalogFactory.boosters = CatalogJsonWriterTest.boosters(5);
+        indexed();
+        catalogFactory.reset(CatalogJsonWriterTest.boosters(6));
+
+        // WHEN
+        Optional<CatalogDelta> delta = history.since(1);
+
+        // THEN
+        softly.assertThat(delta).isEmpty();
+        softly.assertThat(history.getStatistics()).containsEntry("generations", Collections.singleton(1L));
+    }
+
+    private void indexed() {
+        history.onIndexed(new CatalogIndexedEvent(catalogFactory.getGeneration(), catalogFactory));
+    }
+
+    private static List<String> values(JsonNode array, String field) {
+        List<String> values = new ArrayList<>();
+        array.forEach(node -> values.add(node.get(field).asText()));
+        return values;
+    }
+
+    private static RhoarBooster copy(RhoarBooster booster, String key, Object value) {
+        Map<String, Object> data = new LinkedHashMap<>(booster.getData());
+        data.put(key, value);
+        RhoarBooster copy = new RhoarBooster(data, b -> CompletableFuture.completedFuture(null));
+        copy.setId(booster.getId());
+        copy.setMission(booster.getMission());
+        copy.setRuntime(booster.getRuntime());
+        copy.setVersion(booster.getVersion());
+        return copy;
+    }
+
+    private static class FakeCatalogFactory implements BoosterCatalogFactory, BoosterCatalogIndex {
+
+        private long generation = 1;
+
+        private List<RhoarBooster> boosters = new ArrayList<>();
+
+        void reset(List<RhoarBooster> next) {
+            boosters = next;
+            reset();
+        }
+
+        @Override
+        public void reset() {
+            generation++;
+        }
+
+        @Override
+        public RhoarBoosterCatalog getBoosterCatalog() {
+            return null;
+        }
+
+        @Override
+        public BoosterCatalogIndex getBoosterCatalogIndex() {
+            return this;
+        }
+
+        @Override
+        public String getCatalogRef() {
+            return "v42";
+        }
+
+        @Override
+        public long getGeneration() {
+            return generation;
+        }
+
+        @Override
+        public boolean isIndexed() {
+            return true;
+        }
+
+        @Override
+        public void waitForIndex() {
+        }
+
+        @Override
+        public Optional<Mission> getMission(String missionId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Runtime> getRuntime(String runtimeId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<RhoarBooster> getBooster(Mission mission, Runtime runtime, Version version) {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<RhoarBooster> getBoosters(String application, Map<String, List<String>> parameters) {
+            return boosters;
+        }
+
+        @Override
+        public List<RhoarBooster> search(String text, String application, Map<String, List<String>> parameters) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public int size() {
+            return boosters.size();
+        }
+    }
+}
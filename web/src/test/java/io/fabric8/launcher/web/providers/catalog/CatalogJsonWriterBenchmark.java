@@ -0,0 +1,70 @@
+package io.fabric8.launcher.web.providers.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import org.junit.Test;
+
+/**
+ * Compares the memory allocated and the time spent rendering the catalog with the javax.json builders against
+ * {@link CatalogJsonWriter}.
+ *
+ * Not picked up by the default surefire includes, run it with
+ * {@code mvn test -Dtest=CatalogJsonWriterBenchmark}
+ */
+public class CatalogJsonWriterBenchmark {
+
+    private static final int[] SIZES = {100, 1_000};
+
+    private static final int ITERATIONS = 20;
+
+    @Test
+    public void compareRendering() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int size : SIZES) {
+            List<RhoarBooster> boosters = CatalogJsonWriterTest.boosters(size);
+            Measure builders = measure(threads, () -> CatalogJsonWriterTest.renderWithBuilders(boosters));
+            Measure streaming = measure(threads, () -> {
+                try {
+                    CatalogJsonWriter.writeCatalog(boosters, new ByteArrayOutputStream());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            System.out.printf("%6d boosters: builders %,12d bytes %7d us/render, streaming %,12d bytes %7d us/render%n",
+                              size, builders.bytes, builders.micros, streaming.bytes, streaming.micros);
+        }
+    }
+
+    private static Measure measure(com.sun.management.ThreadMXBean threads, Runnable render) {
+        // Warm up
+        for (int i = 0; i < ITERATIONS; i++) {
+            render.run();
+        }
+        long thread = Thread.currentThread().getId();
+        long allocated = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            render.run();
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / ITERATIONS;
+        return new Measure((threads.getThreadAllocatedBytes(thread) - allocated) / ITERATIONS, micros);
+    }
+
+    private static final class Measure {
+
+        private final long bytes;
+
+        private final long micros;
+
+        private Measure(long bytes, long micros) {
+            this.bytes = bytes;
+            this.micros = micros;
+        }
+    }
+}
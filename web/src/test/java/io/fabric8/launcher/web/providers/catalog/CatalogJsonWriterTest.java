@@ -0,0 +1,237 @@
+package io.fabric8.launcher.web.providers.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonWriter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.fabric8.launcher.base.JsonUtils;
+import io.fabric8.launcher.booster.catalog.rhoar.Mission;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import io.fabric8.launcher.booster.catalog.rhoar.Runtime;
+import io.fabric8.launcher.booster.catalog.rhoar.Version;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static io.fabric8.launcher.base.JsonUtils.toJsonObjectBuilder;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.json.Json.createArrayBuilder;
+import static javax.json.Json.createObjectBuilder;
+
+public class CatalogJsonWriterTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Test
+    public void shouldWriteTheSameCatalogAsTheJsonBuilders() throws IOException {
+        // GIVEN
+        List<RhoarBooster> boosters = boosters(50);
+        // WHEN
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CatalogJsonWriter.writeCatalog(boosters, out);
+        // THEN
+        String expected = renderWithBuilders(boosters);
+        String actual = new String(out.toByteArray(), UTF_8);
+        softly.assertThat(JsonUtils.readTree(actual)).isEqualTo(JsonUtils.readTree(expected));
+        softly.assertThat(actual).doesNotContain("environment");
+        // Only the order of the booster data entries may differ
+        softly.assertThat(actual.substring(actual.indexOf("\"runtimes\""))).isEqualTo(expected.substring(expected.indexOf("\"runtimes\"")));
+    }
+
+    @Test
+    public void shouldWriteValuesLikeTheJsonBuilders() throws IOException {
+        // GIVEN
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("string", "Quotes \" backslashes \\ slashes / unicode é中😀");
+        values.put("control", "\b\t\n\f\r\u0000\u0001\u001f\u007f");
+        values.put("null", null);
+        values.put("boolean", true);
+        values.put("double", 1.0E10);
+        values.put("fraction", 0.1);
+        values.put("long", Long.MAX_VALUE);
+        values.put("integer", -42);
+        values.put("bigDecimal", new BigDecimal("1.50"));
+        values.put("other", new StringBuilder("to string"));
+        values.put("list", Arrays.asList("a", 1, Collections.singletonMap("nested", Collections.emptyList())));
+        values.put("map", Collections.singletonMap("key", Collections.singletonMap("deeper", false)));
+        // WHEN
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = CatalogJsonWriter.createGenerator(out)) {
+            CatalogJsonWriter.writeValue(generator, values);
+        }
+        // THEN
+        softly.assertThat(new String(out.toByteArray(), UTF_8)).isEqualTo(write(toJsonObjectBuilder(values).build()));
+    }
+
+    @Test
+    public void shouldWriteOnlyTheRequestedFields() throws IOException {
+        // GIVEN
+        Map<String, List<String>> parameters = new LinkedHashMap<>();
+        parameters.put("fields[boosters]", Arrays.asList("name,runtime", "mission"));
+        parameters.put("fields[runtimes]", Collections.singletonList("id,icon"));
+        parameters.put("fields[missions]", Collections.singletonList(""));
+        parameters.put("runtime", Collections.singletonList("ignored"));
+        // WHEN
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CatalogJsonWriter.writeCatalog(boosters(2), CatalogFields.parse(parameters), null, out);
+        // THEN
+        softly.assertThat(JsonUtils.readTree(new String(out.toByteArray(), UTF_8))).isEqualTo(JsonUtils.readTree("{\"boosters\":[" +
+                "{\"name\":\"Booster 0\",\"mission\":\"mission-0\",\"runtime\":\"runtime-0\"}," +
+                "{\"name\":\"Booster 1\",\"mission\":\"mission-1\",\"runtime\":\"runtime-0\"}]," +
+                "\"runtimes\":[{\"id\":\"runtime-0\",\"icon\":\"icon-0.svg\"}]}"));
+    }
+
+    @Test
+    public void shouldWriteTheFirstSearchResultsAndTheFacetsOfAll() throws IOException {
+        // GIVEN
+        List<RhoarBooster> hits = boosters(12);
+        // WHEN
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CatalogJsonWriter.writeSearchResults("booster", hits, 2, out);
+        // THEN
+        JsonNode json = JsonUtils.readTree(new String(out.toByteArray(), UTF_8));
+        softly.assertThat(json.get("query").asText()).isEqualTo("booster");
+        softly.assertThat(json.get("total").asInt()).isEqualTo(12);
+        softly.assertThat(json.get("boosters")).hasSize(2);
+        softly.assertThat(json.get("boosters").get(1).get("name").asText()).isEqualTo("Booster 1");
+        softly.assertThat(json.get("facets").get("missions").get("mission-0").asInt()).isEqualTo(2);
+        softly.assertThat(json.get("facets").get("runtimes").toString()).isEqualTo("{\"runtime-0\":10,\"runtime-1\":2}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectFieldsOfUnknownTypes() {
+        CatalogFields.parse(Collections.singletonMap("fields[versions]", Collections.singletonList("id")));
+    }
+
+    /**
+     * Renders the catalog the way the endpoint used to, building a javax.json tree first
+     */
+    static String renderWithBuilders(List<RhoarBooster> boosters) {
+        JsonObjectBuilder response = createObjectBuilder();
+        JsonArrayBuilder boosterArray = createArrayBuilder();
+        Set<Mission> missions = new TreeSet<>();
+        Map<Runtime, Set<Version>> runtimes = new TreeMap<>();
+        for (RhoarBooster b : boosters) {
+            Map<String, Object> data = b.getExportableData();
+            data.remove("environment");
+            boosterArray.add(toJsonObjectBuilder(data));
+            if (b.getMission() != null) {
+                missions.add(b.getMission());
+            }
+            if (b.getRuntime() != null) {
+                Set<Version> versions = runtimes.computeIfAbsent(b.getRuntime(), r -> new TreeSet<>());
+                if (b.getVersion() != null) {
+                    versions.add(b.getVersion());
+                }
+            }
+        }
+        response.add("boosters", boosterArray);
+        JsonArrayBuilder runtimeArray = createArrayBuilder();
+        for (Map.Entry<Runtime, Set<Version>> entry : runtimes.entrySet()) {
+            Runtime r = entry.getKey();
+            JsonObjectBuilder runtime = createObjectBuilder()
+                    .add("id", r.getId())
+                    .add("name", r.getName())
+                    .add("icon", r.getIcon());
+            if (r.getDescription() != null) {
+                runtime.add("description", r.getDescription());
+            }
+            if (!r.getMetadata().isEmpty()) {
+                runtime.add("metadata", toJsonObjectBuilder(r.getMetadata()));
+            }
+            JsonArrayBuilder versionArray = createArrayBuilder();
+            for (Version v : entry.getValue()) {
+                JsonObjectBuilder version = createObjectBuilder()
+                        .add("id", v.getId())
+                        .add("name", v.getName());
+                if (v.getDescription() != null) {
+                    version.add("description", v.getDescription());
+                }
+                if (!v.getMetadata().isEmpty()) {
+                    version.add("metadata", toJsonObjectBuilder(v.getMetadata()));
+                }
+                versionArray.add(version);
+            }
+            runtime.add("versions", versionArray);
+            runtimeArray.add(runtime);
+        }
+        response.add("runtimes", runtimeArray);
+        JsonArrayBuilder missionArray = createArrayBuilder();
+        for (Mission m : missions) {
+            JsonObjectBuilder mission = createObjectBuilder()
+                    .add("id", m.getId())
+                    .add("name", m.getName());
+            if (m.getDescription() != null) {
+                mission.add("description", m.getDescription());
+            }
+            if (!m.getMetadata().isEmpty()) {
+                mission.add("metadata", toJsonObjectBuilder(m.getMetadata()));
+            }
+            missionArray.add(mission);
+        }
+        response.add("missions", missionArray);
+        return write(response.build());
+    }
+
+    static List<RhoarBooster> boosters(int size) {
+        List<Mission> missions = new ArrayList<>();
+        List<Runtime> runtimes = new ArrayList<>();
+        List<Version> versions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Map<String, Object> metadata = new LinkedHashMap<>();
+            metadata.put("level", i);
+            metadata.put("suggested", i % 2 == 0);
+            missions.add(new Mission("mission-" + i, "Mission " + i, i % 3 == 0 ? null : "Mission \"" + i + "\"", metadata));
+            runtimes.add(new Runtime("runtime-" + i, "Runtime " + i, "The runtime " + i, Collections.emptyMap(), "icon-" + i + ".svg"));
+            versions.add(new Version("version-" + i, "Version " + i, null, Collections.singletonMap("community", i % 2 == 0)));
+        }
+        List<RhoarBooster> boosters = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("name", "Booster " + i);
+            data.put("description", "Booster\tnumber " + i + " é");
+            data.put("gitRepo", "https://github.com/booster/" + i);
+            data.put("gitRef", "master");
+            data.put("mission", "overridden");
+            data.put("buildProfile", i % 5 == 0 ? null : "openshift");
+            data.put("environment", Collections.singletonMap("production", Collections.singletonMap("gitRef", "v" + i)));
+            data.put("metadata", Collections.singletonMap("app", Collections.singletonMap("osio", Collections.singletonMap("enabled", i % 7 != 0))));
+            data.put("weight", i / 4.0);
+            data.put("tags", Arrays.asList("tag-" + (i % 3), "tag-" + (i % 4)));
+            RhoarBooster booster = new RhoarBooster(data, b -> CompletableFuture.completedFuture(null));
+            booster.setId("booster-" + i);
+            booster.setMission(missions.get(i % missions.size()));
+            booster.setRuntime(runtimes.get((i / missions.size()) % runtimes.size()));
+            booster.setVersion(versions.get((i / (missions.size() * runtimes.size())) % versions.size()));
+            boosters.add(booster);
+        }
+        return boosters;
+    }
+
+    private static String write(JsonObject object) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonWriter writer = Json.createWriter(out)) {
+            writer.writeObject(object);
+        }
+        return new String(out.toByteArray(), UTF_8);
+    }
+}
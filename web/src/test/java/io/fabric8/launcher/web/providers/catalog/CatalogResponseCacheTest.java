@@ -0,0 +1,134 @@
+package io.fabric8.launcher.web.providers.catalog;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBoosterCatalog;
+import io.fabric8.launcher.core.api.catalog.BoosterCatalogFactory;
+import io.fabric8.launcher.core.api.catalog.BoosterCatalogIndex;
+import io.fabric8.launcher.web.providers.catalog.CatalogResponseCache.RenderedCatalog;
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CatalogResponseCacheTest {
+
+    private final FakeCatalogFactory catalogFactory = new FakeCatalogFactory();
+
+    private final CatalogResponseCache cache = new CatalogResponseCache(catalogFactory, 2);
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @Test
+    public void shouldRenderOncePerParameters() {
+        // GIVEN
+        MultivaluedMap<String, String> parameters = new MultivaluedHashMap<>();
+        parameters.add("mission", "crud");
+        parameters.add("runtime", "vert.x");
+        MultivaluedMap<String, String> reordered = new MultivaluedHashMap<>();
+        reordered.add("runtime", "vert.x");
+        reordered.add("mission", "crud");
+
+        // WHEN
+        RenderedCatalog first = cache.get("launcher", parameters, this::render);
+        RenderedCatalog second = cache.get("launcher", reordered, this::render);
+
+        // THEN
+        assertThat(second).isSameAs(first);
+        assertThat(renders).hasValue(1);
+        assertThat(new String(first.getBytes(), UTF_8)).isEqualTo("{\"render\":1}");
+        assertThat(first.getGzippedBytes()).isNotEmpty();
+        assertThat(first.getEntityTag()).startsWith("v42-");
+    }
+
+    @Test
+    public void shouldInvalidateOnReset() {
+        // GIVEN
+        RenderedCatalog first = cache.get(null, new MultivaluedHashMap<>(), this::render);
+
+        // WHEN
+        catalogFactory.reset();
+        RenderedCatalog second = cache.get(null, new MultivaluedHashMap<>(), this::render);
+
+        // THEN
+        assertThat(renders).hasValue(2);
+        assertThat(second.getEntityTag()).isNotEqualTo(first.getEntityTag());
+        assertThat(cache.getStatistics()).containsEntry("invalidations", 1L).containsEntry("entries", 1);
+    }
+
+    @Test
+    public void shouldNotCacheWhileIndexing() {
+        // GIVEN
+        catalogFactory.indexed = false;
+
+        // WHEN
+        cache.get(null, new MultivaluedHashMap<>(), this::render);
+        cache.get(null, new MultivaluedHashMap<>(), this::render);
+
+        // THEN
+        assertThat(renders).hasValue(2);
+        assertThat(cache.getStatistics()).containsEntry("uncached", 2L).containsEntry("entries", 0);
+    }
+
+    @Test
+    public void shouldBoundTheNumberOfEntries() {
+        // WHEN
+        for (String app : new String[]{"a", "b", "c", "c"}) {
+            cache.get(app, new MultivaluedHashMap<>(), this::render);
+        }
+
+        // THEN
+        assertThat(renders).hasValue(4);
+        assertThat(cache.getStatistics()).containsEntry("entries", 2);
+    }
+
+    private void render(OutputStream out) throws IOException {
+        out.write(("{\"render\":" + renders.incrementAndGet() + "}").getBytes(UTF_8));
+    }
+
+    private static class FakeCatalogFactory implements BoosterCatalogFactory {
+
+        private long generation = 1;
+
+        private boolean indexed = true;
+
+        @Override
+        public void reset() {
+            generation++;
+        }
+
+        @Override
+        public RhoarBoosterCatalog getBoosterCatalog() {
+            return null;
+        }
+
+        @Override
+        public BoosterCatalogIndex getBoosterCatalogIndex() {
+            return null;
+        }
+
+        @Override
+        public String getCatalogRef() {
+            return "v42";
+        }
+
+        @Override
+        public long getGeneration() {
+            return generation;
+        }
+
+        @Override
+        public boolean isIndexed() {
+            return indexed;
+        }
+
+        @Override
+        public void waitForIndex() {
+        }
+    }
+}
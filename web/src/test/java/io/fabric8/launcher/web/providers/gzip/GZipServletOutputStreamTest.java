@@ -0,0 +1,154 @@
+package io.fabric8.launcher.web.providers.gzip;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GZipServletOutputStreamTest {
+
+    private final GZipCompression compression = new GZipCompression(6, 1024, "application/zip,image/*");
+
+    private final Map<String, String> headers = new HashMap<>();
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    @Test
+    public void shouldCompressLargeBodies() throws IOException {
+        // GIVEN
+        byte[] json = largeJson();
+
+        // WHEN
+        write("application/json", json);
+
+        // THEN
+        assertThat(headers).containsEntry("Content-Encoding", "gzip").containsEntry("Vary", "Accept-Encoding");
+        assertThat(gunzip(body.toByteArray())).isEqualTo(json);
+        assertThat(compression.getStatistics())
+                .containsEntry("compressedResponses", 1L)
+                .containsEntry("uncompressedBytes", (long) json.length)
+                .containsEntry("compressedBytes", (long) body.size());
+    }
+
+    @Test
+    public void shouldReuseDeflaters() throws IOException {
+        // WHEN
+        write("application/json", largeJson());
+        body.reset();
+        write("application/json", largeJson());
+
+        // THEN
+        assertThat(gunzip(body.toByteArray())).isEqualTo(largeJson());
+        assertThat(compression.getStatistics()).containsEntry("pooledDeflaters", 1);
+    }
+
+    @Test
+    public void shouldNotCompressAlreadyCompressedTypes() throws IOException {
+        // GIVEN
+        byte[] zip = largeJson();
+
+        // WHEN
+        write("application/zip", zip);
+
+        // THEN
+        assertThat(headers).doesNotContainKey("Content-Encoding");
+        assertThat(body.toByteArray()).isEqualTo(zip);
+        assertThat(compression.getStatistics()).containsEntry("uncompressedResponses", 1L);
+    }
+
+    @Test
+    public void shouldNotCompressSmallBodies() throws IOException {
+        // GIVEN
+        byte[] json = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+
+        // WHEN
+        write("application/json", json);
+
+        // THEN
+        assertThat(headers).doesNotContainKey("Content-Encoding").containsEntry("Content-Length", String.valueOf(json.length));
+        assertThat(body.toByteArray()).isEqualTo(json);
+    }
+
+    private void write(String contentType, byte[] contents) throws IOException {
+        headers.clear();
+        headers.put("Content-Type", contentType);
+        GZipServletResponseWrapper wrapper = new GZipServletResponseWrapper(response(), compression);
+        try (ServletOutputStream os = wrapper.getOutputStream()) {
+            // Write in chunks, like a JSON writer would
+            for (int i = 0; i < contents.length; i += 100) {
+                os.write(contents, i, Math.min(100, contents.length - i));
+            }
+        }
+    }
+
+    private HttpServletResponse response() {
+        ServletOutputStream output = new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+        };
+        return (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{HttpServletResponse.class},
+                                                            (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getOutputStream":
+                            return output;
+                        case "getContentType":
+                            return headers.get("Content-Type");
+                        case "getHeader":
+                            return headers.get(args[0]);
+                        case "setHeader":
+                        case "addHeader":
+                            headers.put((String) args[0], (String) args[1]);
+                            return null;
+                        case "setContentLengthLong":
+                            headers.put("Content-Length", String.valueOf(args[0]));
+                            return null;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private static byte[] largeJson() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 500; i++) {
+            sb.append("{\"id\":\"booster-").append(i).append("\",\"name\":\"Booster\"},");
+        }
+        return sb.append("{}]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gunzip(byte[] gzipped) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                baos.write(buffer, 0, read);
+            }
+        }
+        return baos.toByteArray();
+    }
+}
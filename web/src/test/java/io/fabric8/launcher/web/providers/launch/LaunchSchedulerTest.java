@@ -0,0 +1,84 @@
+package io.fabric8.launcher.web.providers.launch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class LaunchSchedulerTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Test
+    public void shouldQueueTheLaunchesOverTheLimit() {
+        // GIVEN
+        LaunchScheduler scheduler = new LaunchScheduler(1, 1, 10);
+        List<Integer> positions = new ArrayList<>();
+        LaunchScheduler.Ticket first = scheduler.schedule("alice", positions::add);
+        // WHEN
+        LaunchScheduler.Ticket second = scheduler.schedule("bob", positions::add);
+        LaunchScheduler.Ticket third = scheduler.schedule("carol", positions::add);
+        // THEN
+        softly.assertThat(first.getAdmission()).isDone();
+        softly.assertThat(second.getAdmission()).isNotDone();
+        softly.assertThat(third.getAdmission()).isNotDone();
+        softly.assertThat(positions).containsExactly(1, 2);
+        first.release();
+        softly.assertThat(second.getAdmission()).isDone();
+        softly.assertThat(third.getAdmission()).isNotDone();
+        softly.assertThat(positions).containsExactly(1, 2, 1);
+        softly.assertThat(scheduler.getStatistics())
+                .containsEntry("running", 1)
+                .containsEntry("waiting", 1)
+                .containsEntry("admitted", 2L)
+                .containsEntry("queued", 2L);
+    }
+
+    @Test
+    public void shouldLetTheOtherUsersGoFirstWhenAUserIsAtTheLimit() {
+        // GIVEN
+        LaunchScheduler scheduler = new LaunchScheduler(3, 1, 10);
+        LaunchScheduler.Ticket alice = scheduler.schedule("alice", position -> {
+        });
+        // WHEN
+        LaunchScheduler.Ticket aliceAgain = scheduler.schedule("alice", position -> {
+        });
+        LaunchScheduler.Ticket bob = scheduler.schedule("bob", position -> {
+        });
+        LaunchScheduler.Ticket anonymous = scheduler.schedule(null, position -> {
+        });
+        // THEN
+        softly.assertThat(aliceAgain.getAdmission()).isNotDone();
+        softly.assertThat(bob.getAdmission()).isDone();
+        softly.assertThat(anonymous.getAdmission()).isDone();
+        alice.release();
+        softly.assertThat(aliceAgain.getAdmission()).isDone();
+    }
+
+    @Test
+    public void shouldRejectTheLaunchesOnceTheQueueIsFull() {
+        // GIVEN
+        LaunchScheduler scheduler = new LaunchScheduler(1, 1, 1);
+        scheduler.schedule("alice", position -> {
+        });
+        LaunchScheduler.Ticket queued = scheduler.schedule("bob", position -> {
+        });
+        // WHEN
+        softly.assertThatThrownBy(() -> scheduler.schedule("carol", position -> {
+        }))
+                .isInstanceOf(LaunchQueueFullException.class)
+                .matches(e -> ((LaunchQueueFullException) e).getRetryAfterSeconds() > 0);
+        // THEN
+        queued.release();
+        queued.release();
+        softly.assertThat(scheduler.schedule("carol", position -> {
+        }).getAdmission()).isNotDone();
+        softly.assertThat(scheduler.getStatistics())
+                .containsEntry("rejected", 1L)
+                .containsEntry("running", 1)
+                .containsEntry("waiting", 1);
+    }
+}
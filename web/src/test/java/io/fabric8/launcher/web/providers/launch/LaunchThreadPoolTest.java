@@ -0,0 +1,93 @@
+package io.fabric8.launcher.web.providers.launch;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class LaunchThreadPoolTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Test
+    public void shouldQueueAndThenRejectTheTasksOverThePoolSize() throws Exception {
+        // GIVEN
+        LaunchThreadPool pool = new LaunchThreadPool(1);
+        pool.start(Executors.defaultThreadFactory());
+        ExecutorService executor = pool.getExecutor();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        try {
+            // WHEN
+            executor.execute(() -> {
+                running.countDown();
+                await(release);
+                done.countDown();
+            });
+            running.await(5, TimeUnit.SECONDS);
+            executor.execute(done::countDown);
+            // THEN
+            softly.assertThatThrownBy(() -> executor.execute(done::countDown)).isInstanceOf(RejectedExecutionException.class);
+            softly.assertThat(pool.getStatistics())
+                    .containsEntry("threads", 1)
+                    .containsEntry("activeThreads", 1)
+                    .containsEntry("queuedTasks", 1)
+                    .containsEntry("submitted", 2L)
+                    .containsEntry("rejected", 1L);
+            release.countDown();
+            softly.assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            pool.stop();
+        }
+    }
+
+    @Test
+    public void shouldRejectTheStepsWhenNoStepThreadIsIdle() throws Exception {
+        // GIVEN
+        LaunchThreadPool pool = new LaunchThreadPool(1);
+        pool.start(Executors.defaultThreadFactory());
+        ExecutorService launches = pool.getExecutor();
+        ExecutorService steps = pool.getStepExecutor();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        try {
+            // WHEN a step is busy and the launch pool is full
+            steps.execute(() -> {
+                running.countDown();
+                await(release);
+                done.countDown();
+            });
+            running.await(5, TimeUnit.SECONDS);
+            launches.execute(() -> {
+                await(release);
+                done.countDown();
+            });
+            // THEN another step is not queued behind them
+            softly.assertThatThrownBy(() -> steps.execute(() -> {
+            })).isInstanceOf(RejectedExecutionException.class);
+            softly.assertThat(pool.getStatistics())
+                    .containsEntry("activeStepThreads", 1)
+                    .containsEntry("stepsRunInline", 1L);
+            release.countDown();
+            softly.assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            pool.stop();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package io.fabric8.launcher.web.providers.zip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.fabric8.launcher.booster.catalog.rhoar.Mission;
+import io.fabric8.launcher.booster.catalog.rhoar.Runtime;
+import io.fabric8.launcher.booster.catalog.rhoar.Version;
+import io.fabric8.launcher.core.api.projectiles.context.ZipProjectileContext;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ZipArchiveCacheTest {
+
+    @Test
+    public void shouldBuildOnceAndServeFromCache() throws IOException {
+        // GIVEN
+        ZipArchiveCache cache = new ZipArchiveCache(() -> "master:0:0", true, 1024, 1024);
+        AtomicInteger builds = new AtomicInteger();
+
+        // WHEN
+        ZipArchive first = cache.get(context("rest-http", "demo"), os -> {
+            builds.incrementAndGet();
+            os.write(new byte[]{1, 2, 3});
+        });
+        ZipArchive second = cache.get(context("rest-http", "demo"), os -> builds.incrementAndGet());
+
+        // THEN
+        assertThat(builds).hasValue(1);
+        assertThat(second).isSameAs(first);
+        assertThat(contentsOf(second)).containsExactly(1, 2, 3);
+        assertThat(cache.getStatistics()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    public void shouldInvalidateWhenScopeChanges() throws IOException {
+        // GIVEN
+        AtomicReference<String> scope = new AtomicReference<>("master:0:0");
+        ZipArchiveCache cache = new ZipArchiveCache(scope::get, true, 1024, 1024);
+        AtomicInteger builds = new AtomicInteger();
+        cache.get(context("rest-http", "demo"), os -> builds.incrementAndGet());
+
+        // WHEN
+        scope.set("master:1:0");
+        cache.get(context("rest-http", "demo"), os -> builds.incrementAndGet());
+
+        // THEN
+        assertThat(builds).hasValue(2);
+        assertThat(cache.getStatistics()).containsEntry("entries", 1);
+    }
+
+    @Test
+    public void shouldSpillToDiskAndEvictLeastRecentlyUsed() throws IOException {
+        // GIVEN
+        ZipArchiveCache cache = new ZipArchiveCache(() -> "master:0:0", true, 10, 10);
+
+        // WHEN
+        ZipArchive first = cache.get(context("rest-http", "first"), os -> os.write(new byte[8]));
+        cache.get(context("rest-http", "second"), os -> os.write(new byte[8]));
+        cache.get(context("rest-http", "third"), os -> os.write(new byte[8]));
+
+        // THEN
+        assertThat(cache.getStatistics())
+                .containsEntry("spills", 2L)
+                .containsEntry("evictions", 1L)
+                .containsEntry("memoryBytes", 8L)
+                .containsEntry("diskBytes", 8L);
+        // Archives already handed out must stay readable
+        assertThat(contentsOf(first)).hasSize(8);
+        cache.destroy();
+    }
+
+    @Test
+    public void shouldBuildLargeArchivesOnDisk() throws IOException {
+        // GIVEN
+        ZipArchiveCache cache = new ZipArchiveCache(() -> "master:0:0", true, 4, 1024);
+
+        // WHEN
+        ZipArchive archive = cache.get(context("rest-http", "demo"), os -> os.write(new byte[8]));
+
+        // THEN
+        assertThat(archive.isInMemory()).isFalse();
+        assertThat(contentsOf(archive)).hasSize(8);
+        assertThat(cache.getStatistics())
+                .containsEntry("spills", 0L)
+                .containsEntry("memoryBytes", 0L)
+                .containsEntry("diskBytes", 8L);
+        archive.close();
+        cache.destroy();
+    }
+
+    @Test
+    public void shouldKeepEvictedArchivesUntilTheirReadersAreDone() throws IOException {
+        // GIVEN
+        ZipArchiveCache cache = new ZipArchiveCache(() -> "master:0:0", true, 4, 1024);
+        ZipArchive archive = cache.get(context("rest-http", "demo"), os -> os.write(new byte[8]));
+
+        // WHEN
+        cache.invalidateAll();
+
+        // THEN
+        assertThat(archive.getFile()).exists();
+        assertThat(contentsOf(archive)).hasSize(8);
+        archive.close();
+        assertThat(archive.getFile()).doesNotExist();
+        cache.destroy();
+    }
+
+    @Test
+    public void shouldNotKeepArchivesTooLargeForTheCache() throws IOException {
+        // GIVEN
+        ZipArchiveCache cache = new ZipArchiveCache(() -> "master:0:0", true, 4, 4);
+
+        // WHEN
+        ZipArchive archive = cache.get(context("rest-http", "demo"), os -> os.write(new byte[8]));
+
+        // THEN
+        assertThat(cache.getStatistics()).containsEntry("entries", 0);
+        assertThat(contentsOf(archive)).hasSize(8);
+        archive.close();
+        assertThat(archive.getFile()).doesNotExist();
+        cache.destroy();
+    }
+
+    @Test
+    public void shouldShareConcurrentBuilds() throws Exception {
+        // GIVEN
+        ZipArchiveCache cache = new ZipArchiveCache(() -> "master:0:0", true, 1024, 1024);
+        AtomicInteger builds = new AtomicInteger();
+        CountDownLatch building = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // WHEN
+            Future<ZipArchive> first = executor.submit(() -> cache.get(context("rest-http", "demo"), os -> {
+                builds.incrementAndGet();
+                building.countDown();
+                release.join();
+                os.write(1);
+            }));
+            building.await();
+            Future<ZipArchive> second = executor.submit(() -> cache.get(context("rest-http", "demo"), os -> builds.incrementAndGet()));
+            while (cache.getStatistics().get("coalesced").equals(0L)) {
+                Thread.sleep(10);
+            }
+            release.complete(null);
+
+            // THEN
+            assertThat(second.get()).isSameAs(first.get());
+            assertThat(builds).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldProduceDifferentKeysForDifferentCoordinates() {
+        assertThat(ZipArchiveCache.key("master", context("rest-http", "a")))
+                .isNotEqualTo(ZipArchiveCache.key("master", context("rest-http", "b")))
+                .isNotEqualTo(ZipArchiveCache.key("v1", context("rest-http", "a")))
+                .isEqualTo(ZipArchiveCache.key("master", context("rest-http", "a")));
+    }
+
+    private static byte[] contentsOf(ZipArchive archive) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        archive.writeTo(baos);
+        return baos.toByteArray();
+    }
+
+    private static ZipProjectileContext context(String mission, String artifactId) {
+        return new ZipProjectileContext() {
+            @Override
+            public Mission getMission() {
+                return new Mission(mission);
+            }
+
+            @Override
+            public Runtime getRuntime() {
+                return new Runtime("vert.x");
+            }
+
+            @Override
+            public Version getRuntimeVersion() {
+                return null;
+            }
+
+            @Override
+            public String getGroupId() {
+                return "io.openshift.booster";
+            }
+
+            @Override
+            public String getArtifactId() {
+                return artifactId;
+            }
+
+            @Override
+            public String getProjectVersion() {
+                return "1.0.0";
+            }
+
+            @Override
+            public String getProjectName() {
+                return null;
+            }
+        };
+    }
+}
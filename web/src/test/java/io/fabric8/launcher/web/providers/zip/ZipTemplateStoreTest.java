@@ -0,0 +1,157 @@
+package io.fabric8.launcher.web.providers.zip;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.launcher.base.zip.ZipTemplate;
+import io.fabric8.launcher.booster.catalog.rhoar.Mission;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBooster;
+import io.fabric8.launcher.booster.catalog.rhoar.RhoarBoosterCatalog;
+import io.fabric8.launcher.booster.catalog.rhoar.Runtime;
+import io.fabric8.launcher.booster.catalog.rhoar.Version;
+import io.fabric8.launcher.core.api.catalog.BoosterCatalogIndex;
+import io.fabric8.launcher.core.api.catalog.CatalogIndexedEvent;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ZipTemplateStoreTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @After
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void shouldDropTheLeastRecentlyUsedTemplatesBeyondTheMaximumSize() throws IOException {
+        // GIVEN
+        ZipTemplateStore store = new ZipTemplateStore(null, true, pool, 0, 3 * 1024);
+        Path first = booster(1024);
+        Path second = booster(1024);
+        Path third = booster(1024);
+        ZipTemplate firstTemplate = store.getTemplate(first);
+        store.getTemplate(second);
+        // WHEN
+        softly.assertThat(store.getTemplate(first)).isSameAs(firstTemplate);
+        store.getTemplate(third);
+        // THEN
+        softly.assertThat(store.getTemplate(first)).isSameAs(firstTemplate);
+        softly.assertThat(store.getStatistics())
+                .containsEntry("templates", 2)
+                .containsEntry("evictions", 1L);
+        softly.assertThat((Long) store.getStatistics().get("templateBytes")).isLessThanOrEqualTo(3 * 1024L);
+    }
+
+    @Test
+    public void shouldNotKeepTemplatesTooLargeForTheStore() throws IOException {
+        // GIVEN
+        ZipTemplateStore store = new ZipTemplateStore(null, true, pool, 0, 1024);
+        Path booster = booster(4 * 1024);
+        // WHEN
+        ZipTemplate template = store.getTemplate(booster);
+        // THEN
+        softly.assertThat(template).isNotNull();
+        softly.assertThat(store.getTemplate(booster)).isNotSameAs(template);
+        softly.assertThat(store.getStatistics())
+                .containsEntry("templates", 0)
+                .containsEntry("templateBytes", 0L);
+    }
+
+    @Test
+    public void shouldBuildTheTemplatesOfTheFetchedBoostersOnceTheCatalogIsIndexed() throws IOException {
+        // GIVEN
+        ZipTemplateStore store = new ZipTemplateStore(null, true, pool, 0, 64 * 1024);
+        Path first = booster(1024);
+        Path second = booster(1024);
+        Path unfetched = temporaryFolder.getRoot().toPath().resolve("unfetched");
+        List<RhoarBooster> boosters = Arrays.asList(fetched(first), fetched(second), fetched(unfetched));
+        // WHEN
+        store.onIndexed(new CatalogIndexedEvent(1, new FakeIndex(boosters)));
+        pool.awaitQuiescence(10, TimeUnit.SECONDS);
+        // THEN
+        softly.assertThat(store.getStatistics())
+                .containsEntry("templates", 2)
+                .containsEntry("prebuiltTemplates", 2L);
+        softly.assertThat(store.getTemplate(first)).isNotNull();
+        softly.assertThat(store.getTemplate(unfetched)).isNull();
+    }
+
+    private static RhoarBooster fetched(Path contentPath) {
+        RhoarBooster booster = new RhoarBooster(Collections.emptyMap(), b -> CompletableFuture.completedFuture(contentPath));
+        booster.setContentPath(contentPath);
+        return booster;
+    }
+
+    private Path booster(int size) throws IOException {
+        Path booster = temporaryFolder.newFolder().toPath();
+        // Random bytes do not deflate, the template is about as large as the file
+        byte[] contents = new byte[size];
+        new Random(size).nextBytes(contents);
+        Files.write(booster.resolve("App.java"), contents);
+        return booster;
+    }
+
+    private static class FakeIndex implements BoosterCatalogIndex {
+
+        private final List<RhoarBooster> boosters;
+
+        FakeIndex(List<RhoarBooster> boosters) {
+            this.boosters = boosters;
+        }
+
+        @Override
+        public RhoarBoosterCatalog getBoosterCatalog() {
+            return null;
+        }
+
+        @Override
+        public Optional<Mission> getMission(String missionId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Runtime> getRuntime(String runtimeId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<RhoarBooster> getBooster(Mission mission, Runtime runtime, Version version) {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<RhoarBooster> getBoosters(String application, Map<String, List<String>> parameters) {
+            return boosters;
+        }
+
+        @Override
+        public List<RhoarBooster> search(String text, String application, Map<String, List<String>> parameters) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public int size() {
+            return boosters.size();
+        }
+    }
+}